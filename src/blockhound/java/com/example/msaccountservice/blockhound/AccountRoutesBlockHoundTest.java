@@ -0,0 +1,134 @@
+package com.example.msaccountservice.blockhound;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Recorre las rutas de cuentas, transferencias y tarjetas de débito sobre un servidor real, de modo
+// que filtros, controladores y repositorio en memoria se ejecutan en los hilos de reactor-netty.
+// Solo se compila con -Pblockhound: cualquier llamada bloqueante en esos hilos hace fallar la petición.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.config.import=optional:configserver:",
+        "eureka.client.enabled=false",
+        "spring.rsocket.server.port=0"
+})
+@ActiveProfiles("inmemory")
+class AccountRoutesBlockHoundTest {
+
+    private final Map<String, String> customers = new ConcurrentHashMap<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // Comprueba que el agente está activo: sin él los demás tests pasarían aunque bloquearan
+    @Test
+    void blockHoundIsInstalled() {
+        Mono<Boolean> sleep = Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return true;
+        }).subscribeOn(Schedulers.parallel());
+        Throwable error = assertThrows(Throwable.class, sleep::block);
+        assertTrue(Exceptions.unwrap(error) instanceof BlockingOperationError, error.toString());
+    }
+
+    @Test
+    void accountRoutesDoNotBlock() {
+        String customerId = customerId();
+        String accountId = createSavings(customerId, 500);
+
+        post("/api/accounts/" + accountId + "/deposit", Map.of("amount", 50))
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo(550.0);
+        post("/api/accounts/" + accountId + "/withdraw", Map.of("amount", 20))
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo(530.0);
+        post("/api/accounts/" + accountId + "/withdraw", Map.of("amount", 10_000))
+                .expectStatus().isBadRequest();
+        post("/api/accounts/checking", Map.of("customerId", customerId, "balance", 100, "maintenanceFee", 5))
+                .expectStatus().is2xxSuccessful();
+        // El primer error de validación carga los mensajes de Hibernate Validator en el event loop
+        post("/api/accounts/savings", Map.of("customerId", customerId, "balance", 0))
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/api/accounts/customer/{customerId}", customerId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/accounts/customer/{customerId}/average-balance", customerId)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void transferRouteDoesNotBlock() {
+        String source = createSavings(customerId(), 300);
+        String destination = createSavings(customerId(), 1);
+
+        post("/api/accounts/transfer", Map.of(
+                "sourceAccountId", source, "destinationAccountId", destination, "amount", 120))
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/accounts/customer/{customerId}", customerOf(destination))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].balance").isEqualTo(121.0);
+    }
+
+    @Test
+    void debitCardRoutesDoNotBlock() {
+        String customerId = customerId();
+        String primary = createSavings(customerId, 10);
+        String secondary = createSavings(customerId, 200);
+        String cardNumber = "4000" + Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000_000_000L);
+
+        post("/api/debit-cards", Map.of("cardNumber", cardNumber, "customerId", customerId,
+                "primaryAccountId", primary, "secondaryAccountIds", List.of(secondary)))
+                .expectStatus().isCreated();
+        // La principal no tiene saldo: paga la secundaria
+        post("/api/debit-cards/payment", Map.of("cardNumber", cardNumber, "amount", 50))
+                .expectStatus().isOk()
+                .expectBody(Boolean.class).isEqualTo(true);
+        post("/api/debit-cards/payment", Map.of("cardNumber", cardNumber, "amount", 10_000))
+                .expectStatus().isBadRequest();
+    }
+
+    private WebTestClient.ResponseSpec post(String uri, Object body) {
+        return webTestClient.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+
+    private String createSavings(String customerId, int balance) {
+        Map<?, ?> account = post("/api/accounts/savings", Map.of("customerId", customerId, "balance", balance,
+                "customerProfile", "REGULAR", "monthlyTransactionLimit", 10, "hasRequiredCreditCard", false))
+                .expectStatus().is2xxSuccessful()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        customers.put(String.valueOf(account.get("id")), customerId);
+        return String.valueOf(account.get("id"));
+    }
+
+    private String customerOf(String accountId) {
+        return customers.get(accountId);
+    }
+
+    private static String customerId() {
+        return "blockhound-" + UUID.randomUUID();
+    }
+}
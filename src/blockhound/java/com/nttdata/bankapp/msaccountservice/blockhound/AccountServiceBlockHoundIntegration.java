@@ -0,0 +1,22 @@
+package com.nttdata.bankapp.msaccountservice.blockhound;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Llamadas bloqueantes conocidas y acotadas que se permiten en los hilos no bloqueantes al
+ * ejecutar los tests con el perfil blockhound. Cualquier otra hace fallar el test que la provoca.
+ */
+public class AccountServiceBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder
+                // UUID.randomUUID lee /dev/urandom la primera vez que se inicializa SecureRandom
+                .allowBlockingCallsInside("java.util.UUID", "randomUUID")
+                // Hibernate Validator lee ValidationMessages.properties del jar con el primer error de
+                // validación y lo guarda en caché; las siguientes interpolaciones no tocan disco
+                .allowBlockingCallsInside("org.hibernate.validator.resourceloading.PlatformResourceBundleLocator",
+                        "loadBundle");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.msaccountservice.service.impl;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del historial de saldos diarios: formateo de la clave y promedio del reporte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountReportBenchmark {
+
+    @Param({"30", "365", "3650"})
+    private int dailyBalanceEntries;
+
+    private AccountServiceImpl service;
+    private Map<String, Money> dailyBalances;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        service = new AccountServiceImpl(null, null, null, null, null);
+        now = LocalDateTime.now();
+
+        dailyBalances = new HashMap<>();
+        LocalDateTime day = now.minusDays(dailyBalanceEntries);
+        for (int i = 0; i < dailyBalanceEntries; i++) {
+            long cents = ThreadLocalRandom.current().nextLong(0, 10_000_000);
+            dailyBalances.put(service.formatDateTime(day.plusDays(i)), Money.ofMinor(cents));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatDateTime() {
+        return service.formatDateTime(now);
+    }
+
+    @Benchmark
+    public Money averageDailyBalance() {
+        return AccountServiceImpl.averageDailyBalance(dailyBalances);
+    }
+}
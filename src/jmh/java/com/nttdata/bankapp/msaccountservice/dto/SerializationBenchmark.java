@@ -0,0 +1,114 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.model.enums.CustomerProfile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de serialización JSON de AccountDto y del Account expuesto por /api/accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AccountDto accountDto;
+    private Account account;
+    private byte[] accountDtoJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        accountDto = AccountDto.builder()
+                .id("64f1c2a9e4b0a1b2c3d4e5f6")
+                .accountNumber("ACC-1A2B3C4D")
+                .type(com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS)
+                .customerId("customer-1")
+                .customerType(CustomerType.PERSONAL)
+                .customerProfile(com.nttdata.bankapp.msaccountservice.model.CustomerProfile.VIP)
+                .balance(new BigDecimal("1500.00"))
+                .initialBalance(new BigDecimal("1000.00"))
+                .minimumOpeningAmount(BigDecimal.ZERO)
+                .minimumDailyBalance(new BigDecimal("500.00"))
+                .maxFreeTransactions(10)
+                .transactionFee(new BigDecimal("2.00"))
+                .currentMonthlyTransactions(4)
+                .maxMonthlyMovements(20)
+                .currentMonthlyMovements(3)
+                .withdrawalDay(LocalDate.now().withDayOfMonth(1))
+                .holders(Arrays.asList("holder-1", "holder-2"))
+                .signatories(Arrays.asList("signer-1"))
+                .maintenanceFee(false)
+                .build();
+        accountDtoJson = objectMapper.writeValueAsBytes(accountDto);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+        Map<String, Money> dailyBalances = new HashMap<>();
+        LocalDateTime day = LocalDateTime.now().minusDays(30);
+        for (int i = 0; i < 30; i++) {
+            dailyBalances.put(day.plusDays(i).format(formatter), Money.ofMinor(150_000L + i));
+        }
+
+        account = new Account();
+        account.setId("64f1c2a9e4b0a1b2c3d4e5f7");
+        account.setAccountType(AccountType.SAVINGS);
+        account.setCustomerProfile(CustomerProfile.VIP);
+        account.setCustomerId("customer-1");
+        account.setBalance(Money.parse("1500.00"));
+        account.setMonthlyTransactionLimit(20);
+        account.setTransactionsPerformed(4);
+        account.setMinimumDailyBalance(Money.parse("1000"));
+        account.setTransactionCommission(Money.parse("1.0"));
+        account.setHasRequiredCreditCard(true);
+        account.setDailyBalances(dailyBalances);
+    }
+
+    @Benchmark
+    public byte[] serializeAccountDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountDto);
+    }
+
+    @Benchmark
+    public AccountDto deserializeAccountDto() throws IOException {
+        return objectMapper.readValue(accountDtoJson, AccountDto.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeAccountWithDailyBalances() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asignación de números de cuenta con bloques hi/lo frente al UUID anterior, con 8 hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class AccountNumberAllocatorBenchmark {
+
+    @Param({"100", "1000"})
+    private int blockSize;
+
+    private AccountNumberAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        AccountNumberProperties properties = new AccountNumberProperties();
+        properties.setBlockSize(blockSize);
+        allocator = new AccountNumberAllocator(new InMemorySequenceBlockSource(), properties);
+    }
+
+    @Benchmark
+    public String blockAllocator() {
+        return allocator.nextAccountNumber().block();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return "ACC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,144 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEvent;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de los caminos calientes de AccountServiceImpl: mapeos y operaciones de saldo
+ * sobre el repositorio en memoria, sin E/S.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    @Param({"SAVINGS", "CHECKING", "FIXED_TERM"})
+    private AccountType type;
+
+    private AccountServiceImpl service;
+    private Account account;
+    private AccountDto accountDto;
+    private BigDecimal amount;
+    private BigDecimal fee;
+    private boolean deposit;
+
+    @Setup
+    public void setUp() {
+        // Repositorio en memoria sin latencia; las comisiones no se guardan para que la memoria no crezca
+        InMemoryAccountRepository repository = new InMemoryAccountRepository(Duration.ZERO);
+        CommissionEventStore commissions = new CommissionEventStore() {
+            @Override
+            public Mono<Void> record(CommissionEvent event) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<Map<String, BigDecimal>> totalsByAccount(String customerId, LocalDateTime from, LocalDateTime to) {
+                return Mono.just(Map.of());
+            }
+        };
+        service = new AccountServiceImpl(repository, null, null, null, null,
+                new BalanceEventPublisher(new BalanceEventsProperties()), commissions, new RejectionMetrics());
+
+        account = Account.builder()
+                .id("64f1c2a9e4b0a1b2c3d4e5f6")
+                .accountNumber("ACC-1A2B3C4D")
+                .type(type)
+                .customerId("customer-1")
+                .customerType(CustomerType.PERSONAL)
+                .customerProfile(CustomerProfile.VIP)
+                .initialBalance(Money.parse("1500.00"))
+                .balance(Money.parse("1500.00"))
+                .minimumOpeningAmount(Money.ZERO)
+                .minimumDailyBalance(Money.parse("500.00"))
+                .maxFreeTransactions(10)
+                .transactionFee(Money.parse("2.00"))
+                .currentMonthlyTransactions(4)
+                .lastTransactionCountResetDate(LocalDate.now().withDayOfMonth(1))
+                .maxMonthlyMovements(Integer.MAX_VALUE) // Sin límite: cada invocación suma un movimiento
+                .currentMonthlyMovements(3)
+                .withdrawalDay(LocalDate.now()) // Las de plazo fijo solo operan en su día de retiro
+                .holders(Arrays.asList("holder-1", "holder-2"))
+                .signatories(Arrays.asList("signer-1"))
+                .maintenanceFee(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        repository.save(account).block();
+        accountDto = service.mapToDto(account);
+        amount = new BigDecimal("125.50");
+        fee = new BigDecimal("2.00");
+    }
+
+    @Benchmark
+    public AccountDto mapToDto() {
+        return service.mapToDto(account);
+    }
+
+    @Benchmark
+    public Account mapToEntity() {
+        return service.mapToEntity(accountDto);
+    }
+
+    @Benchmark
+    public Account setDefaultValuesBasedOnTypeAndProfile() {
+        Account fresh = service.mapToEntity(accountDto);
+        service.setDefaultValuesBasedOnTypeAndProfile(fresh);
+        return fresh;
+    }
+
+    /**
+     * updateBalance completo sobre el repositorio en memoria: lectura, reglas de la cuenta,
+     * aritmética de Money, guardado y publicación del evento. Alterna depósito y retiro para
+     * que el saldo no varíe entre invocaciones.
+     */
+    @Benchmark
+    public AccountDto updateBalance() {
+        deposit = !deposit;
+        return service.updateBalance(account.getId(), deposit ? amount : amount.negate()).block();
+    }
+
+    /**
+     * Depósito seguido del cobro de comisión de incrementTransactionCount, la secuencia que
+     * ejecuta el servicio de transacciones al superar las transacciones gratuitas.
+     */
+    @Benchmark
+    public AccountDto updateBalanceAndChargeFee() {
+        service.updateBalance(account.getId(), fee).block();
+        return service.incrementTransactionCount(account.getId(), fee).block();
+    }
+}
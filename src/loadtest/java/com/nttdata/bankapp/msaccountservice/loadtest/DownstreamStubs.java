@@ -0,0 +1,42 @@
+package com.nttdata.bankapp.msaccountservice.loadtest;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Servidor local que simula ms-customer y ms-credit-card.
+ * Todos los clientes son personales con perfil REGULAR y todos tienen tarjeta de crédito.
+ */
+public class DownstreamStubs implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    public DownstreamStubs() {
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/customers/{id}", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just(customerJson(request.param("id")))))
+                        .get("/credit-cards/customer/{customerId}/exists", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(Mono.just("true"))))
+                .bindNow();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static String customerJson(String id) {
+        return "{\"id\":\"" + id + "\",\"documentNumber\":\"" + id + "\","
+                + "\"type\":\"PERSONAL\",\"profile\":\"REGULAR\",\"firstName\":\"Load\",\"lastName\":\"Test\"}";
+    }
+}
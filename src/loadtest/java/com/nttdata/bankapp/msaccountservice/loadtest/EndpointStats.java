@@ -0,0 +1,74 @@
+package com.nttdata.bankapp.msaccountservice.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y contadores de un endpoint durante la prueba.
+ */
+public class EndpointStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String endpoint;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Registra una petición completada.
+     * @param elapsedNanos latencia en nanosegundos
+     * @param status código HTTP, o 0 si la petición no obtuvo respuesta
+     */
+    public void record(long elapsedNanos, int status) {
+        latencies.recordValue(Math.min(elapsedNanos, MAX_TRACKABLE_NANOS));
+        if (status >= 200 && status < 300) {
+            successes.increment();
+        } else if (status >= 400 && status < 500) {
+            rejections.increment();
+        } else {
+            failures.increment();
+        }
+    }
+
+    public void reset() {
+        latencies.reset();
+        successes.reset();
+        rejections.reset();
+        failures.reset();
+    }
+
+    public static void printHeader(PrintStream out) {
+        out.printf("%-55s %9s %10s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    public void print(PrintStream out, Duration elapsed) {
+        long total = latencies.getTotalCount();
+        out.printf("%-55s %9d %10.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                total,
+                total / (elapsed.toMillis() / 1000.0),
+                rejections.sum(),
+                failures.sum(),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
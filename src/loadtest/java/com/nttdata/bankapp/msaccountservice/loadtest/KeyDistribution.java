@@ -0,0 +1,52 @@
+package com.nttdata.bankapp.msaccountservice.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribución de acceso a las cuentas: uniforme o Zipf (cuentas "calientes").
+ */
+public abstract class KeyDistribution {
+
+    /**
+     * Siguiente índice de cuenta.
+     * @return índice entre 0 y size - 1
+     */
+    public abstract int next();
+
+    public static KeyDistribution uniform(int size) {
+        return new KeyDistribution() {
+            @Override
+            public int next() {
+                return ThreadLocalRandom.current().nextInt(size);
+            }
+        };
+    }
+
+    /**
+     * Distribución Zipf: la cuenta de rango k se elige con probabilidad proporcional a 1 / k^exponent.
+     * @param size número de cuentas
+     * @param exponent sesgo; 0 equivale a uniforme, ~1 es el típico de tráfico real
+     * @return distribución
+     */
+    public static KeyDistribution zipf(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            total += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+
+        return new KeyDistribution() {
+            @Override
+            public int next() {
+                int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+                int position = index >= 0 ? index : -index - 1;
+                return Math.min(position, size - 1);
+            }
+        };
+    }
+}
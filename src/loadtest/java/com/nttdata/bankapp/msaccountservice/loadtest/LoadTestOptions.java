@@ -0,0 +1,139 @@
+package com.nttdata.bankapp.msaccountservice.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opciones de la prueba de carga, leídas de argumentos --clave=valor.
+ * <ul>
+ *   <li>--duration=60s duración de la medición (también warmup=10s)</li>
+ *   <li>--concurrency=64 peticiones en vuelo simultáneas</li>
+ *   <li>--accounts=1000 cuentas precargadas en cada aplicación</li>
+ *   <li>--mix=open:5,balance:40,transfer:20,payment:25,report:10 pesos por endpoint</li>
+ *   <li>--skew=uniform | zipf:1.1 distribución de acceso a las cuentas</li>
+ *   <li>--latency=0ms latencia simulada del repositorio en memoria</li>
+ *   <li>--log-level=WARN nivel de log raíz de las aplicaciones</li>
+ * </ul>
+ */
+@Data
+public class LoadTestOptions {
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int concurrency = 64;
+    private int accounts = 1000;
+    private Map<Operation, Integer> mix = defaultMix();
+    private String skew = "uniform";
+    private Duration latency = Duration.ZERO;
+    private String logLevel = "WARN";
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "duration":
+                    options.setDuration(parseDuration(value));
+                    break;
+                case "warmup":
+                    options.setWarmup(parseDuration(value));
+                    break;
+                case "concurrency":
+                    options.setConcurrency(Integer.parseInt(value));
+                    break;
+                case "accounts":
+                    options.setAccounts(Integer.parseInt(value));
+                    break;
+                case "mix":
+                    options.setMix(parseMix(value));
+                    break;
+                case "skew":
+                    options.setSkew(value);
+                    break;
+                case "latency":
+                    options.setLatency(parseDuration(value));
+                    break;
+                case "log-level":
+                    options.setLogLevel(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Crea el selector de cuentas según la opción --skew.
+     * @param size número de cuentas
+     * @return selector de índices entre 0 y size - 1
+     */
+    public KeyDistribution keyDistribution(int size) {
+        if ("uniform".equalsIgnoreCase(skew)) {
+            return KeyDistribution.uniform(size);
+        }
+        if (skew.toLowerCase().startsWith("zipf:")) {
+            return KeyDistribution.zipf(size, Double.parseDouble(skew.substring("zipf:".length())));
+        }
+        throw new IllegalArgumentException("Unknown skew: " + skew);
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.OPEN, 5);
+        mix.put(Operation.BALANCE, 40);
+        mix.put(Operation.TRANSFER, 20);
+        mix.put(Operation.PAYMENT, 25);
+        mix.put(Operation.REPORT, 10);
+        return mix;
+    }
+
+    /**
+     * Operaciones que genera la prueba.
+     */
+    public enum Operation {
+        OPEN("POST /accounts"),
+        BALANCE("PUT /accounts/{id}/balance"),
+        TRANSFER("POST /api/accounts/transfer"),
+        PAYMENT("POST /api/debit-cards/payment"),
+        REPORT("GET /api/accounts/customer/{customerId}/average-balance");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.nttdata.bankapp.msaccountservice.loadtest;
+
+import com.nttdata.bankapp.msaccountservice.loadtest.LoadTestOptions.Operation;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de extremo a extremo contra los endpoints WebFlux reales.
+ * Levanta en el mismo proceso las dos aplicaciones con el perfil inmemory y
+ * los servicios de clientes y tarjetas simulados, precarga cuentas y genera
+ * carga en bucle cerrado con la concurrencia, mezcla y sesgo indicados.
+ *
+ * <p>Uso: mvn -Ploadtest test -Dloadtest.args="--duration=60s --concurrency=128 --skew=zipf:1.1"</p>
+ */
+public final class LoadTestRunner {
+
+    private static final int SEED_CONCURRENCY = 32;
+
+    private final LoadTestOptions options;
+    private final WebClient accountsClient;
+    private final WebClient cardsClient;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong newCustomers = new AtomicLong();
+
+    private List<String> checkingAccountIds;
+    private List<String> savingsAccountIds;
+    private KeyDistribution accountKeys;
+
+    private LoadTestRunner(LoadTestOptions options, int accountsPort, int cardsPort) {
+        this.options = options;
+
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.builder("loadtest")
+                .maxConnections(options.getConcurrency() * 2)
+                .pendingAcquireMaxCount(-1)
+                .build());
+        WebClient.Builder builder = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+        this.accountsClient = builder.clone().baseUrl("http://localhost:" + accountsPort).build();
+        this.cardsClient = builder.clone().baseUrl("http://localhost:" + cardsPort).build();
+
+        this.operations = options.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new EndpointStats(operations[i].getEndpoint()));
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        try (DownstreamStubs stubs = new DownstreamStubs();
+             ConfigurableApplicationContext accounts = start(
+                     com.nttdata.bankapp.msaccountservice.MsAccountServiceApplication.class, stubs, options);
+             ConfigurableApplicationContext cards = start(
+                     com.example.msaccountservice.MsAccountServiceApplication.class, stubs, options)) {
+
+            LoadTestRunner runner = new LoadTestRunner(options, port(accounts), port(cards));
+            runner.seed();
+
+            System.out.printf("Warming up for %s...%n", options.getWarmup());
+            runner.run(options.getWarmup());
+            runner.stats.values().forEach(EndpointStats::reset);
+
+            System.out.printf("Measuring for %s (concurrency=%d, accounts=%d, skew=%s, latency=%s)...%n",
+                    options.getDuration(), options.getConcurrency(), options.getAccounts(),
+                    options.getSkew(), options.getLatency());
+            long start = System.nanoTime();
+            runner.run(options.getDuration());
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            EndpointStats.printHeader(System.out);
+            runner.stats.values().forEach(endpoint -> endpoint.print(System.out, elapsed));
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, DownstreamStubs stubs,
+                                                        LoadTestOptions options) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.config.import", "optional:configserver:");
+        properties.put("app.customer-service-url", stubs.baseUrl());
+        properties.put("app.credit-card-service-url", stubs.baseUrl());
+        properties.put("app.inmemory.latency", options.getLatency().toMillis() + "ms");
+        // Se mide la capacidad del servicio, no la del limitador (las claves calientes recibirían 429)
+        properties.put("app.rate-limit.enabled", false);
+        properties.put("logging.level.root", options.getLogLevel());
+        properties.put("logging.level.ACCESS_LOG", options.getLogLevel());
+
+        // Como argumentos de línea de comandos para que prevalezcan sobre application.yml
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(application)
+                .profiles("inmemory")
+                .run(args);
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    /**
+     * Precarga cuentas corrientes en /accounts y, en /api, dos cuentas de ahorro
+     * por cliente enlazadas a una tarjeta de débito (principal y secundaria).
+     */
+    private void seed() {
+        System.out.printf("Seeding %d accounts per application...%n", options.getAccounts());
+
+        checkingAccountIds = Flux.range(0, options.getAccounts())
+                .flatMapSequential(i -> accountsClient.post().uri("/accounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of(
+                                "type", "CHECKING",
+                                "customerId", "lt-customer-" + i,
+                                "balance", 1_000_000))
+                        .retrieve()
+                        .bodyToMono(Map.class)
+                        .map(account -> (String) account.get("id")), SEED_CONCURRENCY)
+                .collectList()
+                .block();
+
+        savingsAccountIds = Flux.range(0, options.getAccounts())
+                .flatMapSequential(i -> Mono.zip(createSavings(i), createSavings(i))
+                        .flatMap(pair -> cardsClient.post().uri("/api/debit-cards")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Map.of(
+                                        "cardNumber", cardNumber(i),
+                                        "customerId", "lt-card-customer-" + i,
+                                        "primaryAccountId", pair.getT1(),
+                                        "secondaryAccountIds", List.of(pair.getT2())))
+                                .retrieve()
+                                .toBodilessEntity()
+                                .thenReturn(pair.getT1())), SEED_CONCURRENCY)
+                .collectList()
+                .block();
+
+        accountKeys = options.keyDistribution(options.getAccounts());
+    }
+
+    private Mono<String> createSavings(int customer) {
+        return cardsClient.post().uri("/api/accounts/savings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of(
+                        "customerId", "lt-card-customer-" + customer,
+                        "customerProfile", "REGULAR",
+                        "balance", 1_000_000,
+                        "monthlyTransactionLimit", Integer.MAX_VALUE,
+                        "hasRequiredCreditCard", false))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(account -> (String) account.get("id"));
+    }
+
+    private void run(Duration duration) {
+        long end = System.nanoTime() + duration.toNanos();
+        Flux.range(0, options.getConcurrency())
+                .flatMap(worker -> Mono.defer(this::nextRequest).repeat(() -> System.nanoTime() < end),
+                        options.getConcurrency())
+                .blockLast();
+    }
+
+    private Mono<Integer> nextRequest() {
+        Operation operation = nextOperation();
+        long start = System.nanoTime();
+        return execute(operation)
+                .onErrorReturn(0)
+                .doOnNext(status -> stats.get(operation).record(System.nanoTime() - start, status));
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private Mono<Integer> execute(Operation operation) {
+        switch (operation) {
+            case OPEN:
+                return exchange(accountsClient.post().uri("/accounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of(
+                                "type", "CHECKING",
+                                "customerId", "lt-new-customer-" + newCustomers.incrementAndGet(),
+                                "balance", 100)));
+            case BALANCE:
+                int amount = ThreadLocalRandom.current().nextBoolean() ? 10 : -10;
+                return exchange(accountsClient.put()
+                        .uri("/accounts/{id}/balance?amount={amount}",
+                                checkingAccountIds.get(accountKeys.next()), amount));
+            case TRANSFER:
+                return exchange(cardsClient.post().uri("/api/accounts/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of(
+                                "sourceAccountId", savingsAccountIds.get(accountKeys.next()),
+                                "destinationAccountId", savingsAccountIds.get(accountKeys.next()),
+                                "amount", 1)));
+            case PAYMENT:
+                return exchange(cardsClient.post().uri("/api/debit-cards/payment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of(
+                                "cardNumber", cardNumber(accountKeys.next()),
+                                "amount", 1)));
+            case REPORT:
+                return exchange(cardsClient.get()
+                        .uri("/api/accounts/customer/{customerId}/average-balance",
+                                "lt-card-customer-" + accountKeys.next()));
+            default:
+                return Mono.error(new IllegalStateException("Unknown operation " + operation));
+        }
+    }
+
+    private static Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()));
+    }
+
+    private static String cardNumber(int customer) {
+        return String.format("4000%012d", customer);
+    }
+}
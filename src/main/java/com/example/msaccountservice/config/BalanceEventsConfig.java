@@ -0,0 +1,11 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({BalanceEventsProperties.class, BalanceEventPublisher.class})
+public class BalanceEventsConfig {
+}
@@ -0,0 +1,22 @@
+package com.example.msaccountservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bankapp.msaccountservice.config.WebFluxConfig;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer() {
+        ObjectMapper smileMapper = WebFluxConfig.smileObjectMapper();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, WebFluxConfig.APPLICATION_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, WebFluxConfig.APPLICATION_SMILE));
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.commission.MongoCommissionEventStore;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({MongoCommissionEventStore.class, InMemoryCommissionEventStore.class})
+public class CommissionEventsConfig {
+}
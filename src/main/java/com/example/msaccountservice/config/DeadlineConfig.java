@@ -0,0 +1,12 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineFilter;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({DeadlineProperties.class, DeadlineMetrics.class, DeadlineFilter.class})
+public class DeadlineConfig {
+}
@@ -0,0 +1,19 @@
+package com.example.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.interest-accrual")
+public class InterestAccrualProperties {
+    private String cron = "-"; // "-" desactiva la ejecución programada (activar en una sola instancia)
+    private String zone = "UTC"; // Zona del cron y del día a devengar (el anterior al de ejecución)
+    private int partitions = 64; // Rangos de _id en que se divide la colección
+    private int parallelism = 8; // Rangos procesados a la vez
+    private int batchSize = 1000; // Cuentas por bulkWrite y por checkpoint
+    private int samplesPerPartition = 20; // Muestras de _id por rango para calcular los límites
+    private int daysInYear = 365; // interestRate es una tasa anual en porcentaje (base ACT/365)
+    private boolean restart = false; // Ignorar los checkpoints del día y recalcular los rangos
+}
@@ -0,0 +1,38 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.service.InterestAccrualService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class InterestAccrualScheduler {
+
+    private final InterestAccrualService interestAccrualService;
+    private final InterestAccrualProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Devenga el día anterior; si una ejecución falla, la siguiente reanuda desde los checkpoints
+    @Scheduled(cron = "${app.interest-accrual.cron:-}", zone = "${app.interest-accrual.zone:UTC}")
+    public void accrueYesterday() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Interest accrual still running, skipping this schedule");
+            return;
+        }
+        LocalDate accrualDate = LocalDate.now(ZoneId.of(properties.getZone())).minusDays(1);
+        interestAccrualService.accrue(accrualDate)
+                .doFinally(signal -> running.set(false))
+                .subscribe(summary -> { },
+                        e -> log.error("Interest accrual failed date={}, the next run resumes from checkpoints",
+                                accrualDate, e));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.logging.LoggingMetrics;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(LoggingMetrics.class)
+public class LoggingConfig {
+}
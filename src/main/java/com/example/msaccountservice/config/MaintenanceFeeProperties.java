@@ -0,0 +1,15 @@
+package com.example.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.maintenance-fee")
+public class MaintenanceFeeProperties {
+    private String cron = "-"; // "-" desactiva la ejecución programada (activar en una sola instancia)
+    private String zone = "UTC"; // Zona del cron y del mes a cobrar (el anterior al de ejecución)
+    private int chunkSize = 500; // Cuentas por bulkWrite
+    private int parallelism = 4; // bulkWrite en curso a la vez
+}
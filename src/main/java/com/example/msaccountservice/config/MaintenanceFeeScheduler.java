@@ -0,0 +1,38 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.service.MaintenanceFeeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class MaintenanceFeeScheduler {
+
+    private final MaintenanceFeeService maintenanceFeeService;
+    private final MaintenanceFeeProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Cobra el mes anterior; volver a ejecutarlo solo cobra las cuentas pendientes
+    @Scheduled(cron = "${app.maintenance-fee.cron:-}", zone = "${app.maintenance-fee.zone:UTC}")
+    public void chargePreviousMonth() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Maintenance fee charge still running, skipping this schedule");
+            return;
+        }
+        YearMonth period = YearMonth.now(ZoneId.of(properties.getZone())).minusMonths(1);
+        maintenanceFeeService.charge(period)
+                .doFinally(signal -> running.set(false))
+                .subscribe(summary -> { },
+                        e -> log.error("Maintenance fee charge failed period={}, run it again to charge the pending accounts",
+                                period, e));
+    }
+}
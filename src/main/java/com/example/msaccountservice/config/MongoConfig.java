@@ -0,0 +1,28 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMongoTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+@EnableReactiveMongoAuditing
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(DecimalConverters.converters());
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory,
+                                                       MongoConverter converter, DeadlineMetrics deadlineMetrics) {
+        return new DeadlineMongoTemplate(databaseFactory, converter, deadlineMetrics);
+    }
+}
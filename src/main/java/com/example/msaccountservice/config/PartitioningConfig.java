@@ -0,0 +1,13 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitionsConfig;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitionRebalancer;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitionsEndpoint;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({PartitioningProperties.class, MongoPartitionsConfig.class, PartitionRebalancer.class, PartitionsEndpoint.class})
+public class PartitioningConfig {
+}
@@ -0,0 +1,35 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.repository.AccountRepository;
+import com.example.msaccountservice.repository.DebitCardRepository;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitFilter;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitProperties;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitSubject;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitSubjectResolver;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimiter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Mono;
+
+@Configuration
+@Import({RateLimitProperties.class, RateLimiter.class, RateLimitFilter.class})
+public class RateLimitConfig {
+
+    // Titular de las rutas de /api: la tarjeta por su número y el resto por el id de la cuenta
+    @Bean
+    public RateLimitSubjectResolver rateLimitSubjectResolver(AccountRepository accountRepository,
+                                                             DebitCardRepository debitCardRepository) {
+        return (field, value) -> {
+            Mono<String> accountId = "cardNumber".equals(field)
+                    ? debitCardRepository.findByCardNumber(value).mapNotNull(card -> card.getPrimaryAccountId())
+                    : Mono.just(value);
+            return accountId.flatMap(accountRepository::findById)
+                    .filter(account -> account.getCustomerId() != null)
+                    .map(account -> new RateLimitSubject(account.getCustomerId(), account.getCustomerProfile() != null
+                            ? CustomerProfile.valueOf(account.getCustomerProfile().name())
+                            : CustomerProfile.REGULAR));
+        };
+    }
+}
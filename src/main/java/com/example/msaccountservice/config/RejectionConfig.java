@@ -0,0 +1,10 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(RejectionMetrics.class)
+public class RejectionConfig {
+}
@@ -0,0 +1,14 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.stall.EventLoopStallDetector;
+import com.nttdata.bankapp.msaccountservice.stall.EventLoopStallEndpoint;
+import com.nttdata.bankapp.msaccountservice.stall.StallAttributionFilter;
+import com.nttdata.bankapp.msaccountservice.stall.StallDetectorProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({StallDetectorProperties.class, EventLoopStallDetector.class, StallAttributionFilter.class,
+        EventLoopStallEndpoint.class})
+public class StallDetectorConfig {
+}
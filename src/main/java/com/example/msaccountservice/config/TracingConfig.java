@@ -0,0 +1,16 @@
+package com.example.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.tracing.SpanFileExporter;
+import com.nttdata.bankapp.msaccountservice.tracing.Tracer;
+import com.nttdata.bankapp.msaccountservice.tracing.TracesEndpoint;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingFilter;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingMongoCommandListener;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import({TracingProperties.class, Tracer.class, TracingFilter.class, TracingMongoCommandListener.class,
+        TracesEndpoint.class, SpanFileExporter.class})
+public class TracingConfig {
+}
@@ -0,0 +1,16 @@
+package com.example.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.transfers")
+public class TransferProperties {
+    private String recoveryCron = "0 * * * * *"; // "-" desactiva la recuperación programada
+    private Duration staleAfter = Duration.ofMinutes(1); // Sin cambios desde entonces se considera abandonada
+    private Duration operationRetention = Duration.ofDays(7); // Tiempo que las cuentas guardan los pasos aplicados
+}
@@ -0,0 +1,37 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.service.TransferService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class TransferRecoveryScheduler {
+
+    private final TransferService transferService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Puede ejecutarse en varias instancias: cada transferencia la toma solo una (escritura versionada)
+    @Scheduled(cron = "${app.transfers.recovery-cron:-}")
+    public void recoverUnfinished() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Transfer recovery still running, skipping this schedule");
+            return;
+        }
+        transferService.recoverUnfinished()
+                .doFinally(signal -> running.set(false))
+                .subscribe(recovered -> {
+                            if (recovered > 0) {
+                                log.info("Recovered unfinished transfers count={}", recovered);
+                            }
+                        },
+                        e -> log.error("Transfer recovery failed, the next schedule will retry it", e));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.dto.VipComplianceSummaryDTO;
+import com.example.msaccountservice.service.VipComplianceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Endpoint de actuator /actuator/vipcompliance. POST con {"day": "yyyy-MM-dd"} cierra a mano un día
+ * que el cierre programado no llegó a evaluar; solo días ya terminados en la zona de app.vip-compliance.
+ */
+@Component
+@Endpoint(id = "vipcompliance")
+@RequiredArgsConstructor
+public class VipComplianceEndpoint {
+
+    private final VipComplianceService vipComplianceService;
+    private final VipComplianceProperties properties;
+
+    @WriteOperation
+    public Mono<VipComplianceSummaryDTO> closeDay(String day) {
+        LocalDate closing;
+        try {
+            closing = LocalDate.parse(day);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException("Invalid day: " + day, "day must be an ISO date (yyyy-MM-dd)");
+        }
+        // Cerrar hoy o un día futuro fijaría el mínimo diario antes de que termine
+        if (!closing.isBefore(LocalDate.now(ZoneId.of(properties.getZone())))) {
+            throw new InvalidEndpointRequestException("Day not in the past: " + day, "day must be in the past");
+        }
+        return vipComplianceService.closeDay(closing);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.vip-compliance")
+public class VipComplianceProperties {
+    private String cron = "-"; // "-" desactiva el cierre programado (activar en una sola instancia)
+    private String zone = "UTC"; // Zona del cron y del día a cerrar (el anterior al de ejecución)
+    private int batchSize = 500; // Cuentas por bulkWrite
+}
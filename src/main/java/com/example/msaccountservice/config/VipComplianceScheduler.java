@@ -0,0 +1,37 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.service.VipComplianceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class VipComplianceScheduler {
+
+    private final VipComplianceService vipComplianceService;
+    private final VipComplianceProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Cierra el día anterior; las cuentas no evaluadas siguen pendientes para el siguiente cierre
+    @Scheduled(cron = "${app.vip-compliance.cron:-}", zone = "${app.vip-compliance.zone:UTC}")
+    public void closeYesterday() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("VIP compliance day close still running, skipping this schedule");
+            return;
+        }
+        LocalDate day = LocalDate.now(ZoneId.of(properties.getZone())).minusDays(1);
+        vipComplianceService.closeDay(day)
+                .doFinally(signal -> running.set(false))
+                .subscribe(summary -> { },
+                        e -> log.error("VIP compliance day close failed day={}", day, e));
+    }
+}
@@ -3,11 +3,17 @@ package com.example.msaccountservice.controller;
 
 import com.example.msaccountservice.dto.*;
 import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
 import com.example.msaccountservice.service.AccountService;
+import com.example.msaccountservice.service.VipComplianceService;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,6 +30,8 @@ import java.util.Map;
 public class AccountController {
 
     private final AccountService accountService;
+    private final BalanceEventPublisher balanceEventPublisher;
+    private final VipComplianceService vipComplianceService;
 
     @PostMapping("/savings")
     @ResponseStatus(HttpStatus.CREATED)
@@ -49,12 +57,12 @@ public class AccountController {
     }
 
     @PostMapping("/{accountId}/deposit")
-    public Mono<Account> deposit(@PathVariable String accountId, @RequestBody TransactionDTO transactionDTO) {
+    public Mono<Account> deposit(@PathVariable String accountId, @Valid @RequestBody TransactionDTO transactionDTO) {
         return accountService.deposit(accountId, transactionDTO.getAmount());
     }
 
     @PostMapping("/{accountId}/withdraw")
-    public Mono<Account> withdraw(@PathVariable String accountId, @RequestBody TransactionDTO transactionDTO) {
+    public Mono<Account> withdraw(@PathVariable String accountId, @Valid @RequestBody TransactionDTO transactionDTO) {
         return accountService.withdraw(accountId, transactionDTO.getAmount());
     }
 
@@ -76,6 +84,36 @@ public class AccountController {
         return accountService.getCommissionsReport(customerId, startDate, endDate);
     }
 
+    @GetMapping(value = "/balance-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BalanceEvent>> streamBalanceEvents(@RequestParam List<String> accountIds) {
+        return balanceEventPublisher.subscribeServerSentEvents(accountIds);
+    }
+
+    @GetMapping(value = "/balance-events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BalanceEvent> streamBalanceEventsNdjson(@RequestParam List<String> accountIds) {
+        return balanceEventPublisher.subscribe(accountIds);
+    }
+
+    @GetMapping(value = "/{accountId}/balance-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BalanceEvent>> streamAccountBalanceEvents(@PathVariable String accountId) {
+        return balanceEventPublisher.subscribeServerSentEvents(List.of(accountId));
+    }
+
+    @GetMapping(value = "/{accountId}/balance-events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BalanceEvent> streamAccountBalanceEventsNdjson(@PathVariable String accountId) {
+        return balanceEventPublisher.subscribe(List.of(accountId));
+    }
+
+    @GetMapping("/vip-compliance/breaches")
+    public Flux<Account> getVipComplianceBreaches() {
+        return vipComplianceService.getBreaches();
+    }
+
+    @GetMapping("/{accountId}/vip-compliance")
+    public Mono<VipCompliance> getVipCompliance(@PathVariable String accountId) {
+        return vipComplianceService.getCompliance(accountId);
+    }
+
     @PutMapping("/{accountId}/signers")
     public Mono<Account> updateAuthorizedSigners(
             @PathVariable String accountId,
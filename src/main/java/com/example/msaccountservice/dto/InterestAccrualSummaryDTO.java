@@ -0,0 +1,24 @@
+package com.example.msaccountservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class InterestAccrualSummaryDTO {
+    private LocalDate accrualDate;
+    private int partitions;
+    private long scanned;
+    private long accrued;
+    private long zero; // Saldo o tasa sin interés; solo se marca el día
+    private long skipped; // Sin saldo para el día (cuenta abierta después) o importes no numéricos
+    private long conflicts; // Ya devengadas por otra ejecución entre la lectura y la escritura
+    private long failed;
+    private long migratedRates; // Tasas guardadas como texto convertidas a Decimal128 en esta ejecución
+    private BigDecimal totalInterest;
+    private long durationMillis;
+    private double accountsPerSecond;
+}
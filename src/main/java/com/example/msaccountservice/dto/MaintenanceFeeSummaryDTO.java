@@ -0,0 +1,20 @@
+package com.example.msaccountservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class MaintenanceFeeSummaryDTO {
+    private String period; // yyyy-MM cobrado
+    private long candidates;
+    private long charged;
+    private long insufficientFunds; // Quedan pendientes; una nueva ejecución del mes las reintenta
+    private long alreadyCharged; // Cobradas por otra ejecución entre la lectura y la escritura
+    private long failed;
+    private BigDecimal totalCharged;
+    private long durationMillis;
+    private double accountsPerSecond;
+}
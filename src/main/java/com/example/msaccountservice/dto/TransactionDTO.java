@@ -2,9 +2,13 @@ package com.example.msaccountservice.dto;
 
 import lombok.Data;
 
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import java.math.BigDecimal;
 
 @Data
 public class TransactionDTO {
+    @NotNull
+    @Positive
     private BigDecimal amount;
 }
@@ -0,0 +1,19 @@
+package com.example.msaccountservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class VipComplianceSummaryDTO {
+    private LocalDate day;
+    private long evaluated; // Cuentas con movimientos o con cambio de resultado previsto, no el total de cuentas VIP
+    private long breached;
+    private long newBreaches;
+    private long recovered;
+    private long deferred; // Con movimientos de un día posterior ya acumulados; se evalúan en el siguiente cierre
+    private long conflicts; // Con un movimiento entre la lectura y la escritura; se evalúan en el siguiente cierre
+    private long durationMillis;
+}
@@ -1,10 +1,18 @@
 package com.example.msaccountservice.exception;
 
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExceededException;
+import com.nttdata.bankapp.msaccountservice.events.SubscriberLimitExceededException;
+import com.nttdata.bankapp.msaccountservice.rejection.BusinessRejectionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestControllerAdvice
@@ -24,6 +32,65 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("VALIDATION_ERROR", ex.getMessage());
     }
 
+    @ExceptionHandler(BusinessRejectionException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBusinessRejectionException(BusinessRejectionException ex) {
+        log.debug("Business rejection: {}", ex.getReason());
+        return new ErrorResponse("VALIDATION_ERROR", ex.getMessage());
+    }
+
+    @ExceptionHandler(TransferPendingException.class)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ErrorResponse handleTransferPendingException(TransferPendingException ex) {
+        log.warn("Transfer pending: {}", ex.getMessage(), ex.getCause());
+        return new ErrorResponse("TRANSFER_PENDING", ex.getMessage());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponse handleDeadlineExceededException(DeadlineExceededException ex) {
+        log.warn("Deadline exceeded: {}", ex.getMessage());
+        return new ErrorResponse("DEADLINE_EXCEEDED", ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleIllegalArgumentException(IllegalArgumentException ex) {
+        log.error("Invalid argument: {}", ex.getMessage());
+        return new ErrorResponse("VALIDATION_ERROR", ex.getMessage());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleWebExchangeBindException(WebExchangeBindException ex) {
+        String message = ex.getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        log.error("Validation error: {}", message);
+        return new ErrorResponse("VALIDATION_ERROR", message);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleServerWebInputException(ServerWebInputException ex) {
+        log.error("Invalid request: {}", ex.getReason());
+        return new ErrorResponse("VALIDATION_ERROR", ex.getReason());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent update conflict: {}", ex.getMessage());
+        return new ErrorResponse("CONCURRENT_UPDATE", "The account was modified concurrently, retry the request");
+    }
+
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleSubscriberLimitExceededException(SubscriberLimitExceededException ex) {
+        log.warn("Subscriber limit reached: {}", ex.getMessage());
+        return new ErrorResponse("SUBSCRIBER_LIMIT", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleGenericException(Exception ex) {
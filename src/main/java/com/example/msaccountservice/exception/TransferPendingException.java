@@ -0,0 +1,9 @@
+package com.example.msaccountservice.exception;
+
+// La transferencia no se pudo terminar ni revertir en la petición: TransferRecoveryScheduler la
+// completa o devuelve el cargo más tarde
+public class TransferPendingException extends RuntimeException {
+    public TransferPendingException(String transferId, Throwable cause) {
+        super("Transfer " + transferId + " is pending, it will be completed or refunded automatically", cause);
+    }
+}
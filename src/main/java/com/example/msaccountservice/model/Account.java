@@ -2,12 +2,17 @@ package com.example.msaccountservice.model;
 
 import com.example.msaccountservice.model.enums.AccountType;
 import com.example.msaccountservice.model.enums.CustomerProfile;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttdata.bankapp.msaccountservice.model.Money;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -23,14 +28,26 @@ public class Account {
     private CustomerProfile customerProfile;
     private String customerId;
     private List<String> authorizedSigners;
-    private BigDecimal balance;
-    private BigDecimal maintenanceFee;
+    private Money balance;
+    private Money maintenanceFee;
     private Integer monthlyTransactionLimit;
     private Integer transactionsPerformed;
     private BigDecimal interestRate;
-    private BigDecimal minimumOpeningAmount;
-    private BigDecimal minimumDailyBalance;
-    private Map<String, BigDecimal> dailyBalances;
-    private BigDecimal transactionCommission;
+    private Money minimumOpeningAmount;
+    private Money minimumDailyBalance;
+    private Map<String, Money> dailyBalances;
+    private Money transactionCommission;
     private Boolean hasRequiredCreditCard;
+    private Money accruedInterest; // Interés devengado por InterestAccrualServiceImpl
+    private LocalDate lastInterestAccrualDate; // Último día devengado, evita devengar dos veces
+    private String lastMaintenanceFeePeriod; // Último mes (yyyy-MM) cobrado por MaintenanceFeeServiceImpl
+    private VipCompliance vipCompliance; // Solo cuentas VIP con minimumDailyBalance
+    // Pasos de transferencias aplicados ("<transferId>:DEBIT", ":CREDIT", ":REFUND"); se purgan pasado app.transfers.operation-retention
+    @JsonIgnore
+    private Map<String, TransferOperation> transferOperations;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+    // Bloqueo optimista: save falla si otra escritura cambió la cuenta; los procesos por lotes también lo incrementan
+    @Version
+    private Long version;
 }
@@ -0,0 +1,32 @@
+package com.example.msaccountservice.model;
+
+import com.example.msaccountservice.model.enums.TransferStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Registro de una transferencia, guardado antes del cargo. Las cuentas pueden estar en bases de
+// datos distintas y no hay transacción común: el estado indica qué paso falta y
+// TransferRecoveryScheduler termina o revierte las que quedaron a medias.
+@Data
+@Document(collection = "transfers")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Transfer {
+    @Id
+    private String id;
+    private String sourceAccountId;
+    private String destinationAccountId;
+    private Money amount;
+    private Money commission; // Comisión cobrada con el cargo, que se devuelve si se revierte
+    private TransferStatus status;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt; // Último paso; la recuperación solo toma las paradas desde hace un tiempo
+    @Version
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.example.msaccountservice.model;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Paso de una transferencia ya aplicado a la cuenta, en el mismo save que cambia el saldo: repetir
+// el paso (reintento, recuperación) no vuelve a cargar ni abonar. Importe 0 si se anuló sin aplicarse.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferOperation {
+    private Money amount;
+    private LocalDateTime appliedAt;
+}
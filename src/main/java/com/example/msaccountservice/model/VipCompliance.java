@@ -0,0 +1,30 @@
+package com.example.msaccountservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Promedio de saldo diario del mes de una cuenta VIP, mantenido en cada cambio de saldo.
+// daySum y days acumulan los días cerrados desde el inicio del mes hasta lastChangeDate (excluido);
+// desde lastChangeDate rige el saldo actual, así que el promedio a cualquier cierre no lee dailyBalances.
+// Al empezar un mes se guardan los totales del mes anterior completo (closed*): un movimiento tras
+// medianoche del día 1 puede llegar antes del cierre del último día del mes.
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VipCompliance {
+    private String period; // Mes (yyyy-MM) de daySum y days
+    private Money daySum;
+    private int days;
+    private String closedPeriod; // Mes anterior a period, ya completo
+    private Money closedDaySum;
+    private int closedDays;
+    private LocalDate lastChangeDate;
+    private long revision; // Cambia con cada movimiento; el cierre solo escribe si no ha cambiado
+    private Money averageDailyBalance; // Promedio al cierre de evaluatedThrough
+    private Boolean breached;
+    private LocalDate breachedSince;
+    private LocalDate evaluatedThrough;
+    private LocalDate nextEvaluation; // Cierre en que puede cambiar el resultado; null si sin movimientos no cambia
+}
@@ -0,0 +1,10 @@
+package com.example.msaccountservice.model.enums;
+
+public enum TransferStatus {
+    PENDING, // Registrada, el cargo al origen puede no haberse aplicado
+    DEBITED, // Cargo aplicado (importe y comisión), falta el abono al destino
+    COMPLETED,
+    COMPENSATING, // El abono falló sin aplicarse: falta devolver el cargo al origen
+    REFUNDED, // Cargo devuelto al origen
+    FAILED // El cargo no se aplicó (sin saldo, cuenta inexistente o cancelada antes del cargo)
+}
@@ -2,10 +2,26 @@ package com.example.msaccountservice.repository;
 
 
 import com.example.msaccountservice.model.Account;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 
-public interface AccountRepository extends ReactiveMongoRepository<Account, String> {
+public interface AccountRepository extends ReactiveMongoRepository<Account, String>, AccountVersionInitializer {
     Flux<Account> findByCustomerId(String customerId);
+    // Con el titular conocido, el repositorio particionado consulta solo su partición
+    Mono<Account> findByIdAndCustomerId(String id, String customerId);
+    Flux<Account> findByVipComplianceBreachedTrue();
+
+    // save de una cuenta leída antes. Las creadas antes de @Version no tienen version y save
+    // intentaría insertarlas: se les pone version 0 y se falla para que quien llama vuelva a leer
+    default Mono<Account> saveVersioned(Account account) {
+        boolean unversioned = account.getId() != null && account.getVersion() == null;
+        return save(account).onErrorResume(DuplicateKeyException.class, e -> unversioned
+                ? initializeVersion(account).then(Mono.error(new OptimisticLockingFailureException(
+                        "Account " + account.getId() + " had no version")))
+                : Mono.error(e));
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.msaccountservice.repository;
+
+import com.example.msaccountservice.model.Account;
+import reactor.core.publisher.Mono;
+
+// Fragmento de AccountRepository para las cuentas guardadas antes de añadir @Version
+public interface AccountVersionInitializer {
+
+    // Pone version 0 a la cuenta solo si aún no tiene version
+    Mono<Void> initializeVersion(Account account);
+}
@@ -0,0 +1,26 @@
+package com.example.msaccountservice.repository;
+
+import com.example.msaccountservice.model.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+// Implementación que Spring Data añade al AccountRepository sobre MongoDB
+@RequiredArgsConstructor
+public class AccountVersionInitializerImpl implements AccountVersionInitializer {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> initializeVersion(Account account) {
+        return mongoTemplate.updateFirst(unversioned(account.getId()), new Update().set("version", 0L), Account.class)
+                .then();
+    }
+
+    public static Query unversioned(String id) {
+        return Query.query(Criteria.where("_id").is(id).and("version").exists(false));
+    }
+}
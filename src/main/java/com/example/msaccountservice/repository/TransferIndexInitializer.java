@@ -0,0 +1,35 @@
+package com.example.msaccountservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+// Índice de la búsqueda de transferencias sin terminar de TransferRecoveryScheduler
+@Slf4j
+@Component
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class TransferIndexInitializer {
+
+    static final String TRANSFERS = "transfers";
+
+    static final Index UNFINISHED_INDEX = new Index()
+            .on("status", Sort.Direction.ASC)
+            .on("updatedAt", Sort.Direction.ASC)
+            .named("status_updated");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        mongoTemplate.indexOps(TRANSFERS).ensureIndex(UNFINISHED_INDEX)
+                .subscribe(name -> log.info("Ensured index collection={} index={}", TRANSFERS, name),
+                        error -> log.error("Could not ensure indexes on {}: {}", TRANSFERS, error.getMessage()));
+    }
+}
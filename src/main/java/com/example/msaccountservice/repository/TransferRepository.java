@@ -0,0 +1,14 @@
+package com.example.msaccountservice.repository;
+
+import com.example.msaccountservice.model.Transfer;
+import com.example.msaccountservice.model.enums.TransferStatus;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// En la base de datos principal también con el perfil "partitioned", como commission_events
+public interface TransferRepository extends ReactiveMongoRepository<Transfer, String> {
+    Flux<Transfer> findByStatusInAndUpdatedAtBefore(Collection<TransferStatus> statuses, LocalDateTime updatedBefore);
+}
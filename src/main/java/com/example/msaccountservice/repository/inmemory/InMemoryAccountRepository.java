@@ -0,0 +1,96 @@
+package com.example.msaccountservice.repository.inmemory;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import com.example.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryReactiveRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Repositorio de cuentas de /api/accounts en memoria para pruebas de carga sin MongoDB (perfil inmemory).
+ * Aplica el bloqueo optimista de @Version igual que MongoDB.
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryAccountRepository extends InMemoryReactiveRepository<Account> implements AccountRepository {
+
+    private final SecondaryIndex customerIdIndex;
+
+    public InMemoryAccountRepository(@Value("${app.inmemory.latency:0ms}") Duration latency) {
+        super(latency);
+        this.customerIdIndex = addIndex(Account::getCustomerId, false);
+    }
+
+    @Override
+    public Flux<Account> findByCustomerId(String customerId) {
+        return findByIndex(customerIdIndex, customerId);
+    }
+
+    @Override
+    public Mono<Account> findByIdAndCustomerId(String id, String customerId) {
+        return findById(id).filter(account -> customerId.equals(account.getCustomerId()));
+    }
+
+    @Override
+    public Flux<Account> findByVipComplianceBreachedTrue() {
+        return findAll().filter(account -> account.getVipCompliance() != null
+                && Boolean.TRUE.equals(account.getVipCompliance().getBreached()));
+    }
+
+    // Las cuentas en memoria siempre tienen version: no hay documentos anteriores a @Version
+    @Override
+    public Mono<Void> initializeVersion(Account account) {
+        return Mono.empty();
+    }
+
+    @Override
+    protected void checkVersion(Account previous, Account account) {
+        Long current = previous != null ? previous.getVersion() : null;
+        if (previous != null && !Objects.equals(current, account.getVersion())) {
+            throw new OptimisticLockingFailureException("Account " + account.getId() + " was modified, version "
+                    + account.getVersion() + " != " + current);
+        }
+        account.setVersion(current != null ? current + 1 : 0L);
+    }
+
+    @Override
+    protected String getId(Account account) {
+        return account.getId();
+    }
+
+    @Override
+    protected void setId(Account account, String id) {
+        account.setId(id);
+    }
+
+    @Override
+    protected Account copy(Account account) {
+        Account copy = new Account();
+        BeanUtils.copyProperties(account, copy);
+        copy.setAuthorizedSigners(account.getAuthorizedSigners() != null
+                ? new ArrayList<>(account.getAuthorizedSigners()) : null);
+        copy.setDailyBalances(account.getDailyBalances() != null
+                ? new HashMap<>(account.getDailyBalances()) : null);
+        copy.setTransferOperations(account.getTransferOperations() != null
+                ? new HashMap<>(account.getTransferOperations()) : null);
+        if (account.getVipCompliance() != null) {
+            VipCompliance compliance = new VipCompliance();
+            BeanUtils.copyProperties(account.getVipCompliance(), compliance);
+            copy.setVipCompliance(compliance);
+        }
+        return copy;
+    }
+}
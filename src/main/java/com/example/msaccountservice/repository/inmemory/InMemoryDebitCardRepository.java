@@ -0,0 +1,54 @@
+package com.example.msaccountservice.repository.inmemory;
+
+import com.example.msaccountservice.model.DebitCard;
+import com.example.msaccountservice.repository.DebitCardRepository;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryReactiveRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * Repositorio de tarjetas de débito en memoria para pruebas de carga sin MongoDB (perfil inmemory).
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryDebitCardRepository extends InMemoryReactiveRepository<DebitCard> implements DebitCardRepository {
+
+    private final SecondaryIndex cardNumberIndex;
+
+    public InMemoryDebitCardRepository(@Value("${app.inmemory.latency:0ms}") Duration latency) {
+        super(latency);
+        this.cardNumberIndex = addIndex(DebitCard::getCardNumber, true);
+    }
+
+    @Override
+    public Mono<DebitCard> findByCardNumber(String cardNumber) {
+        return findByIndex(cardNumberIndex, cardNumber).next();
+    }
+
+    @Override
+    protected String getId(DebitCard debitCard) {
+        return debitCard.getId();
+    }
+
+    @Override
+    protected void setId(DebitCard debitCard, String id) {
+        debitCard.setId(id);
+    }
+
+    @Override
+    protected DebitCard copy(DebitCard debitCard) {
+        DebitCard copy = new DebitCard();
+        BeanUtils.copyProperties(debitCard, copy);
+        copy.setSecondaryAccountIds(debitCard.getSecondaryAccountIds() != null
+                ? new ArrayList<>(debitCard.getSecondaryAccountIds()) : null);
+        return copy;
+    }
+}
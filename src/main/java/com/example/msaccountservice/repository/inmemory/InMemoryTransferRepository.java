@@ -0,0 +1,65 @@
+package com.example.msaccountservice.repository.inmemory;
+
+import com.example.msaccountservice.model.Transfer;
+import com.example.msaccountservice.model.enums.TransferStatus;
+import com.example.msaccountservice.repository.TransferRepository;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryReactiveRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Repositorio de transferencias en memoria para pruebas de carga sin MongoDB (perfil inmemory).
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryTransferRepository extends InMemoryReactiveRepository<Transfer> implements TransferRepository {
+
+    public InMemoryTransferRepository(@Value("${app.inmemory.latency:0ms}") Duration latency) {
+        super(latency);
+    }
+
+    @Override
+    public Flux<Transfer> findByStatusInAndUpdatedAtBefore(Collection<TransferStatus> statuses,
+                                                           LocalDateTime updatedBefore) {
+        return findAll().filter(transfer -> statuses.contains(transfer.getStatus())
+                && transfer.getUpdatedAt() != null && transfer.getUpdatedAt().isBefore(updatedBefore));
+    }
+
+    @Override
+    protected void checkVersion(Transfer previous, Transfer transfer) {
+        Long current = previous != null ? previous.getVersion() : null;
+        if (previous != null && !Objects.equals(current, transfer.getVersion())) {
+            throw new OptimisticLockingFailureException("Transfer " + transfer.getId() + " was modified, version "
+                    + transfer.getVersion() + " != " + current);
+        }
+        transfer.setVersion(current != null ? current + 1 : 0L);
+    }
+
+    @Override
+    protected String getId(Transfer transfer) {
+        return transfer.getId();
+    }
+
+    @Override
+    protected void setId(Transfer transfer, String id) {
+        transfer.setId(id);
+    }
+
+    @Override
+    protected Transfer copy(Transfer transfer) {
+        Transfer copy = new Transfer();
+        BeanUtils.copyProperties(transfer, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.msaccountservice.repository.partitioned;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.repository.AccountRepository;
+import com.example.msaccountservice.repository.AccountVersionInitializerImpl;
+import com.mongodb.client.model.Filters;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitionedMongoRepository;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import org.bson.conversions.Bson;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Cuentas repartidas por customerId: las consultas de un cliente van a una sola base de datos
+@Repository
+@Primary
+@Profile("partitioned")
+public class PartitionedAccountRepository extends PartitionedMongoRepository<Account> implements AccountRepository {
+
+    public PartitionedAccountRepository(MongoPartitions partitions, PartitioningProperties properties) {
+        super(partitions, Account.class, "customerId", properties.getLocationCacheSize());
+    }
+
+    @Override
+    public Flux<Account> findByCustomerId(String customerId) {
+        return findByPartitionKey(customerId, Query.query(Criteria.where("customerId").is(customerId)));
+    }
+
+    @Override
+    public Mono<Account> findByIdAndCustomerId(String id, String customerId) {
+        return findByPartitionKey(customerId, Query.query(Criteria.where("_id").is(id).and("customerId").is(customerId)))
+                .next();
+    }
+
+    @Override
+    public Flux<Account> findByVipComplianceBreachedTrue() {
+        return findInAll(Query.query(Criteria.where("vipCompliance.breached").is(true)));
+    }
+
+    // La cuenta puede estar en otra partición durante un rebalanceo: se actualiza donde esté
+    @Override
+    public Mono<Void> initializeVersion(Account account) {
+        return Flux.fromIterable(partitions.all())
+                .concatMap(partition -> partition.getTemplate().updateFirst(
+                        AccountVersionInitializerImpl.unversioned(account.getId()), new Update().set("version", 0L), Account.class))
+                .then();
+    }
+
+    // La colección accounts también guarda las cuentas de /accounts (com.nttdata), que mueve su
+    // propio repositorio: solo se mueven las de esta entidad, por _class o, sin él, por accountType
+    @Override
+    public Bson getOwnedDocuments() {
+        return Filters.or(Filters.eq("_class", Account.class.getName()),
+                Filters.and(Filters.exists("_class", false), Filters.exists("accountType")));
+    }
+
+    @Override
+    protected String getId(Account account) {
+        return account.getId();
+    }
+
+    @Override
+    protected void setId(Account account, String id) {
+        account.setId(id);
+    }
+
+    @Override
+    protected String getPartitionKey(Account account) {
+        return account.getCustomerId();
+    }
+}
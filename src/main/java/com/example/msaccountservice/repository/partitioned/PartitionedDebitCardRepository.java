@@ -0,0 +1,54 @@
+package com.example.msaccountservice.repository.partitioned;
+
+import com.example.msaccountservice.model.DebitCard;
+import com.example.msaccountservice.repository.DebitCardRepository;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitionedMongoRepository;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Tarjetas en la partición de su cliente, junto a sus cuentas
+@Repository
+@Primary
+@Profile("partitioned")
+public class PartitionedDebitCardRepository extends PartitionedMongoRepository<DebitCard> implements DebitCardRepository {
+
+    public PartitionedDebitCardRepository(MongoPartitions partitions, PartitioningProperties properties) {
+        super(partitions, DebitCard.class, "customerId", properties.getLocationCacheSize());
+    }
+
+    // El número de tarjeta no lleva el cliente: se busca en todas las particiones
+    @Override
+    public Mono<DebitCard> findByCardNumber(String cardNumber) {
+        return findInAll(Query.query(Criteria.where("cardNumber").is(cardNumber))).next();
+    }
+
+    @Override
+    protected List<Index> indexes() {
+        return List.of(new Index("cardNumber", Sort.Direction.ASC));
+    }
+
+    @Override
+    protected String getId(DebitCard debitCard) {
+        return debitCard.getId();
+    }
+
+    @Override
+    protected void setId(DebitCard debitCard, String id) {
+        debitCard.setId(id);
+    }
+
+    @Override
+    protected String getPartitionKey(DebitCard debitCard) {
+        return debitCard.getCustomerId();
+    }
+}
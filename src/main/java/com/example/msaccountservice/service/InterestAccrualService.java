@@ -0,0 +1,10 @@
+package com.example.msaccountservice.service;
+
+import com.example.msaccountservice.dto.InterestAccrualSummaryDTO;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface InterestAccrualService {
+    Mono<InterestAccrualSummaryDTO> accrue(LocalDate accrualDate);
+}
@@ -0,0 +1,10 @@
+package com.example.msaccountservice.service;
+
+import com.example.msaccountservice.dto.MaintenanceFeeSummaryDTO;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+
+public interface MaintenanceFeeService {
+    Mono<MaintenanceFeeSummaryDTO> charge(YearMonth period);
+}
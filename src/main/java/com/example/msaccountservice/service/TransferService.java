@@ -0,0 +1,11 @@
+package com.example.msaccountservice.service;
+
+import com.example.msaccountservice.dto.TransferDTO;
+import com.example.msaccountservice.model.Account;
+import reactor.core.publisher.Mono;
+
+public interface TransferService {
+    Mono<Account> transfer(TransferDTO transferDTO);
+
+    Mono<Long> recoverUnfinished();
+}
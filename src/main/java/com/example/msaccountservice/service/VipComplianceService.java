@@ -0,0 +1,15 @@
+package com.example.msaccountservice.service;
+
+import com.example.msaccountservice.dto.VipComplianceSummaryDTO;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface VipComplianceService {
+    Mono<VipComplianceSummaryDTO> closeDay(LocalDate day);
+    Mono<VipCompliance> getCompliance(String accountId);
+    Flux<Account> getBreaches();
+}
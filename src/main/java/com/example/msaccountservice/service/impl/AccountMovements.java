@@ -0,0 +1,63 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.enums.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+
+// Cambios de saldo de una cuenta leída, comunes a retiros, depósitos y transferencias. Solo
+// modifican la entidad: quien llama la guarda con saveVersioned.
+final class AccountMovements {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private AccountMovements() {
+    }
+
+    static String formatDateTime(LocalDateTime dateTime) {
+        return dateTime.format(DATE_FORMATTER);
+    }
+
+    // Comisión de un retiro por encima del límite mensual de transacciones; las PYME no la pagan
+    static Money withdrawalCommission(Account account) {
+        if (account.getTransactionsPerformed() >= account.getMonthlyTransactionLimit()
+                && !CustomerProfile.PYME.equals(account.getCustomerProfile())) {
+            return account.getTransactionCommission();
+        }
+        return Money.ZERO;
+    }
+
+    // Retiro ya validado (importe más comisión): cuenta como transacción del mes
+    static void debit(Account account, Money debit) {
+        changeBalance(account, Money.ZERO.minus(debit));
+        account.setTransactionsPerformed(
+                account.getTransactionsPerformed() != null ?
+                        account.getTransactionsPerformed() + 1 : 1
+        );
+    }
+
+    static void credit(Account account, Money credit) {
+        changeBalance(account, credit);
+    }
+
+    // Devolución de un retiro revertido: el saldo vuelve y la transacción deja de contar para el límite
+    static void revertDebit(Account account, Money debit) {
+        changeBalance(account, debit);
+        if (account.getTransactionsPerformed() != null && account.getTransactionsPerformed() > 0) {
+            account.setTransactionsPerformed(account.getTransactionsPerformed() - 1);
+        }
+    }
+
+    private static void changeBalance(Account account, Money change) {
+        if (account.getDailyBalances() == null) {
+            account.setDailyBalances(new HashMap<>());
+        }
+        VipComplianceCalculator.onBalanceChange(account, account.getBalance(), LocalDate.now());
+        account.setBalance(account.getBalance().plus(change));
+        account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance());
+    }
+}
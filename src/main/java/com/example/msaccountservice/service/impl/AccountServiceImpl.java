@@ -4,69 +4,85 @@ import com.example.msaccountservice.dto.CheckingAccountDTO;
 import com.example.msaccountservice.dto.FixedTermAccountDTO;
 import com.example.msaccountservice.dto.SavingsAccountDTO;
 import com.example.msaccountservice.dto.TransferDTO;
+import com.example.msaccountservice.exception.AccountNotFoundException;
 import com.example.msaccountservice.exception.BusinessValidationException;
 import com.example.msaccountservice.model.Account;
 import com.example.msaccountservice.model.enums.AccountType;
 import com.example.msaccountservice.model.enums.CustomerProfile;
 import com.example.msaccountservice.repository.AccountRepository;
 import com.example.msaccountservice.service.AccountService;
+import com.example.msaccountservice.service.TransferService;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEvent;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionReason;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
+    private final BalanceEventPublisher balanceEventPublisher;
+    private final CommissionEventStore commissionEventStore;
+    private final RejectionMetrics rejectionMetrics;
+    private final TransferService transferService;
 
-    private static final BigDecimal VIP_MINIMUM_DAILY_BALANCE = new BigDecimal("1000");
-    private static final BigDecimal DEFAULT_TRANSACTION_COMMISSION = new BigDecimal("1.0");
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final Money VIP_MINIMUM_DAILY_BALANCE = Money.parse("1000");
+    private static final Money DEFAULT_TRANSACTION_COMMISSION = Money.parse("1.0");
 
-    private String formatDateTime(LocalDateTime dateTime) {
-        return dateTime.format(DATE_FORMATTER);
+    String formatDateTime(LocalDateTime dateTime) {
+        return AccountMovements.formatDateTime(dateTime);
     }
     @Override
     public Mono<Account> createSavingsAccount(SavingsAccountDTO dto) {
-        return validateAccountCreation(dto)
-                .flatMap(valid -> {
+        return Mono.fromCallable(() -> Money.ofAmount(dto.getBalance()))
+                .flatMap(balance -> validateAccountCreation(dto, balance).thenReturn(balance))
+                .flatMap(balance -> {
                     Account account = new Account();
                     account.setAccountType(AccountType.SAVINGS);
                     account.setCustomerId(dto.getCustomerId());
                     account.setCustomerProfile(dto.getCustomerProfile());
-                    account.setBalance(dto.getBalance());
+                    account.setBalance(balance);
                     account.setMonthlyTransactionLimit(dto.getMonthlyTransactionLimit());
                     account.setTransactionsPerformed(0);
                     account.setTransactionCommission(DEFAULT_TRANSACTION_COMMISSION);
 
                     // Inicializar el mapa con la fecha formateada como String
                     account.setDailyBalances(new HashMap<>());
-                    account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), dto.getBalance());
+                    account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance());
 
                     if (CustomerProfile.VIP.equals(dto.getCustomerProfile())) {
                         account.setMinimumDailyBalance(VIP_MINIMUM_DAILY_BALANCE);
                         account.setHasRequiredCreditCard(dto.getHasRequiredCreditCard());
+                        VipComplianceCalculator.start(account, LocalDate.now());
                     }
 
                     return accountRepository.save(account);
                 });
     }
 
-    private Mono<Boolean> validateAccountCreation(SavingsAccountDTO dto) {
+    private Mono<Boolean> validateAccountCreation(SavingsAccountDTO dto, Money balance) {
         if (CustomerProfile.VIP.equals(dto.getCustomerProfile())) {
             if (!dto.getHasRequiredCreditCard()) {
                 return Mono.error(new BusinessValidationException("VIP accounts require an active credit card"));
             }
-            if (dto.getBalance().compareTo(VIP_MINIMUM_DAILY_BALANCE) < 0) {
+            if (balance.isLessThan(VIP_MINIMUM_DAILY_BALANCE)) {
                 return Mono.error(new BusinessValidationException("VIP accounts require a minimum balance of " + VIP_MINIMUM_DAILY_BALANCE));
             }
         }
@@ -76,24 +92,28 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Mono<Account> createCheckingAccount(CheckingAccountDTO dto) {
-        Account account = new Account();
-        account.setAccountType(AccountType.CHECKING);
-        account.setCustomerId(dto.getCustomerId());
-        account.setBalance(dto.getBalance());
-        account.setMaintenanceFee(dto.getMaintenanceFee());
-        return accountRepository.save(account);
+        return Mono.fromCallable(() -> {
+            Account account = new Account();
+            account.setAccountType(AccountType.CHECKING);
+            account.setCustomerId(dto.getCustomerId());
+            account.setBalance(Money.ofAmount(dto.getBalance()));
+            account.setMaintenanceFee(dto.getMaintenanceFee() != null ? Money.ofAmount(dto.getMaintenanceFee()) : null);
+            return account;
+        }).flatMap(accountRepository::save);
     }
 
     @Override
     public Mono<Account> createFixedTermAccount(FixedTermAccountDTO dto) {
-        Account account = new Account();
-        account.setAccountType(AccountType.FIXED_TERM);
-        account.setCustomerId(dto.getCustomerId());
-        account.setBalance(dto.getBalance());
-        account.setInterestRate(dto.getInterestRate());
-        account.setDailyBalances(new HashMap<>()); // Inicializar el map
-        account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), dto.getBalance()); // Registrar saldo inicial
-        return accountRepository.save(account);
+        return Mono.fromCallable(() -> {
+            Account account = new Account();
+            account.setAccountType(AccountType.FIXED_TERM);
+            account.setCustomerId(dto.getCustomerId());
+            account.setBalance(Money.ofAmount(dto.getBalance()));
+            account.setInterestRate(dto.getInterestRate());
+            account.setDailyBalances(new HashMap<>()); // Inicializar el map
+            account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance()); // Registrar saldo inicial
+            return account;
+        }).flatMap(accountRepository::save);
     }
 
     @Override
@@ -102,91 +122,71 @@ public class AccountServiceImpl implements AccountService {
     }
     @Override
     public Mono<Account> deposit(String accountId, BigDecimal amount) {
-        return accountRepository.findById(accountId)
-                .flatMap(account -> {
-                    if (account.getDailyBalances() == null) {
-                        account.setDailyBalances(new HashMap<>());
-                    }
-
-                    account.setBalance(account.getBalance().add(amount));
-
-                    // Actualizar saldo diario con la fecha formateada
-                    account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance());
+        return Mono.fromCallable(() -> Money.ofAmount(amount))
+                .flatMap(deposit -> deposit(accountId, deposit));
+    }
 
-                    return accountRepository.save(account);
-                });
+    private Mono<Account> deposit(String accountId, Money deposit) {
+        return OptimisticRetry.retrying(accountRepository.findById(accountId)
+                .flatMap(account -> {
+                    AccountMovements.credit(account, deposit);
+                    return accountRepository.saveVersioned(account);
+                }))
+                .doOnNext(account -> publish(account, BalanceEvent.Type.BALANCE_CHANGED, deposit));
     }
 
     @Override
     public Mono<Account> withdraw(String accountId, BigDecimal amount) {
-        return accountRepository.findById(accountId)
-                .flatMap(account -> {
-                    if (account.getBalance().compareTo(amount) < 0) {
-                        return Mono.error(new BusinessValidationException("Insufficient funds"));
-                    }
-
-                    // Inicializar dailyBalances si es null
-                    if (account.getDailyBalances() == null) {
-                        account.setDailyBalances(new HashMap<>());
-                    }
+        return Mono.fromCallable(() -> Money.ofAmount(amount))
+                .flatMap(withdrawal -> withdraw(accountId, withdrawal));
+    }
 
-                    BigDecimal commission = BigDecimal.ZERO;
-                    if (account.getTransactionsPerformed() >= account.getMonthlyTransactionLimit()
-                            && !CustomerProfile.PYME.equals(account.getCustomerProfile())) {
-                        commission = account.getTransactionCommission();
+    private Mono<Account> withdraw(String accountId, Money withdrawal) {
+        // La comisión depende de lo leído: se calcula en cada intento y se registra una vez guardado
+        return OptimisticRetry.retrying(accountRepository.findById(accountId)
+                .flatMap(account -> {
+                    if (account.getBalance().isLessThan(withdrawal)) {
+                        return Mono.error(rejectionMetrics.reject(RejectionReason.INSUFFICIENT_FUNDS));
                     }
 
-                    account.setBalance(account.getBalance().subtract(amount).subtract(commission));
-                    account.setTransactionsPerformed(
-                            account.getTransactionsPerformed() != null ?
-                                    account.getTransactionsPerformed() + 1 : 1
-                    );
-
-                    // Actualizar saldo diario con la fecha formateada
-                    account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance());
-
-                    return accountRepository.save(account);
+                    Money charged = AccountMovements.withdrawalCommission(account);
+                    AccountMovements.debit(account, withdrawal.plus(charged));
+                    return accountRepository.saveVersioned(account)
+                            .map(saved -> Tuples.of(saved, charged));
+                }))
+                .flatMap(saved -> {
+                    Account account = saved.getT1();
+                    Money charged = saved.getT2();
+                    Mono<Void> commission = charged.isPositive() ? recordCommission(account, charged) : Mono.empty();
+                    return commission.then(Mono.fromSupplier(() -> {
+                        publish(account, BalanceEvent.Type.BALANCE_CHANGED, Money.ZERO.minus(withdrawal.plus(charged)));
+                        return account;
+                    }));
                 });
     }
 
     @Override
     public Mono<Account> updateAuthorizedSigners(String accountId, List<String> authorizedSigners) {
-        return accountRepository.findById(accountId)
+        return OptimisticRetry.retrying(accountRepository.findById(accountId)
                 .flatMap(account -> {
                     account.setAuthorizedSigners(authorizedSigners);
-                    return accountRepository.save(account);
-                })
+                    return accountRepository.saveVersioned(account);
+                }))
+                .doOnNext(account -> publish(account, BalanceEvent.Type.UPDATED, null))
                 .switchIfEmpty(Mono.error(new RuntimeException("Account not found")));
     }
 
     @Override
     public Mono<Account> transfer(TransferDTO transferDTO) {
-        return accountRepository.findById(transferDTO.getSourceAccountId())
-                .flatMap(sourceAccount ->
-                        accountRepository.findById(transferDTO.getDestinationAccountId())
-                                .flatMap(destinationAccount -> {
-                                    return withdraw(sourceAccount.getId(), transferDTO.getAmount())
-                                            .flatMap(updatedSource ->
-                                                    deposit(destinationAccount.getId(), transferDTO.getAmount()));
-                                })
-                );
+        return transferService.transfer(transferDTO);
     }
+
     @Override
     public Mono<Map<String, BigDecimal>> getCommissionsReport(String customerId, LocalDateTime startDate, LocalDateTime endDate) {
-        return accountRepository.findByCustomerId(customerId)
-                .collectList()
-                .map(accounts -> {
-                    Map<String, BigDecimal> commissions = new HashMap<>();
-                    accounts.forEach(account -> {
-                        if (!CustomerProfile.PYME.equals(account.getCustomerProfile())) {
-                            int excessTransactions = Math.max(0, account.getTransactionsPerformed() - account.getMonthlyTransactionLimit());
-                            BigDecimal totalCommission = account.getTransactionCommission()
-                                    .multiply(new BigDecimal(excessTransactions));
-                            commissions.put(account.getId(), totalCommission);
-                        }
-                    });
-                    return commissions;
-                });
+        if (!startDate.isBefore(endDate)) {
+            return Mono.error(new IllegalArgumentException("startDate must be before endDate"));
+        }
+        return commissionEventStore.totalsByAccount(customerId, startDate, endDate);
     }
     @Override
     public Mono<Map<String, BigDecimal>> getAverageBalanceReport(String customerId) {
@@ -196,16 +196,39 @@ public class AccountServiceImpl implements AccountService {
                     Map<String, BigDecimal> averages = new HashMap<>();
                     accounts.forEach(account -> {
                         if (account.getDailyBalances() != null && !account.getDailyBalances().isEmpty()) {
-                            BigDecimal avgBalance = account.getDailyBalances().values().stream()
-                                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                                    .divide(new BigDecimal(account.getDailyBalances().size()), 2, RoundingMode.HALF_UP);
-                            averages.put(account.getId(), avgBalance);
+                            averages.put(account.getId(), averageDailyBalance(account.getDailyBalances()).toBigDecimal());
                         } else {
-                            averages.put(account.getId(), account.getBalance());
+                            averages.put(account.getId(), Money.toBigDecimal(account.getBalance()));
                         }
                     });
                     return averages;
                 });
     }
 
+    private void publish(Account account, BalanceEvent.Type type, Money amount) {
+        balanceEventPublisher.publish(account.getId(), account.getCustomerId(), type, account.getBalance(), amount);
+    }
+
+    // El retiro ya está guardado: si no se puede registrar la comisión se deja en el log
+    private Mono<Void> recordCommission(Account account, Money commission) {
+        return commissionEventStore.record(CommissionEvent.builder()
+                        .customerId(account.getCustomerId())
+                        .accountId(account.getId())
+                        .amount(commission)
+                        .source(CommissionEvent.Source.WITHDRAWAL)
+                        .timestamp(LocalDateTime.now())
+                        .build())
+                .onErrorResume(e -> {
+                    log.error("Could not record commission accountId={} amount={}", account.getId(), commission, e);
+                    return Mono.empty();
+                });
+    }
+
+    static Money averageDailyBalance(Map<String, Money> dailyBalances) {
+        long total = dailyBalances.values().stream()
+                .mapToLong(Money::getMinorUnits)
+                .reduce(0L, Math::addExact);
+        return Money.average(total, dailyBalances.size());
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.example.msaccountservice.service.impl;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Eventos de saldo de los procesos por lotes. bulkWrite no devuelve los documentos escritos:
+// tras cada lote se releen solo las cuentas que alguien observa en esta instancia, así que sin
+// suscriptores no hay consultas extra. Un fallo al releer no detiene el proceso.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchBalanceEvents {
+
+    private final BalanceEventPublisher publisher;
+
+    /**
+     * Publica el estado tras un lote de las cuentas observadas que cumplen applied.
+     * @param collection colección escrita
+     * @param ids _id de las cuentas enviadas en el lote
+     * @param applied filtro que cumplen las cuentas a las que se aplicó el lote
+     * @param type tipo de evento
+     * @param amounts variación del saldo por _id, o null si no la hay
+     * @return Mono que completa cuando se han publicado
+     */
+    public Mono<Void> publish(MongoCollection<Document> collection, Collection<Object> ids, Bson applied,
+                              BalanceEvent.Type type, Function<Object, Money> amounts) {
+        List<Object> observed = ids.stream()
+                .filter(id -> publisher.isObserved(id.toString()))
+                .collect(Collectors.toList());
+        if (observed.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.from(collection.find(Filters.and(Filters.in("_id", observed), applied))
+                        .projection(Projections.include("customerId", "balance")))
+                .doOnNext(account -> publisher.publish(account.get("_id").toString(), account.getString("customerId"),
+                        type, balance(account.get("balance")), amounts.apply(account.get("_id"))))
+                .onErrorResume(e -> {
+                    log.warn("Could not publish batch balance events accounts={}: {}", observed.size(), e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static Money balance(Object value) {
+        if (value instanceof Decimal128) {
+            return Money.of(((Decimal128) value).bigDecimalValue());
+        }
+        return value == null ? null : Money.of(new BigDecimal(value.toString()));
+    }
+}
@@ -9,12 +9,18 @@ import com.example.msaccountservice.model.DebitCard;
 import com.example.msaccountservice.repository.AccountRepository;
 import com.example.msaccountservice.repository.DebitCardRepository;
 import com.example.msaccountservice.service.DebitCardService;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionReason;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -29,6 +35,8 @@ public class DebitCardServiceImpl implements DebitCardService {
 
     private final DebitCardRepository debitCardRepository;
     private final AccountRepository accountRepository;
+    private final BalanceEventPublisher balanceEventPublisher;
+    private final RejectionMetrics rejectionMetrics;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
     private String formatDateTime(LocalDateTime dateTime) {
@@ -124,36 +132,30 @@ public class DebitCardServiceImpl implements DebitCardService {
         return debitCardRepository.findByCardNumber(dto.getCardNumber())
                 .switchIfEmpty(Mono.error(new BusinessValidationException("Debit card not found")))
                 .flatMap(debitCard -> {
-                    // Check primary account first
-                    return processPaymentWithAccount(debitCard.getPrimaryAccountId(), dto.getAmount())
-                            .onErrorResume(e -> {
-                                log.info("Payment from primary account failed: {}", e.getMessage());
-                                // If primary account fails, try secondary accounts in order
-                                List<String> accountIds = new ArrayList<>(debitCard.getSecondaryAccountIds());
-                                return trySecondaryAccounts(accountIds, dto.getAmount(), 0);
-                            });
-                });
-    }
-
-    private Mono<Boolean> trySecondaryAccounts(List<String> accountIds, BigDecimal amount, int index) {
-        if (index >= accountIds.size()) {
-            return Mono.error(new BusinessValidationException("Insufficient funds in all linked accounts"));
-        }
-
-        String accountId = accountIds.get(index);
-        return processPaymentWithAccount(accountId, amount)
-                .onErrorResume(e -> {
-                    log.info("Payment from secondary account {} failed: {}", accountId, e.getMessage());
-                    return trySecondaryAccounts(accountIds, amount, index + 1);
+                    Money amount = Money.ofAmount(dto.getAmount());
+                    // Primero la cuenta principal y después las secundarias en orden; paga la primera con saldo
+                    List<String> accountIds = new ArrayList<>(1 + debitCard.getSecondaryAccountIds().size());
+                    accountIds.add(debitCard.getPrimaryAccountId());
+                    accountIds.addAll(debitCard.getSecondaryAccountIds());
+                    String customerId = debitCard.getCustomerId();
+                    return Flux.fromIterable(accountIds)
+                            .concatMap(accountId -> processPaymentWithAccount(accountId, customerId, amount))
+                            .filter(Boolean::booleanValue)
+                            .next()
+                            .switchIfEmpty(Mono.error(() -> rejectionMetrics.reject(
+                                    RejectionReason.INSUFFICIENT_FUNDS_IN_LINKED_ACCOUNTS)));
                 });
     }
 
-    private Mono<Boolean> processPaymentWithAccount(String accountId, BigDecimal amount) {
-        return accountRepository.findById(accountId)
-                .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+    // false si la cuenta no existe o no tiene saldo: es un resultado esperado, no un error.
+    // Las cuentas vinculadas son del titular de la tarjeta: se buscan solo en su partición
+    private Mono<Boolean> processPaymentWithAccount(String accountId, String customerId, Money amount) {
+        return OptimisticRetry.retrying(accountRepository.findByIdAndCustomerId(accountId, customerId)
                 .flatMap(account -> {
-                    if (account.getBalance().compareTo(amount) < 0) {
-                        return Mono.error(new BusinessValidationException("Insufficient funds in account " + accountId));
+                    if (account.getBalance().isLessThan(amount)) {
+                        log.debug("Insufficient funds for debit card payment in account {}", accountId);
+                        rejectionMetrics.record(RejectionReason.INSUFFICIENT_FUNDS);
+                        return Mono.just(false);
                     }
 
                     // Initialize dailyBalances if it is null
@@ -162,7 +164,8 @@ public class DebitCardServiceImpl implements DebitCardService {
                     }
 
                     // Deduct the amount
-                    account.setBalance(account.getBalance().subtract(amount));
+                    VipComplianceCalculator.onBalanceChange(account, account.getBalance(), LocalDate.now());
+                    account.setBalance(account.getBalance().minus(amount));
 
                     // Update daily balance with formatted date
                     account.getDailyBalances().put(formatDateTime(LocalDateTime.now()), account.getBalance());
@@ -172,7 +175,14 @@ public class DebitCardServiceImpl implements DebitCardService {
                         account.setTransactionsPerformed(account.getTransactionsPerformed() + 1);
                     }
 
-                    return accountRepository.save(account).map(a -> true);
-                });
+                    return accountRepository.saveVersioned(account)
+                            .doOnNext(saved -> balanceEventPublisher.publish(saved.getId(), saved.getCustomerId(),
+                                    BalanceEvent.Type.BALANCE_CHANGED, saved.getBalance(), Money.ZERO.minus(amount)))
+                            .map(a -> true);
+                }))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.debug("Linked account {} not found for debit card payment", accountId);
+                    return false;
+                }));
     }
 }
\ No newline at end of file
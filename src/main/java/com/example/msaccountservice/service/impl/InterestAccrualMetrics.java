@@ -0,0 +1,55 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.dto.InterestAccrualSummaryDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Separado del servicio: un MeterBinder que depende de MongoDB forma un ciclo con las métricas del cliente
+@Component
+public class InterestAccrualMetrics implements MeterBinder {
+
+    private final LongAdder accrued = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong lastDurationMillis = new AtomicLong();
+    private final AtomicReference<Double> lastThroughput = new AtomicReference<>(0.0);
+
+    public void record(InterestAccrualSummaryDTO summary) {
+        accrued.add(summary.getAccrued());
+        skipped.add(summary.getSkipped());
+        conflicts.add(summary.getConflicts());
+        failed.add(summary.getFailed());
+        lastDurationMillis.set(summary.getDurationMillis());
+        lastThroughput.set(summary.getAccountsPerSecond());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "accrued", accrued);
+        register(registry, "skipped", skipped);
+        register(registry, "conflict", conflicts);
+        register(registry, "failed", failed);
+        Gauge.builder("interest.accrual.last.duration", lastDurationMillis, millis -> millis.get() / 1000.0)
+                .description("Duration of the last interest accrual run")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("interest.accrual.last.throughput", lastThroughput, AtomicReference::get)
+                .description("Accounts scanned per second in the last interest accrual run")
+                .register(registry);
+    }
+
+    private static void register(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder("interest.accrual.accounts", counter, LongAdder::sum)
+                .description("Fixed-term accounts processed by interest accrual")
+                .tag("result", result)
+                .register(registry);
+    }
+}
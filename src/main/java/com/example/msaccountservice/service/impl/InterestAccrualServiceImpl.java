@@ -0,0 +1,386 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.InterestAccrualProperties;
+import com.example.msaccountservice.dto.InterestAccrualSummaryDTO;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.service.InterestAccrualService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Devengo diario de intereses de las cuentas a plazo fijo. Recorre la colección en rangos de _id
+// en paralelo, calcula el interés de cada día pendiente con el saldo de cierre de dailyBalances
+// y lo acumula en accruedInterest con bulkWrite. El filtro de cada actualización exige
+// lastInterestAccrualDate < día devengado, así que repetir o reanudar un día no devenga dos veces.
+// Las cuentas con interestRate guardado como String (anteriores a la migración a Decimal128)
+// también se devengan, y la misma actualización convierte la tasa a Decimal128.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InterestAccrualServiceImpl implements InterestAccrualService {
+
+    static final String ACCOUNTS = "accounts";
+    static final String CHECKPOINTS = "interest_accrual_checkpoints";
+    static final String LAST_ACCRUAL_DATE = "lastInterestAccrualDate";
+    static final String ACCRUED_INTEREST = "accruedInterest";
+    static final String INTEREST_RATE = "interestRate";
+    // Mismo formato que las claves de dailyBalances en AccountServiceImpl: el orden de texto es el cronológico
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String END_OF_DAY = "T23:59:59";
+    private static final int MAX_CATCH_UP_DAYS = 366;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoPartitions partitions;
+    private final InterestAccrualProperties properties;
+    private final InterestAccrualMetrics metrics;
+    private final BatchBalanceEvents balanceEvents;
+
+    @Override
+    public Mono<InterestAccrualSummaryDTO> accrue(LocalDate accrualDate) {
+        Run run = new Run(accrualDate, mongoTemplate.getConverter().convertToMongoType(accrualDate));
+        // Una base de datos tras otra, cada una con su plan de rangos; los checkpoints quedan en la principal
+        return Flux.fromIterable(partitions.all())
+                .concatMap(partition -> accrue(partition, run))
+                .then(Mono.defer(() -> mongoTemplate.upsert(Query.query(Criteria.where("_id").is(runId(accrualDate))),
+                        new Update().set("completedAt", new Date()), CHECKPOINTS)))
+                .then(Mono.fromSupplier(() -> finish(run)));
+    }
+
+    private Mono<Void> accrue(MongoPartition partition, Run run) {
+        String planId = partitions.size() == 1 ? runId(run.date) : runId(run.date) + "@" + partition.getName();
+        return partition.getTemplate().getCollection(ACCOUNTS)
+                .flatMap(collection -> partitionBoundaries(collection, planId)
+                        .flatMap(boundaries -> {
+                            int ranges = boundaries.size() + 1;
+                            run.partitions += ranges;
+                            log.info("Starting interest accrual date={} database={} partitions={} parallelism={}",
+                                    run.date, partition.getName(), ranges, properties.getParallelism());
+                            return Flux.range(0, ranges)
+                                    .flatMap(index -> accruePartition(collection, run, planId, index,
+                                                    index == 0 ? null : boundaries.get(index - 1),
+                                                    index < boundaries.size() ? boundaries.get(index) : null),
+                                            Math.max(1, properties.getParallelism()))
+                                    .then();
+                        }));
+    }
+
+    // Límites de los rangos de _id: los del plan guardado del día (para reanudar con los mismos
+    // rangos) o calculados con $sample, que no recorre la colección
+    private Mono<List<Object>> partitionBoundaries(MongoCollection<Document> collection, String planId) {
+        Mono<List<Object>> planned = properties.isRestart()
+                ? Mono.empty()
+                : mongoTemplate.findById(planId, Document.class, CHECKPOINTS)
+                        .map(plan -> plan.getList("boundaries", Object.class, List.of()));
+        return planned.switchIfEmpty(Mono.defer(() -> sampleIds(collection)
+                .map(ids -> boundaries(ids, properties.getPartitions()))
+                .flatMap(boundaries -> mongoTemplate.remove(Query.query(Criteria.where("planId").is(planId)), CHECKPOINTS)
+                        .then(mongoTemplate.upsert(Query.query(Criteria.where("_id").is(planId)), new Update()
+                                .set("boundaries", boundaries)
+                                .set("startedAt", new Date())
+                                .unset("completedAt"), CHECKPOINTS))
+                        .thenReturn(boundaries))));
+    }
+
+    private Mono<List<Object>> sampleIds(MongoCollection<Document> collection) {
+        if (properties.getPartitions() <= 1) {
+            return Mono.just(List.of());
+        }
+        int samples = properties.getPartitions() * Math.max(1, properties.getSamplesPerPartition());
+        return Flux.from(collection.aggregate(List.of(
+                        new Document("$sample", new Document("size", samples)),
+                        new Document("$project", new Document("_id", 1)))))
+                .map(document -> document.get("_id"))
+                .collectList();
+    }
+
+    // Cuantiles de los ObjectId muestreados. Los _id de otro tipo quedan en el primer rango
+    static List<Object> boundaries(List<Object> sampledIds, int partitions) {
+        List<ObjectId> ids = sampledIds.stream()
+                .filter(ObjectId.class::isInstance)
+                .map(ObjectId.class::cast)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        List<Object> boundaries = new ArrayList<>();
+        if (partitions <= 1 || ids.size() < partitions) {
+            return boundaries;
+        }
+        for (int i = 1; i < partitions; i++) {
+            boundaries.add(ids.get(i * ids.size() / partitions));
+        }
+        return boundaries;
+    }
+
+    private Mono<Void> accruePartition(MongoCollection<Document> collection, Run run, String planId, int index,
+                                       Object lower, Object upper) {
+        String checkpointId = planId + ":" + index;
+        return mongoTemplate.findById(checkpointId, Document.class, CHECKPOINTS)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(checkpoint -> {
+                    if (checkpoint.map(document -> document.getBoolean("done", false)).orElse(false)) {
+                        return Mono.empty();
+                    }
+                    Object lastId = checkpoint.map(document -> document.get("lastId")).orElse(null);
+                    return Flux.from(collection.find(partitionFilter(run, lower, upper, lastId))
+                                    .projection(Projections.include("balance", INTEREST_RATE, "dailyBalances", LAST_ACCRUAL_DATE))
+                                    .sort(Sorts.ascending("_id"))
+                                    .batchSize(properties.getBatchSize()))
+                            .buffer(properties.getBatchSize())
+                            .concatMap(batch -> accrueBatch(collection, run, batch)
+                                    .then(saveCheckpoint(planId, checkpointId, index, batch.get(batch.size() - 1).get("_id"), false)))
+                            .then(saveCheckpoint(planId, checkpointId, index, null, true));
+                });
+    }
+
+    private Bson partitionFilter(Run run, Object lower, Object upper, Object lastId) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq("accountType", AccountType.FIXED_TERM.name()));
+        // gt solo compara con números: las tasas en texto se seleccionan por tipo y se validan al leerlas
+        filters.add(Filters.or(Filters.gt(INTEREST_RATE, 0), Filters.type(INTEREST_RATE, BsonType.STRING)));
+        filters.add(Filters.or(Filters.lt(LAST_ACCRUAL_DATE, run.marker), Filters.eq(LAST_ACCRUAL_DATE, null)));
+        if (lower != null) {
+            filters.add(Filters.gte("_id", lower));
+        }
+        if (upper != null) {
+            // $not en el primer rango para incluir también los _id que no son ObjectId
+            filters.add(lower == null ? Filters.not(Filters.gte("_id", upper)) : Filters.lt("_id", upper));
+        }
+        if (lastId != null) {
+            filters.add(Filters.not(Filters.lte("_id", lastId)));
+        }
+        return Filters.and(filters);
+    }
+
+    private Mono<Void> accrueBatch(MongoCollection<Document> collection, Run run, List<Document> batch) {
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        List<Object> ids = new ArrayList<>(batch.size());
+        BigDecimal batchInterest = BigDecimal.ZERO;
+        for (Document account : batch) {
+            run.scanned.increment();
+            Money interest = interest(account, run.date);
+            if (interest == null) {
+                run.skipped.increment();
+                continue;
+            }
+            // $currentDate toma la hora del servidor, como $$NOW en el cobro de mantenimiento
+            // version, como @Version en Account, para que un save que leyó antes no deshaga el devengo
+            Bson update = Updates.combine(Updates.set(LAST_ACCRUAL_DATE, run.marker), Updates.currentDate("updatedAt"),
+                    Updates.inc("version", 1L));
+            if (account.get(INTEREST_RATE) instanceof String) {
+                update = Updates.combine(update, Updates.set(INTEREST_RATE, new Decimal128(decimal(account.get(INTEREST_RATE)))));
+                run.migratedRates.increment();
+            }
+            if (interest.isPositive()) {
+                update = Updates.combine(update, Updates.inc(ACCRUED_INTEREST, new Decimal128(interest.toBigDecimal())));
+                batchInterest = batchInterest.add(interest.toBigDecimal());
+            } else {
+                run.zero.increment();
+            }
+            updates.add(new UpdateOneModel<>(Filters.and(
+                    Filters.eq("_id", account.get("_id")),
+                    Filters.or(Filters.lt(LAST_ACCRUAL_DATE, run.marker), Filters.eq(LAST_ACCRUAL_DATE, null))),
+                    update));
+            ids.add(account.get("_id"));
+        }
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+
+        BigDecimal interest = batchInterest;
+        return Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)))
+                .doOnNext(result -> run.written(updates.size(), result.getMatchedCount(), 0, interest))
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    log.warn("Interest accrual batch had write errors date={} errors={} first={}",
+                            run.date, e.getWriteErrors().size(), e.getWriteErrors().get(0).getMessage());
+                    run.written(updates.size(), e.getWriteResult().getMatchedCount(), e.getWriteErrors().size(), interest);
+                    return Mono.empty();
+                })
+                // El interés devengado no cambia el saldo: UPDATED avisa de que cambió accruedInterest
+                .then(balanceEvents.publish(collection, ids, Filters.eq(LAST_ACCRUAL_DATE, run.marker),
+                        BalanceEvent.Type.UPDATED, id -> null));
+    }
+
+    // Interés de los días pendientes hasta accrualDate, o null si no hay saldo del que partir
+    Money interest(Document account, LocalDate accrualDate) {
+        BigDecimal rate = decimal(account.get(INTEREST_RATE));
+        if (rate == null || rate.signum() <= 0) {
+            return null;
+        }
+        NavigableMap<String, BigDecimal> closingBalances = new TreeMap<>();
+        Object dailyBalances = account.get("dailyBalances");
+        if (dailyBalances instanceof Document) {
+            for (Map.Entry<String, Object> entry : ((Document) dailyBalances).entrySet()) {
+                BigDecimal balance = decimal(entry.getValue());
+                if (balance != null) {
+                    closingBalances.put(entry.getKey(), balance);
+                }
+            }
+        }
+
+        LocalDate from;
+        LocalDate lastAccrual = toLocalDate(account.get(LAST_ACCRUAL_DATE));
+        if (lastAccrual != null) {
+            from = lastAccrual.plusDays(1);
+        } else if (!closingBalances.isEmpty()) {
+            from = LocalDate.parse(closingBalances.firstKey().substring(0, 10), DAY);
+        } else {
+            // Documentos sin historial: solo el día devengado, con el saldo actual
+            BigDecimal balance = decimal(account.get("balance"));
+            if (balance == null) {
+                return null;
+            }
+            closingBalances.put(accrualDate.format(DAY), balance);
+            from = accrualDate;
+        }
+        if (from.isBefore(accrualDate.minusDays(MAX_CATCH_UP_DAYS - 1))) {
+            from = accrualDate.minusDays(MAX_CATCH_UP_DAYS - 1);
+        }
+        if (from.isAfter(accrualDate) || closingBalances.floorKey(accrualDate.format(DAY) + END_OF_DAY) == null) {
+            return null;
+        }
+
+        // Se suma sin redondear y se redondea una vez a céntimos
+        BigDecimal total = BigDecimal.ZERO;
+        for (LocalDate day = from; !day.isAfter(accrualDate); day = day.plusDays(1)) {
+            Map.Entry<String, BigDecimal> closing = closingBalances.floorEntry(day.format(DAY) + END_OF_DAY);
+            if (closing != null && closing.getValue().signum() > 0) {
+                total = total.add(closing.getValue());
+            }
+        }
+        BigDecimal interest = total.multiply(rate)
+                .divide(BigDecimal.valueOf(100L * properties.getDaysInYear()), MathContext.DECIMAL64);
+        return Money.of(interest);
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof Decimal128) {
+            return ((Decimal128) value).bigDecimalValue();
+        }
+        if (value instanceof Number || value instanceof String) {
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        return value instanceof Date
+                ? mongoTemplate.getConverter().getConversionService().convert(value, LocalDate.class)
+                : null;
+    }
+
+    private Mono<Void> saveCheckpoint(String planId, String checkpointId, int index, Object lastId, boolean done) {
+        Update checkpoint = new Update()
+                .set("planId", planId)
+                .set("partition", index)
+                .set("done", done)
+                .set("updatedAt", new Date());
+        if (lastId != null) {
+            checkpoint.set("lastId", lastId);
+        }
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(checkpointId)), checkpoint, CHECKPOINTS)
+                .then();
+    }
+
+    private static String runId(LocalDate accrualDate) {
+        return "interest-accrual:" + accrualDate.format(DAY);
+    }
+
+    private InterestAccrualSummaryDTO finish(Run run) {
+        long durationMillis = Math.max(1, (System.nanoTime() - run.startNanos) / 1_000_000);
+        double throughput = run.scanned.sum() * 1000.0 / durationMillis;
+
+        InterestAccrualSummaryDTO summary = InterestAccrualSummaryDTO.builder()
+                .accrualDate(run.date)
+                .partitions(run.partitions)
+                .scanned(run.scanned.sum())
+                .accrued(run.accrued.sum())
+                .zero(run.zero.sum())
+                .skipped(run.skipped.sum())
+                .conflicts(run.conflicts.sum())
+                .failed(run.failed.sum())
+                .migratedRates(run.migratedRates.sum())
+                .totalInterest(run.totalInterest.get())
+                .durationMillis(durationMillis)
+                .accountsPerSecond(throughput)
+                .build();
+        metrics.record(summary);
+        log.info("Interest accrual finished date={} scanned={} accrued={} zero={} skipped={} conflicts={} failed={} "
+                        + "migratedRates={} totalInterest={} durationMs={} accountsPerSecond={}",
+                summary.getAccrualDate(), summary.getScanned(), summary.getAccrued(), summary.getZero(),
+                summary.getSkipped(), summary.getConflicts(), summary.getFailed(), summary.getMigratedRates(),
+                summary.getTotalInterest(), durationMillis, Math.round(throughput));
+        return summary;
+    }
+
+    private static final class Run {
+        private final LocalDate date;
+        private final Object marker; // accrualDate en el formato en que Spring Data guarda LocalDate
+        private final long startNanos = System.nanoTime();
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder accrued = new LongAdder();
+        private final LongAdder zero = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder migratedRates = new LongAdder();
+        private final AtomicReference<BigDecimal> totalInterest = new AtomicReference<>(BigDecimal.ZERO);
+        private int partitions;
+
+        private Run(LocalDate date, Object marker) {
+            this.date = date;
+            this.marker = marker;
+        }
+
+        // Con conflictos o errores no se sabe qué cuentas se escribieron: el total es el enviado
+        private void written(int sent, int matched, int errors, BigDecimal interest) {
+            accrued.add(matched);
+            failed.add(errors);
+            conflicts.add(Math.max(0, sent - errors - matched));
+            totalInterest.accumulateAndGet(interest, BigDecimal::add);
+        }
+    }
+}
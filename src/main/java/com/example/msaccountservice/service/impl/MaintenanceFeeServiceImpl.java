@@ -0,0 +1,233 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.MaintenanceFeeProperties;
+import com.example.msaccountservice.dto.MaintenanceFeeSummaryDTO;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.service.MaintenanceFeeService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Cobro mensual de la comisión de mantenimiento de las cuentas corrientes. Cada actualización
+// solo se aplica si el saldo cubre la comisión y el mes no está cobrado (lastMaintenanceFeePeriod),
+// así que repetir la ejecución de un mes reanuda donde quedó: solo vuelve a leer las pendientes.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaintenanceFeeServiceImpl implements MaintenanceFeeService {
+
+    static final String ACCOUNTS = "accounts";
+    static final String RUNS = "maintenance_fee_runs";
+    static final String LAST_PERIOD = "lastMaintenanceFeePeriod";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    // Parcial: solo entran las cuentas con importe de comisión (en las de /accounts es un Boolean)
+    static final Index CANDIDATES_INDEX = new Index()
+            .on("accountType", Sort.Direction.ASC)
+            .on(LAST_PERIOD, Sort.Direction.ASC)
+            .partial(PartialIndexFilter.of(Criteria.where("maintenanceFee").gt(0)))
+            .named("maintenance_fee_candidates");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoPartitions partitions;
+    private final MaintenanceFeeProperties properties;
+    private final BatchBalanceEvents balanceEvents;
+
+    @Override
+    public Mono<MaintenanceFeeSummaryDTO> charge(YearMonth period) {
+        Run run = new Run(period.toString());
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        log.info("Starting maintenance fee charge period={} chunkSize={} parallelism={}",
+                run.period, chunkSize, properties.getParallelism());
+        // Una partición tras otra; el registro del mes queda en la base de datos principal
+        return Flux.fromIterable(partitions.all())
+                .concatMap(partition -> charge(partition.getTemplate(), run, chunkSize))
+                .then(Mono.defer(() -> Mono.just(finish(run))))
+                .flatMap(summary -> saveRun(summary).thenReturn(summary));
+    }
+
+    private Mono<Void> charge(ReactiveMongoTemplate template, Run run, int chunkSize) {
+        return template.indexOps(ACCOUNTS).ensureIndex(CANDIDATES_INDEX)
+                .then(template.getCollection(ACCOUNTS))
+                .flatMapMany(collection -> Flux.from(collection.find(pending(run.period))
+                                .projection(Projections.include("maintenanceFee", "balance"))
+                                .batchSize(chunkSize))
+                        .buffer(chunkSize)
+                        .flatMap(chunk -> chargeChunk(collection, run, chunk), Math.max(1, properties.getParallelism())))
+                .then();
+    }
+
+    private static Bson pending(String period) {
+        return Filters.and(
+                Filters.eq("accountType", AccountType.CHECKING.name()),
+                Filters.gt("maintenanceFee", 0),
+                Filters.or(Filters.lt(LAST_PERIOD, period), Filters.eq(LAST_PERIOD, null)));
+    }
+
+    private Mono<Void> chargeChunk(MongoCollection<Document> collection, Run run, List<Document> chunk) {
+        String balanceKey = LocalDateTime.now().format(DATE_FORMATTER);
+        Map<Object, BigDecimal> fees = chunk.stream().collect(Collectors.toMap(
+                account -> account.get("_id"), account -> decimal(account.get("maintenanceFee")), (a, b) -> a));
+        List<WriteModel<Document>> updates = new ArrayList<>(chunk.size());
+        for (Document account : chunk) {
+            Decimal128 fee = new Decimal128(fees.get(account.get("_id")));
+            Document newBalance = new Document("$subtract", List.of("$balance", fee));
+            // Filtro con la comisión leída: si cambia entre la lectura y la escritura, la cuenta queda pendiente
+            Bson filter = Filters.and(
+                    Filters.eq("_id", account.get("_id")),
+                    Filters.eq("maintenanceFee", account.get("maintenanceFee")),
+                    Filters.gte("balance", fee),
+                    Filters.or(Filters.lt(LAST_PERIOD, run.period), Filters.eq(LAST_PERIOD, null)));
+            // Actualización con pipeline para registrar en dailyBalances el saldo resultante
+            List<Bson> update = List.of(new Document("$set", new Document("balance", newBalance)
+                    .append("dailyBalances", new Document("$mergeObjects", List.of(
+                            new Document("$ifNull", List.of("$dailyBalances", new Document())),
+                            new Document(balanceKey, newBalance))))
+                    .append(LAST_PERIOD, run.period)
+                    .append("updatedAt", "$$NOW")
+                    // Como @Version en Account: un depósito que leyó antes del cobro falla al guardar y relee
+                    .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))));
+            updates.add(new UpdateOneModel<>(filter, update));
+        }
+        run.candidates.add(updates.size());
+
+        return Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)))
+                .map(result -> new int[]{result.getMatchedCount(), 0})
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    log.warn("Maintenance fee chunk had write errors period={} errors={} first={}",
+                            run.period, e.getWriteErrors().size(), e.getWriteErrors().get(0).getMessage());
+                    return Mono.just(new int[]{e.getWriteResult().getMatchedCount(), e.getWriteErrors().size()});
+                })
+                .flatMap(result -> {
+                    int matched = result[0];
+                    int errors = result[1];
+                    run.charged.add(matched);
+                    run.failed.add(errors);
+                    if (matched == updates.size()) {
+                        run.addCharged(fees.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+                        return Mono.<Void>empty();
+                    }
+                    return classifyUnmatched(collection, run, fees, matched, updates.size() - matched - errors);
+                })
+                .then(balanceEvents.publish(collection, fees.keySet(), Filters.eq(LAST_PERIOD, run.period),
+                        BalanceEvent.Type.BALANCE_CHANGED, id -> Money.ZERO.minus(Money.of(fees.get(id)))));
+    }
+
+    // bulkWrite solo devuelve totales: se consulta qué cuentas del lote tienen ya el mes cobrado
+    // para distinguir las cobradas por otra ejecución de las que no tenían saldo
+    private Mono<Void> classifyUnmatched(MongoCollection<Document> collection, Run run,
+                                         Map<Object, BigDecimal> fees, int matched, int unmatched) {
+        return Flux.from(collection.find(Filters.and(
+                                Filters.in("_id", fees.keySet()),
+                                Filters.eq(LAST_PERIOD, run.period)))
+                        .projection(Projections.include("_id")))
+                .map(account -> fees.get(account.get("_id")))
+                .collectList()
+                .doOnNext(charged -> {
+                    int alreadyCharged = Math.max(0, charged.size() - matched);
+                    run.alreadyCharged.add(alreadyCharged);
+                    run.insufficientFunds.add(Math.max(0, unmatched - alreadyCharged));
+                    // Con cobros concurrentes el total incluye los de la otra ejecución del mismo lote
+                    run.addCharged(charged.stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+                })
+                .then();
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return value instanceof Decimal128 ? ((Decimal128) value).bigDecimalValue() : new BigDecimal(value.toString());
+    }
+
+    private MaintenanceFeeSummaryDTO finish(Run run) {
+        long durationMillis = Math.max(1, (System.nanoTime() - run.startNanos) / 1_000_000);
+        double throughput = run.candidates.sum() * 1000.0 / durationMillis;
+        MaintenanceFeeSummaryDTO summary = MaintenanceFeeSummaryDTO.builder()
+                .period(run.period)
+                .candidates(run.candidates.sum())
+                .charged(run.charged.sum())
+                .insufficientFunds(run.insufficientFunds.sum())
+                .alreadyCharged(run.alreadyCharged.sum())
+                .failed(run.failed.sum())
+                .totalCharged(run.totalCharged.get())
+                .durationMillis(durationMillis)
+                .accountsPerSecond(throughput)
+                .build();
+        log.info("Maintenance fee charge finished period={} candidates={} charged={} insufficientFunds={} "
+                        + "alreadyCharged={} failed={} totalCharged={} durationMs={} accountsPerSecond={}",
+                summary.getPeriod(), summary.getCandidates(), summary.getCharged(), summary.getInsufficientFunds(),
+                summary.getAlreadyCharged(), summary.getFailed(), summary.getTotalCharged(), durationMillis,
+                Math.round(throughput));
+        return summary;
+    }
+
+    // Un documento por mes con los totales acumulados de todas sus ejecuciones
+    private Mono<Void> saveRun(MaintenanceFeeSummaryDTO summary) {
+        Update update = new Update()
+                .inc("runs", 1)
+                .inc("charged", summary.getCharged())
+                .inc("alreadyCharged", summary.getAlreadyCharged())
+                .inc("failed", summary.getFailed())
+                .inc("totalCharged", new Decimal128(summary.getTotalCharged()))
+                .set("lastRunAt", new Date())
+                .set("lastRun", Map.of(
+                        "candidates", summary.getCandidates(),
+                        "charged", summary.getCharged(),
+                        "insufficientFunds", summary.getInsufficientFunds(),
+                        "failed", summary.getFailed(),
+                        "durationMillis", summary.getDurationMillis()));
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(summary.getPeriod())), update, RUNS)
+                .then();
+    }
+
+    private static final class Run {
+        private final String period;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder candidates = new LongAdder();
+        private final LongAdder charged = new LongAdder();
+        private final LongAdder insufficientFunds = new LongAdder();
+        private final LongAdder alreadyCharged = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicReference<BigDecimal> totalCharged = new AtomicReference<>(BigDecimal.ZERO);
+
+        private Run(String period) {
+            this.period = period;
+        }
+
+        private void addCharged(BigDecimal amount) {
+            totalCharged.accumulateAndGet(amount, BigDecimal::add);
+        }
+    }
+}
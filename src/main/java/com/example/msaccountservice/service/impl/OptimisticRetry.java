@@ -0,0 +1,31 @@
+package com.example.msaccountservice.service.impl;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+// Reintento de las lecturas-modificación-escritura de cuentas: si otra escritura cambió la cuenta
+// (su version) entre findById y save, se vuelve a leer y se aplica el cambio sobre lo nuevo.
+// Agotados los reintentos sale OptimisticLockingFailureException, que se responde con 409.
+// Cada ronda solo gana un escritor: con jitter completo los demás no vuelven todos a la vez,
+// y 16 reintentos bastan para unas 40 escrituras simultáneas sobre la misma cuenta.
+final class OptimisticRetry {
+
+    private static final int MAX_RETRIES = 16;
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(5);
+    private static final Duration MAX_BACKOFF = Duration.ofMillis(200);
+
+    private OptimisticRetry() {
+    }
+
+    // operation debe leer la cuenta al suscribirse (findById...), no antes
+    static <T> Mono<T> retrying(Mono<T> operation) {
+        return operation.retryWhen(Retry.backoff(MAX_RETRIES, FIRST_BACKOFF)
+                .maxBackoff(MAX_BACKOFF)
+                .jitter(1.0)
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+}
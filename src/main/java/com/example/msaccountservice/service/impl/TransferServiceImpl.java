@@ -0,0 +1,332 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.TransferProperties;
+import com.example.msaccountservice.dto.TransferDTO;
+import com.example.msaccountservice.exception.AccountNotFoundException;
+import com.example.msaccountservice.exception.BusinessValidationException;
+import com.example.msaccountservice.exception.TransferPendingException;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.Transfer;
+import com.example.msaccountservice.model.TransferOperation;
+import com.example.msaccountservice.model.enums.TransferStatus;
+import com.example.msaccountservice.repository.AccountRepository;
+import com.example.msaccountservice.repository.TransferRepository;
+import com.example.msaccountservice.service.TransferService;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEvent;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.BusinessRejectionException;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionReason;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.function.Function;
+
+// Transferencias entre cuentas que pueden estar en bases de datos distintas, sin transacción común.
+// El registro de la transferencia se guarda antes del cargo y cada paso (cargo, abono, devolución)
+// deja una marca en la cuenta en la misma escritura que cambia el saldo, así que repetir un paso no
+// vuelve a aplicarlo. Si algo falla, se anula el paso que pudiera estar en curso con una marca a
+// cero y se devuelve el cargo con su comisión; lo que no se resuelve en la petición lo termina
+// TransferRecoveryScheduler.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferServiceImpl implements TransferService {
+
+    private static final String DEBIT = ":DEBIT";
+    private static final String CREDIT = ":CREDIT";
+    private static final String REFUND = ":REFUND";
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final BalanceEventPublisher balanceEventPublisher;
+    private final CommissionEventStore commissionEventStore;
+    private final RejectionMetrics rejectionMetrics;
+    private final TransferProperties properties;
+
+    @Override
+    public Mono<Account> transfer(TransferDTO transferDTO) {
+        return Mono.fromCallable(() -> Money.ofAmount(transferDTO.getAmount()))
+                .flatMap(amount -> exists(transferDTO.getSourceAccountId())
+                        .then(exists(transferDTO.getDestinationAccountId()))
+                        .then(Mono.defer(() -> transferRepository.insert(newTransfer(transferDTO, amount)))))
+                .flatMap(transfer -> debit(transfer, false)
+                        .flatMap(this::credit)
+                        .onErrorResume(e -> cancel(transfer.getId(), e)));
+    }
+
+    @Override
+    public Mono<Long> recoverUnfinished() {
+        LocalDateTime now = LocalDateTime.now();
+        return transferRepository.findByStatusInAndUpdatedAtBefore(
+                        EnumSet.of(TransferStatus.PENDING, TransferStatus.DEBITED, TransferStatus.COMPENSATING),
+                        now.minus(properties.getStaleAfter()))
+                .filter(transfer -> {
+                    // Las cuentas ya no guardan sus marcas: repetir un paso podría aplicarlo dos veces
+                    if (transfer.getCreatedAt().isBefore(now.minus(properties.getOperationRetention()))) {
+                        log.error("Transfer older than the operation retention needs manual review id={} status={}",
+                                transfer.getId(), transfer.getStatus());
+                        return false;
+                    }
+                    return true;
+                })
+                .concatMap(transfer -> recover(transfer)
+                        .onErrorResume(e -> {
+                            log.error("Could not recover transfer id={} status={}", transfer.getId(), transfer.getStatus(), e);
+                            return Mono.just(false);
+                        }))
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    // Toma la transferencia con una escritura versionada (otra instancia que la tome antes la hace
+    // fallar) y la termina: hacia delante si el cargo está aplicado, revirtiéndola si se estaba
+    // revirtiendo. Devuelve false si la tomó otra instancia
+    private Mono<Boolean> recover(Transfer transfer) {
+        return update(transfer, transfer.getStatus())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.empty())
+                .flatMap(claimed -> finish(claimed).thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Account> finish(Transfer transfer) {
+        switch (transfer.getStatus()) {
+            case PENDING:
+                return debit(transfer, true)
+                        .filter(debited -> debited.getStatus() == TransferStatus.DEBITED)
+                        .flatMap(this::completeOrCompensate);
+            case DEBITED:
+                return completeOrCompensate(transfer);
+            default:
+                return compensate(transfer);
+        }
+    }
+
+    private Mono<Account> completeOrCompensate(Transfer transfer) {
+        return credit(transfer)
+                .onErrorResume(e -> {
+                    log.warn("Transfer credit failed, refunding id={}: {}", transfer.getId(), e.toString());
+                    transfer.setFailureReason(e.getMessage());
+                    return compensate(transfer);
+                });
+    }
+
+    // El cargo o el abono ha fallado: se resuelve lo aplicado y se devuelve el error original, salvo
+    // que el abono ya estuviera guardado. Si no se puede resolver ahora queda para la recuperación.
+    private Mono<Account> cancel(String transferId, Throwable error) {
+        return transferRepository.findById(transferId)
+                .flatMap(transfer -> {
+                    transfer.setFailureReason(error.getMessage());
+                    if (transfer.getStatus() == TransferStatus.PENDING
+                            && (error instanceof BusinessRejectionException || error instanceof AccountNotFoundException)) {
+                        // Rechazado antes de guardar el cargo: no hay nada que revertir
+                        return update(transfer, TransferStatus.FAILED)
+                                .onErrorResume(e -> {
+                                    log.warn("Could not mark transfer as failed id={}: {}", transferId, e.toString());
+                                    return Mono.empty();
+                                })
+                                .then(Mono.<Account>empty());
+                    }
+                    log.warn("Transfer failed, cancelling id={} status={}: {}", transferId, transfer.getStatus(),
+                            error.toString());
+                    return resolve(transfer);
+                })
+                .switchIfEmpty(Mono.error(error))
+                .onErrorMap(e -> e != error, e -> {
+                    log.error("Could not cancel transfer id={}, recovery will finish it", transferId, e);
+                    return new TransferPendingException(transferId, error);
+                });
+    }
+
+    // Lleva la transferencia a un estado final sin volver a cobrar: la cuenta de destino si el abono
+    // ya estaba guardado, o vacío si no se llegó a cargar o se ha devuelto el cargo
+    private Mono<Account> resolve(Transfer transfer) {
+        switch (transfer.getStatus()) {
+            case PENDING:
+                return debit(transfer, true)
+                        .filter(debited -> debited.getStatus() == TransferStatus.DEBITED)
+                        .flatMap(this::compensate);
+            case DEBITED:
+            case COMPENSATING:
+                return compensate(transfer);
+            case COMPLETED:
+                return accountRepository.findById(transfer.getDestinationAccountId());
+            default:
+                return Mono.empty();
+        }
+    }
+
+    // Cargo del importe y la comisión en la cuenta de origen. Con fence no cobra: si el cargo no está
+    // guardado deja la marca a cero, de modo que un cargo aún en curso falla al reintentar y la
+    // transferencia acaba FAILED
+    private Mono<Transfer> debit(Transfer transfer, boolean fence) {
+        return apply(transfer.getSourceAccountId(), transfer.getId() + DEBIT, account -> {
+            if (fence) {
+                return Mono.just(Money.ZERO);
+            }
+            if (account.getBalance().isLessThan(transfer.getAmount())) {
+                return Mono.error(rejectionMetrics.reject(RejectionReason.INSUFFICIENT_FUNDS));
+            }
+            Money debited = transfer.getAmount().plus(AccountMovements.withdrawalCommission(account));
+            AccountMovements.debit(account, debited);
+            return Mono.just(debited);
+        }).flatMap(applied -> {
+            Account account = applied.getT1();
+            Money debited = applied.getT2();
+            if (!debited.isPositive()) {
+                return fence ? update(transfer, TransferStatus.FAILED) : cancelled(transfer);
+            }
+            if (applied.getT3()) {
+                publish(account, Money.ZERO.minus(debited));
+            }
+            Money commission = debited.minus(transfer.getAmount());
+            transfer.setCommission(commission);
+            Mono<Void> recorded = commission.isPositive()
+                    ? recordCommission(transfer, account, commission, CommissionEvent.Source.WITHDRAWAL, ":commission")
+                    : Mono.empty();
+            return recorded.then(Mono.defer(() -> update(transfer, TransferStatus.DEBITED)));
+        });
+    }
+
+    private Mono<Account> credit(Transfer transfer) {
+        return apply(transfer.getDestinationAccountId(), transfer.getId() + CREDIT, account -> {
+            AccountMovements.credit(account, transfer.getAmount());
+            return Mono.just(transfer.getAmount());
+        }).flatMap(applied -> {
+            Account account = applied.getT1();
+            if (!applied.getT2().isPositive()) {
+                return cancelled(transfer);
+            }
+            if (applied.getT3()) {
+                publish(account, transfer.getAmount());
+            }
+            return update(transfer, TransferStatus.COMPLETED).thenReturn(account);
+        });
+    }
+
+    // Anula el abono si no está guardado y devuelve el cargo con su comisión. Si el abono ya estaba
+    // guardado la transferencia se completa y se devuelve la cuenta de destino
+    private Mono<Account> compensate(Transfer transfer) {
+        Mono<Transfer> compensating = transfer.getStatus() == TransferStatus.COMPENSATING
+                ? Mono.just(transfer)
+                : update(transfer, TransferStatus.COMPENSATING);
+        return compensating.flatMap(current -> apply(current.getDestinationAccountId(), current.getId() + CREDIT,
+                        account -> Mono.just(Money.ZERO))
+                .onErrorResume(AccountNotFoundException.class, e -> Mono.empty())
+                .filter(applied -> applied.getT2().isPositive())
+                .flatMap(applied -> update(current, TransferStatus.COMPLETED).thenReturn(applied.getT1()))
+                .switchIfEmpty(Mono.defer(() -> refund(current).then(Mono.empty()))));
+    }
+
+    private Mono<Transfer> refund(Transfer transfer) {
+        Money commission = transfer.getCommission() != null ? transfer.getCommission() : Money.ZERO;
+        Money debited = transfer.getAmount().plus(commission);
+        return apply(transfer.getSourceAccountId(), transfer.getId() + REFUND, account -> {
+            AccountMovements.revertDebit(account, debited);
+            return Mono.just(debited);
+        }).flatMap(applied -> {
+            Account account = applied.getT1();
+            if (applied.getT3()) {
+                publish(account, debited);
+            }
+            Mono<Void> recorded = commission.isPositive()
+                    ? recordCommission(transfer, account, Money.ZERO.minus(commission),
+                    CommissionEvent.Source.TRANSFER_REFUND, ":commission-refund")
+                    : Mono.empty();
+            return recorded.then(Mono.defer(() -> update(transfer, TransferStatus.REFUNDED)));
+        });
+    }
+
+    // Aplica un paso una sola vez: movement cambia la cuenta y devuelve el importe aplicado, que se
+    // guarda como marca en la misma escritura versionada. Devuelve la cuenta, el importe de la marca
+    // y si se ha aplicado ahora o ya estaba
+    private Mono<Tuple3<Account, Money, Boolean>> apply(String accountId, String key,
+                                                        Function<Account, Mono<Money>> movement) {
+        return OptimisticRetry.retrying(accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)))
+                .flatMap(account -> {
+                    TransferOperation applied = account.getTransferOperations() != null
+                            ? account.getTransferOperations().get(key) : null;
+                    if (applied != null) {
+                        return Mono.just(Tuples.of(account, applied.getAmount(), false));
+                    }
+                    return movement.apply(account).flatMap(amount -> {
+                        addOperation(account, key, amount);
+                        return accountRepository.saveVersioned(account)
+                                .map(saved -> Tuples.of(saved, amount, true));
+                    });
+                }));
+    }
+
+    // Las marcas más antiguas que operationRetention se descartan al añadir una nueva
+    private void addOperation(Account account, String key, Money amount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (account.getTransferOperations() == null) {
+            account.setTransferOperations(new HashMap<>());
+        }
+        LocalDateTime expired = now.minus(properties.getOperationRetention());
+        account.getTransferOperations().values().removeIf(operation -> operation.getAppliedAt().isBefore(expired));
+        account.getTransferOperations().put(key, new TransferOperation(amount, now));
+    }
+
+    private <T> Mono<T> cancelled(Transfer transfer) {
+        return Mono.error(new BusinessValidationException("Transfer " + transfer.getId() + " was cancelled"));
+    }
+
+    private Mono<Void> exists(String accountId) {
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)))
+                .then();
+    }
+
+    private static Transfer newTransfer(TransferDTO transferDTO, Money amount) {
+        LocalDateTime now = LocalDateTime.now();
+        Transfer transfer = new Transfer();
+        transfer.setId(new ObjectId().toHexString());
+        transfer.setSourceAccountId(transferDTO.getSourceAccountId());
+        transfer.setDestinationAccountId(transferDTO.getDestinationAccountId());
+        transfer.setAmount(amount);
+        transfer.setStatus(TransferStatus.PENDING);
+        transfer.setCreatedAt(now);
+        transfer.setUpdatedAt(now);
+        return transfer;
+    }
+
+    private Mono<Transfer> update(Transfer transfer, TransferStatus status) {
+        transfer.setStatus(status);
+        transfer.setUpdatedAt(LocalDateTime.now());
+        return transferRepository.save(transfer);
+    }
+
+    private void publish(Account account, Money amount) {
+        balanceEventPublisher.publish(account.getId(), account.getCustomerId(), BalanceEvent.Type.BALANCE_CHANGED,
+                account.getBalance(), amount);
+    }
+
+    // Id fijo por transferencia: repetir el paso no duplica el evento
+    private Mono<Void> recordCommission(Transfer transfer, Account account, Money amount,
+                                        CommissionEvent.Source source, String suffix) {
+        return commissionEventStore.record(CommissionEvent.builder()
+                        .id(transfer.getId() + suffix)
+                        .customerId(account.getCustomerId())
+                        .accountId(account.getId())
+                        .amount(amount)
+                        .source(source)
+                        .timestamp(LocalDateTime.now())
+                        .build())
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+    }
+}
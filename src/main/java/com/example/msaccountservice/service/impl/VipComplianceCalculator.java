@@ -0,0 +1,147 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+// Cálculo incremental del promedio de saldo diario de las cuentas VIP. Todo en O(1) por cuenta:
+// los días sin movimientos se suman como saldo × días, sin recorrer dailyBalances.
+final class VipComplianceCalculator {
+
+    private VipComplianceCalculator() {
+    }
+
+    static boolean isTracked(Account account) {
+        return account.getMinimumDailyBalance() != null && account.getMinimumDailyBalance().isPositive();
+    }
+
+    static void start(Account account, LocalDate today) {
+        if (!isTracked(account)) {
+            return;
+        }
+        VipCompliance compliance = new VipCompliance();
+        compliance.setPeriod(YearMonth.from(today).toString());
+        compliance.setDaySum(Money.ZERO);
+        compliance.setDays(0);
+        compliance.setLastChangeDate(today);
+        compliance.setNextEvaluation(today);
+        account.setVipCompliance(compliance);
+    }
+
+    // Se llama antes de guardar un cambio de saldo, con el saldo anterior al cambio
+    static void onBalanceChange(Account account, Money previousBalance, LocalDate today) {
+        if (!isTracked(account)) {
+            return;
+        }
+        VipCompliance compliance = account.getVipCompliance();
+        if (compliance == null) {
+            compliance = new VipCompliance();
+            account.setVipCompliance(compliance);
+        }
+        YearMonth month = YearMonth.from(today);
+        LocalDate from = compliance.getLastChangeDate();
+        if (from == null || !month.toString().equals(compliance.getPeriod())) {
+            // Nuevo mes (o cuenta sin seguimiento): los días ya transcurridos cerraron con el saldo anterior
+            close(compliance, previousBalance, month.minusMonths(1));
+            from = month.atDay(1);
+            compliance.setPeriod(month.toString());
+            compliance.setDaySum(Money.ZERO);
+            compliance.setDays(0);
+        }
+        int elapsed = (int) Math.max(0, ChronoUnit.DAYS.between(from, today));
+        compliance.setDaySum(compliance.getDaySum().plus(previousBalance.times(elapsed)));
+        compliance.setDays(compliance.getDays() + elapsed);
+        compliance.setLastChangeDate(today);
+        compliance.setRevision(compliance.getRevision() + 1);
+        if (compliance.getNextEvaluation() == null || compliance.getNextEvaluation().isAfter(today)) {
+            compliance.setNextEvaluation(today);
+        }
+    }
+
+    // Totales del mes anterior completo: lo acumulado hasta el último movimiento y, desde él, el saldo anterior
+    private static void close(VipCompliance compliance, Money previousBalance, YearMonth closed) {
+        LocalDate lastChange = compliance.getLastChangeDate();
+        LocalDate from = closed.atDay(1);
+        Money daySum = Money.ZERO;
+        int days = 0;
+        if (lastChange != null && closed.toString().equals(compliance.getPeriod()) && lastChange.isAfter(from)) {
+            from = lastChange;
+            daySum = compliance.getDaySum();
+            days = compliance.getDays();
+        }
+        int open = (int) ChronoUnit.DAYS.between(from, closed.atEndOfMonth()) + 1;
+        compliance.setClosedPeriod(closed.toString());
+        compliance.setClosedDaySum(daySum.plus(previousBalance.times(open)));
+        compliance.setClosedDays(days + open);
+    }
+
+    /**
+     * Evalúa el cierre de day y deja el resultado en compliance.
+     * @return false si el estado ya incluye movimientos posteriores a day que impiden evaluarlo
+     */
+    static boolean evaluate(VipCompliance compliance, Money balance, Money minimum, LocalDate day) {
+        long sum;
+        long days;
+        LocalDate lastChange = compliance.getLastChangeDate();
+        if (lastChange == null || YearMonth.from(day).isAfter(YearMonth.parse(compliance.getPeriod()))) {
+            // Sin movimientos en el mes de day: todos sus días cerraron con el saldo actual
+            days = day.getDayOfMonth();
+            sum = Math.multiplyExact(balance.getMinorUnits(), days);
+        } else if (!lastChange.isAfter(day)) {
+            long open = ChronoUnit.DAYS.between(lastChange, day) + 1;
+            days = compliance.getDays() + open;
+            sum = Math.addExact(compliance.getDaySum().getMinorUnits(), Math.multiplyExact(balance.getMinorUnits(), open));
+        } else if (!lastChange.equals(day.plusDays(1))) {
+            return false;
+        } else if (YearMonth.from(lastChange).equals(YearMonth.from(day))) {
+            // Movimiento tras medianoche antes del cierre: daySum ya incluye day
+            days = compliance.getDays();
+            sum = compliance.getDaySum().getMinorUnits();
+        } else if (YearMonth.from(day).toString().equals(compliance.getClosedPeriod())) {
+            // Igual, el día 1: el movimiento empezó el mes nuevo y el mes de day quedó en closed*
+            days = compliance.getClosedDays();
+            sum = compliance.getClosedDaySum().getMinorUnits();
+        } else {
+            return false;
+        }
+
+        long min = minimum.getMinorUnits();
+        boolean breached = sum < Math.multiplyExact(min, days);
+        if (breached && !Boolean.TRUE.equals(compliance.getBreached())) {
+            compliance.setBreachedSince(day);
+        } else if (!breached) {
+            compliance.setBreachedSince(null);
+        }
+        compliance.setBreached(breached);
+        compliance.setAverageDailyBalance(Money.average(sum, days));
+        compliance.setEvaluatedThrough(day);
+        compliance.setNextEvaluation(nextFlip(sum, days, balance.getMinorUnits(), min, day, breached));
+        return true;
+    }
+
+    // Primer cierre en que el resultado cambiaría si el saldo se mantiene; null si no cambia nunca.
+    // Es lo que permite que el cierre diario solo lea las cuentas con movimientos o con cambio previsto.
+    static LocalDate nextFlip(long sum, long days, long balance, long min, LocalDate day, boolean breached) {
+        LocalDate monthEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+        // El mes siguiente empieza con el saldo actual como promedio
+        LocalDate flip = (balance < min) != breached ? monthEnd.plusDays(1) : null;
+        long k;
+        if (!breached && balance < min) {
+            // sum + k·balance < min·(days + k)
+            k = Math.addExact(Math.floorDiv(Math.subtractExact(sum, Math.multiplyExact(min, days)),
+                    Math.subtractExact(min, balance)), 1);
+        } else if (breached && balance > min) {
+            // sum + k·balance >= min·(days + k)
+            k = Math.negateExact(Math.floorDiv(Math.subtractExact(sum, Math.multiplyExact(min, days)),
+                    Math.subtractExact(balance, min)));
+        } else {
+            return flip;
+        }
+        return k > ChronoUnit.DAYS.between(day, monthEnd) ? flip : day.plusDays(k);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.VipComplianceProperties;
+import com.example.msaccountservice.dto.VipComplianceSummaryDTO;
+import com.example.msaccountservice.exception.AccountNotFoundException;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import com.example.msaccountservice.repository.AccountRepository;
+import com.example.msaccountservice.service.VipComplianceService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cierre diario del cumplimiento del saldo mínimo VIP. Solo lee las cuentas con
+// vipCompliance.nextEvaluation <= día: las que tuvieron movimientos y las que, sin tenerlos,
+// cambian de resultado ese día. El coste depende de la actividad, no del número de cuentas.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VipComplianceServiceImpl implements VipComplianceService {
+
+    static final String ACCOUNTS = "accounts";
+    static final String PREFIX = "vipCompliance.";
+
+    static final Index DUE_INDEX = new Index(PREFIX + "nextEvaluation", Sort.Direction.ASC)
+            .sparse()
+            .named("vip_compliance_due");
+    static final Index BREACHES_INDEX = new Index(PREFIX + "breached", Sort.Direction.ASC)
+            .partial(PartialIndexFilter.of(Criteria.where(PREFIX + "breached").is(true)))
+            .named("vip_compliance_breaches");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoPartitions partitions;
+    private final AccountRepository accountRepository;
+    private final VipComplianceProperties properties;
+    private final BatchBalanceEvents balanceEvents;
+
+    @Override
+    public Mono<VipComplianceSummaryDTO> closeDay(LocalDate day) {
+        Run run = new Run(day);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        // Una partición tras otra; los totales de Run suman todas
+        return Flux.fromIterable(partitions.all())
+                .concatMap(partition -> closeDay(partition.getTemplate(), run, batchSize))
+                .then(Mono.fromSupplier(() -> finish(run)));
+    }
+
+    private Mono<Void> closeDay(ReactiveMongoTemplate template, Run run, int batchSize) {
+        return template.indexOps(ACCOUNTS).ensureIndex(DUE_INDEX)
+                .then(template.indexOps(ACCOUNTS).ensureIndex(BREACHES_INDEX))
+                .then(template.getCollection(ACCOUNTS))
+                .flatMapMany(collection -> Flux.from(collection
+                                .find(Filters.lte(PREFIX + "nextEvaluation", toMongo(run.day)))
+                                .projection(Projections.include("balance", "minimumDailyBalance", "vipCompliance"))
+                                .batchSize(batchSize))
+                        .buffer(batchSize)
+                        .concatMap(batch -> evaluateBatch(collection, run, batch)))
+                .then();
+    }
+
+    private Mono<Void> evaluateBatch(MongoCollection<Document> collection, Run run, List<Document> batch) {
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        List<Object> ids = new ArrayList<>(batch.size());
+        for (Document document : batch) {
+            Account account = mongoTemplate.getConverter().read(Account.class, document);
+            VipCompliance compliance = account.getVipCompliance();
+            if (account.getBalance() == null || !VipComplianceCalculator.isTracked(account)) {
+                continue;
+            }
+            long revision = compliance.getRevision();
+            boolean wasBreached = Boolean.TRUE.equals(compliance.getBreached());
+            boolean evaluated;
+            try {
+                evaluated = VipComplianceCalculator.evaluate(compliance, account.getBalance(),
+                        account.getMinimumDailyBalance(), run.day);
+            } catch (ArithmeticException e) {
+                // Saldos que desbordan el promedio: se deja la cuenta sin evaluar en lugar de parar el cierre
+                log.warn("VIP compliance skipped account with out of range balances day={} accountId={}",
+                        run.day, document.get("_id"));
+                continue;
+            }
+            if (!evaluated) {
+                run.deferred.increment();
+                continue;
+            }
+            run.evaluated.increment();
+            if (compliance.getBreached()) {
+                run.breached.increment();
+                if (!wasBreached) {
+                    run.newBreaches.increment();
+                }
+            } else if (wasBreached) {
+                run.recovered.increment();
+            }
+            updates.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", document.get("_id")), Filters.eq(PREFIX + "revision", revision)),
+                    Updates.combine(
+                            Updates.set(PREFIX + "averageDailyBalance", toMongo(compliance.getAverageDailyBalance())),
+                            Updates.set(PREFIX + "breached", compliance.getBreached()),
+                            Updates.set(PREFIX + "breachedSince", toMongo(compliance.getBreachedSince())),
+                            Updates.set(PREFIX + "evaluatedThrough", toMongo(compliance.getEvaluatedThrough())),
+                            Updates.set(PREFIX + "nextEvaluation", toMongo(compliance.getNextEvaluation())),
+                            Updates.inc("version", 1L))));
+            ids.add(document.get("_id"));
+        }
+        if (updates.isEmpty()) {
+            return Mono.empty();
+        }
+        // Si hubo un movimiento entre la lectura y la escritura, ese movimiento ya dejó
+        // nextEvaluation en su día y la cuenta se evalúa en el cierre siguiente
+        return Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)))
+                .map(result -> updates.size() - result.getMatchedCount())
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    log.warn("VIP compliance batch had write errors day={} errors={} first={}",
+                            run.day, e.getWriteErrors().size(), e.getWriteErrors().get(0).getMessage());
+                    return Mono.just(updates.size() - e.getWriteResult().getMatchedCount());
+                })
+                .doOnNext(run.conflicts::add)
+                // Las cuentas en conflicto tuvieron un movimiento, que ya publicó su propio evento
+                .then(balanceEvents.publish(collection, ids,
+                        Filters.gte(PREFIX + "evaluatedThrough", toMongo(run.day)), BalanceEvent.Type.UPDATED, id -> null));
+    }
+
+    private Object toMongo(Object value) {
+        return value == null ? null : mongoTemplate.getConverter().convertToMongoType(value);
+    }
+
+    private VipComplianceSummaryDTO finish(Run run) {
+        long durationMillis = (System.nanoTime() - run.startNanos) / 1_000_000;
+        VipComplianceSummaryDTO summary = VipComplianceSummaryDTO.builder()
+                .day(run.day)
+                .evaluated(run.evaluated.sum())
+                .breached(run.breached.sum())
+                .newBreaches(run.newBreaches.sum())
+                .recovered(run.recovered.sum())
+                .deferred(run.deferred.sum())
+                .conflicts(run.conflicts.sum())
+                .durationMillis(durationMillis)
+                .build();
+        log.info("VIP compliance day close finished day={} evaluated={} breached={} newBreaches={} recovered={} "
+                        + "deferred={} conflicts={} durationMs={}",
+                summary.getDay(), summary.getEvaluated(), summary.getBreached(), summary.getNewBreaches(),
+                summary.getRecovered(), summary.getDeferred(), summary.getConflicts(), durationMillis);
+        return summary;
+    }
+
+    @Override
+    public Mono<VipCompliance> getCompliance(String accountId) {
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+                .flatMap(account -> Mono.justOrEmpty(account.getVipCompliance()));
+    }
+
+    @Override
+    public Flux<Account> getBreaches() {
+        return accountRepository.findByVipComplianceBreachedTrue();
+    }
+
+    private static final class Run {
+        private final LocalDate day;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder breached = new LongAdder();
+        private final LongAdder newBreaches = new LongAdder();
+        private final LongAdder recovered = new LongAdder();
+        private final LongAdder deferred = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+
+        private Run(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 /**
@@ -17,7 +18,13 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
         description = "API para la gestión de cuentas bancarias"
 ))
 public class MsAccountServiceApplication {
+
+    private static final int STARTUP_STEPS = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(MsAccountServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(MsAccountServiceApplication.class);
+        // Pasos de arranque para /actuator/startup y el informe de StartupTimingReporter
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -1,10 +1,19 @@
 package com.nttdata.bankapp.msaccountservice.client;
 
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExceededException;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExchangeFilter;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingExchangeFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Cliente para comunicarse con el microservicio de tarjetas de crédito.
@@ -15,9 +24,13 @@ public class CreditCardService {
 
     private final WebClient webClient;
 
-    public CreditCardService(@Value("${app.credit-card-service-url}") String creditCardServiceUrl) {
+    public CreditCardService(@Value("${app.credit-card-service-url}") String creditCardServiceUrl,
+                             DeadlineExchangeFilter deadlineExchangeFilter,
+                             TracingExchangeFilter tracingExchangeFilter) {
         this.webClient = WebClient.builder()
                 .baseUrl(creditCardServiceUrl)
+                .filter(deadlineExchangeFilter)
+                .filter(tracingExchangeFilter)
                 .build();
     }
 
@@ -27,14 +40,27 @@ public class CreditCardService {
      * @return Mono<Boolean> true si tiene tarjeta, false en caso contrario
      */
     public Mono<Boolean> hasCreditCard(String customerId) {
-        log.info("Checking if customer {} has a credit card", customerId);
+        log.debug("Checking credit card customerId={}", customerId);
         return webClient.get()
                 .uri("/credit-cards/customer/{customerId}/exists", customerId)
                 .retrieve()
                 .bodyToMono(Boolean.class)
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !(e instanceof DeadlineExceededException), e -> {
                     log.error("Error checking credit card existence: {}", e.getMessage());
                     return Mono.just(false);
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifica qué clientes tienen tarjeta de crédito, con un número acotado de llamadas concurrentes.
+     * @param customerIds IDs de los clientes
+     * @param concurrency llamadas simultáneas máximas
+     * @return Mono con el mapa ID -> tiene tarjeta
+     */
+    public Mono<Map<String, Boolean>> hasCreditCards(Collection<String> customerIds, int concurrency) {
+        return Flux.fromIterable(customerIds)
+                .flatMap(customerId -> hasCreditCard(customerId)
+                        .map(hasCard -> Tuples.of(customerId, hasCard)), concurrency)
+                .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+}
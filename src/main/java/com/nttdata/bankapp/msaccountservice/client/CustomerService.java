@@ -3,11 +3,20 @@ package com.nttdata.bankapp.msaccountservice.client;
 import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
 import com.nttdata.bankapp.msaccountservice.model.CustomerType;
 import lombok.Data;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExceededException;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExchangeFilter;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingExchangeFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Collection;
+import java.util.Map;
 
 
 /**
@@ -19,9 +28,13 @@ public class CustomerService {
 
     private final WebClient webClient;
 
-    public CustomerService(@Value("${app.customer-service-url}") String customerServiceUrl) {
+    public CustomerService(@Value("${app.customer-service-url}") String customerServiceUrl,
+                           DeadlineExchangeFilter deadlineExchangeFilter,
+                           TracingExchangeFilter tracingExchangeFilter) {
         this.webClient = WebClient.builder()
                 .baseUrl(customerServiceUrl)
+                .filter(deadlineExchangeFilter)
+                .filter(tracingExchangeFilter)
                 .build();
     }
 
@@ -31,13 +44,13 @@ public class CustomerService {
      * @return Mono<Boolean> true si existe, false en caso contrario
      */
     public Mono<Boolean> customerExists(String customerId) {
-        log.info("Checking if customer exists with id: {}", customerId);
+        log.debug("Checking customer existence customerId={}", customerId);
         return webClient.get()
                 .uri("/customers/{id}", customerId)
                 .retrieve()
                 .bodyToMono(Object.class)
                 .map(response -> true)
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !(e instanceof DeadlineExceededException), e -> {
                     log.error("Error checking customer existence: {}", e.getMessage());
                     return Mono.just(false);
                 });
@@ -49,17 +62,30 @@ public class CustomerService {
      * @return Mono<CustomerDetails>
      */
     public Mono<CustomerDetails> getCustomerDetails(String customerId) {
-        log.info("Getting customer details for id: {}", customerId);
+        log.debug("Getting customer details customerId={}", customerId);
         return webClient.get()
                 .uri("/customers/{id}", customerId)
                 .retrieve()
                 .bodyToMono(CustomerDetails.class)
-                .onErrorResume(e -> {
+                .onErrorResume(e -> !(e instanceof DeadlineExceededException), e -> {
                     log.error("Error getting customer details: {}", e.getMessage());
                     return Mono.empty();
                 });
     }
 
+    /**
+     * Obtiene la información de varios clientes con un número acotado de llamadas concurrentes.
+     * @param customerIds IDs de los clientes
+     * @param concurrency llamadas simultáneas máximas
+     * @return Mono con el mapa ID -> CustomerDetails; los clientes no encontrados no aparecen
+     */
+    public Mono<Map<String, CustomerDetails>> getCustomerDetails(Collection<String> customerIds, int concurrency) {
+        return Flux.fromIterable(customerIds)
+                .flatMap(customerId -> getCustomerDetails(customerId)
+                        .map(details -> Tuples.of(customerId, details)), concurrency)
+                .collectMap(Tuple2::getT1, Tuple2::getT2);
+    }
+
     @lombok.Data
     public static class CustomerDetails {
         private String id;
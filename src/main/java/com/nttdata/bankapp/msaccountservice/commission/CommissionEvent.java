@@ -0,0 +1,37 @@
+package com.nttdata.bankapp.msaccountservice.commission;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comisión cobrada a una cuenta. Se registra al confirmar el cobro y no se modifica después,
+ * de modo que el reporte de comisiones de cualquier periodo sale de estos eventos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "commission_events")
+public class CommissionEvent {
+
+    public enum Source {
+        WITHDRAWAL, // Retiro por encima del límite de transacciones del mes (/api/accounts)
+        TRANSACTION_FEE, // Comisión por transacción aplicada por el servicio de transacciones (/accounts)
+        TRANSFER_REFUND // Devolución (importe negativo) de la comisión de una transferencia revertida
+    }
+
+    @Id
+    private String id;
+    private String customerId;
+    private String accountId;
+    private Money amount;
+    private Source source;
+    private LocalDateTime timestamp;
+}
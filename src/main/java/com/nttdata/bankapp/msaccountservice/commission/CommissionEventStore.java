@@ -0,0 +1,29 @@
+package com.nttdata.bankapp.msaccountservice.commission;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Historial de comisiones cobradas, consultable por cliente y rango de fechas.
+ */
+public interface CommissionEventStore {
+
+    /**
+     * Registra una comisión cobrada.
+     * @param event comisión con cliente, cuenta, importe y fecha
+     * @return Mono que completa al quedar registrada
+     */
+    Mono<Void> record(CommissionEvent event);
+
+    /**
+     * Total de comisiones por cuenta de un cliente en [from, to).
+     * @param customerId ID del cliente
+     * @param from inicio del rango, incluido
+     * @param to fin del rango, excluido
+     * @return Mono con el total por ID de cuenta; solo cuentas con comisiones en el rango
+     */
+    Mono<Map<String, BigDecimal>> totalsByAccount(String customerId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,56 @@
+package com.nttdata.bankapp.msaccountservice.commission;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Historial de comisiones en memoria para el perfil inmemory, ordenado por fecha dentro de
+ * cada cliente para que el reporte recorra solo el rango pedido. Como en MongoDB, un evento con
+ * un id ya registrado se rechaza con DuplicateKeyException.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryCommissionEventStore implements CommissionEventStore {
+
+    private final Map<String, ConcurrentNavigableMap<LocalDateTime, Queue<CommissionEvent>>> byCustomer =
+            new ConcurrentHashMap<>();
+    private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Mono<Void> record(CommissionEvent event) {
+        return Mono.fromRunnable(() -> {
+            if (event.getId() != null && !ids.add(event.getId())) {
+                throw new DuplicateKeyException("Duplicate key _id: " + event.getId());
+            }
+            byCustomer.computeIfAbsent(event.getCustomerId(), id -> new ConcurrentSkipListMap<>())
+                    .computeIfAbsent(event.getTimestamp(), timestamp -> new ConcurrentLinkedQueue<>())
+                    .add(event);
+        });
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> totalsByAccount(String customerId, LocalDateTime from, LocalDateTime to) {
+        return Mono.fromSupplier(() -> {
+            Map<String, BigDecimal> totals = new LinkedHashMap<>();
+            ConcurrentNavigableMap<LocalDateTime, Queue<CommissionEvent>> events = byCustomer.get(customerId);
+            if (events != null && from.isBefore(to)) {
+                events.subMap(from, true, to, false).values().forEach(queue -> queue.forEach(event ->
+                        totals.merge(event.getAccountId(), event.getAmount().toBigDecimal(), BigDecimal::add)));
+            }
+            return totals;
+        });
+    }
+}
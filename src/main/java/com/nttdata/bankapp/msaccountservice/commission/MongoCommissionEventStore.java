@@ -0,0 +1,77 @@
+package com.nttdata.bankapp.msaccountservice.commission;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Historial de comisiones en la colección commission_events. El índice
+ * (customerId, timestamp, accountId, amount) hace del reporte un recorrido de rango cubierto:
+ * el $match usa los dos primeros campos y el $group solo lee los otros dos, sin cargar documentos.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class MongoCommissionEventStore implements CommissionEventStore {
+
+    static final String COMMISSION_EVENTS = "commission_events";
+
+    static final Index RANGE_INDEX = new Index()
+            .on("customerId", Sort.Direction.ASC)
+            .on("timestamp", Sort.Direction.ASC)
+            .on("accountId", Sort.Direction.ASC)
+            .on("amount", Sort.Direction.ASC)
+            .named("customer_timestamp");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Crea el índice al arrancar; esta clase la usan las dos aplicaciones, así que no depende
+     * de MongoIndexInitializer.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        mongoTemplate.indexOps(COMMISSION_EVENTS).ensureIndex(RANGE_INDEX)
+                .subscribe(name -> log.info("Ensured index collection={} index={}", COMMISSION_EVENTS, name),
+                        error -> log.error("Could not ensure indexes on {}: {}", COMMISSION_EVENTS, error.getMessage()));
+    }
+
+    @Override
+    public Mono<Void> record(CommissionEvent event) {
+        return mongoTemplate.insert(event).then();
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> totalsByAccount(String customerId, LocalDateTime from, LocalDateTime to) {
+        TypedAggregation<CommissionEvent> aggregation = Aggregation.newAggregation(CommissionEvent.class,
+                Aggregation.match(Criteria.where("customerId").is(customerId)
+                        .and("timestamp").gte(from).lt(to)),
+                Aggregation.project("accountId", "amount").andExclude("_id"),
+                Aggregation.group("accountId").sum("amount").as("total"));
+        return mongoTemplate.aggregate(aggregation, Document.class)
+                .collectMap(total -> total.getString("_id"), total -> toBigDecimal(total.get("total")),
+                        LinkedHashMap::new);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof Decimal128 ? ((Decimal128) value).bigDecimalValue() : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,16 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de la exportación masiva de cuentas.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.export")
+public class AccountExportProperties {
+    private int cursorBatchSize = 1000; // Documentos por getMore del cursor de MongoDB
+    private int chunkSize = 256; // Documentos por cada escritura en la respuesta (y por flush de gzip)
+}
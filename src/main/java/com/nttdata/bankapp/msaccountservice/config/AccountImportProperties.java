@@ -0,0 +1,16 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de la importación masiva de cuentas.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.import")
+public class AccountImportProperties {
+    private int batchSize = 500; // Líneas por lote: una consulta de cuentas, un insertMany y un checkpoint
+    private int lookupConcurrency = 16; // Llamadas simultáneas a ms-customer y ms-credit-card por lote
+}
@@ -0,0 +1,15 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de las consultas de varias cuentas en una sola petición.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.batch-get")
+public class BatchGetProperties {
+    private int maxIds = 100; // IDs máximos por petición; se resuelven con una única consulta $in
+}
@@ -0,0 +1,80 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Conversores de importes para MongoDB. {@link Money} y BigDecimal se escriben como Decimal128
+ * (por defecto Spring Data guarda BigDecimal como String, lo que impide $inc, comparaciones
+ * numéricas y $sum). Al leer se acepta también el String de los documentos antiguos.
+ */
+public final class DecimalConverters {
+
+    private DecimalConverters() {
+    }
+
+    public static List<Converter<?, ?>> converters() {
+        return List.of(
+                MoneyToDecimal128Converter.INSTANCE,
+                Decimal128ToMoneyConverter.INSTANCE,
+                StringToMoneyConverter.INSTANCE,
+                BigDecimalToDecimal128Converter.INSTANCE,
+                Decimal128ToBigDecimalConverter.INSTANCE);
+    }
+
+    @WritingConverter
+    enum MoneyToDecimal128Converter implements Converter<Money, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(Money source) {
+            return new Decimal128(source.toBigDecimal());
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToMoneyConverter implements Converter<Decimal128, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(Decimal128 source) {
+            return Money.of(source.bigDecimalValue());
+        }
+    }
+
+    @ReadingConverter
+    enum StringToMoneyConverter implements Converter<String, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(String source) {
+            return Money.parse(source);
+        }
+    }
+
+    @WritingConverter
+    enum BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
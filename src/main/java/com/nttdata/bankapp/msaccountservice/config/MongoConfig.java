@@ -0,0 +1,31 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMongoTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Configuración de MongoDB.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(DecimalConverters.converters());
+    }
+
+    /**
+     * Plantilla que aplica el deadline de la petición como maxTimeMS; sustituye a la de Spring Boot.
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory,
+                                                       MongoConverter converter, DeadlineMetrics deadlineMetrics) {
+        return new DeadlineMongoTemplate(databaseFactory, converter, deadlineMetrics);
+    }
+}
@@ -0,0 +1,41 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Crea al arrancar los índices de la colección accounts. La creación automática de índices
+ * de Spring Data está desactivada, así que los índices que usan las consultas se declaran aquí.
+ */
+@Slf4j
+@Component
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    static final String ACCOUNTS = "accounts";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Flux.just(
+                        // Mismo índice que @Indexed(unique = true) en Account
+                        new Index("accountNumber", Sort.Direction.ASC).unique().sparse(),
+                        // Consultas por cliente y agregación de cartera
+                        new Index("customerId", Sort.Direction.ASC),
+                        // Exportación incremental por fecha de modificación
+                        new Index("updatedAt", Sort.Direction.ASC))
+                .concatMap(index -> mongoTemplate.indexOps(ACCOUNTS).ensureIndex(index))
+                .subscribe(name -> log.info("Ensured index collection={} index={}", ACCOUNTS, name),
+                        error -> log.error("Could not ensure indexes on {}: {}", ACCOUNTS, error.getMessage()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración del informe de tiempos de arranque.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.startup")
+public class StartupProperties {
+    private boolean timingReport = false; // Registra las fases de arranque al quedar lista la aplicación
+    private int slowestBeans = 15; // Número de beans más lentos incluidos en el informe
+    private boolean exitOnReady = false; // Termina al arrancar (ejecución de entrenamiento del archivo AppCDS)
+}
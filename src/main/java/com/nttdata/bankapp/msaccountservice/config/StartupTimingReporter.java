@@ -0,0 +1,73 @@
+package com.nttdata.bankapp.msaccountservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Informe de tiempos de arranque a partir de los pasos registrados por BufferingApplicationStartup:
+ * tiempo total desde el inicio de la JVM, fases de Spring Boot y beans más lentos de instanciar.
+ * Con app.startup.exit-on-ready la aplicación termina al quedar lista, para la ejecución de
+ * entrenamiento que genera el archivo AppCDS de la imagen Docker.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final StartupProperties properties;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        if (properties.isTimingReport()) {
+            report(context.getApplicationStartup());
+        }
+        if (properties.isExitOnReady()) {
+            log.info("Startup complete, exiting (app.startup.exit-on-ready=true)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void report(ApplicationStartup applicationStartup) {
+        log.info("Application ready in {} ms since JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+
+        List<StartupTimeline.TimelineEvent> events =
+                ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline().getEvents();
+        events.stream()
+                .filter(e -> e.getStartupStep().getParentId() == null)
+                .forEach(e -> log.info("Startup phase step={} durationMs={}",
+                        e.getStartupStep().getName(), e.getDuration().toMillis()));
+        events.stream()
+                .filter(e -> BEAN_INSTANTIATION.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(properties.getSlowestBeans())
+                .forEach(e -> log.info("Startup bean {} durationMs={} (includes dependencies)",
+                        tags(e.getStartupStep()), e.getDuration().toMillis()));
+    }
+
+    private static String tags(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(" "));
+    }
+}
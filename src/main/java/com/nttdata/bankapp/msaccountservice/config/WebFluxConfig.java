@@ -1,6 +1,14 @@
 package com.nttdata.bankapp.msaccountservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 
@@ -10,4 +18,30 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 @Configuration
 @EnableWebFlux
 public class WebFluxConfig implements WebFluxConfigurer {
-}
\ No newline at end of file
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /**
+     * Smile (application/x-jackson-smile) para las llamadas entre servicios que lo piden en
+     * Accept o Content-Type. JSON sigue siendo el formato por defecto: su codec va antes en
+     * la lista, así que se elige para Accept: *&#47;* o sin Accept.
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper smileMapper = smileObjectMapper();
+        // Los tipos MIME se indican siempre: sin ellos el codec anuncia los de JSON
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+    }
+
+    /**
+     * ObjectMapper Smile con los mismos módulos que el de JSON por defecto. Las cadenas
+     * repetidas (tipos de cuenta, perfiles) se envían como referencias en las listas.
+     */
+    public static ObjectMapper smileObjectMapper() {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return Jackson2ObjectMapperBuilder.smile().factory(factory).build();
+    }
+}
@@ -3,24 +3,47 @@ package com.nttdata.bankapp.msaccountservice.controller;
 
 import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
 import com.nttdata.bankapp.msaccountservice.dto.BalanceDto;
+import com.nttdata.bankapp.msaccountservice.dto.BatchGetRequestDto;
+import com.nttdata.bankapp.msaccountservice.dto.BatchGetResultDto;
+import com.nttdata.bankapp.msaccountservice.dto.ImportResultDto;
+import com.nttdata.bankapp.msaccountservice.dto.PortfolioDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.service.AccountExportService;
+import com.nttdata.bankapp.msaccountservice.service.AccountImportService;
 import com.nttdata.bankapp.msaccountservice.service.AccountService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/accounts")
 @RequiredArgsConstructor
-@Slf4j
 public class AccountController {
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
     private final AccountService accountService;
+    private final AccountImportService accountImportService;
+    private final AccountExportService accountExportService;
+    private final BalanceEventPublisher balanceEventPublisher;
 
     /**
      * Obtiene todas las cuentas.
@@ -28,10 +51,63 @@ public class AccountController {
      */
     @GetMapping
     public Flux<AccountDto> getAll() {
-        log.info("GET /accounts");
         return accountService.findAll();
     }
 
+    /**
+     * Obtiene varias cuentas por ID con una sola consulta.
+     * @param ids IDs de las cuentas separados por comas
+     * @return Mono con un resultado por ID, marcando los no encontrados
+     */
+    @GetMapping(params = "ids")
+    public Mono<BatchGetResultDto<AccountDto>> getByIds(@RequestParam List<String> ids) {
+        return accountService.findByIds(ids);
+    }
+
+    /**
+     * Exporta las cuentas en streaming desde el cursor de MongoDB, para extracciones masivas.
+     * La cabecera X-Export-Started-At de la respuesta sirve como updatedSince de la siguiente
+     * extracción incremental.
+     * @param format ndjson (por defecto) o csv
+     * @param fields campos a exportar separados por comas (opcional)
+     * @param updatedSince solo cuentas modificadas después de esta fecha (opcional)
+     * @param gzip comprimir la respuesta (también si la petición acepta gzip)
+     * @return Mono<Void> que completa al terminar de escribir la respuesta
+     */
+    @GetMapping("/export")
+    public Mono<Void> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        AccountExportService.Format exportFormat = "csv".equalsIgnoreCase(format)
+                ? AccountExportService.Format.CSV
+                : AccountExportService.Format.NDJSON;
+        List<String> selectedFields = fields == null ? List.of() : Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toList());
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean compress = gzip || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(exportFormat == AccountExportService.Format.CSV
+                ? MediaType.valueOf("text/csv;charset=UTF-8")
+                : MediaType.APPLICATION_NDJSON);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(exportFormat == AccountExportService.Format.CSV ? "accounts.csv" : "accounts.ndjson")
+                .build());
+        headers.set("X-Export-Started-At", LocalDateTime.now().toString());
+        if (compress) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.writeWith(accountExportService.export(
+                exportFormat, selectedFields, updatedSince, compress, response.bufferFactory()));
+    }
+
     /**
      * Obtiene una cuenta por su ID.
      * @param id ID de la cuenta
@@ -39,7 +115,6 @@ public class AccountController {
      */
     @GetMapping("/{id}")
     public Mono<ResponseEntity<AccountDto>> getById(@PathVariable String id) {
-        log.info("GET /accounts/{}", id);
         return accountService.findById(id)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
@@ -53,10 +128,20 @@ public class AccountController {
      */
     @GetMapping("/customer/{customerId}")
     public Flux<AccountDto> getByCustomerId(@PathVariable String customerId) {
-        log.info("GET /accounts/customer/{}", customerId);
         return accountService.findByCustomerId(customerId);
     }
 
+    /**
+     * Resumen de la cartera de un cliente: totales por tipo de cuenta, saldo total, transacciones
+     * gratuitas y movimientos restantes y próximos días de retiro de plazo fijo.
+     * @param customerId ID del cliente
+     * @return Mono de PortfolioDto (vacío de cuentas si el cliente no tiene ninguna)
+     */
+    @GetMapping("/customer/{customerId}/portfolio")
+    public Mono<PortfolioDto> getPortfolio(@PathVariable String customerId) {
+        return accountService.getPortfolio(customerId);
+    }
+
     /**
      * Obtiene una cuenta por su número.
      * @param accountNumber Número de cuenta
@@ -64,7 +149,6 @@ public class AccountController {
      */
     @GetMapping("/number/{accountNumber}")
     public Mono<ResponseEntity<AccountDto>> getByAccountNumber(@PathVariable String accountNumber) {
-        log.info("GET /accounts/number/{}", accountNumber);
         return accountService.findByAccountNumber(accountNumber)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
@@ -77,12 +161,62 @@ public class AccountController {
      */
     @GetMapping("/{id}/balance")
     public Mono<ResponseEntity<BalanceDto>> getBalance(@PathVariable String id) {
-        log.info("GET /accounts/{}/balance", id);
         return accountService.getBalance(id)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Consulta el saldo de varias cuentas con una sola consulta, para evitar una llamada por cuenta.
+     * @param request IDs de las cuentas
+     * @return Mono con un BalanceDto por ID, marcando los no encontrados
+     */
+    @PostMapping("/balances:batchGet")
+    public Mono<BatchGetResultDto<BalanceDto>> batchGetBalances(@Valid @RequestBody BatchGetRequestDto request) {
+        return accountService.getBalances(request.getIds());
+    }
+
+    /**
+     * Suscripción SSE a los cambios de saldo de varias cuentas, en lugar de consultar el saldo
+     * periódicamente. Solo emite los cambios posteriores a la suscripción.
+     * @param accountIds IDs de las cuentas separados por comas
+     * @return Flux de eventos SSE
+     */
+    @GetMapping(value = "/balance-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BalanceEvent>> streamBalanceEvents(@RequestParam List<String> accountIds) {
+        return balanceEventPublisher.subscribeServerSentEvents(accountIds);
+    }
+
+    /**
+     * Igual que la suscripción SSE, en NDJSON.
+     * @param accountIds IDs de las cuentas separados por comas
+     * @return Flux de BalanceEvent
+     */
+    @GetMapping(value = "/balance-events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BalanceEvent> streamBalanceEventsNdjson(@RequestParam List<String> accountIds) {
+        return balanceEventPublisher.subscribe(accountIds);
+    }
+
+    /**
+     * Suscripción SSE a los cambios de saldo de una cuenta.
+     * @param id ID de la cuenta
+     * @return Flux de eventos SSE
+     */
+    @GetMapping(value = "/{id}/balance-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BalanceEvent>> streamAccountBalanceEvents(@PathVariable String id) {
+        return balanceEventPublisher.subscribeServerSentEvents(List.of(id));
+    }
+
+    /**
+     * Suscripción NDJSON a los cambios de saldo de una cuenta.
+     * @param id ID de la cuenta
+     * @return Flux de BalanceEvent
+     */
+    @GetMapping(value = "/{id}/balance-events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BalanceEvent> streamAccountBalanceEventsNdjson(@PathVariable String id) {
+        return balanceEventPublisher.subscribe(List.of(id));
+    }
+
     /**
      * Crea una nueva cuenta.
      * @param accountDto DTO con los datos de la cuenta
@@ -91,10 +225,33 @@ public class AccountController {
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<AccountDto> create(@Valid @RequestBody AccountDto accountDto) {
-        log.info("POST /accounts");
         return accountService.save(accountDto);
     }
 
+    /**
+     * Importa cuentas en bloque. Acepta NDJSON (una cuenta por línea, con el formato de POST /accounts)
+     * o CSV con cabecera (holders y signatories separados por ';'). La respuesta se emite en NDJSON
+     * a medida que avanza: un resultado por línea, un checkpoint por lote y un resumen final.
+     * @param request petición con el fichero en el cuerpo
+     * @param importId importId recibido en la ejecución anterior, para reanudarla; si falta se genera uno
+     * @param afterLine último lastCommittedLine recibido, para reanudar una importación interrumpida
+     * @return Flux de ImportResultDto
+     */
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportResultDto> importAccounts(
+            ServerHttpRequest request,
+            @RequestParam(required = false) String importId,
+            @RequestParam(defaultValue = "0") long afterLine) {
+        MediaType contentType = request.getHeaders().getContentType();
+        AccountImportService.Format format = contentType != null && TEXT_CSV.isCompatibleWith(contentType)
+                ? AccountImportService.Format.CSV
+                : AccountImportService.Format.NDJSON;
+        return accountImportService.importAccounts(request.getBody(), format,
+                importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString(), afterLine);
+    }
+
     /**
      * Actualiza una cuenta existente.
      * @param id ID de la cuenta
@@ -103,7 +260,6 @@ public class AccountController {
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<AccountDto>> update(@PathVariable String id, @Valid @RequestBody AccountDto accountDto) {
-        log.info("PUT /accounts/{}", id);
         return accountService.update(id, accountDto)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
@@ -117,7 +273,6 @@ public class AccountController {
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> delete(@PathVariable String id) {
-        log.info("DELETE /accounts/{}", id);
         return accountService.delete(id);
     }
 
@@ -131,7 +286,6 @@ public class AccountController {
     public Mono<ResponseEntity<AccountDto>> updateBalance(
             @PathVariable String id,
             @RequestParam BigDecimal amount) {
-        log.info("PUT /accounts/{}/balance with amount: {}", id, amount);
         return accountService.updateBalance(id, amount)
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
@@ -148,7 +302,6 @@ public class AccountController {
             @PathVariable String id,
             @RequestParam String customerId,
             @RequestParam BigDecimal amount) {
-        log.info("GET /accounts/{}/validate-transfer with customerId: {} and amount: {}", id, customerId, amount);
         return accountService.validateAccountForTransfer(id, customerId, amount);
     }
 
@@ -159,7 +312,6 @@ public class AccountController {
      */
     @GetMapping("/{id}/transaction-fee")
     public Mono<BigDecimal> getTransactionFee(@PathVariable String id) {
-        log.info("GET /accounts/{}/transaction-fee", id);
         return accountService.calculateTransactionFee(id);
     }
 
@@ -173,7 +325,6 @@ public class AccountController {
     public Mono<AccountDto> incrementTransactionCount(
             @PathVariable String id,
             @RequestParam(required = false, defaultValue = "0") BigDecimal fee) {
-        log.info("PUT /accounts/{}/transaction-count with fee: {}", id, fee);
         BigDecimal feeToApply = fee.compareTo(BigDecimal.ZERO) > 0 ? fee : null;
         return accountService.incrementTransactionCount(id, feeToApply);
     }
@@ -0,0 +1,68 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Instante límite de una petición, en milisegundos desde epoch para poder propagarlo
+ * tal cual a otros servicios. Viaja en el contexto de Reactor bajo {@link #CONTEXT_KEY}.
+ */
+public final class Deadline {
+
+    public static final Class<Deadline> CONTEXT_KEY = Deadline.class;
+
+    private final long epochMillis;
+
+    private Deadline(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    public static Deadline ofEpochMillis(long epochMillis) {
+        return new Deadline(epochMillis);
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.currentTimeMillis() + timeout.toMillis());
+    }
+
+    /**
+     * Obtiene el deadline de la petición en curso, si lo hay.
+     * @param context contexto de Reactor del suscriptor
+     * @return deadline de la petición
+     */
+    public static Optional<Deadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public long remainingMillis() {
+        return epochMillis - System.currentTimeMillis();
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Tiempo restante acotado por un máximo, para aplicarlo como timeout de una llamada.
+     * @param max timeout máximo de la llamada
+     * @return el menor entre el tiempo restante y el máximo
+     */
+    public Duration remainingAtMost(Duration max) {
+        return Duration.ofMillis(Math.min(remainingMillis(), max.toMillis()));
+    }
+
+    public Deadline earliest(Deadline other) {
+        return other.epochMillis < epochMillis ? other : this;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(epochMillis);
+    }
+}
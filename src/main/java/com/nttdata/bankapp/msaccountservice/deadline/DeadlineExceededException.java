@@ -0,0 +1,18 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+/**
+ * Excepción lanzada cuando se agota el deadline de la petición antes de completar una operación.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded during " + stage);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
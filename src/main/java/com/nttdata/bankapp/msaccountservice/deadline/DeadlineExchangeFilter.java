@@ -0,0 +1,46 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filtro de WebClient que propaga el deadline de la petición en curso al servicio
+ * invocado y limita la llamada al tiempo restante (o a clientTimeout si es menor).
+ */
+@Component
+@RequiredArgsConstructor
+public class DeadlineExchangeFilter implements ExchangeFilterFunction {
+
+    private final DeadlineProperties properties;
+    private final DeadlineMetrics metrics;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            Duration timeout = properties.getClientTimeout();
+            ClientRequest outgoing = request;
+            if (deadline.isPresent()) {
+                if (deadline.get().isExpired()) {
+                    return Mono.error(metrics.exceeded(DeadlineMetrics.HTTP_CLIENT));
+                }
+                timeout = deadline.get().remainingAtMost(timeout);
+                outgoing = ClientRequest.from(request)
+                        .header(properties.getHeader(), deadline.get().toString())
+                        .build();
+            }
+            return next.exchange(outgoing)
+                    .timeout(timeout)
+                    .onErrorMap(TimeoutException.class, e -> metrics.exceeded(DeadlineMetrics.HTTP_CLIENT));
+        });
+    }
+}
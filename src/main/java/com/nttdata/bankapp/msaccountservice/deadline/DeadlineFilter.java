@@ -0,0 +1,98 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asigna un deadline a cada petición y lo deja en el contexto de Reactor para que lo
+ * apliquen las llamadas a MongoDB y a otros servicios. Se toma de la cabecera configurada
+ * (acotado por maxTimeout) o del timeout por defecto de la ruta. Al agotarse se cancela
+ * la cadena reactiva de la petición, con todo el trabajo pendiente, y se responde 504.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DeadlineFilter implements WebFilter {
+
+    private final DeadlineProperties properties;
+    private final DeadlineMetrics metrics;
+    private final Map<PathPattern, Duration> routes = new LinkedHashMap<>();
+
+    public DeadlineFilter(DeadlineProperties properties, DeadlineMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+        properties.getRoutes().forEach((pattern, timeout) ->
+                routes.put(PathPatternParser.defaultInstance.parse(pattern), timeout));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Deadline deadline = deadline(exchange.getRequest());
+        if (deadline == null) {
+            return chain.filter(exchange);
+        }
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            metrics.exceeded(DeadlineMetrics.REQUEST);
+            return gatewayTimeout(exchange);
+        }
+
+        return chain.filter(exchange)
+                .timeout(Duration.ofMillis(remaining))
+                .onErrorResume(TimeoutException.class, e -> {
+                    metrics.exceeded(DeadlineMetrics.REQUEST);
+                    log.warn("Request deadline exceeded method={} path={}",
+                            exchange.getRequest().getMethodValue(), exchange.getRequest().getPath().value());
+                    return exchange.getResponse().isCommitted() ? Mono.error(e) : gatewayTimeout(exchange);
+                })
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    private Deadline deadline(ServerHttpRequest request) {
+        Deadline cap = Deadline.after(properties.getMaxTimeout());
+        String header = request.getHeaders().getFirst(properties.getHeader());
+        if (header != null) {
+            try {
+                return Deadline.ofEpochMillis(Long.parseLong(header.trim())).earliest(cap);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid deadline header value={}", header);
+            }
+        }
+        Duration timeout = routeTimeout(request.getPath().pathWithinApplication());
+        return timeout.isZero() || timeout.isNegative() ? null : Deadline.after(timeout).earliest(cap);
+    }
+
+    private Duration routeTimeout(PathContainer path) {
+        for (Map.Entry<PathPattern, Duration> route : routes.entrySet()) {
+            if (route.getKey().matches(path)) {
+                return route.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+
+    private static Mono<Void> gatewayTimeout(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return exchange.getResponse().setComplete();
+    }
+}
@@ -0,0 +1,58 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta el trabajo cancelado por deadline agotado, por etapa.
+ */
+@Component
+public class DeadlineMetrics implements MeterBinder {
+
+    public static final String REQUEST = "request";
+    public static final String MONGO = "mongo";
+    public static final String HTTP_CLIENT = "http-client";
+
+    private final LongAdder request = new LongAdder();
+    private final LongAdder mongo = new LongAdder();
+    private final LongAdder httpClient = new LongAdder();
+
+    /**
+     * Registra una operación cancelada y crea la excepción correspondiente.
+     * @param stage etapa en la que se agotó el deadline
+     * @return excepción a propagar
+     */
+    public DeadlineExceededException exceeded(String stage) {
+        counter(stage).increment();
+        return new DeadlineExceededException(stage);
+    }
+
+    private LongAdder counter(String stage) {
+        switch (stage) {
+            case MONGO:
+                return mongo;
+            case HTTP_CLIENT:
+                return httpClient;
+            default:
+                return request;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, REQUEST, request);
+        register(registry, MONGO, mongo);
+        register(registry, HTTP_CLIENT, httpClient);
+    }
+
+    private static void register(MeterRegistry registry, String stage, LongAdder counter) {
+        FunctionCounter.builder("deadline.exceeded", counter, LongAdder::sum)
+                .description("Work cancelled because the request deadline expired")
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
@@ -0,0 +1,214 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindPublisherPreparer;
+import org.springframework.data.mongodb.core.ReactiveCollectionCallback;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * ReactiveMongoTemplate que aplica el deadline de la petición como maxTimeMS en las
+ * búsquedas, conteos y agregaciones, de modo que el servidor aborta la consulta en lugar de
+ * seguir trabajando para un cliente que ya no espera la respuesta.
+ * <p>
+ * Las escrituras (actualizaciones, inserciones, borrados, bulkWrite con
+ * {@link #execute(String, ReactiveCollectionCallback)}) y los findAndModify no pueden llevar
+ * maxTimeMS: el driver 4.x no lo admite en UpdateOptions ni BulkWriteOptions, y
+ * FindAndModifyOptions no lo traslada. Con el deadline agotado no se envían, y si no responden
+ * a tiempo se deja de esperar y se responde con el mismo error.
+ */
+public class DeadlineMongoTemplate extends ReactiveMongoTemplate {
+
+    private final DeadlineMetrics metrics;
+
+    public DeadlineMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory, MongoConverter converter,
+                                 DeadlineMetrics metrics) {
+        super(databaseFactory, converter);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected <T> Mono<T> doFindOne(String collectionName, Document query, Document fields, Class<T> entityClass,
+                                    FindPublisherPreparer preparer) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.doFindOne(collectionName, query, fields, entityClass, preparer);
+            }
+            if (deadline.get().isExpired()) {
+                return Mono.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            return super.doFindOne(collectionName, query, fields, entityClass, withMaxTime(preparer, deadline.get()))
+                    .onErrorMap(this::isServerTimeout, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    @Override
+    protected <T> Flux<T> doFind(String collectionName, Document query, Document fields, Class<T> entityClass,
+                                 FindPublisherPreparer preparer) {
+        return Flux.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.doFind(collectionName, query, fields, entityClass, preparer);
+            }
+            if (deadline.get().isExpired()) {
+                return Flux.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            return super.doFind(collectionName, query, fields, entityClass, withMaxTime(preparer, deadline.get()))
+                    .onErrorMap(this::isServerTimeout, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    @Override
+    protected Mono<Long> doCount(String collectionName, Document filter, CountOptions options) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.doCount(collectionName, filter, options);
+            }
+            if (deadline.get().isExpired()) {
+                return Mono.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            options.maxTime(Math.max(1L, deadline.get().remainingMillis()), TimeUnit.MILLISECONDS);
+            return super.doCount(collectionName, filter, options)
+                    .onErrorMap(this::isServerTimeout, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    @Override
+    protected <O> Flux<O> doAggregate(Aggregation aggregation, String collectionName, @Nullable Class<?> inputType,
+                                      Class<O> outputType) {
+        return Flux.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.doAggregate(aggregation, collectionName, inputType, outputType);
+            }
+            if (deadline.get().isExpired()) {
+                return Flux.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            return super.doAggregate(aggregation.withOptions(withMaxTime(aggregation.getOptions(), deadline.get())),
+                            collectionName, inputType, outputType)
+                    .onErrorMap(this::isServerTimeout, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    // ReactiveMongoTemplate pasa por aquí las actualizaciones, inserciones y borrados
+    @Override
+    public <T> Flux<T> execute(String collectionName, ReactiveCollectionCallback<T> callback) {
+        return Flux.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.execute(collectionName, callback);
+            }
+            if (deadline.get().isExpired()) {
+                return Flux.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            // Cada elemento debe llegar antes del deadline, no antes de un plazo fijo desde el anterior
+            return super.execute(collectionName, callback)
+                    .timeout(remaining(deadline.get()), element -> remaining(deadline.get()))
+                    .onErrorMap(TimeoutException.class, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    @Override
+    protected <T> Mono<T> doFindAndModify(String collectionName, Document query, Document fields, Document sort,
+                                          Class<T> entityClass, UpdateDefinition update, FindAndModifyOptions options) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            if (deadline.isEmpty()) {
+                return super.doFindAndModify(collectionName, query, fields, sort, entityClass, update, options);
+            }
+            if (deadline.get().isExpired()) {
+                return Mono.error(metrics.exceeded(DeadlineMetrics.MONGO));
+            }
+            return super.doFindAndModify(collectionName, query, fields, sort, entityClass, update, options)
+                    .timeout(remaining(deadline.get()))
+                    .onErrorMap(TimeoutException.class, e -> metrics.exceeded(DeadlineMetrics.MONGO));
+        });
+    }
+
+    private static Mono<Long> remaining(Deadline deadline) {
+        return Mono.delay(Duration.ofMillis(Math.max(0L, deadline.remainingMillis())));
+    }
+
+    private boolean isServerTimeout(Throwable error) {
+        return error instanceof MongoExecutionTimeoutException
+                || NestedExceptionUtils.getRootCause(error) instanceof MongoExecutionTimeoutException;
+    }
+
+    // Copia las opciones de la agregación con maxTime, o con el que ya tuviera si es menor
+    private static AggregationOptions withMaxTime(AggregationOptions options, Deadline deadline) {
+        Duration maxTime = Duration.ofMillis(Math.max(1L, deadline.remainingMillis()));
+        if (options.hasExecutionTimeLimit() && options.getMaxTime().compareTo(maxTime) < 0) {
+            maxTime = options.getMaxTime();
+        }
+        AggregationOptions.Builder builder = AggregationOptions.builder()
+                .allowDiskUse(options.isAllowDiskUse())
+                .explain(options.isExplain())
+                .maxTime(maxTime);
+        options.getCursor().ifPresent(builder::cursor);
+        options.getCollation().ifPresent(builder::collation);
+        options.getComment().ifPresent(builder::comment);
+        options.getHint().ifPresent(builder::hint);
+        if (options.isSkipResults()) {
+            builder.skipOutput();
+        }
+        switch (options.getDomainTypeMapping()) {
+            case STRICT:
+                builder.strictMapping();
+                break;
+            case NONE:
+                builder.noMapping();
+                break;
+            default:
+                builder.relaxedMapping();
+        }
+        return builder.build();
+    }
+
+    private static FindPublisherPreparer withMaxTime(FindPublisherPreparer preparer, Deadline deadline) {
+        return new FindPublisherPreparer() {
+            @Override
+            public FindPublisher<Document> prepare(FindPublisher<Document> publisher) {
+                return preparer.prepare(publisher)
+                        .maxTime(Math.max(1L, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public FindPublisher<Document> initiateFind(MongoCollection<Document> collection,
+                                                        Function<MongoCollection<Document>, FindPublisher<Document>> find) {
+                return preparer.initiateFind(collection, find);
+            }
+
+            @Override
+            public boolean hasReadPreference() {
+                return preparer.hasReadPreference();
+            }
+
+            @Override
+            public ReadPreference getReadPreference() {
+                return preparer.getReadPreference();
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración de los deadlines de petición.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+    private String header = "X-Request-Deadline"; // Instante límite en milisegundos desde epoch
+    private Duration defaultTimeout = Duration.ofSeconds(10); // Si la petición no trae deadline
+    private Duration maxTimeout = Duration.ofMinutes(1); // Tope para deadlines recibidos en la cabecera
+    private Duration clientTimeout = Duration.ofSeconds(5); // Tope por llamada a otros servicios
+    // Patrón de ruta -> timeout por defecto; 0 desactiva el deadline por defecto (streaming)
+    private Map<String, Duration> routes = defaultRoutes();
+
+    private static Map<String, Duration> defaultRoutes() {
+        Map<String, Duration> routes = new LinkedHashMap<>();
+        routes.put("/accounts/import", Duration.ZERO);
+        routes.put("/accounts/export", Duration.ZERO);
+        routes.put("/accounts/balance-events", Duration.ZERO);
+        routes.put("/accounts/{id}/balance-events", Duration.ZERO);
+        routes.put("/api/accounts/balance-events", Duration.ZERO);
+        routes.put("/api/accounts/{id}/balance-events", Duration.ZERO);
+        return routes;
+    }
+}
@@ -0,0 +1,32 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Operación sobre una cuenta recibida por RSocket desde el servicio de transacciones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountOperationDto {
+
+    public enum Type {
+        VALIDATE_TRANSFER, // Usa accountId, customerId y amount
+        TRANSACTION_FEE, // Usa accountId
+        INCREMENT_TRANSACTION_COUNT, // Usa accountId y fee (opcional)
+        UPDATE_BALANCE // Usa accountId y amount
+    }
+
+    private String operationId; // Lo genera el cliente y se devuelve en el resultado para correlacionarlos
+    private Type type;
+    private String accountId;
+    private String customerId;
+    private BigDecimal amount;
+    private BigDecimal fee;
+}
@@ -0,0 +1,29 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de una {@link AccountOperationDto} en el canal RSocket. Los errores se devuelven
+ * como resultado, con el mismo código de estado que el endpoint HTTP equivalente, para que un
+ * fallo no cierre el canal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountOperationResultDto {
+    private String operationId;
+    private AccountOperationDto.Type type;
+    private int status;
+    private Boolean valid; // VALIDATE_TRANSFER
+    private BigDecimal fee; // TRANSACTION_FEE
+    private AccountDto account; // INCREMENT_TRANSACTION_COUNT y UPDATE_BALANCE
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * DTO de entrada para consultar varias cuentas por ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetRequestDto {
+    @NotEmpty(message = "Ids are required")
+    private List<String> ids;
+}
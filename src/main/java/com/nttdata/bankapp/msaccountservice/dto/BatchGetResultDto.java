@@ -0,0 +1,37 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO de respuesta de una consulta por lote: un resultado por ID solicitado, en el orden
+ * de la petición, con found=false para los IDs que no existen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchGetResultDto<T> {
+    private Map<String, Item<T>> results;
+    private int requested;
+    private int found;
+
+    /**
+     * Resultado de un ID: el valor si existe o la marca de no encontrado.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item<T> {
+        private boolean found;
+        private T value;
+
+        public static <T> Item<T> of(T value) {
+            return value != null ? new Item<>(true, value) : new Item<>(false, null);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la importación masiva: una línea del fichero, un checkpoint o el resumen final.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResultDto {
+
+    public enum Status {
+        CREATED, // Línea importada
+        ALREADY_IMPORTED, // Línea importada en una ejecución anterior con el mismo importId
+        REJECTED, // Línea descartada, ver error
+        CHECKPOINT, // Lote confirmado en base de datos
+        COMPLETED, // Fin de la importación
+        ABORTED // Importación interrumpida por un error no atribuible a una línea
+    }
+
+    private Status status;
+    private String importId; // En checkpoints y resumen: repetir la petición con el mismo importId
+    private Long line;
+    private String customerId;
+    private String accountId;
+    private String accountNumber;
+    private String error;
+    private Long lastCommittedLine; // Para reanudar: repetir la petición con importId y afterLine=lastCommittedLine
+    private Long imported;
+    private Long rejected;
+}
@@ -0,0 +1,50 @@
+package com.nttdata.bankapp.msaccountservice.dto;
+
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de la cartera de cuentas de un cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioDto {
+    private String customerId;
+    private int totalAccounts;
+    private BigDecimal totalBalance;
+    private long remainingFreeTransactions;
+    private long remainingMonthlyMovements;
+    private Map<AccountType, TypeTotals> byType;
+    private List<UpcomingWithdrawal> upcomingWithdrawals; // Ordenadas por fecha
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TypeTotals {
+        private int accounts;
+        private BigDecimal balance;
+        private long remainingFreeTransactions;
+        private long remainingMonthlyMovements;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class UpcomingWithdrawal {
+        private String accountId;
+        private String accountNumber;
+        private LocalDate date;
+    }
+}
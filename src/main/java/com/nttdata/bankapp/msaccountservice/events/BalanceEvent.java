@@ -0,0 +1,34 @@
+package com.nttdata.bankapp.msaccountservice.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cambio en una cuenta publicado tras una modificación confirmada en base de datos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BalanceEvent {
+
+    public enum Type {
+        UPDATED, // Cambio de datos de la cuenta sin movimiento
+        BALANCE_CHANGED,
+        DELETED
+    }
+
+    private String accountId;
+    private String customerId;
+    private Type type;
+    private BigDecimal balance; // Saldo tras el cambio
+    private BigDecimal amount; // Variación del saldo, si la hubo
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,195 @@
+package com.nttdata.bankapp.msaccountservice.events;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Difunde los cambios de cuenta a los suscriptores en curso, con un tópico por cuenta.
+ * Un tópico existe solo mientras tiene suscriptores, así que publicar un cambio de una cuenta
+ * que nadie observa es una consulta a un mapa. Cada suscriptor tiene un búfer acotado; si no
+ * consume al ritmo de los eventos y el búfer se llena, se le desconecta (vuelve a suscribirse
+ * y consulta el saldo) en lugar de retener memoria o frenar a los demás.
+ * <p>
+ * Los eventos son locales a cada instancia: un suscriptor solo recibe los cambios hechos por la
+ * instancia a la que está conectado, incluidos los de los procesos por lotes que se ejecutan en
+ * ella. Con varias instancias tras un balanceador, un cliente debe tratar el flujo como aviso y
+ * consultar el saldo al (re)conectar, no como registro completo de movimientos.
+ */
+@Slf4j
+@Component
+public class BalanceEventPublisher implements MeterBinder {
+
+    private final BalanceEventsProperties properties;
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder slowConsumers = new LongAdder();
+
+    public BalanceEventPublisher(BalanceEventsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Publica un cambio de cuenta. No bloquea ni falla: si nadie observa la cuenta no hace nada.
+     * @param accountId ID de la cuenta
+     * @param customerId ID del cliente titular
+     * @param type tipo de cambio
+     * @param balance saldo tras el cambio
+     * @param amount variación del saldo, o null si no la hubo
+     */
+    public void publish(String accountId, String customerId, BalanceEvent.Type type, Money balance, Money amount) {
+        if (accountId == null) {
+            return;
+        }
+        Topic topic = topics.get(accountId);
+        if (topic == null) {
+            return;
+        }
+        topic.emit(BalanceEvent.builder()
+                .accountId(accountId)
+                .customerId(customerId)
+                .type(type)
+                .balance(Money.toBigDecimal(balance))
+                .amount(Money.toBigDecimal(amount))
+                .occurredAt(LocalDateTime.now())
+                .build());
+        published.increment();
+    }
+
+    /**
+     * Indica si alguien observa la cuenta en esta instancia.
+     * @param accountId ID de la cuenta
+     * @return true si tiene al menos un suscriptor
+     */
+    public boolean isObserved(String accountId) {
+        return accountId != null && topics.containsKey(accountId);
+    }
+
+    /**
+     * Suscripción a los cambios de las cuentas indicadas a partir de este momento.
+     * @param accountIds IDs de las cuentas
+     * @return Flux infinito de eventos; termina si el suscriptor no consume a tiempo
+     * @throws IllegalArgumentException si no hay IDs o se supera el máximo por suscripción
+     * @throws SubscriberLimitExceededException si se alcanza el máximo de suscripciones
+     */
+    public Flux<BalanceEvent> subscribe(Collection<String> accountIds) {
+        Set<String> ids = new LinkedHashSet<>(accountIds);
+        ids.remove("");
+        if (!properties.isEnabled()) {
+            return Flux.error(new IllegalStateException("Balance events are disabled"));
+        }
+        if (ids.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("At least one account id is required"));
+        }
+        if (ids.size() > properties.getMaxAccountsPerSubscription()) {
+            return Flux.error(new IllegalArgumentException(
+                    "At most " + properties.getMaxAccountsPerSubscription() + " accounts per subscription"));
+        }
+
+        return Flux.defer(() -> {
+            if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+                subscribers.decrementAndGet();
+                rejected.increment();
+                return Flux.error(new SubscriberLimitExceededException(properties.getMaxSubscribers()));
+            }
+            // El error de desbordamiento solo llega tras vaciar el búfer, algo que un consumidor
+            // detenido no hace; se termina la suscripción en cuanto se produce
+            Sinks.Empty<Void> overflow = Sinks.empty();
+            return Flux.merge(Flux.fromIterable(ids).map(this::topicEvents), ids.size())
+                    .onBackpressureBuffer(properties.getBufferSize(), event -> {
+                        if (overflow.tryEmitEmpty().isSuccess()) {
+                            slowConsumers.increment();
+                            log.warn("Disconnecting slow balance event subscriber accounts={}", ids);
+                        }
+                    })
+                    .takeUntilOther(overflow.asMono())
+                    .onErrorResume(Exceptions::isOverflow, e -> Flux.empty())
+                    .doFinally(signal -> subscribers.decrementAndGet());
+        });
+    }
+
+    /**
+     * Igual que {@link #subscribe(Collection)}, como eventos SSE con un comentario periódico
+     * para que proxies y balanceadores no cierren la conexión inactiva.
+     * @param accountIds IDs de las cuentas
+     * @return Flux de eventos SSE
+     */
+    public Flux<ServerSentEvent<BalanceEvent>> subscribeServerSentEvents(Collection<String> accountIds) {
+        return subscribe(accountIds).publish(events -> Flux.merge(
+                events.map(event -> ServerSentEvent.builder(event).event(event.getType().name()).build()),
+                Flux.interval(properties.getHeartbeat())
+                        .map(tick -> ServerSentEvent.<BalanceEvent>builder().comment("heartbeat").build())
+                        .takeUntilOther(events.then())));
+    }
+
+    private Flux<BalanceEvent> topicEvents(String accountId) {
+        return Flux.defer(() -> {
+            Topic topic = topics.compute(accountId, (id, existing) -> (existing != null ? existing : new Topic()).retain());
+            return topic.sink.asFlux().doFinally(signal -> release(accountId, topic));
+        });
+    }
+
+    private void release(String accountId, Topic topic) {
+        topics.computeIfPresent(accountId, (id, existing) ->
+                existing == topic && existing.release() == 0 ? null : existing);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("balance.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open balance event subscriptions")
+                .register(registry);
+        Gauge.builder("balance.events.topics", topics, ConcurrentHashMap::size)
+                .description("Accounts with at least one balance event subscriber")
+                .register(registry);
+        FunctionCounter.builder("balance.events.published", published, LongAdder::sum)
+                .description("Balance events delivered to at least one subscriber")
+                .register(registry);
+        FunctionCounter.builder("balance.events.rejected", rejected, LongAdder::sum)
+                .description("Subscriptions rejected because the subscriber limit was reached")
+                .register(registry);
+        FunctionCounter.builder("balance.events.slow.consumers", slowConsumers, LongAdder::sum)
+                .description("Subscribers disconnected because their buffer overflowed")
+                .register(registry);
+    }
+
+    /**
+     * Tópico de una cuenta. directBestEffort no retiene eventos: cada suscriptor los acumula
+     * en su propio búfer; las emisiones concurrentes se serializan por tópico.
+     */
+    private static final class Topic {
+        private final Sinks.Many<BalanceEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int references; // Protegido por ConcurrentHashMap.compute
+
+        private Topic retain() {
+            references++;
+            return this;
+        }
+
+        private int release() {
+            return --references;
+        }
+
+        private synchronized void emit(BalanceEvent event) {
+            sink.tryEmitNext(event);
+        }
+    }
+}
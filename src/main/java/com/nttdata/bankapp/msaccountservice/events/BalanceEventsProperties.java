@@ -0,0 +1,21 @@
+package com.nttdata.bankapp.msaccountservice.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la suscripción a cambios de saldo.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.balance-events")
+public class BalanceEventsProperties {
+    private boolean enabled = true;
+    private int maxSubscribers = 10000; // Suscripciones abiertas a la vez en la instancia
+    private int maxAccountsPerSubscription = 50;
+    private int bufferSize = 256; // Eventos pendientes por suscriptor antes de desconectarlo
+    private Duration heartbeat = Duration.ofSeconds(15); // Comentario SSE para mantener viva la conexión
+}
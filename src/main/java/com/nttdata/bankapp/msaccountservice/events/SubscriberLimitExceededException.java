@@ -0,0 +1,11 @@
+package com.nttdata.bankapp.msaccountservice.events;
+
+/**
+ * Excepción lanzada cuando se alcanza el máximo de suscripciones abiertas a eventos de saldo.
+ */
+public class SubscriberLimitExceededException extends RuntimeException {
+
+    public SubscriberLimitExceededException(int maxSubscribers) {
+        super("Balance event subscriber limit reached (" + maxSubscribers + ")");
+    }
+}
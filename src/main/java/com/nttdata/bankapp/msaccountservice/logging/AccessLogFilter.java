@@ -0,0 +1,78 @@
+package com.nttdata.bankapp.msaccountservice.logging;
+
+import com.nttdata.bankapp.msaccountservice.tracing.Trace;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro que registra los accesos HTTP con muestreo por ruta.
+ * Sustituye al log por petición de los controladores: cada línea lleva campos
+ * clave=valor y solo se escribe para la fracción configurada de cada ruta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class AccessLogFilter implements WebFilter {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final AccessLogProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !ACCESS_LOG.isInfoEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> log(exchange, start));
+    }
+
+    private void log(ServerWebExchange exchange, long start) {
+        HttpStatus status = exchange.getResponse().getStatusCode();
+        int statusCode = status != null ? status.value() : HttpStatus.OK.value();
+        String route = route(exchange);
+
+        boolean error = statusCode >= 400 && properties.isAlwaysLogErrors();
+        if (!error && !sampled(route)) {
+            return;
+        }
+
+        Trace trace = exchange.getAttribute(Trace.EXCHANGE_ATTRIBUTE);
+        ACCESS_LOG.info("method={} route={} path={} status={} durationMs={} traceId={}",
+                exchange.getRequest().getMethodValue(),
+                route,
+                exchange.getRequest().getPath().value(),
+                statusCode,
+                (System.nanoTime() - start) / 1_000_000,
+                trace != null ? trace.getTraceId() : "-");
+    }
+
+    private boolean sampled(String route) {
+        double rate = properties.sampleRateFor(route);
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private String route(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern instanceof PathPattern) {
+            return ((PathPattern) pattern).getPatternString();
+        }
+        return UNMATCHED_ROUTE;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nttdata.bankapp.msaccountservice.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración del muestreo de logs de acceso.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.logging.access")
+public class AccessLogProperties {
+    private boolean enabled = true;
+    private double defaultSampleRate = 0.1; // Fracción de peticiones registradas por ruta
+    private boolean alwaysLogErrors = true; // Las respuestas 4xx/5xx se registran siempre
+    private Map<String, Double> routes = new HashMap<>(); // Patrón de ruta -> fracción de muestreo
+
+    /**
+     * Obtiene la tasa de muestreo de una ruta.
+     * @param route patrón de la ruta (por ejemplo /accounts/{id}/balance)
+     * @return fracción entre 0 y 1
+     */
+    public double sampleRateFor(String route) {
+        Double rate = routes.get(route);
+        return rate != null ? rate : defaultSampleRate;
+    }
+}
@@ -0,0 +1,39 @@
+package com.nttdata.bankapp.msaccountservice.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import com.nttdata.bankapp.msaccountservice.tracing.SpanFileExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expone métricas de los appenders asíncronos de log.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    private final ObjectProvider<SpanFileExporter> spanFileExporter;
+
+    public LoggingMetrics(ObjectProvider<SpanFileExporter> spanFileExporter) {
+        this.spanFileExporter = spanFileExporter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Su appender se crea con el bean, que debe existir antes de recorrer instances()
+        spanFileExporter.ifAvailable(exporter -> { });
+        for (MeteredAsyncAppender appender : MeteredAsyncAppender.instances()) {
+            FunctionCounter.builder("logging.events.dropped", appender, MeteredAsyncAppender::getDroppedEvents)
+                    .description("Log events discarded by the async appender (full-queue drops are approximate)")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+
+            Gauge.builder("logging.queue.remaining", appender, MeteredAsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the async appender queue")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.nttdata.bankapp.msaccountservice.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appender asíncrono de Logback que contabiliza los eventos descartados.
+ * Logback descarta eventos sin avisar cuando la cola supera el umbral de descarte
+ * o cuando está llena con neverBlock activo; este appender cuenta ambos casos para
+ * exponer el número de eventos perdidos como métrica.
+ * Los descartes por umbral se cuentan exactos: Logback solo consulta isDiscardable
+ * cuando ya ha decidido que la cola está por debajo del umbral. El resultado del offer
+ * con la cola llena no es visible desde la subclase, así que esos descartes se estiman
+ * mirando la capacidad libre justo antes. Entretanto el hilo del appender puede vaciar un
+ * hueco u otro hilo ocuparlo, así que esa parte de la métrica es aproximada.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final List<MeteredAsyncAppender> INSTANCES = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @Override
+    public void start() {
+        super.start();
+        INSTANCES.add(this);
+    }
+
+    @Override
+    public void stop() {
+        INSTANCES.remove(this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Con la cola llena y un umbral positivo, los descartables ya se cuentan en isDiscardable
+        if (isNeverBlock() && getRemainingCapacity() == 0
+                && (getDiscardingThreshold() == 0 || !super.isDiscardable(event))) {
+            droppedEvents.incrementAndGet();
+        }
+        super.append(event);
+    }
+
+    // Solo se llama con la cola por debajo del umbral: si devuelve true, el evento se descarta
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            droppedEvents.incrementAndGet();
+        }
+        return discardable;
+    }
+
+    /**
+     * Número de eventos descartados desde el arranque del appender.
+     * @return total de eventos descartados
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Appenders asíncronos activos, usados para registrar sus métricas.
+     * @return lista inmutable de appenders
+     */
+    public static List<MeteredAsyncAppender> instances() {
+        return Collections.unmodifiableList(INSTANCES);
+    }
+}
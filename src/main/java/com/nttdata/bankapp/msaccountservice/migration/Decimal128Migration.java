@@ -0,0 +1,248 @@
+package com.nttdata.bankapp.msaccountservice.migration;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Migra los importes guardados como String en la colección accounts a Decimal128.
+ * Recorre la colección por _id ascendente en lotes y guarda tras cada lote el último _id
+ * procesado, de modo que una ejecución interrumpida continúa donde se quedó.
+ * Cada actualización exige que los valores sigan siendo los leídos: si la aplicación
+ * reescribió el documento mientras tanto (ya en Decimal128), el lote no lo pisa.
+ * Durante un despliegue gradual las instancias antiguas siguen guardando String, también en
+ * documentos anteriores al checkpoint; por eso, al terminar el recorrido, una pasada final vuelve
+ * a buscar en toda la colección los importes que aún son String (sin checkpoint, porque solo lee
+ * los pendientes). Lo que escriban las instancias antiguas después de esa pasada queda pendiente:
+ * hay que volver a ejecutar la migración cuando ya no quede ninguna, sin necesidad de restart.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class Decimal128Migration {
+
+    static final String ACCOUNTS = "accounts";
+    static final String CHECKPOINTS = "migration_checkpoints";
+    static final String MIGRATION_ID = "accounts-decimal128";
+    static final String DAILY_BALANCES = "dailyBalances";
+
+    /**
+     * Campos de importe de los dos modelos de Account que comparten la colección.
+     */
+    static final List<String> AMOUNT_FIELDS = List.of(
+            "balance", "initialBalance", "minimumOpeningAmount", "minimumDailyBalance",
+            "transactionFee", "transactionCommission", "maintenanceFee", "interestRate");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Decimal128MigrationProperties properties;
+
+    /**
+     * Ejecuta (o reanuda) la migración.
+     * @return resumen con los contadores de la ejecución
+     */
+    public Mono<Summary> migrate() {
+        Summary summary = new Summary();
+        return loadCheckpoint()
+                .doOnNext(lastId -> log.info("Starting decimal128 migration resumeAfter={} batchSize={}",
+                        lastId.orElse(null), properties.getBatchSize()))
+                .flatMap(lastId -> mongoTemplate.getCollection(ACCOUNTS)
+                        .flatMap(collection -> scan(collection, pendingFilter(lastId),
+                                batch -> migrateBatch(collection, batch, summary, true))
+                                .then(scan(collection, pendingFilter(Optional.empty()),
+                                        batch -> migrateBatch(collection, batch, summary, false)))))
+                .then(Mono.fromSupplier(() -> summary))
+                .doOnNext(result -> log.info("Decimal128 migration finished scanned={} rescanned={} migrated={} conflicts={} invalid={} lastId={}",
+                        result.getScanned(), result.getRescanned(), result.getMigrated(), result.getConflicts(),
+                        result.getInvalid(), result.getLastId()));
+    }
+
+    private Mono<Void> scan(MongoCollection<Document> collection, Bson filter,
+                            Function<List<Document>, Mono<Void>> migrateBatch) {
+        return Flux.from(collection.find(filter)
+                        .sort(Sorts.ascending("_id"))
+                        .batchSize(properties.getBatchSize()))
+                .buffer(properties.getBatchSize())
+                .concatMap(migrateBatch)
+                .then();
+    }
+
+    private Mono<Optional<Object>> loadCheckpoint() {
+        if (properties.isRestart()) {
+            return Mono.just(Optional.empty());
+        }
+        return mongoTemplate.findById(MIGRATION_ID, Document.class, CHECKPOINTS)
+                .map(checkpoint -> Optional.ofNullable(checkpoint.get("lastId")))
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * Documentos con algún importe en String posteriores al checkpoint.
+     */
+    static Bson pendingFilter(Optional<Object> lastId) {
+        List<Bson> stringFields = AMOUNT_FIELDS.stream()
+                .map(field -> Filters.type(field, BsonType.STRING))
+                .collect(Collectors.toCollection(ArrayList::new));
+        // Algún valor del mapa dailyBalances es String
+        stringFields.add(Filters.expr(new Document("$gt", List.of(
+                new Document("$size", new Document("$filter", new Document()
+                        .append("input", new Document("$objectToArray",
+                                new Document("$ifNull", List.of("$" + DAILY_BALANCES, new Document()))))
+                        .append("cond", new Document("$eq", List.of(new Document("$type", "$$this.v"), "string"))))),
+                0))));
+
+        Bson pending = Filters.or(stringFields);
+        return lastId.map(id -> Filters.and(Filters.gt("_id", id), pending)).orElse(pending);
+    }
+
+    /**
+     * Convierte un lote. En la pasada final (checkpoint=false) no se mueve el checkpoint: esa
+     * pasada recorre de nuevo la colección desde el principio.
+     */
+    private Mono<Void> migrateBatch(MongoCollection<Document> collection, List<Document> batch, Summary summary,
+                                    boolean checkpoint) {
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        // La pasada final vuelve a leer los valores inválidos que ya contó el recorrido
+        Summary invalidCount = checkpoint ? summary : new Summary();
+        for (Document account : batch) {
+            UpdateOneModel<Document> update = toUpdate(account, invalidCount);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+        Object lastId = batch.get(batch.size() - 1).get("_id");
+
+        Mono<BulkWriteResult> write = updates.isEmpty()
+                ? Mono.empty()
+                : Mono.from(collection.bulkWrite(updates, new BulkWriteOptions().ordered(false)));
+
+        return write
+                .doOnNext(result -> {
+                    summary.migrated += result.getModifiedCount();
+                    summary.conflicts += updates.size() - result.getMatchedCount();
+                })
+                .then(Mono.defer(() -> {
+                    if (!checkpoint) {
+                        summary.rescanned += batch.size();
+                        return Mono.empty();
+                    }
+                    summary.scanned += batch.size();
+                    summary.lastId = lastId;
+                    return saveCheckpoint(summary);
+                }))
+                .then(properties.getBatchDelay().isZero()
+                        ? Mono.empty()
+                        : Mono.delay(properties.getBatchDelay()).then());
+    }
+
+    /**
+     * Construye el $set de los importes en String de una cuenta. El filtro incluye los valores
+     * originales para no sobrescribir cambios concurrentes.
+     * @return actualización, o null si no hay nada convertible
+     */
+    static UpdateOneModel<Document> toUpdate(Document account, Summary summary) {
+        Document filter = new Document("_id", account.get("_id"));
+        Document set = new Document();
+
+        for (String field : AMOUNT_FIELDS) {
+            Object value = account.get(field);
+            if (value instanceof String) {
+                Decimal128 converted = toDecimal128((String) value);
+                if (converted != null) {
+                    filter.append(field, value);
+                    set.append(field, converted);
+                } else {
+                    summary.invalid++;
+                }
+            }
+        }
+
+        Object dailyBalances = account.get(DAILY_BALANCES);
+        if (dailyBalances instanceof Document) {
+            Document converted = new Document();
+            boolean changed = false;
+            for (Map.Entry<String, Object> entry : ((Document) dailyBalances).entrySet()) {
+                Object value = entry.getValue();
+                Decimal128 decimal = value instanceof String ? toDecimal128((String) value) : null;
+                if (decimal != null) {
+                    converted.append(entry.getKey(), decimal);
+                    changed = true;
+                } else {
+                    if (value instanceof String) {
+                        summary.invalid++;
+                    }
+                    converted.append(entry.getKey(), value);
+                }
+            }
+            if (changed) {
+                filter.append(DAILY_BALANCES, dailyBalances);
+                set.append(DAILY_BALANCES, converted);
+            }
+        }
+
+        return set.isEmpty() ? null : new UpdateOneModel<>(filter, new Document("$set", set));
+    }
+
+    private static Decimal128 toDecimal128(String value) {
+        try {
+            return new Decimal128(new BigDecimal(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Mono<Void> saveCheckpoint(Summary summary) {
+        Update checkpoint = new Update()
+                .set("lastId", summary.lastId)
+                .inc("scanned", summary.scannedSinceCheckpoint())
+                .set("updatedAt", new Date());
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(MIGRATION_ID)), checkpoint, CHECKPOINTS)
+                .then();
+    }
+
+    /**
+     * Contadores de una ejecución de la migración.
+     */
+    @Data
+    public static class Summary {
+        private long scanned;
+        private long rescanned; // Documentos con importes String encontrados por la pasada final
+        private long migrated;
+        private long conflicts; // Documentos modificados por la aplicación durante la migración
+        private long invalid; // Valores String que no son un número
+        private Object lastId;
+        private long checkpointed;
+
+        long scannedSinceCheckpoint() {
+            long delta = scanned - checkpointed;
+            checkpointed = scanned;
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.nttdata.bankapp.msaccountservice.migration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la migración de importes String a Decimal128.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.migration.decimal128")
+public class Decimal128MigrationProperties {
+    private boolean enabled = false; // Ejecutar la migración al arrancar
+    private int batchSize = 500; // Documentos por bulkWrite y por checkpoint
+    private Duration batchDelay = Duration.ZERO; // Pausa entre lotes para limitar la carga sobre MongoDB
+    private boolean restart = false; // Ignorar el checkpoint y recorrer la colección desde el principio
+}
@@ -0,0 +1,28 @@
+package com.nttdata.bankapp.msaccountservice.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lanza la migración a Decimal128 en segundo plano al arrancar, solo si
+ * app.migration.decimal128.enabled=true. Basta con activarla en una instancia.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.migration.decimal128", name = "enabled", havingValue = "true")
+public class Decimal128MigrationRunner implements ApplicationRunner {
+
+    private final Decimal128Migration migration;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migration.migrate()
+                .subscribe(summary -> { },
+                        error -> log.error("Decimal128 migration failed, it will resume from the last checkpoint", error));
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,12 +31,12 @@ public class Account {
     private String customerId;
     private CustomerType customerType; // PERSONAL, BUSINESS
     private CustomerProfile customerProfile; // REGULAR, VIP, PYME
-    private BigDecimal initialBalance; // Saldo inicial al crear la cuenta
-    private BigDecimal balance;
-    private BigDecimal minimumOpeningAmount; // Monto mínimo de apertura
-    private BigDecimal minimumDailyBalance; // Saldo promedio diario mínimo requerido (para VIP)
+    private Money initialBalance; // Saldo inicial al crear la cuenta
+    private Money balance;
+    private Money minimumOpeningAmount; // Monto mínimo de apertura
+    private Money minimumDailyBalance; // Saldo promedio diario mínimo requerido (para VIP)
     private Integer maxFreeTransactions; // Máximo de transacciones sin comisión
-    private BigDecimal transactionFee; // Comisión por transacción después del límite
+    private Money transactionFee; // Comisión por transacción después del límite
     private Integer currentMonthlyTransactions; // Contador de transacciones del mes actual
     private LocalDate lastTransactionCountResetDate; // Fecha del último reseteo del contador
     private Integer maxMonthlyMovements; // Solo para cuenta de ahorro
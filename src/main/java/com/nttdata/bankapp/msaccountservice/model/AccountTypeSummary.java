@@ -0,0 +1,35 @@
+package com.nttdata.bankapp.msaccountservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totales de las cuentas de un cliente de un mismo tipo, calculados por la agregación de cartera.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTypeSummary {
+    @Id
+    private AccountType type;
+    private int accounts;
+    private Money balance;
+    private long remainingFreeTransactions;
+    private long remainingMonthlyMovements; // Solo cuentas con límite de movimientos (ahorro)
+    private List<FixedTermWithdrawal> withdrawals = new ArrayList<>(); // Solo para FIXED_TERM
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FixedTermWithdrawal {
+        private String accountId;
+        private String accountNumber;
+        private LocalDate withdrawalDay;
+    }
+}
@@ -0,0 +1,156 @@
+package com.nttdata.bankapp.msaccountservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario de punto fijo: céntimos en un {@code long} con escala 2.
+ * Las operaciones no crean BigDecimal intermedios y fallan con ArithmeticException
+ * si el resultado desborda. En JSON se representa como número decimal.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Convierte un BigDecimal redondeando a céntimos con HALF_UP.
+     * @param amount importe decimal
+     * @return Money equivalente
+     * @throws ArithmeticException si el importe no cabe en un long de céntimos
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, ROUNDING).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Convierte un importe recibido en una petición. A diferencia de {@link #of(BigDecimal)},
+     * un importe ausente o que desborda falla con IllegalArgumentException, que los manejadores
+     * de errores responden con 400.
+     * @param amount importe decimal
+     * @return Money equivalente
+     * @throws IllegalArgumentException si el importe es null o no cabe en un long de céntimos
+     */
+    public static Money ofAmount(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        try {
+            return of(amount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount is out of range: " + amount.toPlainString(), e);
+        }
+    }
+
+    public static Money ofNullable(BigDecimal amount) {
+        return amount == null ? null : of(amount);
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public static BigDecimal toBigDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long factor) {
+        return ofMinor(Math.multiplyExact(minorUnits, factor));
+    }
+
+    /**
+     * Divide el importe entre un entero redondeando a céntimos con HALF_UP.
+     * @param divisor divisor distinto de cero
+     * @return cociente redondeado
+     */
+    public Money dividedBy(long divisor) {
+        return ofMinor(divideHalfUp(minorUnits, divisor));
+    }
+
+    /**
+     * Promedio de una suma de céntimos ya acumulada, con el mismo redondeo que {@link #dividedBy(long)}.
+     * @param totalMinorUnits suma en céntimos
+     * @param count número de sumandos
+     * @return promedio redondeado
+     */
+    public static Money average(long totalMinorUnits, long count) {
+        return ofMinor(divideHalfUp(totalMinorUnits, count));
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).minorUnits == minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
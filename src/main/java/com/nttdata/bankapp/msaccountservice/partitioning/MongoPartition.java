@@ -0,0 +1,13 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import lombok.Data;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+/**
+ * Una partición: su nombre en el anillo y el template de su base de datos.
+ */
+@Data
+public class MongoPartition {
+    private final String name;
+    private final ReactiveMongoTemplate template;
+}
@@ -0,0 +1,134 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Particiones de MongoDB y su anillo. Con una sola partición (sin el perfil "partitioned") es la
+ * base de datos principal y todas las operaciones van a ella.
+ */
+@Slf4j
+public class MongoPartitions implements AutoCloseable {
+
+    private final Map<String, MongoPartition> partitions = new LinkedHashMap<>();
+    private final PartitionRing ring;
+    private final PartitioningProperties properties;
+    private final List<MongoClient> clients;
+
+    /**
+     * @param partitions particiones, en el orden en que se recorren las operaciones sobre todas
+     * @param properties configuración (nodos virtuales y estado de migración)
+     * @param clients clientes creados para las particiones, que se cierran con el contexto
+     */
+    public MongoPartitions(List<MongoPartition> partitions, PartitioningProperties properties, List<MongoClient> clients) {
+        for (MongoPartition partition : partitions) {
+            if (this.partitions.putIfAbsent(partition.getName(), partition) != null) {
+                throw new IllegalArgumentException("Duplicate partition name " + partition.getName());
+            }
+        }
+        this.ring = new PartitionRing(List.copyOf(this.partitions.keySet()), properties.getVirtualNodes());
+        this.properties = properties;
+        this.clients = clients;
+    }
+
+    public List<MongoPartition> all() {
+        return List.copyOf(partitions.values());
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    /**
+     * Obtiene una partición por nombre.
+     * @param name nombre de la partición
+     * @return la partición
+     * @throws IllegalArgumentException si no existe
+     */
+    public MongoPartition get(String name) {
+        MongoPartition partition = partitions.get(name);
+        if (partition == null) {
+            throw new IllegalArgumentException("Unknown partition " + name);
+        }
+        return partition;
+    }
+
+    /**
+     * Obtiene la partición a la que pertenece una clave según el anillo actual.
+     * @param key clave de partición (customerId)
+     * @return la partición
+     */
+    public MongoPartition forKey(String key) {
+        if (partitions.size() == 1) {
+            return partitions.values().iterator().next();
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("customerId is required to choose a partition");
+        }
+        return partitions.get(ring.ownerOf(key));
+    }
+
+    /**
+     * Genera el _id de un documento nuevo de una partición: un ObjectId cuyo quinto byte (parte
+     * del valor aleatorio del proceso) es la marca del nombre de la partición.
+     * @param partition partición en la que se guarda el documento
+     * @return ObjectId en hexadecimal
+     */
+    public String newId(MongoPartition partition) {
+        byte[] bytes = new ObjectId().toByteArray();
+        bytes[4] = tag(partition.getName());
+        return new ObjectId(bytes).toHexString();
+    }
+
+    /**
+     * Particiones cuya marca coincide con la de un _id generado por {@link #newId}. Es solo una
+     * pista: el documento puede haberse movido después, y los ids anteriores o ajenos llevan un
+     * byte aleatorio que puede coincidir con alguna marca.
+     * @param id _id del documento
+     * @return particiones probables, o vacío si el id no es un ObjectId
+     */
+    public List<MongoPartition> likelyFor(String id) {
+        if (partitions.size() == 1 || !ObjectId.isValid(id)) {
+            return List.of();
+        }
+        byte tag = new ObjectId(id).toByteArray()[4];
+        return partitions.values().stream()
+                .filter(partition -> tag(partition.getName()) == tag)
+                .collect(Collectors.toList());
+    }
+
+    private static byte tag(String name) {
+        return (byte) PartitionRing.hash(name);
+    }
+
+    /**
+     * Indica si hay un rebalanceo en curso: los documentos pueden estar aún en su partición anterior.
+     */
+    public boolean isMigrating() {
+        return partitions.size() > 1 && properties.isMigrating();
+    }
+
+    /**
+     * Fracción de los clientes que corresponde a cada partición.
+     */
+    public Map<String, Double> ownership() {
+        return ring.ownership();
+    }
+
+    @Override
+    public void close() {
+        for (MongoClient client : clients) {
+            try {
+                client.close();
+            } catch (RuntimeException e) {
+                log.warn("Could not close partition client: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMongoTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Crea las particiones de MongoDB: con el perfil "partitioned", un cliente y un template por
+ * cada base de datos de app.partitioning.partitions; sin él, una sola partición con el template principal.
+ */
+@Slf4j
+@Configuration
+public class MongoPartitionsConfig {
+
+    private static final String BOOT_MONGO_PACKAGE = "org.springframework.boot.autoconfigure.mongo.";
+
+    @Bean
+    @Profile("partitioned")
+    public MongoPartitions mongoPartitions(PartitioningProperties properties, MongoConverter converter,
+                                           DeadlineMetrics deadlineMetrics,
+                                           ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                           ApplicationContext applicationContext) {
+        if (properties.getPartitions().isEmpty()) {
+            throw new IllegalStateException("Profile 'partitioned' requires app.partitioning.partitions");
+        }
+        // Los de Spring Boot aplican spring.data.mongodb.* y crean su propio event loop: cada
+        // partición toma la conexión de su uri y comparte el resto (métricas, trazas)
+        List<MongoClientSettingsBuilderCustomizer> shared = customizers.orderedStream()
+                .filter(customizer -> !customizer.getClass().getName().startsWith(BOOT_MONGO_PACKAGE))
+                .collect(Collectors.toList());
+        List<MongoPartition> partitions = new ArrayList<>();
+        List<MongoClient> clients = new ArrayList<>();
+        for (PartitioningProperties.Partition partition : properties.getPartitions()) {
+            ConnectionString uri = new ConnectionString(partition.getUri());
+            if (uri.getDatabase() == null) {
+                throw new IllegalStateException("Partition " + partition.getName() + " uri has no database");
+            }
+            MongoClientSettings.Builder settings = MongoClientSettings.builder();
+            shared.forEach(customizer -> customizer.customize(settings));
+            MongoClient client = MongoClients.create(settings.applyConnectionString(uri).build());
+            clients.add(client);
+            DeadlineMongoTemplate template = new DeadlineMongoTemplate(
+                    new SimpleReactiveMongoDatabaseFactory(client, uri.getDatabase()), converter, deadlineMetrics);
+            // Auditoría (@LastModifiedDate) y demás callbacks de entidad del contexto
+            template.setApplicationContext(applicationContext);
+            partitions.add(new MongoPartition(partition.getName(), template));
+            log.info("Mongo partition name={} hosts={} database={}", partition.getName(), uri.getHosts(), uri.getDatabase());
+        }
+        return new MongoPartitions(partitions, properties, clients);
+    }
+
+    @Bean
+    @Profile("!partitioned")
+    public MongoPartitions singleMongoPartition(ReactiveMongoTemplate mongoTemplate, PartitioningProperties properties) {
+        return new MongoPartitions(List.of(new MongoPartition("default", mongoTemplate)), properties, List.of());
+    }
+}
@@ -0,0 +1,190 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Mueve a su partición los documentos que, tras cambiar la lista de particiones, quedaron en
+ * otra. Recorre cada colección de los repositorios particionados en cada partición leyendo solo
+ * _id y la clave de los documentos del repositorio ({@link PartitionedMongoRepository#getOwnedDocuments()},
+ * no los de otras entidades en la misma colección); los de otra partición se copian al destino
+ * con insertMany y se borran del origen cuando el destino ya los tiene. Si el destino ya tenía el documento (guardado
+ * allí durante la migración), esa copia es la más reciente y solo se borra la del origen.
+ * <p>
+ * Procedimiento: desplegar la nueva lista de particiones con app.partitioning.migrating=true en
+ * todas las instancias, con los procesos por lotes parados; rebalancear (repetible: cada ejecución
+ * solo encuentra lo que falta); volver a desplegar con migrating=false.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionRebalancer {
+
+    private final MongoPartitions partitions;
+    private final PartitioningProperties properties;
+    private final ObjectProvider<PartitionedMongoRepository<?>> repositories;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Ejecuta un rebalanceo.
+     * @param dryRun si es true solo cuenta los documentos que se moverían
+     * @return resumen de los movimientos
+     */
+    public Mono<RebalanceSummary> rebalance(boolean dryRun) {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("A rebalance is already running"));
+            }
+            Run run = new Run(dryRun);
+            log.info("Starting partition rebalance partitions={} dryRun={}", partitions.size(), dryRun);
+            return Flux.fromStream(repositories.orderedStream())
+                    .concatMap(repository -> Flux.fromIterable(partitions.all())
+                            .concatMap(source -> rebalance(repository.getCollectionName(),
+                                    repository.getPartitionKeyField(), repository.getOwnedDocuments(), source, run)))
+                    .then(Mono.fromSupplier(() -> finish(run)))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private Mono<Void> rebalance(String collectionName, String keyField, Bson owned, MongoPartition source, Run run) {
+        int batchSize = Math.max(1, properties.getRebalanceBatchSize());
+        return source.getTemplate().getCollection(collectionName)
+                .flatMapMany(collection -> Flux.from(collection.find(owned)
+                                .projection(Projections.include(keyField))
+                                .batchSize(batchSize))
+                        .doOnNext(document -> run.scanned.increment())
+                        .filter(document -> document.get(keyField) instanceof String
+                                && partitions.forKey(document.getString(keyField)) != source)
+                        .buffer(batchSize)
+                        .concatMap(batch -> Flux.fromIterable(batch.stream().collect(Collectors.groupingBy(
+                                        document -> partitions.forKey(document.getString(keyField)).getName(),
+                                        Collectors.mapping(document -> document.get("_id"), Collectors.toList())))
+                                        .entrySet())
+                                .concatMap(entry -> move(collection, collectionName, source,
+                                        partitions.get(entry.getKey()), entry.getValue(), run))))
+                .then();
+    }
+
+    private Mono<Void> move(MongoCollection<Document> sourceCollection, String collectionName, MongoPartition source,
+                            MongoPartition target, List<Object> ids, Run run) {
+        RebalanceSummary.Move move = run.moves.computeIfAbsent(collectionName + "|" + source.getName() + "|" + target.getName(),
+                key -> new RebalanceSummary.Move(collectionName, source.getName(), target.getName()));
+        if (run.dryRun) {
+            move.setDocuments(move.getDocuments() + ids.size());
+            return Mono.empty();
+        }
+        return Flux.from(sourceCollection.find(Filters.in("_id", ids)))
+                .collectList()
+                .filter(documents -> !documents.isEmpty())
+                .flatMap(documents -> target.getTemplate().getCollection(collectionName)
+                        .flatMap(targetCollection -> insert(targetCollection, documents)
+                                .flatMap(failedIndexes -> {
+                                    List<Object> copied = new ArrayList<>();
+                                    List<Object> duplicates = new ArrayList<>();
+                                    for (int i = 0; i < documents.size(); i++) {
+                                        Boolean duplicate = failedIndexes.get(i);
+                                        if (duplicate == null) {
+                                            copied.add(documents.get(i).get("_id"));
+                                        } else if (duplicate) {
+                                            duplicates.add(documents.get(i).get("_id"));
+                                        }
+                                    }
+                                    // Un duplicado en otro índice único (cardNumber) no significa que el
+                                    // destino tenga el documento: solo se borran los que tienen el mismo _id
+                                    return present(targetCollection, duplicates)
+                                            .flatMap(present -> {
+                                                move.setDocuments(move.getDocuments() + copied.size());
+                                                move.setAlreadyPresent(move.getAlreadyPresent() + present.size());
+                                                move.setFailed(move.getFailed()
+                                                        + failedIndexes.size() - present.size());
+                                                List<Object> removable = new ArrayList<>(copied);
+                                                removable.addAll(present);
+                                                return removable.isEmpty()
+                                                        ? Mono.empty()
+                                                        : Mono.from(sourceCollection.deleteMany(Filters.in("_id", removable)));
+                                            });
+                                })))
+                .then();
+    }
+
+    private Mono<List<Object>> present(MongoCollection<Document> collection, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Flux.from(collection.find(Filters.in("_id", ids)).projection(Projections.include("_id")))
+                .map(document -> document.get("_id"))
+                .collectList();
+    }
+
+    // Índice del documento -> true si ya existía en el destino, false si falló por otra causa
+    private Mono<Map<Integer, Boolean>> insert(MongoCollection<Document> collection, List<Document> documents) {
+        return Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false)))
+                .map(result -> Map.<Integer, Boolean>of())
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    Map<Integer, Boolean> failed = new HashMap<>();
+                    String firstError = null;
+                    for (BulkWriteError error : e.getWriteErrors()) {
+                        boolean duplicate = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                        failed.put(error.getIndex(), duplicate);
+                        if (!duplicate && firstError == null) {
+                            firstError = error.getMessage();
+                        }
+                    }
+                    if (firstError != null) {
+                        log.warn("Partition rebalance insert errors namespace={} first={}",
+                                collection.getNamespace(), firstError);
+                    }
+                    return Mono.just(failed);
+                });
+    }
+
+    private RebalanceSummary finish(Run run) {
+        long durationMillis = (System.nanoTime() - run.startNanos) / 1_000_000;
+        RebalanceSummary summary = RebalanceSummary.builder()
+                .dryRun(run.dryRun)
+                .scanned(run.scanned.sum())
+                .durationMillis(durationMillis)
+                .moves(new ArrayList<>(run.moves.values()))
+                .build();
+        log.info("Partition rebalance finished dryRun={} scanned={} moves={} durationMs={}",
+                summary.isDryRun(), summary.getScanned(), summary.getMoves(), durationMillis);
+        return summary;
+    }
+
+    private static final class Run {
+        private final boolean dryRun;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder scanned = new LongAdder();
+        private final Map<String, RebalanceSummary.Move> moves = new ConcurrentHashMap<>(); // Solo lo modifica un lote a la vez
+
+        private Run(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+    }
+}
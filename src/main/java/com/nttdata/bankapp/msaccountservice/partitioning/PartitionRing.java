@@ -0,0 +1,104 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anillo de hashing consistente que asigna cada clave (el customerId) a una partición. Cada
+ * partición ocupa varios puntos del anillo (nodos virtuales) y la clave pertenece a la del
+ * primer punto igual o posterior a su hash; al añadir una partición solo cambian de dueño las
+ * claves de los tramos que pasa a ocupar. El anillo es inmutable.
+ */
+public final class PartitionRing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * Construye el anillo.
+     * @param partitions nombres de las particiones; el reparto depende solo de los nombres, no del orden
+     * @param virtualNodes puntos del anillo por partición
+     */
+    public PartitionRing(List<String> partitions, int virtualNodes) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required");
+        }
+        int perPartition = Math.max(1, virtualNodes);
+        long[][] entries = new long[partitions.size() * perPartition][];
+        int next = 0;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            for (int node = 0; node < perPartition; node++) {
+                entries[next++] = new long[]{hash(partitions.get(partition) + "#" + node), partition};
+            }
+        }
+        // En caso de empate entre puntos decide el nombre, para que el anillo no dependa del orden
+        Arrays.sort(entries, (a, b) -> a[0] != b[0]
+                ? Long.compareUnsigned(a[0], b[0])
+                : partitions.get((int) a[1]).compareTo(partitions.get((int) b[1])));
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = partitions.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * Obtiene la partición de una clave.
+     * @param key clave de partición
+     * @return nombre de la partición
+     */
+    public String ownerOf(String key) {
+        long hash = hash(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    /**
+     * Fracción del espacio de hashes que corresponde a cada partición.
+     * @return partición -> fracción entre 0 y 1
+     */
+    public Map<String, Double> ownership() {
+        Map<String, Double> ownership = new LinkedHashMap<>();
+        for (int i = 0; i < points.length; i++) {
+            // Tramo (punto anterior, punto actual]; el primero cierra la vuelta desde el último
+            long span = points[i] - (i == 0 ? points[points.length - 1] : points[i - 1]);
+            double fraction = points.length == 1 ? 1.0 : unsignedFraction(span);
+            ownership.merge(owners[i], fraction, Double::sum);
+        }
+        return ownership;
+    }
+
+    private static double unsignedFraction(long span) {
+        double value = (double) (span >>> 1) * 2.0 + (span & 1);
+        return value / 18446744073709551616.0; // 2^64
+    }
+
+    // FNV-1a de 64 bits con el mezclado final de splitmix64: FNV solo dispersa mal los bits
+    // altos con claves cortas y parecidas (ids consecutivos), y el anillo se ordena por ellos
+    static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
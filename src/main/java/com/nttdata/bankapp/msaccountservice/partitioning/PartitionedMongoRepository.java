@@ -0,0 +1,433 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base de los repositorios repartidos entre particiones por una clave del documento (customerId).
+ * Las escrituras y las consultas por clave van solo a su partición. Los documentos nuevos reciben
+ * un _id con la marca de su partición ({@link MongoPartitions#newId}); las consultas por _id van
+ * a la partición recordada del id o a la de su marca y, si no está allí, consultan las demás a la
+ * vez y se quedan con la primera respuesta; el resto (findAll, count, borrados masivos) recorre
+ * todas las particiones.
+ * <p>
+ * Durante un rebalanceo ({@link MongoPartitions#isMigrating()}) un documento puede estar en su
+ * partición anterior, en la nueva o en ambas: las consultas por clave se hacen en todas y, de un
+ * documento que aparece fuera de su partición, solo se devuelve esa copia si la partición nueva
+ * aún no lo tiene. Antes de guardar un documento que solo está en su partición anterior se copia
+ * a la nueva tal como está guardado, de modo que el save con @Version compara con esa copia y las
+ * escrituras siempre van a la partición nueva. Los conteos pueden incluir duplicados mientras dura
+ * el rebalanceo.
+ * @param <T> tipo de la entidad
+ */
+@Slf4j
+public abstract class PartitionedMongoRepository<T> implements ReactiveMongoRepository<T, String> {
+
+    protected final MongoPartitions partitions;
+    private final Class<T> entityClass;
+    private final String partitionKeyField;
+    // Partición de los ids leídos o guardados; sin bloqueo común, ya que cada consulta por id pasa por aquí
+    private final Map<String, String> locations;
+    private final int locationCacheSize;
+
+    /**
+     * @param partitions particiones
+     * @param entityClass clase de la entidad
+     * @param partitionKeyField campo del documento con la clave de partición
+     * @param locationCacheSize ids cuya partición se recuerda
+     */
+    protected PartitionedMongoRepository(MongoPartitions partitions, Class<T> entityClass, String partitionKeyField,
+                                         int locationCacheSize) {
+        this.partitions = partitions;
+        this.entityClass = entityClass;
+        this.partitionKeyField = partitionKeyField;
+        this.locationCacheSize = Math.max(1, locationCacheSize);
+        this.locations = new ConcurrentHashMap<>();
+    }
+
+    protected abstract String getId(T entity);
+
+    protected abstract void setId(T entity, String id);
+
+    protected abstract String getPartitionKey(T entity);
+
+    /**
+     * Índices que se crean en cada partición al arrancar, además del de la clave de partición.
+     */
+    protected List<Index> indexes() {
+        return List.of();
+    }
+
+    public String getCollectionName() {
+        return partitions.all().get(0).getTemplate().getCollectionName(entityClass);
+    }
+
+    public String getPartitionKeyField() {
+        return partitionKeyField;
+    }
+
+    /**
+     * Filtro de los documentos de la colección que pertenecen a este repositorio y que el
+     * rebalanceo puede mover. Por defecto todos; se restringe si otra entidad comparte la colección.
+     */
+    public Bson getOwnedDocuments() {
+        return new Document();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        String collection = getCollectionName();
+        List<Index> indexes = new ArrayList<>();
+        indexes.add(new Index(partitionKeyField, Sort.Direction.ASC));
+        indexes.addAll(indexes());
+        Flux.fromIterable(partitions.all())
+                .flatMap(partition -> Flux.fromIterable(indexes)
+                        .concatMap(index -> partition.getTemplate().indexOps(collection).ensureIndex(index))
+                        .doOnNext(name -> log.info("Ensured index partition={} collection={} index={}",
+                                partition.getName(), collection, name))
+                        .onErrorResume(e -> {
+                            log.error("Could not ensure indexes partition={} collection={}: {}",
+                                    partition.getName(), collection, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Consulta los documentos de una clave de partición: solo en su partición, salvo durante un rebalanceo.
+     * @param key clave de partición
+     * @param query consulta, que debe incluir el filtro por la clave
+     * @return documentos encontrados
+     */
+    protected Flux<T> findByPartitionKey(String key, Query query) {
+        if (partitions.isMigrating()) {
+            return findInAll(query);
+        }
+        return Mono.fromCallable(() -> partitions.forKey(key))
+                .flatMapMany(partition -> find(partition, query));
+    }
+
+    /**
+     * Consulta los documentos de varias claves de partición: una consulta por partición con sus
+     * claves, salvo durante un rebalanceo, en que se hace en todas con todas las claves.
+     * @param keys claves de partición
+     * @param query consulta de un grupo de claves, que debe incluir el filtro por ellas
+     * @return documentos encontrados
+     */
+    protected Flux<T> findByPartitionKeys(Collection<String> keys, Function<Collection<String>, Query> query) {
+        if (partitions.isMigrating()) {
+            return findInAll(query.apply(keys));
+        }
+        return Flux.defer(() -> Flux.fromIterable(keys.stream()
+                        .collect(Collectors.groupingBy(partitions::forKey, LinkedHashMap::new, Collectors.toList()))
+                        .entrySet()))
+                .flatMap(entry -> find(entry.getKey(), query.apply(entry.getValue())));
+    }
+
+    /**
+     * Consulta todas las particiones a la vez; el orden del resultado no está definido.
+     * @param query consulta
+     * @return documentos encontrados
+     */
+    protected Flux<T> findInAll(Query query) {
+        return findIn(partitions.all(), query);
+    }
+
+    private Flux<T> find(MongoPartition partition, Query query) {
+        return current(partition, partition.getTemplate().find(query, entityClass))
+                .doOnNext(entity -> remember(entity, partition));
+    }
+
+    // Descarta, durante un rebalanceo, las copias antiguas de documentos que ya están en su partición
+    private Flux<T> current(MongoPartition source, Flux<T> found) {
+        if (!partitions.isMigrating()) {
+            return found;
+        }
+        return found.filterWhen(entity -> {
+            String key = getPartitionKey(entity);
+            MongoPartition owner = key != null ? partitions.forKey(key) : source;
+            return owner == source
+                    ? Mono.just(true)
+                    : owner.getTemplate().exists(byId(getId(entity)), entityClass).map(exists -> !exists);
+        });
+    }
+
+    private Mono<MongoPartition> owner(T entity) {
+        return Mono.fromCallable(() -> partitions.forKey(getPartitionKey(entity)));
+    }
+
+    // Documento nuevo: el _id lleva la marca de la partición en la que se guarda
+    private <S extends T> S assignId(S entity, MongoPartition partition) {
+        if (getId(entity) == null && partitions.size() > 1) {
+            setId(entity, partitions.newId(partition));
+        }
+        return entity;
+    }
+
+    private void remember(T entity, MongoPartition partition) {
+        String id = getId(entity);
+        if (id != null && partitions.size() > 1) {
+            if (locations.size() >= locationCacheSize && !locations.containsKey(id)) {
+                // Lleno: se olvida un id cualquiera, que solo cuesta buscarlo por la marca de su _id
+                Iterator<String> ids = locations.keySet().iterator();
+                if (ids.hasNext()) {
+                    ids.next();
+                    ids.remove();
+                }
+            }
+            locations.put(id, partition.getName());
+        }
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    private static Query byIds(Iterable<? extends String> ids) {
+        return Query.query(Criteria.where("_id").in(StreamSupport.stream(ids.spliterator(), false)
+                .collect(Collectors.toList())));
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return owner(entity).flatMap(partition -> copyToOwner(entity, partition)
+                .then(Mono.defer(() -> partition.getTemplate().save(assignId(entity, partition))))
+                .doOnNext(saved -> remember(saved, partition)));
+    }
+
+    // Durante un rebalanceo la entidad pudo leerse de su partición anterior: sin copia en la nueva,
+    // el save con @Version (reemplazo por _id y version, sin upsert) fallaría siempre allí
+    private Mono<Void> copyToOwner(T entity, MongoPartition owner) {
+        String id = getId(entity);
+        if (id == null || !partitions.isMigrating()) {
+            return Mono.empty();
+        }
+        String collection = getCollectionName();
+        return owner.getTemplate().exists(byId(id), collection)
+                .filter(exists -> !exists)
+                .flatMap(missing -> Flux.fromIterable(partitions.all())
+                        .filter(partition -> partition != owner)
+                        .concatMap(partition -> partition.getTemplate().findOne(byId(id), Document.class, collection))
+                        .next())
+                // Otra escritura o el rebalanceador pudo copiarlo entretanto: su copia es igual o más reciente
+                .flatMap(stored -> owner.getTemplate().insert(stored, collection)
+                        .onErrorResume(DuplicateKeyException.class, e -> Mono.empty()))
+                .then();
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Mono<S> insert(S entity) {
+        return owner(entity).flatMap(partition -> partition.getTemplate().insert(assignId(entity, partition))
+                .doOnNext(saved -> remember(saved, partition)));
+    }
+
+    // Un insertMany por partición con los documentos que le corresponden
+    @Override
+    public <S extends T> Flux<S> insert(Iterable<S> entities) {
+        return Flux.fromIterable(entities)
+                .collectMultimap(entity -> partitions.forKey(getPartitionKey(entity)).getName())
+                .flatMapMany(byPartition -> Flux.fromIterable(byPartition.entrySet()))
+                .concatMap(entry -> {
+                    MongoPartition partition = partitions.get(entry.getKey());
+                    entry.getValue().forEach(entity -> assignId(entity, partition));
+                    return partition.getTemplate().insert(entry.getValue(), entityClass)
+                            .map(saved -> {
+                                remember(saved, partition);
+                                @SuppressWarnings("unchecked")
+                                S inserted = (S) saved;
+                                return inserted;
+                            });
+                });
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public Mono<T> findById(String id) {
+        if (partitions.isMigrating()) {
+            return findInAll(byId(id)).next();
+        }
+        String location = locations.get(id);
+        List<MongoPartition> likely = location != null ? List.of(partitions.get(location)) : partitions.likelyFor(id);
+        if (likely.isEmpty() || likely.size() == partitions.size()) {
+            return findInAll(byId(id)).next();
+        }
+        // Si ya no está donde se esperaba (rebalanceo terminado, id sin marca) se busca en las demás
+        List<MongoPartition> others = partitions.all().stream()
+                .filter(partition -> !likely.contains(partition))
+                .collect(Collectors.toList());
+        return findIn(likely, byId(id)).next()
+                .switchIfEmpty(Mono.defer(() -> findIn(others, byId(id)).next()));
+    }
+
+    private Flux<T> findIn(List<MongoPartition> targets, Query query) {
+        return Flux.fromIterable(targets)
+                .flatMap(partition -> find(partition, query));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Flux.fromIterable(partitions.all())
+                .flatMap(partition -> partition.getTemplate().exists(byId(id), entityClass))
+                .any(Boolean::booleanValue);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return findInAll(new Query());
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<String> ids) {
+        return findInAll(byIds(ids));
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Flux.fromIterable(partitions.all())
+                .flatMap(partition -> partition.getTemplate().count(new Query(), entityClass))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        String location = partitions.isMigrating() ? null : locations.remove(id);
+        List<MongoPartition> targets = location != null ? List.of(partitions.get(location)) : partitions.all();
+        return Flux.fromIterable(targets)
+                .flatMap(partition -> partition.getTemplate().remove(byId(id), entityClass))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        if (partitions.isMigrating()) {
+            return deleteById(getId(entity));
+        }
+        return owner(entity).flatMap(partition -> {
+            locations.remove(getId(entity));
+            return partition.getTemplate().remove(byId(getId(entity)), entityClass);
+        }).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Flux.fromIterable(partitions.all())
+                .flatMap(partition -> partition.getTemplate().remove(byIds(ids), entityClass))
+                .then(Mono.fromRunnable(() -> ids.forEach(locations::remove)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Flux.fromIterable(partitions.all())
+                .flatMap(partition -> partition.getTemplate().remove(new Query(), entityClass))
+                .then(Mono.fromRunnable(locations::clear));
+    }
+
+    @Override
+    public Flux<T> findAll(Sort sort) {
+        return Flux.error(unsupported("findAll(Sort)"));
+    }
+
+    @Override
+    public <S extends T> Mono<S> findOne(Example<S> example) {
+        return Mono.error(unsupported("findOne(Example)"));
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example) {
+        return Flux.error(unsupported("findAll(Example)"));
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+        return Flux.error(unsupported("findAll(Example, Sort)"));
+    }
+
+    @Override
+    public <S extends T> Mono<Long> count(Example<S> example) {
+        return Mono.error(unsupported("count(Example)"));
+    }
+
+    @Override
+    public <S extends T> Mono<Boolean> exists(Example<S> example) {
+        return Mono.error(unsupported("exists(Example)"));
+    }
+
+    @Override
+    public <S extends T, R, P extends Publisher<R>> P findBy(
+            Example<S> example, Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        throw unsupported("findBy(Example)");
+    }
+
+    private UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(operation + " is not supported by the partitioned repository");
+    }
+}
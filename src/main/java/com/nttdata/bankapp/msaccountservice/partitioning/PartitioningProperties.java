@@ -0,0 +1,34 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del reparto de cuentas y tarjetas entre bases de datos por customerId. Solo se
+ * aplica con el perfil "partitioned"; sin él todo va a la base de spring.data.mongodb.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.partitioning")
+public class PartitioningProperties {
+    // Bases de datos o clusters; el nombre fija la posición en el anillo y no debe cambiar
+    private List<Partition> partitions = new ArrayList<>();
+    private int virtualNodes = 256; // Puntos del anillo por partición: más puntos, reparto más uniforme
+    private int locationCacheSize = 100_000; // Ids cuya partición se recuerda para no consultar todas
+    // Durante un rebalanceo las consultas por cliente se hacen en todas las particiones
+    private boolean migrating = false;
+    private int rebalanceBatchSize = 500; // Documentos movidos por insertMany/deleteMany
+
+    /**
+     * Base de datos de una partición.
+     */
+    @Data
+    public static class Partition {
+        private String name;
+        private String uri; // Cadena de conexión con el nombre de la base de datos
+    }
+}
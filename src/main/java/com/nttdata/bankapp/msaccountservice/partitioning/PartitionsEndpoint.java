@@ -0,0 +1,64 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Endpoint de actuator /actuator/partitions. La lectura devuelve, por partición, la fracción de
+ * clientes que le corresponde y el número aproximado de documentos de cada colección particionada;
+ * POST /actuator/partitions rebalancea, solo contando lo que movería salvo con {"dryRun": false}.
+ */
+@Component
+@Endpoint(id = "partitions")
+@RequiredArgsConstructor
+public class PartitionsEndpoint {
+
+    private final MongoPartitions partitions;
+    private final PartitionRebalancer rebalancer;
+    private final ObjectProvider<PartitionedMongoRepository<?>> repositories;
+
+    @ReadOperation
+    public Mono<Map<String, Object>> partitions() {
+        Map<String, Double> ownership = partitions.ownership();
+        List<String> collections = repositories.orderedStream()
+                .map(PartitionedMongoRepository::getCollectionName)
+                .collect(Collectors.toList());
+        return Flux.fromIterable(partitions.all())
+                .concatMap(partition -> Flux.fromIterable(collections)
+                        .concatMap(collection -> partition.getTemplate().getCollection(collection)
+                                .flatMap(mongoCollection -> Mono.from(mongoCollection.estimatedDocumentCount()))
+                                .map(count -> Map.entry(collection, count)))
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+                        .map(counts -> {
+                            Map<String, Object> summary = new LinkedHashMap<>();
+                            summary.put("ownership", ownership.getOrDefault(partition.getName(), 0.0));
+                            summary.put("documents", counts);
+                            return Map.entry(partition.getName(), (Object) summary);
+                        }))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+                .map(byPartition -> {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("migrating", partitions.isMigrating());
+                    result.put("rebalancing", rebalancer.isRunning());
+                    result.put("partitions", byPartition);
+                    return result;
+                });
+    }
+
+    @WriteOperation
+    public Mono<RebalanceSummary> rebalance(@Nullable Boolean dryRun) {
+        return rebalancer.rebalance(!Boolean.FALSE.equals(dryRun));
+    }
+}
@@ -0,0 +1,31 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Resultado de un rebalanceo: documentos movidos por colección y par de particiones.
+ */
+@Data
+@Builder
+public class RebalanceSummary {
+    private boolean dryRun;
+    private long scanned;
+    private long durationMillis;
+    private List<Move> moves;
+
+    /**
+     * Documentos de una colección que pasan de una partición a otra.
+     */
+    @Data
+    public static class Move {
+        private final String collection;
+        private final String from;
+        private final String to;
+        private long documents; // En un dryRun, los que se moverían
+        private long alreadyPresent; // Ya estaban en el destino (escritos durante la migración)
+        private long failed; // Siguen en el origen; se reintentan en el siguiente rebalanceo
+    }
+}
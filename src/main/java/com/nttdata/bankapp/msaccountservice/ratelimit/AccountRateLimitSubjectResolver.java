@@ -0,0 +1,25 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Titular de las rutas /accounts/{id}: el cliente de la cuenta y su perfil.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountRateLimitSubjectResolver implements RateLimitSubjectResolver {
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    public Mono<RateLimitSubject> resolve(String field, String value) {
+        return accountRepository.findById(value)
+                .filter(account -> account.getCustomerId() != null)
+                .map(account -> new RateLimitSubject(account.getCustomerId(),
+                        account.getCustomerProfile() != null ? account.getCustomerProfile() : CustomerProfile.REGULAR));
+    }
+}
@@ -0,0 +1,19 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+/**
+ * Petición RSocket rechazada por el limitador; en HTTP el filtro responde 429 directamente.
+ * Sin pila, como los rechazos de negocio.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Rate limit exceeded, retry after " + retryAfterSeconds + "s", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,180 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Control de admisión por token bucket en las rutas de modificación configuradas.
+ * El recurso de la petición es la variable de ruta o, en las rutas sin ella (transfer,
+ * payment), el campo del cuerpo JSON indicado en la ruta; {@link RateLimiter} obtiene su
+ * titular y perfil en el servidor. Las peticiones que exceden el límite se rechazan con 429
+ * y Retry-After antes de llegar al controlador.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter implements WebFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final List<Route> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.routes = properties.getRoutes().stream()
+                .map(Route::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        for (Route route : routes) {
+            PathPattern.PathMatchInfo match = route.match(request);
+            if (match != null) {
+                if (route.bodyField == null) {
+                    Map.Entry<String, String> variable = match.getUriVariables().entrySet().stream()
+                            .findFirst().orElse(null);
+                    return admit(exchange, chain, variable != null ? variable.getKey() : "path",
+                            variable != null ? variable.getValue() : null);
+                }
+                return admitByBody(exchange, chain, route.bodyField);
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    // Lee el cuerpo (acotado a maxBodyBytes) para obtener el recurso y lo vuelve a servir al controlador
+    private Mono<Void> admitByBody(ServerWebExchange exchange, WebFilterChain chain, String field) {
+        ServerHttpRequest request = exchange.getRequest();
+        return DataBufferUtils.join(request.getBody(), properties.getMaxBodyBytes())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> {
+                    ServerHttpRequest cached = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+                        }
+                    };
+                    return admit(exchange.mutate().request(cached).build(), chain, field, bodyField(bytes, field));
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, String field, @Nullable String value) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(principal -> rateLimiter.acquire(principal.orElse(null), field, value,
+                        origin(exchange.getRequest())))
+                .flatMap(waitNanos -> {
+                    if (waitNanos == 0L) {
+                        return chain.filter(exchange);
+                    }
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                            Long.toString(RateLimiter.retryAfterSeconds(waitNanos)));
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    @Nullable
+    private String bodyField(byte[] body, String field) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode value = objectMapper.readTree(body).path(field);
+            return value.isValueNode() ? value.asText() : null;
+        } catch (IOException e) {
+            // Cuerpo inválido: se limita por origen y el controlador responde 400
+            return null;
+        }
+    }
+
+    private static String origin(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+    }
+
+    /**
+     * Ruta limitada: método HTTP, patrón de ruta y, opcionalmente, el campo del cuerpo con el recurso.
+     */
+    private static final class Route {
+        private final HttpMethod method;
+        private final PathPattern pattern;
+        private final String bodyField;
+
+        private Route(HttpMethod method, PathPattern pattern, String bodyField) {
+            this.method = method;
+            this.pattern = pattern;
+            this.bodyField = bodyField;
+        }
+
+        static Route parse(String route) {
+            String[] parts = route.trim().split("\\s+");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException(
+                        "Invalid rate limit route (expected 'METHOD /path [bodyField]'): " + route);
+            }
+            HttpMethod method = HttpMethod.resolve(parts[0].toUpperCase());
+            if (method == null) {
+                throw new IllegalArgumentException("Unknown HTTP method in rate limit route: " + route);
+            }
+            return new Route(method, PathPatternParser.defaultInstance.parse(parts[1]),
+                    parts.length == 3 ? parts[2] : null);
+        }
+
+        PathPattern.PathMatchInfo match(ServerHttpRequest request) {
+            if (method != request.getMethod()) {
+                return null;
+            }
+            PathContainer path = request.getPath().pathWithinApplication();
+            return pattern.matchAndExtract(path);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración del control de admisión por token bucket en las rutas de modificación.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // "MÉTODO patrón [campo]" de las rutas limitadas: el recurso es la variable de ruta o el campo del cuerpo JSON
+    private List<String> routes = new ArrayList<>(List.of(
+            "PUT /accounts/{id}/balance",
+            "PUT /accounts/{id}/transaction-count",
+            "POST /api/accounts/{accountId}/deposit",
+            "POST /api/accounts/{accountId}/withdraw",
+            "POST /api/accounts/transfer sourceAccountId",
+            "POST /api/debit-cards/payment cardNumber"));
+    private Map<CustomerProfile, Limit> profiles = defaultLimits();
+    private int maxBuckets = 100_000; // Al superarse se descartan los buckets usados hace más tiempo
+    private int subjectCacheSize = 100_000; // Titulares de cuentas y tarjetas recordados
+    private Duration subjectCacheTtl = Duration.ofMinutes(1); // Un cambio de perfil tarda esto en aplicarse
+    private int maxBodyBytes = 16 * 1024; // Cuerpo leído en las rutas con campo; por encima, 413
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    /**
+     * Obtiene el límite de un perfil de cliente, o el de REGULAR si no está configurado.
+     * @param profile perfil del cliente
+     * @return límite aplicable
+     */
+    public Limit limitFor(CustomerProfile profile) {
+        Limit limit = profiles.get(profile);
+        return limit != null ? limit : profiles.getOrDefault(CustomerProfile.REGULAR, new Limit());
+    }
+
+    private static Map<CustomerProfile, Limit> defaultLimits() {
+        Map<CustomerProfile, Limit> limits = new EnumMap<>(CustomerProfile.class);
+        limits.put(CustomerProfile.REGULAR, new Limit(20, 10));
+        limits.put(CustomerProfile.VIP, new Limit(100, 50));
+        limits.put(CustomerProfile.PYME, new Limit(60, 30));
+        return limits;
+    }
+
+    /**
+     * Capacidad de ráfaga y tasa sostenida de un bucket.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int capacity = 20;
+        private double refillPerSecond = 10;
+    }
+}
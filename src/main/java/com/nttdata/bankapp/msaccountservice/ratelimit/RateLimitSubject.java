@@ -0,0 +1,14 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import lombok.Data;
+
+/**
+ * Titular de la cuenta o tarjeta de una petición limitada, obtenido de la base de datos:
+ * su customerId es la clave del bucket y su perfil fija el límite.
+ */
+@Data
+public class RateLimitSubject {
+    private final String customerId;
+    private final CustomerProfile profile;
+}
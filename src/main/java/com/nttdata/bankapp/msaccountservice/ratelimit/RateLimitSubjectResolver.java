@@ -0,0 +1,18 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Busca el titular del recurso de una ruta limitada. Cada aplicación registra el suyo según
+ * los repositorios que tenga.
+ */
+public interface RateLimitSubjectResolver {
+
+    /**
+     * Obtiene el titular de un recurso.
+     * @param field variable de ruta o campo del cuerpo que identifica el recurso (id, accountId, cardNumber...)
+     * @param value valor recibido
+     * @return Mono con el titular, vacío si el recurso no existe
+     */
+    Mono<RateLimitSubject> resolve(String field, String value);
+}
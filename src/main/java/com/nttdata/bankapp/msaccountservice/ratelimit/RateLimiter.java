@@ -0,0 +1,211 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets por cliente para las rutas de modificación, compartidos por {@link RateLimitFilter}
+ * y las rutas RSocket de modificación.
+ * La clave y el perfil se obtienen en el servidor: el principal autenticado si lo hay y, si no,
+ * el titular de la cuenta o tarjeta según {@link RateLimitSubjectResolver}. Los titulares se
+ * recuerdan durante subjectCacheTtl para no consultar MongoDB en cada petición. Las peticiones
+ * sobre recursos que no existen comparten bucket por origen, no con otros clientes.
+ * <p>
+ * Buckets y titulares se guardan en ConcurrentHashMap, sin un bloqueo común a todas las peticiones.
+ * Un barrido periódico elimina los buckets inactivos durante idleTimeout y los titulares caducados.
+ * Si se supera maxBuckets, un solo hilo descarta el décimo de buckets usados hace más tiempo.
+ */
+@Slf4j
+@Component
+public class RateLimiter implements MeterBinder {
+
+    private final RateLimitProperties properties;
+    // Se obtiene al usarlo: los repositorios dependen del MeterRegistry, que inicializa este MeterBinder
+    private final ObjectProvider<RateLimitSubjectResolver> resolver;
+    private final Map<String, TokenBucket> buckets;
+    private final Map<String, CachedSubject> subjects;
+    private final Map<CustomerProfile, LongAdder> rejected = new EnumMap<>(CustomerProfile.class);
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final Disposable eviction;
+
+    public RateLimiter(RateLimitProperties properties, ObjectProvider<RateLimitSubjectResolver> resolver) {
+        this.properties = properties;
+        this.resolver = resolver;
+        this.buckets = new ConcurrentHashMap<>();
+        this.subjects = new ConcurrentHashMap<>();
+        for (CustomerProfile profile : CustomerProfile.values()) {
+            rejected.put(profile, new LongAdder());
+        }
+        long interval = properties.getEvictionInterval().toMillis();
+        this.eviction = Schedulers.parallel()
+                .schedulePeriodically(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Intenta admitir una petición.
+     * @param principal nombre del usuario autenticado, o null
+     * @param field variable de ruta o campo del cuerpo que identifica el recurso
+     * @param value identificador del recurso, o null si la petición no lo trae
+     * @param origin origen de la petición (IP), para las que no tienen titular
+     * @return Mono con 0 si se admite, o los nanosegundos hasta que haya un token disponible
+     */
+    public Mono<Long> acquire(@Nullable String principal, String field, @Nullable String value, String origin) {
+        if (!properties.isEnabled()) {
+            return Mono.just(0L);
+        }
+        Mono<Optional<RateLimitSubject>> subject = value == null || value.isBlank()
+                ? Mono.just(Optional.empty())
+                : subject(field, value);
+        return subject.map(resolved -> {
+            CustomerProfile profile = resolved.map(RateLimitSubject::getProfile).orElse(CustomerProfile.REGULAR);
+            String key;
+            if (principal != null) {
+                key = "principal:" + principal;
+            } else if (resolved.isPresent()) {
+                key = "customer:" + resolved.get().getCustomerId();
+            } else {
+                key = "unresolved:" + origin;
+            }
+            long now = System.nanoTime();
+            long waitNanos = bucket(profile, key, now).tryAcquire(now);
+            if (waitNanos > 0L) {
+                rejected.get(profile).increment();
+            }
+            return waitNanos;
+        });
+    }
+
+    /**
+     * Segundos enteros para Retry-After, redondeando hacia arriba y como mínimo 1.
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    private Mono<Optional<RateLimitSubject>> subject(String field, String value) {
+        String cacheKey = field + '|' + value;
+        long now = System.nanoTime();
+        CachedSubject cached = subjects.get(cacheKey);
+        if (cached != null && cached.expiresAtNanos - now > 0) {
+            return Mono.just(cached.subject);
+        }
+        lookups.increment();
+        return Mono.defer(() -> resolver.getObject().resolve(field, value))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .doOnNext(resolved -> {
+                    // Lleno, el titular no se recuerda hasta que el barrido elimine los caducados
+                    if (cached != null || subjects.size() < properties.getSubjectCacheSize()) {
+                        subjects.put(cacheKey, new CachedSubject(resolved, now + properties.getSubjectCacheTtl().toNanos()));
+                    }
+                })
+                .onErrorResume(e -> {
+                    // Sin titular la petición se limita por origen; el error real lo verá el controlador
+                    log.warn("Could not resolve rate limit subject {}={}: {}", field, value, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private TokenBucket bucket(CustomerProfile profile, String key, long now) {
+        String bucketKey = profile.name() + '|' + key;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(properties.limitFor(profile), now));
+            if (buckets.size() > Math.max(1, properties.getMaxBuckets())) {
+                trim();
+            }
+        }
+        return bucket;
+    }
+
+    void evictIdle() {
+        long now = System.nanoTime();
+        long idle = properties.getIdleTimeout().toNanos();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idle));
+        subjects.values().removeIf(subject -> subject.expiresAtNanos - now <= 0);
+        if (log.isDebugEnabled()) {
+            int after = buckets.size();
+            log.debug("Evicted {} idle rate limit buckets, {} remaining", before - after, after);
+        }
+    }
+
+    // Por encima de maxBuckets: descarta los usados hace más tiempo hasta quedar un décimo por debajo
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int capacity = Math.max(1, properties.getMaxBuckets());
+            int excess = buckets.size() - (capacity - capacity / 10);
+            if (excess <= 0) {
+                return;
+            }
+            buckets.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().lastAccessNanos()))
+                    .sorted((a, b) -> Long.compare(a.getValue() - b.getValue(), 0L))
+                    .limit(excess)
+                    .forEach(entry -> {
+                        if (buckets.remove(entry.getKey()) != null) {
+                            evicted.increment();
+                        }
+                    });
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        eviction.dispose();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimit.buckets", buckets, Map::size)
+                .description("Token buckets currently held in memory")
+                .register(registry);
+        FunctionCounter.builder("ratelimit.buckets.evicted", evicted, LongAdder::sum)
+                .description("Least recently used buckets dropped because max-buckets was exceeded")
+                .register(registry);
+        FunctionCounter.builder("ratelimit.subject.lookups", lookups, LongAdder::sum)
+                .description("Account or card owner lookups made by the rate limiter")
+                .register(registry);
+        rejected.forEach((profile, counter) ->
+                FunctionCounter.builder("ratelimit.rejected", counter, LongAdder::sum)
+                        .description("Requests rejected with 429 by the rate limiter")
+                        .tag("profile", profile.name())
+                        .register(registry));
+    }
+
+    private static final class CachedSubject {
+        private final Optional<RateLimitSubject> subject;
+        private final long expiresAtNanos;
+
+        private CachedSubject(Optional<RateLimitSubject> subject, long expiresAtNanos) {
+            this.subject = subject;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin bloqueos implementado como GCRA: el estado es un único instante
+ * teórico de llegada (TAT) que se actualiza con CAS, equivalente a un bucket de
+ * {@code capacity} tokens que se rellena a {@code refillPerSecond}.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+    // Último uso, admitido o no: lo consulta el barrido de inactivos y el descarte por capacidad
+    private volatile long lastAccessNanos;
+
+    TokenBucket(RateLimitProperties.Limit limit, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / limit.getRefillPerSecond()));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, limit.getCapacity());
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.lastAccessNanos = nowNanos;
+    }
+
+    /**
+     * Intenta consumir un token.
+     * @param nowNanos instante actual según System.nanoTime()
+     * @return 0 si se admite, o los nanosegundos hasta que haya un token disponible
+     */
+    long tryAcquire(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long allowAt = next - burstNanos;
+            if (allowAt > nowNanos) {
+                return allowAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Un bucket sin uso desde hace más de {@code idleNanos} y ya lleno se puede eliminar: crearlo
+     * de nuevo más tarde no cambia las decisiones de admisión.
+     */
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - lastAccessNanos > idleNanos && nowNanos - theoreticalArrival.get() >= 0;
+    }
+
+    long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,20 @@
+package com.nttdata.bankapp.msaccountservice.rejection;
+
+/**
+ * Rechazo de negocio esperado. No captura la pila ni admite excepciones suprimidas: no aporta
+ * información y es el coste principal de crear una excepción. Al ser inmutable hay una sola
+ * instancia por motivo, que se obtiene con {@link RejectionMetrics#reject(RejectionReason)}.
+ */
+public final class BusinessRejectionException extends RuntimeException {
+
+    private final RejectionReason reason;
+
+    BusinessRejectionException(RejectionReason reason) {
+        super(reason.getMessage(), null, false, false);
+        this.reason = reason;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,53 @@
+package com.nttdata.bankapp.msaccountservice.rejection;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta los rechazos de negocio por motivo.
+ */
+@Component
+public class RejectionMetrics implements MeterBinder {
+
+    private final Map<RejectionReason, LongAdder> counters = new EnumMap<>(RejectionReason.class);
+    private final Map<RejectionReason, BusinessRejectionException> rejections = new EnumMap<>(RejectionReason.class);
+
+    public RejectionMetrics() {
+        for (RejectionReason reason : RejectionReason.values()) {
+            counters.put(reason, new LongAdder());
+            rejections.put(reason, new BusinessRejectionException(reason));
+        }
+    }
+
+    /**
+     * Registra un rechazo y devuelve la excepción que lo representa, sin crear una nueva.
+     * @param reason motivo del rechazo
+     * @return excepción a propagar
+     */
+    public BusinessRejectionException reject(RejectionReason reason) {
+        record(reason);
+        return rejections.get(reason);
+    }
+
+    /**
+     * Registra un rechazo que se resuelve sin propagar error, por ejemplo al probar otra cuenta.
+     * @param reason motivo del rechazo
+     */
+    public void record(RejectionReason reason) {
+        counters.get(reason).increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counters.forEach((reason, counter) -> FunctionCounter.builder("business.rejections", counter, LongAdder::sum)
+                .description("Operations rejected by a business rule")
+                .tag("reason", reason.name())
+                .register(registry));
+    }
+}
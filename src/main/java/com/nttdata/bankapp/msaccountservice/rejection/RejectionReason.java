@@ -0,0 +1,24 @@
+package com.nttdata.bankapp.msaccountservice.rejection;
+
+/**
+ * Motivos de rechazo esperados de una operación. Son resultados de negocio, no fallos: cada uno
+ * tiene un mensaje fijo, que es el que se devuelve al cliente.
+ */
+public enum RejectionReason {
+    INSUFFICIENT_FUNDS("Insufficient funds"),
+    INSUFFICIENT_FUNDS_FOR_FEE("Insufficient funds for transaction fee"),
+    INSUFFICIENT_FUNDS_IN_LINKED_ACCOUNTS("Insufficient funds in all linked accounts"),
+    MONTHLY_MOVEMENTS_LIMIT("Monthly movements limit reached"),
+    WITHDRAWAL_DAY_ONLY("Fixed term accounts can only transact on their withdrawal day"),
+    ACCOUNT_NOT_OWNED("Account does not belong to this customer");
+
+    private final String message;
+
+    RejectionReason(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
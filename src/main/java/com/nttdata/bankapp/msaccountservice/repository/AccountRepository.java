@@ -3,12 +3,18 @@ package com.nttdata.bankapp.msaccountservice.repository;
 
 import com.nttdata.bankapp.msaccountservice.model.Account;
 import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
 import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.util.Collection;
+
 /**
  * Repositorio para operaciones CRUD en la colección de cuentas.
  */
@@ -18,4 +24,41 @@ public interface AccountRepository extends ReactiveMongoRepository<Account, Stri
     Mono<Account> findByAccountNumber(String accountNumber);
     Flux<Account> findByCustomerIdAndType(String customerId, AccountType type);
     Flux<Account> findByCustomerIdAndCustomerType(String customerId, CustomerType customerType);
+    Flux<Account> findByCustomerIdIn(Collection<String> customerIds);
+
+    /**
+     * Obtiene varias cuentas con una sola consulta $in, devolviendo solo los campos de saldo.
+     * @param ids IDs de las cuentas
+     * @return cuentas encontradas con los campos de BalanceDto
+     */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'accountNumber': 1, 'type': 1, 'balance': 1, "
+            + "'maxMonthlyMovements': 1, 'currentMonthlyMovements': 1, 'maxFreeTransactions': 1, "
+            + "'currentMonthlyTransactions': 1, 'transactionFee': 1 }")
+    Flux<Account> findBalancesByIdIn(Collection<String> ids);
+
+    /**
+     * Totales por tipo de las cuentas de un cliente en una sola agregación sobre el índice customerId.
+     * Los contadores mensuales con último reseteo anterior a countersSince cuentan como 0, igual
+     * que al operar con la cuenta. El saldo admite el formato String de documentos antiguos.
+     * @param customerId ID del cliente
+     * @param countersSince primer día del mes en curso
+     * @return un resumen por tipo de cuenta que tenga el cliente
+     */
+    @Aggregation(pipeline = {
+            "{ '$match': { 'customerId': ?0 } }",
+            "{ '$addFields': { 'countersCurrent': { '$gte': [ '$lastTransactionCountResetDate', ?1 ] } } }",
+            "{ '$group': { '_id': '$type', 'accounts': { '$sum': 1 }, "
+                    + "'balance': { '$sum': { '$toDecimal': { '$ifNull': [ '$balance', 0 ] } } }, "
+                    + "'remainingFreeTransactions': { '$sum': { '$max': [ 0, { '$subtract': [ "
+                    + "{ '$ifNull': [ '$maxFreeTransactions', 0 ] }, "
+                    + "{ '$cond': [ '$countersCurrent', { '$ifNull': [ '$currentMonthlyTransactions', 0 ] }, 0 ] } ] } ] } }, "
+                    + "'remainingMonthlyMovements': { '$sum': { '$max': [ 0, { '$subtract': [ "
+                    + "{ '$ifNull': [ '$maxMonthlyMovements', 0 ] }, "
+                    + "{ '$cond': [ '$countersCurrent', { '$ifNull': [ '$currentMonthlyMovements', 0 ] }, 0 ] } ] } ] } }, "
+                    + "'withdrawals': { '$push': { '$cond': [ { '$eq': [ '$type', 'FIXED_TERM' ] }, "
+                    + "{ 'accountId': { '$toString': '$_id' }, 'accountNumber': '$accountNumber', "
+                    + "'withdrawalDay': '$withdrawalDay' }, null ] } } } }",
+            "{ '$addFields': { 'withdrawals': { '$filter': { 'input': '$withdrawals', 'cond': { '$ne': [ '$$this', null ] } } } } }"
+    })
+    Flux<AccountTypeSummary> summarizeByCustomerId(String customerId, LocalDate countersSince);
 }
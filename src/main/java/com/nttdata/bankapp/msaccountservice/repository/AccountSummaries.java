@@ -0,0 +1,60 @@
+package com.nttdata.bankapp.msaccountservice.repository;
+
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Mismo cálculo que la agregación de {@link AccountRepository#summarizeByCustomerId}, sobre
+ * cuentas ya leídas, para los repositorios que no pueden ejecutarla en una sola base de datos.
+ */
+public final class AccountSummaries {
+
+    private AccountSummaries() {
+    }
+
+    /**
+     * Agrupa por tipo las cuentas de un cliente.
+     * @param accounts cuentas del cliente
+     * @param countersSince primer día del mes en curso
+     * @return un resumen por tipo de cuenta que tenga el cliente
+     */
+    public static Flux<AccountTypeSummary> summarize(Flux<Account> accounts, LocalDate countersSince) {
+        return accounts
+                .collect(() -> new EnumMap<AccountType, AccountTypeSummary>(AccountType.class),
+                        (summaries, account) -> addToSummary(summaries, account, countersSince))
+                .flatMapIterable(Map::values);
+    }
+
+    private static void addToSummary(Map<AccountType, AccountTypeSummary> summaries, Account account,
+                                     LocalDate countersSince) {
+        AccountTypeSummary summary = summaries.computeIfAbsent(account.getType(),
+                type -> new AccountTypeSummary(type, 0, Money.ZERO, 0, 0, new ArrayList<>()));
+        boolean countersCurrent = account.getLastTransactionCountResetDate() != null
+                && !account.getLastTransactionCountResetDate().isBefore(countersSince);
+
+        summary.setAccounts(summary.getAccounts() + 1);
+        if (account.getBalance() != null) {
+            summary.setBalance(summary.getBalance().plus(account.getBalance()));
+        }
+        summary.setRemainingFreeTransactions(summary.getRemainingFreeTransactions()
+                + remaining(account.getMaxFreeTransactions(), countersCurrent ? account.getCurrentMonthlyTransactions() : null));
+        summary.setRemainingMonthlyMovements(summary.getRemainingMonthlyMovements()
+                + remaining(account.getMaxMonthlyMovements(), countersCurrent ? account.getCurrentMonthlyMovements() : null));
+        if (account.getType() == AccountType.FIXED_TERM) {
+            summary.getWithdrawals().add(new AccountTypeSummary.FixedTermWithdrawal(
+                    account.getId(), account.getAccountNumber(), account.getWithdrawalDay()));
+        }
+    }
+
+    private static long remaining(Integer max, Integer used) {
+        return Math.max(0, (max != null ? max : 0) - (used != null ? used : 0));
+    }
+}
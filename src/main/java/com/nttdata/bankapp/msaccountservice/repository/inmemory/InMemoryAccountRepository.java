@@ -0,0 +1,95 @@
+package com.nttdata.bankapp.msaccountservice.repository.inmemory;
+
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.repository.AccountSummaries;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Repositorio de cuentas en memoria para pruebas de carga sin MongoDB (perfil inmemory).
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryAccountRepository extends InMemoryReactiveRepository<Account> implements AccountRepository {
+
+    private final SecondaryIndex customerIdIndex;
+    private final SecondaryIndex accountNumberIndex;
+
+    public InMemoryAccountRepository(@Value("${app.inmemory.latency:0ms}") Duration latency) {
+        super(latency);
+        this.customerIdIndex = addIndex(Account::getCustomerId, false);
+        this.accountNumberIndex = addIndex(Account::getAccountNumber, true);
+    }
+
+    @Override
+    public Flux<Account> findByCustomerId(String customerId) {
+        return findByIndex(customerIdIndex, customerId);
+    }
+
+    @Override
+    public Mono<Account> findByAccountNumber(String accountNumber) {
+        return findByIndex(accountNumberIndex, accountNumber).next();
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdAndType(String customerId, AccountType type) {
+        return findByIndex(customerIdIndex, customerId)
+                .filter(account -> account.getType() == type);
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdAndCustomerType(String customerId, CustomerType customerType) {
+        return findByIndex(customerIdIndex, customerId)
+                .filter(account -> account.getCustomerType() == customerType);
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdIn(Collection<String> customerIds) {
+        return Flux.fromIterable(customerIds)
+                .concatMap(customerId -> findByIndex(customerIdIndex, customerId));
+    }
+
+    @Override
+    public Flux<Account> findBalancesByIdIn(Collection<String> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public Flux<AccountTypeSummary> summarizeByCustomerId(String customerId, LocalDate countersSince) {
+        return AccountSummaries.summarize(findByIndex(customerIdIndex, customerId), countersSince);
+    }
+
+    @Override
+    protected String getId(Account account) {
+        return account.getId();
+    }
+
+    @Override
+    protected void setId(Account account, String id) {
+        account.setId(id);
+    }
+
+    @Override
+    protected Account copy(Account account) {
+        Account copy = new Account();
+        BeanUtils.copyProperties(account, copy);
+        copy.setHolders(account.getHolders() != null ? new ArrayList<>(account.getHolders()) : null);
+        copy.setSignatories(account.getSignatories() != null ? new ArrayList<>(account.getSignatories()) : null);
+        return copy;
+    }
+}
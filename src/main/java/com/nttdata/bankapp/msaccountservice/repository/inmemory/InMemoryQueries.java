@@ -0,0 +1,150 @@
+package com.nttdata.bankapp.msaccountservice.repository.inmemory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Evalúa en memoria las consultas por Example y los Sort con la semántica de Spring Data MongoDB:
+ * las propiedades anidadas del probe se aplanan en rutas con punto, los valores null se ignoran
+ * salvo con NullHandler.INCLUDE (los primitivos siempre cuentan) y los null se ordenan primero.
+ * Las colecciones vacías del probe también se ignoran, para que sirva una entidad recién creada
+ * cuyas listas se inicializan vacías.
+ */
+final class InMemoryQueries {
+
+    private InMemoryQueries() {
+    }
+
+    static <T> boolean matches(Example<?> example, T candidate) {
+        if (!example.getProbeType().isInstance(candidate)) {
+            return false;
+        }
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Boolean> criteria = new ArrayList<>();
+        collect(accessor, "", example.getProbe(), candidate, criteria);
+        // Sin criterios el Example equivale a {} y acepta cualquier entidad
+        if (criteria.isEmpty()) {
+            return true;
+        }
+        return example.getMatcher().isAllMatching()
+                ? !criteria.contains(Boolean.FALSE)
+                : criteria.contains(Boolean.TRUE);
+    }
+
+    static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = (left, right) -> compare(value(left, order.getProperty()),
+                    value(right, order.getProperty()), order.isIgnoreCase());
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    private static void collect(ExampleMatcherAccessor accessor, String prefix, Object probe, Object candidate,
+                                List<Boolean> criteria) {
+        BeanWrapper probeWrapper = PropertyAccessorFactory.forBeanPropertyAccess(probe);
+        BeanWrapper candidateWrapper = candidate != null ? PropertyAccessorFactory.forBeanPropertyAccess(candidate) : null;
+        for (PropertyDescriptor property : probeWrapper.getPropertyDescriptors()) {
+            if (property.getReadMethod() == null || "class".equals(property.getName())) {
+                continue;
+            }
+            String path = prefix + property.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object probeValue = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probeWrapper.getPropertyValue(property.getName())))
+                    .orElse(null);
+            Object candidateValue = candidateWrapper != null && candidateWrapper.isReadableProperty(property.getName())
+                    ? candidateWrapper.getPropertyValue(property.getName())
+                    : null;
+
+            if (isEmpty(probeValue)) {
+                continue;
+            }
+            if (probeValue == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    criteria.add(candidateValue == null);
+                }
+            } else if (isLeaf(probeValue)) {
+                criteria.add(matchesValue(accessor, path, probeValue, candidateValue));
+            } else {
+                collect(accessor, path + ".", probeValue, candidateValue, criteria);
+            }
+        }
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value instanceof Collection && ((Collection<?>) value).isEmpty()
+                || value instanceof Map && ((Map<?, ?>) value).isEmpty();
+    }
+
+    private static boolean isLeaf(Object value) {
+        return BeanUtils.isSimpleValueType(value.getClass()) || value instanceof Comparable
+                || value instanceof Collection || value instanceof Map || value.getClass().isArray();
+    }
+
+    private static boolean matchesValue(ExampleMatcherAccessor accessor, String path, Object probe, Object candidate) {
+        if (!(probe instanceof String) || !(candidate instanceof String)) {
+            return compare(probe, candidate, false) == 0 && candidate != null;
+        }
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        String expected = ignoreCase ? ((String) probe).toLowerCase(Locale.ROOT) : (String) probe;
+        String actual = ignoreCase ? ((String) candidate).toLowerCase(Locale.ROOT) : (String) candidate;
+        switch (accessor.getStringMatcherForPath(path)) {
+            case STARTING:
+                return actual.startsWith(expected);
+            case ENDING:
+                return actual.endsWith(expected);
+            case CONTAINING:
+                return actual.contains(expected);
+            case REGEX:
+                return Pattern.compile((String) probe, ignoreCase ? Pattern.CASE_INSENSITIVE : 0)
+                        .matcher((String) candidate).find();
+            default:
+                return actual.equals(expected);
+        }
+    }
+
+    private static Object value(Object entity, String path) {
+        try {
+            return PropertyAccessorFactory.forBeanPropertyAccess(entity).getPropertyValue(path);
+        } catch (BeansException e) {
+            // Un objeto intermedio null en la ruta: como en MongoDB, el campo no existe
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right, boolean ignoreCase) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+        if (ignoreCase && left instanceof String && right instanceof String) {
+            return ((String) left).compareToIgnoreCase((String) right);
+        }
+        // compareTo y no equals: BigDecimal con distinta escala es el mismo importe, como Decimal128
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable) left).compareTo(right);
+        }
+        return Objects.equals(left, right) ? 0 : String.valueOf(left).compareTo(String.valueOf(right));
+    }
+}
@@ -0,0 +1,404 @@
+package com.nttdata.bankapp.msaccountservice.repository.inmemory;
+
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Implementación base en memoria de un ReactiveMongoRepository.
+ * Guarda copias de las entidades en un ConcurrentHashMap, mantiene índices
+ * secundarios por campo y puede simular la latencia de la base de datos.
+ * Las consultas por Example y con Sort recorren todo el almacén (ver {@link InMemoryQueries}).
+ * @param <T> tipo de entidad
+ */
+public abstract class InMemoryReactiveRepository<T> implements ReactiveMongoRepository<T, String> {
+
+    private final ConcurrentMap<String, T> store = new ConcurrentHashMap<>();
+    private final List<SecondaryIndex> indexes = new ArrayList<>();
+    private final Duration latency;
+
+    protected InMemoryReactiveRepository(Duration latency) {
+        this.latency = latency;
+    }
+
+    protected abstract String getId(T entity);
+
+    protected abstract void setId(T entity, String id);
+
+    /**
+     * Copia profunda de la entidad, para que los cambios de quien la lee no
+     * afecten al almacén hasta que se guarde (igual que con MongoDB).
+     */
+    protected abstract T copy(T entity);
+
+    /**
+     * Bloqueo optimista, como @Version en MongoDB. Se llama dentro de la escritura atómica con la
+     * entidad guardada (null si no existe) y la que se va a guardar; puede lanzar
+     * OptimisticLockingFailureException o asignar la nueva versión. Por defecto no hay versión.
+     */
+    protected void checkVersion(T previous, T entity) {
+    }
+
+    /**
+     * Registra un índice secundario sobre un campo de la entidad.
+     * @param keyExtractor función que obtiene el valor indexado (puede devolver null)
+     * @param unique true si el valor no puede repetirse entre entidades
+     * @return índice para usar en {@link #findByIndex}
+     */
+    protected SecondaryIndex addIndex(Function<T, String> keyExtractor, boolean unique) {
+        SecondaryIndex index = new SecondaryIndex(keyExtractor, unique);
+        // Los índices únicos van primero: si fallan, aún no se ha modificado ningún otro índice
+        if (unique) {
+            indexes.add(0, index);
+        } else {
+            indexes.add(index);
+        }
+        return index;
+    }
+
+    protected Flux<T> findByIndex(SecondaryIndex index, String key) {
+        return withLatency(Flux.defer(() -> Flux.fromIterable(index.lookup(key))
+                .mapNotNull(store::get)
+                .map(this::copy)));
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return withLatency(Mono.fromCallable(() -> {
+            if (getId(entity) == null) {
+                setId(entity, new ObjectId().toHexString());
+            }
+            store(entity, false);
+            return entity;
+        }));
+    }
+
+    @Override
+    public <S extends T> Mono<S> insert(S entity) {
+        return withLatency(Mono.fromCallable(() -> {
+            if (getId(entity) == null) {
+                setId(entity, new ObjectId().toHexString());
+            }
+            store(entity, true);
+            return entity;
+        }));
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::insert);
+    }
+
+    @Override
+    public Mono<T> findById(String id) {
+        return withLatency(Mono.fromCallable(() -> {
+            T entity = store.get(id);
+            return entity != null ? copy(entity) : null;
+        }));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return withLatency(Mono.fromCallable(() -> store.containsKey(id)));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return withLatency(Flux.defer(() -> Flux.fromIterable(store.values()).map(this::copy)));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<String> ids) {
+        return withLatency(Flux.defer(() -> Flux.fromIterable(ids)
+                .mapNotNull(store::get)
+                .map(this::copy)));
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return withLatency(Mono.fromCallable(() -> (long) store.size()));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return withLatency(Mono.fromRunnable(() -> remove(id)));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(getId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return withLatency(Mono.fromRunnable(() -> ids.forEach(this::remove)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return withLatency(Mono.fromRunnable(() -> entities.forEach(entity -> remove(getId(entity)))));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return withLatency(Mono.fromRunnable(() -> new ArrayList<>(store.keySet()).forEach(this::remove)));
+    }
+
+    @Override
+    public Flux<T> findAll(Sort sort) {
+        return sort.isUnsorted() ? findAll() : findAll().sort(InMemoryQueries.comparator(sort));
+    }
+
+    @Override
+    public <S extends T> Mono<S> findOne(Example<S> example) {
+        return findAll(example).collectList().flatMap(this::single);
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example) {
+        return withLatency(Flux.defer(() -> Flux.fromIterable(store.values())
+                .filter(entity -> InMemoryQueries.matches(example, entity))
+                .map(entity -> example.getProbeType().cast(copy(entity)))));
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+        return sort.isUnsorted() ? findAll(example) : findAll(example).sort(InMemoryQueries.comparator(sort));
+    }
+
+    @Override
+    public <S extends T> Mono<Long> count(Example<S> example) {
+        return withLatency(Mono.fromCallable(() -> store.values().stream()
+                .filter(entity -> InMemoryQueries.matches(example, entity))
+                .count()));
+    }
+
+    @Override
+    public <S extends T> Mono<Boolean> exists(Example<S> example) {
+        return withLatency(Mono.fromCallable(() -> store.values().stream()
+                .anyMatch(entity -> InMemoryQueries.matches(example, entity))));
+    }
+
+    @Override
+    public <S extends T, R, P extends Publisher<R>> P findBy(
+            Example<S> example, Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(example, Sort.unsorted()));
+    }
+
+    private void store(T entity, boolean insertOnly) {
+        String id = getId(entity);
+        store.compute(id, (key, previous) -> {
+            if (previous != null && insertOnly) {
+                throw new DuplicateKeyException("Duplicate key _id: " + id);
+            }
+            checkVersion(previous, entity);
+            T stored = copy(entity);
+            for (SecondaryIndex index : indexes) {
+                index.replace(id, previous, stored);
+            }
+            return stored;
+        });
+    }
+
+    private void remove(String id) {
+        store.computeIfPresent(id, (key, previous) -> {
+            for (SecondaryIndex index : indexes) {
+                index.replace(id, previous, null);
+            }
+            return null;
+        });
+    }
+
+    private <R> Mono<R> withLatency(Mono<R> operation) {
+        return latency.isZero() ? operation : operation.delaySubscription(latency);
+    }
+
+    private <R> Flux<R> withLatency(Flux<R> operation) {
+        return latency.isZero() ? operation : operation.delaySubscription(latency);
+    }
+
+    // Como MongoDB en findOne: más de un resultado es un error, no el primero
+    private <S> Mono<S> single(List<S> results) {
+        if (results.size() > 1) {
+            return Mono.error(new IncorrectResultSizeDataAccessException(1, results.size()));
+        }
+        return Mono.justOrEmpty(results.isEmpty() ? null : results.get(0));
+    }
+
+    /**
+     * Consulta fluida de findBy(Example). project() no recorta campos: se devuelven enteros.
+     */
+    private final class ExampleQuery<S extends T> implements FluentQuery.ReactiveFluentQuery<S> {
+        private final Example<S> example;
+        private final Sort sort;
+
+        private ExampleQuery(Example<S> example, Sort sort) {
+            this.example = example;
+            this.sort = sort;
+        }
+
+        @Override
+        public FluentQuery.ReactiveFluentQuery<S> sortBy(Sort sort) {
+            return new ExampleQuery<>(example, this.sort.and(sort));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> FluentQuery.ReactiveFluentQuery<R> as(Class<R> resultType) {
+            if (!resultType.isAssignableFrom(example.getProbeType())) {
+                throw new UnsupportedOperationException("Projection to " + resultType.getSimpleName()
+                        + " is not supported by the in-memory repository");
+            }
+            return (FluentQuery.ReactiveFluentQuery<R>) this;
+        }
+
+        @Override
+        public FluentQuery.ReactiveFluentQuery<S> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public Mono<S> one() {
+            return all().collectList().flatMap(InMemoryReactiveRepository.this::single);
+        }
+
+        @Override
+        public Mono<S> first() {
+            return all().next();
+        }
+
+        @Override
+        public Flux<S> all() {
+            return findAll(example, sort);
+        }
+
+        @Override
+        public Mono<Page<S>> page(Pageable pageable) {
+            return findAll(example, sort.and(pageable.getSort())).collectList().map(results -> {
+                if (pageable.isUnpaged()) {
+                    return new PageImpl<>(results, pageable, results.size());
+                }
+                int from = (int) Math.min(pageable.getOffset(), results.size());
+                int to = Math.min(from + pageable.getPageSize(), results.size());
+                return new PageImpl<>(results.subList(from, to), pageable, results.size());
+            });
+        }
+
+        @Override
+        public Mono<Long> count() {
+            return InMemoryReactiveRepository.this.count(example);
+        }
+
+        @Override
+        public Mono<Boolean> exists() {
+            return InMemoryReactiveRepository.this.exists(example);
+        }
+    }
+
+    /**
+     * Índice secundario: valor del campo -> ids de las entidades que lo contienen.
+     */
+    protected final class SecondaryIndex {
+        private final Function<T, String> keyExtractor;
+        private final boolean unique;
+        private final ConcurrentMap<String, Set<String>> entries = new ConcurrentHashMap<>();
+
+        private SecondaryIndex(Function<T, String> keyExtractor, boolean unique) {
+            this.keyExtractor = keyExtractor;
+            this.unique = unique;
+        }
+
+        private Set<String> lookup(String key) {
+            if (key == null) {
+                return Collections.emptySet();
+            }
+            return entries.getOrDefault(key, Collections.emptySet());
+        }
+
+        private void replace(String id, T previous, T current) {
+            String oldKey = previous != null ? keyExtractor.apply(previous) : null;
+            String newKey = current != null ? keyExtractor.apply(current) : null;
+            if (oldKey != null && oldKey.equals(newKey)) {
+                return;
+            }
+
+            if (newKey != null) {
+                entries.compute(newKey, (key, ids) -> {
+                    Set<String> target = ids != null ? ids : ConcurrentHashMap.<String>newKeySet();
+                    if (unique && !target.isEmpty() && !target.contains(id)) {
+                        throw new DuplicateKeyException("Duplicate key " + newKey);
+                    }
+                    target.add(id);
+                    return target;
+                });
+            }
+
+            if (oldKey != null) {
+                entries.computeIfPresent(oldKey, (key, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+}
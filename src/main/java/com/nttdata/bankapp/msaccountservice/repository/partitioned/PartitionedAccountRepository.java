@@ -0,0 +1,120 @@
+package com.nttdata.bankapp.msaccountservice.repository.partitioned;
+
+import com.mongodb.client.model.Filters;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitionedMongoRepository;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.repository.AccountSummaries;
+import org.bson.conversions.Bson;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cuentas de /accounts repartidas por customerId entre las particiones (perfil "partitioned").
+ * Las consultas de un cliente van a su partición; las de número de cuenta o por ids, a todas.
+ * El número de cuenta solo es único dentro de cada partición: la unicidad global la da
+ * {@link com.nttdata.bankapp.msaccountservice.sequence.AccountNumberAllocator}, cuya secuencia
+ * sigue en la base de datos principal.
+ */
+@Repository
+@Primary
+@Profile("partitioned")
+public class PartitionedAccountRepository extends PartitionedMongoRepository<Account> implements AccountRepository {
+
+    private static final String CUSTOMER_ID = "customerId";
+
+    public PartitionedAccountRepository(MongoPartitions partitions, PartitioningProperties properties) {
+        super(partitions, Account.class, CUSTOMER_ID, properties.getLocationCacheSize());
+    }
+
+    @Override
+    public Flux<Account> findByCustomerId(String customerId) {
+        return findByPartitionKey(customerId, Query.query(Criteria.where(CUSTOMER_ID).is(customerId)));
+    }
+
+    @Override
+    public Mono<Account> findByAccountNumber(String accountNumber) {
+        return findInAll(Query.query(Criteria.where("accountNumber").is(accountNumber))).next();
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdAndType(String customerId, AccountType type) {
+        return findByPartitionKey(customerId, Query.query(Criteria.where(CUSTOMER_ID).is(customerId)
+                .and("type").is(type)));
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdAndCustomerType(String customerId, CustomerType customerType) {
+        return findByPartitionKey(customerId, Query.query(Criteria.where(CUSTOMER_ID).is(customerId)
+                .and("customerType").is(customerType)));
+    }
+
+    @Override
+    public Flux<Account> findByCustomerIdIn(Collection<String> customerIds) {
+        return findByPartitionKeys(customerIds, keys -> Query.query(Criteria.where(CUSTOMER_ID).in(keys)));
+    }
+
+    // Mismos campos que la consulta de AccountRepository, más customerId para reconocer durante un
+    // rebalanceo la copia vigente
+    @Override
+    public Flux<Account> findBalancesByIdIn(Collection<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        List.of("accountNumber", "type", "balance", "maxMonthlyMovements", "currentMonthlyMovements",
+                        "maxFreeTransactions", "currentMonthlyTransactions", "transactionFee", CUSTOMER_ID)
+                .forEach(field -> query.fields().include(field));
+        return findInAll(query);
+    }
+
+    // La agregación no puede descartar las copias antiguas de un rebalanceo: se calcula sobre las
+    // cuentas del cliente, que están en una sola partición y son pocas
+    @Override
+    public Flux<AccountTypeSummary> summarizeByCustomerId(String customerId, LocalDate countersSince) {
+        return AccountSummaries.summarize(findByCustomerId(customerId), countersSince);
+    }
+
+    @Override
+    protected List<Index> indexes() {
+        return List.of(
+                new Index("accountNumber", Sort.Direction.ASC).unique().sparse(),
+                new Index("updatedAt", Sort.Direction.ASC));
+    }
+
+    // La colección accounts también guarda las cuentas de /api/accounts (com.example): solo se
+    // mueven las de esta entidad, por _class o, sin él, por el campo type
+    @Override
+    public Bson getOwnedDocuments() {
+        return Filters.or(Filters.eq("_class", Account.class.getName()),
+                Filters.and(Filters.exists("_class", false), Filters.exists("type")));
+    }
+
+    @Override
+    protected String getId(Account account) {
+        return account.getId();
+    }
+
+    @Override
+    protected void setId(Account account, String id) {
+        account.setId(id);
+    }
+
+    @Override
+    protected String getPartitionKey(Account account) {
+        return account.getCustomerId();
+    }
+}
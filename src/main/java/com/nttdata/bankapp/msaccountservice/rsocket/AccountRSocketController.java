@@ -0,0 +1,281 @@
+package com.nttdata.bankapp.msaccountservice.rsocket;
+
+import com.nttdata.bankapp.msaccountservice.deadline.Deadline;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExceededException;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineProperties;
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.dto.AccountOperationDto;
+import com.nttdata.bankapp.msaccountservice.dto.AccountOperationResultDto;
+import com.nttdata.bankapp.msaccountservice.exception.AccountNotFoundException;
+import com.nttdata.bankapp.msaccountservice.exception.CustomerNotFoundException;
+import com.nttdata.bankapp.msaccountservice.exception.InvalidAccountTypeException;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitExceededException;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimiter;
+import com.nttdata.bankapp.msaccountservice.rejection.BusinessRejectionException;
+import com.nttdata.bankapp.msaccountservice.service.AccountService;
+import com.nttdata.bankapp.msaccountservice.tracing.Trace;
+import com.nttdata.bankapp.msaccountservice.tracing.Tracer;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingProperties;
+import io.rsocket.exceptions.ApplicationErrorException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Operaciones de cuenta que usa el servicio de transacciones, expuestas por RSocket para
+ * que pueda multiplexarlas sobre una única conexión en lugar de abrir una petición HTTP
+ * por paso (validar, comisión, contador y saldo).
+ *
+ * <p>Rutas request-response: accounts.validate-transfer, accounts.transaction-fee,
+ * accounts.transaction-count y accounts.balance. Ruta request-channel: accounts.operations,
+ * que recibe un flujo de operaciones y devuelve un resultado por cada una.</p>
+ *
+ * <p>Las conexiones las autentica {@link RSocketConnectionAuthenticator}. Cada petición
+ * (u operación del canal) abre su propia traza, continuando el traceparent del metadata, y las
+ * modificaciones de saldo y contador pasan por el mismo {@link RateLimiter} que las rutas HTTP.</p>
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+@MessageMapping("accounts")
+public class AccountRSocketController {
+
+    private static final String ORIGIN = "rsocket";
+    private static final String TRACEPARENT = RSocketMetadataConfig.TRACEPARENT_HEADER;
+
+    private final AccountService accountService;
+    private final DeadlineProperties deadlineProperties;
+    private final DeadlineMetrics deadlineMetrics;
+    private final RateLimiter rateLimiter;
+    private final TracingProperties tracingProperties;
+    private final Tracer tracer;
+
+    /**
+     * Valida una cuenta para transferencia.
+     * @param operation accountId, customerId y amount
+     * @return Mono<Boolean>
+     */
+    @MessageMapping("validate-transfer")
+    public Mono<Boolean> validateForTransfer(AccountOperationDto operation,
+                                             @Header(name = TRACEPARENT, required = false) String traceParent) {
+        return traced("accounts.validate-transfer", traceParent, withDeadline(accountService.validateAccountForTransfer(
+                operation.getAccountId(), operation.getCustomerId(), operation.getAmount())));
+    }
+
+    /**
+     * Obtiene la comisión por transacción para una cuenta.
+     * @param operation accountId
+     * @return Mono<BigDecimal>
+     */
+    @MessageMapping("transaction-fee")
+    public Mono<BigDecimal> getTransactionFee(AccountOperationDto operation,
+                                              @Header(name = TRACEPARENT, required = false) String traceParent) {
+        return traced("accounts.transaction-fee", traceParent,
+                withDeadline(accountService.calculateTransactionFee(operation.getAccountId())));
+    }
+
+    /**
+     * Incrementa el contador de transacciones y aplica comisión si es necesario.
+     * @param operation accountId y fee (opcional)
+     * @return Mono<AccountDto>
+     */
+    @MessageMapping("transaction-count")
+    public Mono<AccountDto> incrementTransactionCount(AccountOperationDto operation,
+                                                      @Header(name = TRACEPARENT, required = false) String traceParent) {
+        return traced("accounts.transaction-count", traceParent, withDeadline(rateLimited(operation.getAccountId(),
+                () -> accountService.incrementTransactionCount(operation.getAccountId(), feeToApply(operation)))));
+    }
+
+    /**
+     * Actualiza el saldo de una cuenta.
+     * @param operation accountId y amount (positivo para depósitos, negativo para retiros)
+     * @return Mono<AccountDto>
+     */
+    @MessageMapping("balance")
+    public Mono<AccountDto> updateBalance(AccountOperationDto operation,
+                                          @Header(name = TRACEPARENT, required = false) String traceParent) {
+        return traced("accounts.balance", traceParent, withDeadline(rateLimited(operation.getAccountId(),
+                () -> accountService.updateBalance(operation.getAccountId(), operation.getAmount()))));
+    }
+
+    /**
+     * Canal de operaciones. Se ejecutan en el orden de llegada, una tras otra, porque la
+     * secuencia validar → comisión → contador → saldo de una transferencia depende de ese
+     * orden; el cliente obtiene paralelismo abriendo varios canales sobre la misma conexión.
+     * La demanda de RSocket limita cuántas operaciones se aceptan por adelantado. Un canal sin
+     * operaciones llega con un primer payload vacío y termina sin resultados.
+     * @param operations operaciones a ejecutar
+     * @return Flux con un resultado por operación, en el mismo orden
+     */
+    @MessageMapping("operations")
+    public Flux<AccountOperationResultDto> operations(@Payload(required = false) Flux<AccountOperationDto> operations,
+                                                      @Header(name = TRACEPARENT, required = false) String traceParent) {
+        return operations.concatMap(operation -> traced("accounts.operations " + operation.getType(), traceParent,
+                        withDeadline(execute(operation)))
+                .onErrorResume(e -> Mono.just(failed(operation, e))));
+    }
+
+    private Mono<AccountOperationResultDto> execute(AccountOperationDto operation) {
+        if (operation.getType() == null) {
+            return Mono.error(new IllegalArgumentException("Operation type is required"));
+        }
+        if (operation.getAccountId() == null) {
+            return Mono.error(new IllegalArgumentException("Account id is required"));
+        }
+        AccountOperationResultDto.AccountOperationResultDtoBuilder result = AccountOperationResultDto.builder()
+                .operationId(operation.getOperationId())
+                .type(operation.getType())
+                .status(HttpStatus.OK.value());
+        switch (operation.getType()) {
+            case VALIDATE_TRANSFER:
+                if (operation.getCustomerId() == null || operation.getAmount() == null) {
+                    return Mono.error(new IllegalArgumentException("Customer id and amount are required"));
+                }
+                return accountService.validateAccountForTransfer(
+                                operation.getAccountId(), operation.getCustomerId(), operation.getAmount())
+                        .map(valid -> result.valid(valid).build());
+            case TRANSACTION_FEE:
+                return accountService.calculateTransactionFee(operation.getAccountId())
+                        .map(fee -> result.fee(fee).build());
+            case INCREMENT_TRANSACTION_COUNT:
+                return rateLimited(operation.getAccountId(),
+                        () -> accountService.incrementTransactionCount(operation.getAccountId(), feeToApply(operation)))
+                        .map(account -> result.account(account).build());
+            case UPDATE_BALANCE:
+                if (operation.getAmount() == null) {
+                    return Mono.error(new IllegalArgumentException("Amount is required"));
+                }
+                return rateLimited(operation.getAccountId(),
+                        () -> accountService.updateBalance(operation.getAccountId(), operation.getAmount()))
+                        .map(account -> result.account(account).build());
+            default:
+                return Mono.error(new IllegalArgumentException("Unsupported operation " + operation.getType()));
+        }
+    }
+
+    private static BigDecimal feeToApply(AccountOperationDto operation) {
+        BigDecimal fee = operation.getFee();
+        return fee != null && fee.compareTo(BigDecimal.ZERO) > 0 ? fee : null;
+    }
+
+    // Mismo bucket que las rutas HTTP de la cuenta: el de su titular
+    private <T> Mono<T> rateLimited(String accountId, Supplier<Mono<T>> operation) {
+        return rateLimiter.acquire(null, "accountId", accountId, ORIGIN)
+                .flatMap(waitNanos -> waitNanos == 0L
+                        ? operation.get()
+                        : Mono.error(new RateLimitExceededException(RateLimiter.retryAfterSeconds(waitNanos))));
+    }
+
+    /**
+     * Abre la traza de una petición RSocket, como TracingFilter en HTTP; el span se nombra con la ruta.
+     * En request-response Spring cancela la respuesta tras recibir su valor: solo cuenta como
+     * cancelada si se cancela antes.
+     */
+    private <T> Mono<T> traced(String route, String traceParent, Mono<T> operation) {
+        if (!tracingProperties.isEnabled()) {
+            return operation;
+        }
+        return Mono.defer(() -> {
+            Trace trace = tracer.startTrace(traceParent, null);
+            trace.getRoot().tag("rpc.system", "rsocket").tag("rpc.method", route);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return operation
+                    .doOnNext(value -> emitted.set(true))
+                    .doOnError(error::set)
+                    .doFinally(signal -> {
+                        HttpStatus status = error.get() != null ? status(error.get()) : HttpStatus.OK;
+                        boolean cancelled = signal == SignalType.CANCEL && !emitted.get();
+                        boolean failed = cancelled || status.is5xxServerError();
+                        trace.getRoot().tag(cancelled ? "cancelled" : "rpc.status_code",
+                                cancelled ? "true" : Integer.toString(status.value()));
+                        if (failed) {
+                            trace.getRoot().tag("error", cancelled ? "cancelled" : Integer.toString(status.value()));
+                        }
+                        tracer.finishTrace(trace, "RSOCKET " + route, failed);
+                    })
+                    .contextWrite(context -> context.put(Trace.CONTEXT_KEY, trace));
+        });
+    }
+
+    /**
+     * Aplica a cada operación el timeout por defecto de las peticiones HTTP, dejando el
+     * deadline en el contexto para que también lo respeten las consultas a MongoDB.
+     */
+    private <T> Mono<T> withDeadline(Mono<T> operation) {
+        if (!deadlineProperties.isEnabled()) {
+            return operation;
+        }
+        Duration timeout = deadlineProperties.getDefaultTimeout();
+        Deadline deadline = Deadline.after(timeout);
+        return operation
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> deadlineMetrics.exceeded(DeadlineMetrics.REQUEST))
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    /**
+     * Errores de las rutas request-response: se envían como APPLICATION_ERROR con el código
+     * de estado HTTP equivalente al inicio del mensaje (por ejemplo "404 Account not found...").
+     */
+    @MessageExceptionHandler
+    public Mono<Void> handleException(Throwable error) {
+        HttpStatus status = status(error);
+        if (status.is5xxServerError()) {
+            log.error("Account RSocket request failed", error);
+        } else {
+            log.debug("Account RSocket request rejected status={} message={}", status.value(), error.getMessage());
+        }
+        return Mono.error(new ApplicationErrorException(status.value() + " " + error.getMessage()));
+    }
+
+    private static AccountOperationResultDto failed(AccountOperationDto operation, Throwable error) {
+        HttpStatus status = status(error);
+        if (status.is5xxServerError()) {
+            log.error("Account operation failed operationId={} type={} accountId={}",
+                    operation.getOperationId(), operation.getType(), operation.getAccountId(), error);
+        }
+        return AccountOperationResultDto.builder()
+                .operationId(operation.getOperationId())
+                .type(operation.getType())
+                .status(status.value())
+                .error(error.getMessage())
+                .build();
+    }
+
+    /**
+     * Mismos códigos que GlobalExceptionHandler para los endpoints HTTP.
+     */
+    private static HttpStatus status(Throwable error) {
+        if (error instanceof AccountNotFoundException || error instanceof CustomerNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (error instanceof IllegalArgumentException || error instanceof InvalidAccountTypeException
+                || error instanceof BusinessRejectionException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (error instanceof DeadlineExceededException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (error instanceof RateLimitExceededException) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nttdata.bankapp.msaccountservice.rsocket;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de las rutas RSocket accounts.*.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rsocket")
+public class AccountRSocketProperties {
+    // Token compartido que el cliente envía en el metadata del SETUP; vacío rechaza todas las conexiones
+    private String token = "";
+}
@@ -0,0 +1,41 @@
+package com.nttdata.bankapp.msaccountservice.rsocket;
+
+import io.rsocket.exceptions.RejectedSetupException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.rsocket.annotation.ConnectMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Autentica las conexiones RSocket: el SETUP debe traer el token de app.rsocket.token.
+ * Está fuera de {@link AccountRSocketController} porque su prefijo "accounts" también se
+ * aplicaría a la ruta del SETUP.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class RSocketConnectionAuthenticator {
+
+    private final AccountRSocketProperties properties;
+
+    /**
+     * Valida el token del SETUP; un error rechaza la conexión.
+     * @param token token enviado con {@link RSocketMetadataConfig#AUTH_TOKEN_MIME_TYPE}
+     * @return Mono vacío si el token es válido
+     */
+    @ConnectMapping
+    public Mono<Void> authenticate(@Header(name = RSocketMetadataConfig.AUTH_TOKEN_HEADER, required = false) String token) {
+        String expected = properties.getToken();
+        if (expected == null || expected.isEmpty() || token == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected RSocket connection: missing or invalid token");
+            return Mono.error(new RejectedSetupException("Invalid token"));
+        }
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,27 @@
+package com.nttdata.bankapp.msaccountservice.rsocket;
+
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.MimeType;
+
+/**
+ * Entradas de metadata compuesto que leen las rutas RSocket: el token de la conexión, en el
+ * SETUP, y el traceparent W3C de cada petición. Ambos se envían como texto UTF-8.
+ */
+@Configuration
+public class RSocketMetadataConfig {
+
+    public static final MimeType AUTH_TOKEN_MIME_TYPE = MimeType.valueOf("message/x.bankapp.auth-token");
+    public static final MimeType TRACEPARENT_MIME_TYPE = MimeType.valueOf("message/x.bankapp.traceparent");
+    public static final String AUTH_TOKEN_HEADER = "authToken";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    @Bean
+    public RSocketStrategiesCustomizer accountMetadataExtractors() {
+        return strategies -> strategies.metadataExtractorRegistry(registry -> {
+            registry.metadataToExtract(AUTH_TOKEN_MIME_TYPE, String.class, AUTH_TOKEN_HEADER);
+            registry.metadataToExtract(TRACEPARENT_MIME_TYPE, String.class, TRACEPARENT_HEADER);
+        });
+    }
+}
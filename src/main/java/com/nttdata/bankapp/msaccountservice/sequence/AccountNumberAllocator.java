@@ -0,0 +1,112 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asignador hi/lo de números de cuenta. Reserva rangos de la secuencia en bloques y reparte
+ * los números del bloque actual con un getAndIncrement, sin bloqueos ni accesos a MongoDB.
+ * Solo al agotarse el bloque se pide otro, con una única reserva en curso por instancia.
+ * Los números tienen la forma prefijo + correlativo de {@code digits} cifras + dígito Luhn.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    private static final Block EXHAUSTED = new Block(0, -1);
+
+    private final SequenceBlockSource blockSource;
+    private final AccountNumberProperties properties;
+    private final long maxValue;
+
+    private volatile Block current = EXHAUSTED;
+    private Mono<Void> pendingLease; // Protegido por this
+
+    public AccountNumberAllocator(SequenceBlockSource blockSource, AccountNumberProperties properties) {
+        this.blockSource = blockSource;
+        this.properties = properties;
+        this.maxValue = (long) Math.pow(10, properties.getDigits()) - 1;
+    }
+
+    /**
+     * Obtiene el siguiente número de cuenta, único entre todas las instancias.
+     * @return Mono con el número de cuenta
+     */
+    public Mono<String> nextAccountNumber() {
+        return Mono.defer(this::allocate);
+    }
+
+    private Mono<String> allocate() {
+        Block block = current;
+        long value = block.next.getAndIncrement();
+        if (value <= block.last) {
+            return Mono.just(format(value));
+        }
+        return lease(block).then(Mono.defer(this::allocate));
+    }
+
+    private synchronized Mono<Void> lease(Block exhausted) {
+        if (current != exhausted) {
+            // Otro hilo ya instaló un bloque nuevo
+            return Mono.empty();
+        }
+        if (pendingLease == null) {
+            int blockSize = properties.getBlockSize();
+            pendingLease = blockSource.leaseBlock(properties.getSequence(), blockSize)
+                    .doOnNext(last -> installBlock(new Block(last - blockSize + 1, last)))
+                    .doOnError(error -> clearPendingLease())
+                    .then()
+                    .cache();
+        }
+        return pendingLease;
+    }
+
+    private synchronized void installBlock(Block block) {
+        if (block.last > maxValue) {
+            pendingLease = null;
+            throw new IllegalStateException("Account number sequence exhausted: " + block.last);
+        }
+        current = block;
+        pendingLease = null;
+    }
+
+    private synchronized void clearPendingLease() {
+        pendingLease = null;
+    }
+
+    String format(long value) {
+        String number = String.format("%0" + properties.getDigits() + "d", value);
+        return properties.getPrefix() + number + luhnCheckDigit(number);
+    }
+
+    /**
+     * Dígito de control Luhn de una cadena de dígitos.
+     */
+    static int luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean doubleDigit = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
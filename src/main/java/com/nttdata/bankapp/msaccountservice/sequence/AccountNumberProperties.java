@@ -0,0 +1,18 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de la generación de números de cuenta.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.account-number")
+public class AccountNumberProperties {
+    private String sequence = "accountNumber"; // _id del contador en la colección counters
+    private String prefix = "ACC-";
+    private int digits = 11; // Dígitos del correlativo, sin contar el dígito de control
+    private int blockSize = 1000; // Números reservados por cada findAndModify
+}
@@ -0,0 +1,25 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloques de secuencia en memoria para el perfil inmemory (una sola instancia).
+ */
+@Component
+@Profile("inmemory")
+public class InMemorySequenceBlockSource implements SequenceBlockSource {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Long> leaseBlock(String sequence, int blockSize) {
+        return Mono.fromSupplier(() -> counters.computeIfAbsent(sequence, name -> new AtomicLong())
+                .addAndGet(blockSize));
+    }
+}
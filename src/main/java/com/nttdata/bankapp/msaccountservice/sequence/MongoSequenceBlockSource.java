@@ -0,0 +1,37 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bloques de secuencia sobre la colección counters: un findAndModify con $inc por bloque,
+ * atómico en el servidor, por lo que dos instancias nunca reciben el mismo rango.
+ */
+@Component
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class MongoSequenceBlockSource implements SequenceBlockSource {
+
+    static final String COUNTERS = "counters";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Long> leaseBlock(String sequence, int blockSize) {
+        return mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(sequence)),
+                        new Update().inc("value", (long) blockSize),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Document.class,
+                        COUNTERS)
+                .map(counter -> ((Number) counter.get("value")).longValue());
+    }
+}
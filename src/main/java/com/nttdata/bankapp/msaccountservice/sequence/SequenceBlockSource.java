@@ -0,0 +1,17 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Origen de bloques de una secuencia compartida entre instancias.
+ */
+public interface SequenceBlockSource {
+
+    /**
+     * Reserva de forma atómica el siguiente bloque de valores de la secuencia.
+     * @param sequence nombre de la secuencia
+     * @param blockSize cantidad de valores a reservar
+     * @return último valor del bloque reservado; el bloque es (valor - blockSize, valor]
+     */
+    Mono<Long> leaseBlock(String sequence, int blockSize);
+}
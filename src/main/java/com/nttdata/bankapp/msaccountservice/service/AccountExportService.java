@@ -0,0 +1,30 @@
+package com.nttdata.bankapp.msaccountservice.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interfaz del servicio de exportación masiva de cuentas.
+ */
+public interface AccountExportService {
+
+    enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Exporta la colección de cuentas leyendo directamente del cursor, sin acumular documentos.
+     * @param format formato de salida
+     * @param fields campos a exportar (vacío para todos en NDJSON o el conjunto por defecto en CSV)
+     * @param updatedSince solo cuentas modificadas después de esta fecha (null para todas)
+     * @param gzip comprimir la salida
+     * @param bufferFactory factoría de buffers de la respuesta
+     * @return Flux con el contenido a escribir
+     */
+    Flux<DataBuffer> export(Format format, List<String> fields, LocalDateTime updatedSince, boolean gzip,
+                            DataBufferFactory bufferFactory);
+}
@@ -0,0 +1,25 @@
+package com.nttdata.bankapp.msaccountservice.service;
+
+import com.nttdata.bankapp.msaccountservice.dto.ImportResultDto;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Interfaz del servicio de importación masiva de cuentas.
+ */
+public interface AccountImportService {
+
+    enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Importa cuentas leyendo el cuerpo de forma incremental.
+     * @param body contenido del fichero
+     * @param format formato del fichero
+     * @param importId identificador de la importación; al reanudar, el devuelto por la ejecución anterior
+     * @param afterLine líneas ya confirmadas en una ejecución anterior (0 para empezar desde el principio)
+     * @return resultados por línea, un checkpoint por lote y un resumen final
+     */
+    Flux<ImportResultDto> importAccounts(Flux<DataBuffer> body, Format format, String importId, long afterLine);
+}
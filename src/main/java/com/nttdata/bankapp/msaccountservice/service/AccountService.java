@@ -3,10 +3,13 @@ package com.nttdata.bankapp.msaccountservice.service;
 
 import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
 import com.nttdata.bankapp.msaccountservice.dto.BalanceDto;
+import com.nttdata.bankapp.msaccountservice.dto.BatchGetResultDto;
+import com.nttdata.bankapp.msaccountservice.dto.PortfolioDto;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Interfaz que define los servicios para operaciones con cuentas.
@@ -14,12 +17,15 @@ import java.math.BigDecimal;
 public interface AccountService {
     Flux<AccountDto> findAll();
     Mono<AccountDto> findById(String id);
+    Mono<BatchGetResultDto<AccountDto>> findByIds(List<String> ids);
     Flux<AccountDto> findByCustomerId(String customerId);
     Mono<AccountDto> findByAccountNumber(String accountNumber);
     Mono<AccountDto> save(AccountDto accountDto);
     Mono<AccountDto> update(String id, AccountDto accountDto);
     Mono<Void> delete(String id);
     Mono<BalanceDto> getBalance(String id);
+    Mono<BatchGetResultDto<BalanceDto>> getBalances(List<String> ids);
+    Mono<PortfolioDto> getPortfolio(String customerId);
     Mono<AccountDto> updateBalance(String id, BigDecimal amount);
     Mono<BigDecimal> calculateTransactionFee(String id);
     Mono<AccountDto> incrementTransactionCount(String id, BigDecimal fee);
@@ -0,0 +1,267 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.nttdata.bankapp.msaccountservice.config.AccountExportProperties;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.service.AccountExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de la colección accounts en NDJSON o CSV. Lee documentos BSON sin mapearlos a
+ * entidades (la colección contiene cuentas de las dos aplicaciones) y escribe la respuesta por
+ * bloques a medida que el cliente los consume, de modo que la memoria no depende del tamaño
+ * de la colección. Con el perfil "partitioned" recorre las particiones una tras otra; durante un
+ * rebalanceo descarta la copia antigua de los documentos que ya están en su partición.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountExportServiceImpl implements AccountExportService {
+
+    static final String ACCOUNTS = "accounts";
+
+    /**
+     * Columnas CSV cuando no se indican campos: las comunes a los dos modelos de Account.
+     */
+    static final List<String> DEFAULT_CSV_FIELDS = List.of(
+            "id", "accountNumber", "type", "accountType", "customerId", "customerType", "customerProfile",
+            "balance", "createdAt", "updatedAt");
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .objectIdConverter((value, writer) -> writer.writeString(value.toHexString()))
+            .decimal128Converter((value, writer) -> writer.writeNumber(value.toString()))
+            .int64Converter((value, writer) -> writer.writeNumber(value.toString()))
+            .dateTimeConverter((value, writer) -> writer.writeString(Instant.ofEpochMilli(value).toString()))
+            .build();
+
+    private static final String CUSTOMER_ID = "customerId";
+
+    private final MongoPartitions partitions;
+    private final AccountExportProperties properties;
+
+    @Override
+    public Flux<DataBuffer> export(Format format, List<String> fields, LocalDateTime updatedSince, boolean gzip,
+                                   DataBufferFactory bufferFactory) {
+        log.info("Starting account export format={} fields={} updatedSince={} gzip={}",
+                format, fields, updatedSince, gzip);
+
+        List<String> columns = format == Format.CSV && fields.isEmpty() ? DEFAULT_CSV_FIELDS : fields;
+        Query query = query(columns, updatedSince);
+        Flux<byte[]> chunks = Flux.fromIterable(partitions.all())
+                .concatMap(partition -> {
+                    Flux<List<Document>> documents = partition.getTemplate().find(query, Document.class, ACCOUNTS)
+                            .buffer(properties.getChunkSize());
+                    return partitions.isMigrating() ? documents.concatMap(chunk -> current(partition, chunk, columns))
+                            : documents;
+                })
+                .filter(documents -> !documents.isEmpty())
+                .map(documents -> format == Format.CSV ? toCsv(documents, columns) : toNdjson(documents));
+        if (format == Format.CSV) {
+            chunks = Flux.concat(Mono.fromSupplier(() -> csvHeader(columns)), chunks);
+        }
+        if (gzip) {
+            Flux<byte[]> plain = chunks;
+            chunks = Flux.using(GzipEncoder::new,
+                    encoder -> plain.map(encoder::encode).concatWith(Mono.fromCallable(encoder::finish)),
+                    GzipEncoder::close);
+        }
+        return chunks.map(bufferFactory::wrap);
+    }
+
+    private Query query(List<String> fields, LocalDateTime updatedSince) {
+        Query query = new Query();
+        if (updatedSince != null) {
+            query.addCriteria(Criteria.where("updatedAt").gt(updatedSince));
+        }
+        fields.forEach(field -> query.fields().include(mongoField(field)));
+        if (!fields.isEmpty() && partitions.isMigrating()) {
+            // Para saber a qué partición pertenece cada documento; se quita si no se pidió
+            query.fields().include(CUSTOMER_ID);
+        }
+        query.cursorBatchSize(properties.getCursorBatchSize());
+        return query;
+    }
+
+    /**
+     * Quita de un bloque leído de una partición los documentos de otra partición que esa otra ya
+     * tiene: durante un rebalanceo su copia es la vigente y se exporta al recorrerla.
+     */
+    private Mono<List<Document>> current(MongoPartition source, List<Document> chunk, List<String> fields) {
+        Map<MongoPartition, List<Object>> moved = chunk.stream()
+                .filter(document -> document.get(CUSTOMER_ID) instanceof String
+                        && partitions.forKey(document.getString(CUSTOMER_ID)) != source)
+                .collect(Collectors.groupingBy(document -> partitions.forKey(document.getString(CUSTOMER_ID)),
+                        Collectors.mapping(document -> document.get("_id"), Collectors.toList())));
+        boolean stripCustomerId = !fields.isEmpty() && !fields.contains(CUSTOMER_ID);
+        return Flux.fromIterable(moved.entrySet())
+                .concatMap(entry -> {
+                    Query present = Query.query(Criteria.where("_id").in(entry.getValue()));
+                    present.fields().include("_id");
+                    return entry.getKey().getTemplate().find(present, Document.class, ACCOUNTS);
+                })
+                .map(document -> document.get("_id"))
+                .collect(Collectors.toSet())
+                .map(copied -> {
+                    List<Document> current = new ArrayList<>(chunk.size());
+                    for (Document document : chunk) {
+                        if (!copied.contains(document.get("_id"))) {
+                            if (stripCustomerId) {
+                                document.remove(CUSTOMER_ID);
+                            }
+                            current.add(document);
+                        }
+                    }
+                    return current;
+                });
+    }
+
+    private static String mongoField(String field) {
+        return "id".equals(field) ? "_id" : field;
+    }
+
+    private static byte[] toNdjson(List<Document> documents) {
+        StringBuilder out = new StringBuilder(documents.size() * 256);
+        for (Document document : documents) {
+            out.append(withId(document).toJson(JSON_SETTINGS)).append('\n');
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copia del documento con _id como "id" (como en la API) y sin el _class de Spring Data.
+     */
+    private static Document withId(Document document) {
+        Document exported = new Document();
+        if (document.containsKey("_id")) {
+            exported.put("id", document.get("_id"));
+        }
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            if (!"_id".equals(entry.getKey()) && !"_class".equals(entry.getKey())) {
+                exported.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return exported;
+    }
+
+    private static byte[] csvHeader(List<String> columns) {
+        return (columns.stream().map(AccountExportServiceImpl::escapeCsv).collect(Collectors.joining(",")) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toCsv(List<Document> documents, List<String> columns) {
+        StringBuilder out = new StringBuilder(documents.size() * 128);
+        for (Document document : documents) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(escapeCsv(csvValue(document.get(mongoField(columns.get(i))))));
+            }
+            out.append('\n');
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        }
+        if (value instanceof Decimal128) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().toString();
+        }
+        if (value instanceof List) {
+            // Mismo formato que la importación: elementos separados por ';'
+            return ((List<?>) value).stream().map(AccountExportServiceImpl::csvValue).collect(Collectors.joining(";"));
+        }
+        if (value instanceof Document) {
+            return ((Document) value).toJson(JSON_SETTINGS);
+        }
+        return value.toString();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Compresor gzip incremental: cada bloque se comprime y se vacía (SYNC_FLUSH) para poder
+     * enviarlo de inmediato; el búfer interno se reutiliza entre bloques.
+     */
+    private static final class GzipEncoder {
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(64 * 1024);
+        private final GZIPOutputStream gzip;
+
+        private GzipEncoder() {
+            try {
+                this.gzip = new GZIPOutputStream(compressed, 8192, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] encode(byte[] chunk) {
+            try {
+                gzip.write(chunk);
+                gzip.flush();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] finish() throws IOException {
+            gzip.finish();
+            return drain();
+        }
+
+        private byte[] drain() {
+            byte[] bytes = compressed.toByteArray();
+            compressed.reset();
+            return bytes;
+        }
+
+        private void close() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                log.debug("Error closing gzip stream: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bankapp.msaccountservice.client.CreditCardService;
+import com.nttdata.bankapp.msaccountservice.client.CustomerService;
+import com.nttdata.bankapp.msaccountservice.client.CustomerService.CustomerDetails;
+import com.nttdata.bankapp.msaccountservice.config.AccountImportProperties;
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.dto.ImportResultDto;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.sequence.AccountNumberAllocator;
+import com.nttdata.bankapp.msaccountservice.service.AccountImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de cuentas desde NDJSON o CSV.
+ * El cuerpo se decodifica línea a línea y se procesa en lotes secuenciales: por lote se hace una
+ * consulta de cuentas existentes, una llamada por cliente distinto a ms-customer (y a ms-credit-card
+ * si la regla lo exige) y un insertMany. Las reglas de apertura son las de POST /accounts
+ * ({@link AccountRules}), evaluadas en memoria. Como cada lote se procesa al terminar el anterior,
+ * la lectura del cuerpo avanza al ritmo de las inserciones.
+ * <p>
+ * El _id de cada cuenta se deriva del importId y del número de línea. Al reanudar con el mismo
+ * importId, las líneas de un lote que llegó a insertarse en parte se reconocen por su _id y se
+ * informan como ALREADY_IMPORTED en vez de crearse otra vez.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountImportServiceImpl implements AccountImportService {
+
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+    private static final Set<String> LIST_COLUMNS = Set.of("holders", "signatories");
+
+    private final AccountRepository accountRepository;
+    private final CustomerService customerService;
+    private final CreditCardService creditCardService;
+    private final AccountServiceImpl accountService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountImportProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Override
+    public Flux<ImportResultDto> importAccounts(Flux<DataBuffer> body, Format format, String importId, long afterLine) {
+        ImportProgress progress = new ImportProgress(importId, afterLine);
+        log.info("Starting account import importId={} format={} afterLine={}", importId, format, afterLine);
+
+        return parse(body, format)
+                .filter(parsed -> parsed.line > afterLine)
+                .buffer(properties.getBatchSize())
+                .concatMap(batch -> importBatch(batch, progress))
+                .concatWith(Mono.fromSupplier(() -> progress.result(ImportResultDto.Status.COMPLETED, null)))
+                .onErrorResume(error -> {
+                    log.error("Account import aborted importId={} lastCommittedLine={}",
+                            importId, progress.lastCommittedLine, error);
+                    return Mono.just(progress.result(ImportResultDto.Status.ABORTED, error.getMessage()));
+                })
+                .doOnComplete(() -> log.info("Account import finished importId={} imported={} rejected={} lastCommittedLine={}",
+                        importId, progress.imported, progress.rejected, progress.lastCommittedLine));
+    }
+
+    private Flux<ParsedLine> parse(Flux<DataBuffer> body, Format format) {
+        Flux<Tuple2<Long, String>> lines = LINE_DECODER.decode(body, STRING_TYPE, null, Collections.emptyMap())
+                .index((index, line) -> Tuples.of(index + 1, line))
+                .filter(line -> !line.getT2().isBlank());
+
+        if (format == Format.CSV) {
+            return lines.switchOnFirst((first, all) -> {
+                if (!first.hasValue()) {
+                    return Flux.empty();
+                }
+                List<String> header = splitCsv(first.get().getT2());
+                return all.skip(1).map(line -> parseCsvLine(header, line.getT1(), line.getT2()));
+            });
+        }
+        return lines.map(line -> parseJsonLine(line.getT1(), line.getT2()));
+    }
+
+    private ParsedLine parseJsonLine(long line, String json) {
+        try {
+            return ParsedLine.of(line, objectMapper.readValue(json, AccountDto.class));
+        } catch (JsonProcessingException e) {
+            return ParsedLine.error(line, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ParsedLine parseCsvLine(List<String> header, long line, String csv) {
+        List<String> values = splitCsv(csv);
+        if (values.size() != header.size()) {
+            return ParsedLine.error(line, "Expected " + header.size() + " columns but found " + values.size());
+        }
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i);
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            // Titulares y firmantes separados por ';' dentro de la columna
+            fields.put(column, LIST_COLUMNS.contains(column) ? Arrays.asList(value.split(";")) : value);
+        }
+
+        try {
+            return ParsedLine.of(line, objectMapper.convertValue(fields, AccountDto.class));
+        } catch (IllegalArgumentException e) {
+            return ParsedLine.error(line, "Invalid value: " + e.getMessage().split("\n")[0]);
+        }
+    }
+
+    /**
+     * Separa una línea CSV admitiendo valores entre comillas dobles ("" escapa una comilla).
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+
+    private Flux<ImportResultDto> importBatch(List<ParsedLine> batch, ImportProgress progress) {
+        long lastLine = batch.get(batch.size() - 1).line;
+        List<ImportResultDto> results = new ArrayList<>(batch.size() + 1);
+        List<ParsedLine> candidates = new ArrayList<>(batch.size());
+
+        for (ParsedLine parsed : batch) {
+            String error = parsed.error != null ? parsed.error : validate(parsed.account);
+            if (error != null) {
+                results.add(rejected(parsed.line, parsed.account, error));
+            } else {
+                candidates.add(parsed);
+            }
+        }
+
+        Set<String> customerIds = candidates.stream()
+                .map(parsed -> parsed.account.getCustomerId())
+                .collect(Collectors.toCollection(HashSet::new));
+        if (customerIds.isEmpty()) {
+            return Flux.fromIterable(progress.commit(results, lastLine));
+        }
+
+        Map<String, ParsedLine> byId = candidates.stream()
+                .collect(Collectors.toMap(parsed -> accountId(progress.importId, parsed.line), parsed -> parsed));
+        Mono<Map<String, CustomerDetails>> customers =
+                customerService.getCustomerDetails(customerIds, properties.getLookupConcurrency());
+        Mono<Set<String>> existingAccounts = accountRepository.findByCustomerIdIn(customerIds)
+                .map(account -> accountKey(account.getCustomerId(), account.getType()))
+                .collect(Collectors.toCollection(HashSet::new));
+        Mono<Map<String, Account>> imported = accountRepository.findAllById(byId.keySet())
+                .collectMap(Account::getId);
+
+        return Mono.zip(customers, existingAccounts, imported)
+                .flatMap(lookups -> {
+                    List<ParsedLine> withCustomer = new ArrayList<>(candidates.size());
+                    for (ParsedLine parsed : candidates) {
+                        Account previous = lookups.getT3().get(accountId(progress.importId, parsed.line));
+                        if (previous != null) {
+                            results.add(alreadyImported(parsed.line, previous));
+                            continue;
+                        }
+                        CustomerDetails customer = lookups.getT1().get(parsed.account.getCustomerId());
+                        if (customer == null) {
+                            results.add(rejected(parsed.line, parsed.account,
+                                    "Customer not found with id: " + parsed.account.getCustomerId()));
+                        } else {
+                            withCustomer.add(ParsedLine.of(parsed.line, parsed.account.toBuilder()
+                                    .customerType(customer.getType())
+                                    .customerProfile(customer.getProfile())
+                                    .build()));
+                        }
+                    }
+
+                    Set<String> cardCustomerIds = withCustomer.stream()
+                            .filter(parsed -> AccountRules.requiresCreditCard(parsed.account))
+                            .map(parsed -> parsed.account.getCustomerId())
+                            .collect(Collectors.toSet());
+                    Mono<Map<String, Boolean>> creditCards = cardCustomerIds.isEmpty()
+                            ? Mono.just(Collections.emptyMap())
+                            : creditCardService.hasCreditCards(cardCustomerIds, properties.getLookupConcurrency());
+
+                    return creditCards.map(cards -> applyRules(withCustomer, lookups.getT2(), cards, results));
+                })
+                .flatMap(pending -> assignAccountNumbers(pending, progress.importId))
+                .flatMapMany(pending -> insert(pending))
+                .collectList()
+                .flatMapIterable(created -> {
+                    results.addAll(created);
+                    return progress.commit(results, lastLine);
+                });
+    }
+
+    private String validate(AccountDto accountDto) {
+        Set<ConstraintViolation<AccountDto>> violations = validator.validate(accountDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Aplica las reglas de apertura en orden de línea. Las cuentas aceptadas se añaden al estado
+     * del lote para que, por ejemplo, un segundo SAVINGS del mismo cliente personal se rechace.
+     */
+    private List<PendingAccount> applyRules(List<ParsedLine> lines, Set<String> existingAccounts,
+                                            Map<String, Boolean> creditCards, List<ImportResultDto> results) {
+        List<PendingAccount> pending = new ArrayList<>(lines.size());
+        for (ParsedLine parsed : lines) {
+            AccountDto accountDto = parsed.account;
+            String key = accountKey(accountDto.getCustomerId(), accountDto.getType());
+
+            RuntimeException violation = AccountRules.checkCustomerRules(accountDto, existingAccounts.contains(key) ? 1 : 0);
+            if (violation == null) {
+                violation = AccountRules.checkCreditCard(accountDto,
+                        creditCards.getOrDefault(accountDto.getCustomerId(), false));
+            }
+            Account account = null;
+            if (violation == null) {
+                try {
+                    account = accountService.newAccount(accountDto);
+                    violation = AccountRules.checkOpeningAmount(account);
+                } catch (IllegalArgumentException e) {
+                    // Importe que no cabe en céntimos: se rechaza la línea, no el lote
+                    violation = e;
+                }
+            }
+
+            if (violation != null) {
+                results.add(rejected(parsed.line, accountDto, violation.getMessage()));
+            } else {
+                existingAccounts.add(key);
+                pending.add(new PendingAccount(parsed.line, account));
+            }
+        }
+        return pending;
+    }
+
+    private Mono<List<PendingAccount>> assignAccountNumbers(List<PendingAccount> pending, String importId) {
+        return Flux.fromIterable(pending)
+                .concatMap(entry -> accountNumberAllocator.nextAccountNumber()
+                        .doOnNext(accountNumber -> {
+                            entry.account.setAccountNumber(accountNumber);
+                            entry.account.setId(accountId(importId, entry.line));
+                        }))
+                .then(Mono.just(pending));
+    }
+
+    /**
+     * _id de la cuenta de una línea: los 12 primeros bytes del SHA-256 de importId y línea, con el
+     * formato de un ObjectId para que se guarde igual que los ids generados por MongoDB.
+     */
+    static String accountId(String importId, long line) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((importId + '\n' + line).getBytes(StandardCharsets.UTF_8));
+            return new ObjectId(Arrays.copyOf(digest, 12)).toHexString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Inserta las cuentas con un insertMany (uno por partición con el perfil "partitioned"). Si
+     * alguna choca con un índice único, se consulta cuáles quedaron guardadas (ninguna existía
+     * antes del lote) y el resto se inserta una a una para informar cada fallo. Si una choca por
+     * su _id, otra ejecución con el mismo importId ya la insertó y se informa como tal.
+     */
+    private Flux<ImportResultDto> insert(List<PendingAccount> pending) {
+        if (pending.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Account> accounts = pending.stream().map(entry -> entry.account).collect(Collectors.toList());
+
+        return accountRepository.insert(accounts)
+                .thenMany(Flux.fromIterable(pending).map(this::created))
+                .onErrorResume(DuplicateKeyException.class, error -> accountRepository.findAllById(
+                                pending.stream().map(entry -> entry.account.getId()).collect(Collectors.toList()))
+                        .map(Account::getId)
+                        .collect(Collectors.toSet())
+                        .flatMapMany(stored -> Flux.fromIterable(pending)
+                                .concatMap(entry -> stored.contains(entry.account.getId())
+                                        ? Mono.just(created(entry))
+                                        : insertOne(entry))));
+    }
+
+    private Mono<ImportResultDto> insertOne(PendingAccount entry) {
+        return accountRepository.insert(entry.account)
+                .map(account -> created(entry))
+                .onErrorResume(DuplicateKeyException.class, error -> accountRepository.findById(entry.account.getId())
+                        .map(previous -> alreadyImported(entry.line, previous))
+                        .defaultIfEmpty(ImportResultDto.builder()
+                                .status(ImportResultDto.Status.REJECTED)
+                                .line(entry.line)
+                                .customerId(entry.account.getCustomerId())
+                                .error("Duplicate key: account already exists")
+                                .build()));
+    }
+
+    private ImportResultDto created(PendingAccount entry) {
+        return ImportResultDto.builder()
+                .status(ImportResultDto.Status.CREATED)
+                .line(entry.line)
+                .customerId(entry.account.getCustomerId())
+                .accountId(entry.account.getId())
+                .accountNumber(entry.account.getAccountNumber())
+                .build();
+    }
+
+    private static ImportResultDto alreadyImported(long line, Account account) {
+        return ImportResultDto.builder()
+                .status(ImportResultDto.Status.ALREADY_IMPORTED)
+                .line(line)
+                .customerId(account.getCustomerId())
+                .accountId(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .build();
+    }
+
+    private static ImportResultDto rejected(long line, AccountDto accountDto, String error) {
+        return ImportResultDto.builder()
+                .status(ImportResultDto.Status.REJECTED)
+                .line(line)
+                .customerId(accountDto != null ? accountDto.getCustomerId() : null)
+                .error(error)
+                .build();
+    }
+
+    private static String accountKey(String customerId, AccountType type) {
+        return customerId + '|' + type;
+    }
+
+    /**
+     * Línea leída: la cuenta o el error de formato.
+     */
+    private static final class ParsedLine {
+        private final long line;
+        private final AccountDto account;
+        private final String error;
+
+        private ParsedLine(long line, AccountDto account, String error) {
+            this.line = line;
+            this.account = account;
+            this.error = error;
+        }
+
+        static ParsedLine of(long line, AccountDto account) {
+            return new ParsedLine(line, account, null);
+        }
+
+        static ParsedLine error(long line, String error) {
+            return new ParsedLine(line, null, error);
+        }
+    }
+
+    /**
+     * Cuenta validada pendiente de insertar.
+     */
+    private static final class PendingAccount {
+        private final long line;
+        private final Account account;
+
+        private PendingAccount(long line, Account account) {
+            this.line = line;
+            this.account = account;
+        }
+    }
+
+    /**
+     * Contadores de la importación. Los lotes se procesan de uno en uno.
+     */
+    private static final class ImportProgress {
+        private final String importId;
+        private long lastCommittedLine;
+        private long imported;
+        private long rejected;
+
+        private ImportProgress(String importId, long afterLine) {
+            this.importId = importId;
+            this.lastCommittedLine = afterLine;
+        }
+
+        /**
+         * Ordena los resultados del lote por línea, actualiza contadores y añade el checkpoint.
+         */
+        private List<ImportResultDto> commit(List<ImportResultDto> results, long lastLine) {
+            results.sort(Comparator.comparing(ImportResultDto::getLine));
+            for (ImportResultDto result : results) {
+                if (result.getStatus() == ImportResultDto.Status.CREATED
+                        || result.getStatus() == ImportResultDto.Status.ALREADY_IMPORTED) {
+                    imported++;
+                } else {
+                    rejected++;
+                }
+            }
+            lastCommittedLine = lastLine;
+            results.add(result(ImportResultDto.Status.CHECKPOINT, null));
+            return results;
+        }
+
+        private ImportResultDto result(ImportResultDto.Status status, String error) {
+            return ImportResultDto.builder()
+                    .status(status)
+                    .importId(importId)
+                    .error(error)
+                    .lastCommittedLine(lastCommittedLine)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.exception.InvalidAccountTypeException;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+
+/**
+ * Reglas de negocio para la apertura de cuentas, sin accesos a repositorios ni a otros servicios:
+ * los datos externos (cuentas existentes, tarjeta de crédito) se reciben ya resueltos, de modo que
+ * las mismas reglas sirven para una cuenta individual y para un lote de importación.
+ * Cada método devuelve la excepción a emitir, o null si la regla se cumple.
+ */
+final class AccountRules {
+
+    private AccountRules() {
+    }
+
+    /**
+     * Valida las reglas según tipo de cliente y perfil, salvo la de tarjeta de crédito.
+     * @param accountDto DTO con el tipo y perfil del cliente ya informados
+     * @param sameTypeAccounts cuentas del cliente del mismo tipo que ya existen
+     * @return excepción a emitir, o null si es válido
+     */
+    static RuntimeException checkCustomerRules(AccountDto accountDto, long sameTypeAccounts) {
+        // Validaciones comunes
+        if (accountDto.getBalance() == null) {
+            return new IllegalArgumentException("Initial balance is required");
+        }
+
+        if (accountDto.getCustomerType() == CustomerType.PERSONAL) {
+            // Cliente personal puede tener máximo una cuenta de cada tipo
+            if (sameTypeAccounts > 0) {
+                return new IllegalArgumentException("Personal customers can only have one account of each type");
+            }
+            return null;
+        }
+
+        if (accountDto.getCustomerType() == CustomerType.BUSINESS) {
+            // Cliente empresarial no puede tener cuentas de ahorro o plazo fijo
+            if (accountDto.getType() == AccountType.SAVINGS || accountDto.getType() == AccountType.FIXED_TERM) {
+                return new InvalidAccountTypeException("Business customers cannot have savings or fixed term accounts");
+            }
+            // Para cuentas empresariales, debe tener al menos un titular
+            if (accountDto.getHolders() == null || accountDto.getHolders().isEmpty()) {
+                return new IllegalArgumentException("Business accounts must have at least one holder");
+            }
+            return null;
+        }
+
+        return new IllegalArgumentException("Invalid customer type");
+    }
+
+    /**
+     * Indica si la apertura exige que el cliente tenga tarjeta de crédito
+     * (VIP con cuenta de ahorro, PYME con cuenta corriente).
+     */
+    static boolean requiresCreditCard(AccountDto accountDto) {
+        return (accountDto.getCustomerType() == CustomerType.PERSONAL
+                && accountDto.getCustomerProfile() == CustomerProfile.VIP
+                && accountDto.getType() == AccountType.SAVINGS)
+                || (accountDto.getCustomerType() == CustomerType.BUSINESS
+                && accountDto.getCustomerProfile() == CustomerProfile.PYME
+                && accountDto.getType() == AccountType.CHECKING);
+    }
+
+    /**
+     * Valida la regla de tarjeta de crédito para las aperturas que la exigen.
+     * @param accountDto DTO de la cuenta
+     * @param hasCreditCard si el cliente tiene tarjeta de crédito
+     * @return excepción a emitir, o null si es válido
+     */
+    static RuntimeException checkCreditCard(AccountDto accountDto, boolean hasCreditCard) {
+        if (!requiresCreditCard(accountDto) || hasCreditCard) {
+            return null;
+        }
+        if (accountDto.getCustomerProfile() == CustomerProfile.VIP) {
+            return new IllegalArgumentException("VIP customers must have a credit card to open a savings account");
+        }
+        return new IllegalArgumentException("PYME customers must have a credit card to open a checking account");
+    }
+
+    /**
+     * Valida el saldo inicial frente al monto mínimo de apertura.
+     * @param account cuenta con el monto mínimo ya informado
+     * @return excepción a emitir, o null si es válido
+     */
+    static RuntimeException checkOpeningAmount(Account account) {
+        if (account.getBalance().isLessThan(account.getMinimumOpeningAmount())) {
+            return new IllegalArgumentException("Initial balance must be greater than or equal to minimum opening amount");
+        }
+        return null;
+    }
+}
@@ -1,15 +1,27 @@
 package com.nttdata.bankapp.msaccountservice.service.impl;
 import com.nttdata.bankapp.msaccountservice.client.CreditCardService;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEvent;
+import com.nttdata.bankapp.msaccountservice.commission.CommissionEventStore;
 import com.nttdata.bankapp.msaccountservice.client.CustomerService;
 import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
 import com.nttdata.bankapp.msaccountservice.dto.BalanceDto;
+import com.nttdata.bankapp.msaccountservice.dto.BatchGetResultDto;
+import com.nttdata.bankapp.msaccountservice.dto.PortfolioDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEvent;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
 import com.nttdata.bankapp.msaccountservice.exception.AccountNotFoundException;
 import com.nttdata.bankapp.msaccountservice.exception.CustomerNotFoundException;
-import com.nttdata.bankapp.msaccountservice.exception.InvalidAccountTypeException;
 import com.nttdata.bankapp.msaccountservice.model.Account;
 import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
 import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionReason;
 import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.sequence.AccountNumberAllocator;
 import com.nttdata.bankapp.msaccountservice.service.AccountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,8 +32,18 @@ import reactor.core.publisher.Mono;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.TemporalAdjusters;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Implementación de los servicios para operaciones con cuentas.
@@ -34,32 +56,45 @@ public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final CustomerService customerService;
     private final CreditCardService creditCardService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final BatchGetProperties batchGetProperties;
+    private final BalanceEventPublisher balanceEventPublisher;
+    private final CommissionEventStore commissionEventStore;
+    private final RejectionMetrics rejectionMetrics;
+
+    private static final Money DEFAULT_TRANSACTION_FEE = Money.parse("2.00");
+    private static final Money VIP_MINIMUM_DAILY_BALANCE = Money.parse("500.00");
 
     @Override
     public Flux<AccountDto> findAll() {
-        log.info("Finding all accounts");
+        log.debug("Finding all accounts");
         return accountRepository.findAll()
                 .map(this::mapToDto);
     }
 
     @Override
     public Mono<AccountDto> findById(String id) {
-        log.info("Finding account by id: {}", id);
+        log.debug("Finding account accountId={}", id);
         return accountRepository.findById(id)
                 .map(this::mapToDto)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)));
     }
 
+    @Override
+    public Mono<BatchGetResultDto<AccountDto>> findByIds(List<String> ids) {
+        return batchGet(ids, accountRepository::findAllById, this::mapToDto);
+    }
+
     @Override
     public Flux<AccountDto> findByCustomerId(String customerId) {
-        log.info("Finding accounts by customer id: {}", customerId);
+        log.debug("Finding accounts customerId={}", customerId);
         return accountRepository.findByCustomerId(customerId)
                 .map(this::mapToDto);
     }
 
     @Override
     public Mono<AccountDto> findByAccountNumber(String accountNumber) {
-        log.info("Finding account by account number: {}", accountNumber);
+        log.debug("Finding account accountNumber={}", accountNumber);
         return accountRepository.findByAccountNumber(accountNumber)
                 .map(this::mapToDto)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with account number: " + accountNumber)));
@@ -67,7 +102,7 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Mono<AccountDto> save(AccountDto accountDto) {
-        log.info("Saving new account: {}", accountDto);
+        log.info("Saving new account customerId={} type={}", accountDto.getCustomerId(), accountDto.getType());
 
         // Verificar si el cliente existe y obtener su información
         return customerService.getCustomerDetails(accountDto.getCustomerId())
@@ -80,40 +115,54 @@ public class AccountServiceImpl implements AccountService {
 
                     return validateAccountRules(updatedAccountDto)
                             .flatMap(valid -> {
-                                Account account = mapToEntity(updatedAccountDto);
-
-                                // Generar número de cuenta
-                                account.setAccountNumber(generateAccountNumber());
-
-                                // Si no se proporciona monto mínimo de apertura, usar 0
-                                if (account.getMinimumOpeningAmount() == null) {
-                                    account.setMinimumOpeningAmount(BigDecimal.ZERO);
-                                }
+                                Account account = newAccount(updatedAccountDto);
 
                                 // Validar monto inicial vs monto mínimo de apertura
-                                if (account.getBalance().compareTo(account.getMinimumOpeningAmount()) < 0) {
-                                    return Mono.error(new IllegalArgumentException(
-                                            "Initial balance must be greater than or equal to minimum opening amount"));
+                                RuntimeException violation = AccountRules.checkOpeningAmount(account);
+                                if (violation != null) {
+                                    return Mono.error(violation);
                                 }
 
-                                // Establecer valores por defecto según tipo de cuenta y perfil
-                                setDefaultValuesBasedOnTypeAndProfile(account);
-
-                                account.setInitialBalance(account.getBalance());
-                                account.setCurrentMonthlyTransactions(0);
-                                account.setLastTransactionCountResetDate(LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()));
-                                account.setCurrentMonthlyMovements(0);
-                                account.setCreatedAt(LocalDateTime.now());
-                                account.setUpdatedAt(LocalDateTime.now());
-
-                                return accountRepository.save(account).map(this::mapToDto);
+                                // Generar número de cuenta
+                                return accountNumberAllocator.nextAccountNumber()
+                                        .flatMap(accountNumber -> {
+                                            account.setAccountNumber(accountNumber);
+                                            return accountRepository.save(account);
+                                        })
+                                        .map(this::mapToDto);
                             });
                 });
     }
 
+    /**
+     * Construye la entidad de una cuenta nueva con sus valores iniciales y por defecto.
+     * No asigna número de cuenta.
+     * @param accountDto DTO con el tipo y perfil del cliente ya informados
+     * @return Account sin persistir
+     */
+    Account newAccount(AccountDto accountDto) {
+        Account account = mapToEntity(accountDto);
+
+        // Si no se proporciona monto mínimo de apertura, usar 0
+        if (account.getMinimumOpeningAmount() == null) {
+            account.setMinimumOpeningAmount(Money.ZERO);
+        }
+
+        // Establecer valores por defecto según tipo de cuenta y perfil
+        setDefaultValuesBasedOnTypeAndProfile(account);
+
+        account.setInitialBalance(account.getBalance());
+        account.setCurrentMonthlyTransactions(0);
+        account.setLastTransactionCountResetDate(LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()));
+        account.setCurrentMonthlyMovements(0);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setUpdatedAt(LocalDateTime.now());
+        return account;
+    }
+
     @Override
     public Mono<AccountDto> update(String id, AccountDto accountDto) {
-        log.info("Updating account id: {}", id);
+        log.info("Updating account accountId={}", id);
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)))
                 .flatMap(existingAccount -> {
@@ -136,11 +185,11 @@ public class AccountServiceImpl implements AccountService {
 
                     // Actualizar otros campos según sea necesario
                     if (accountDto.getMinimumOpeningAmount() != null) {
-                        existingAccount.setMinimumOpeningAmount(accountDto.getMinimumOpeningAmount());
+                        existingAccount.setMinimumOpeningAmount(amount("minimumOpeningAmount", accountDto.getMinimumOpeningAmount()));
                     }
 
                     if (accountDto.getMinimumDailyBalance() != null) {
-                        existingAccount.setMinimumDailyBalance(accountDto.getMinimumDailyBalance());
+                        existingAccount.setMinimumDailyBalance(amount("minimumDailyBalance", accountDto.getMinimumDailyBalance()));
                     }
 
                     if (accountDto.getMaxFreeTransactions() != null) {
@@ -148,7 +197,7 @@ public class AccountServiceImpl implements AccountService {
                     }
 
                     if (accountDto.getTransactionFee() != null) {
-                        existingAccount.setTransactionFee(accountDto.getTransactionFee());
+                        existingAccount.setTransactionFee(amount("transactionFee", accountDto.getTransactionFee()));
                     }
 
                     if (accountDto.getMaxMonthlyMovements() != null) {
@@ -175,55 +224,170 @@ public class AccountServiceImpl implements AccountService {
 
                     return accountRepository.save(existingAccount);
                 })
+                .doOnNext(account -> publish(account, BalanceEvent.Type.UPDATED, null))
                 .map(this::mapToDto);
     }
 
     @Override
     public Mono<Void> delete(String id) {
-        log.info("Deleting account id: {}", id);
+        log.info("Deleting account accountId={}", id);
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)))
-                .flatMap(account -> accountRepository.deleteById(id));
+                .flatMap(account -> accountRepository.deleteById(id)
+                        .doOnSuccess(deleted -> publish(account, BalanceEvent.Type.DELETED, null)));
     }
 
     @Override
     public Mono<BalanceDto> getBalance(String id) {
-        log.info("Getting balance for account id: {}", id);
+        log.debug("Getting balance accountId={}", id);
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)))
-                .map(account -> BalanceDto.builder()
-                        .accountId(account.getId())
-                        .accountNumber(account.getAccountNumber())
-                        .accountType(account.getType().toString())
-                        .balance(account.getBalance())
-                        .remainingMonthlyMovements(account.getType() == AccountType.SAVINGS ?
-                                account.getMaxMonthlyMovements() - account.getCurrentMonthlyMovements() : null)
-                        .remainingFreeTransactions(account.getMaxFreeTransactions() - account.getCurrentMonthlyTransactions())
-                        .transactionFee(account.getTransactionFee())
-                        .build());
+                .map(this::mapToBalanceDto);
+    }
+
+    @Override
+    public Mono<BatchGetResultDto<BalanceDto>> getBalances(List<String> ids) {
+        return batchGet(ids, accountRepository::findBalancesByIdIn, this::mapToBalanceDto);
+    }
+
+    @Override
+    public Mono<PortfolioDto> getPortfolio(String customerId) {
+        log.debug("Getting portfolio customerId={}", customerId);
+        LocalDate today = LocalDate.now();
+        return accountRepository.summarizeByCustomerId(customerId, today.with(TemporalAdjusters.firstDayOfMonth()))
+                .collectList()
+                .map(summaries -> toPortfolio(customerId, summaries, today));
+    }
+
+    /**
+     * Combina los totales por tipo de la agregación (como mucho uno por AccountType).
+     */
+    private static PortfolioDto toPortfolio(String customerId, List<AccountTypeSummary> summaries, LocalDate today) {
+        Map<AccountType, PortfolioDto.TypeTotals> byType = new EnumMap<>(AccountType.class);
+        List<PortfolioDto.UpcomingWithdrawal> withdrawals = new ArrayList<>();
+        int accounts = 0;
+        Money balance = Money.ZERO;
+        long freeTransactions = 0;
+        long movements = 0;
+        for (AccountTypeSummary summary : summaries) {
+            Money typeBalance = summary.getBalance() != null ? summary.getBalance() : Money.ZERO;
+            byType.put(summary.getType(), PortfolioDto.TypeTotals.builder()
+                    .accounts(summary.getAccounts())
+                    .balance(typeBalance.toBigDecimal())
+                    .remainingFreeTransactions(summary.getRemainingFreeTransactions())
+                    .remainingMonthlyMovements(summary.getRemainingMonthlyMovements())
+                    .build());
+            accounts += summary.getAccounts();
+            balance = balance.plus(typeBalance);
+            freeTransactions += summary.getRemainingFreeTransactions();
+            movements += summary.getRemainingMonthlyMovements();
+            if (summary.getWithdrawals() != null) {
+                for (AccountTypeSummary.FixedTermWithdrawal withdrawal : summary.getWithdrawals()) {
+                    if (withdrawal.getWithdrawalDay() != null) {
+                        withdrawals.add(PortfolioDto.UpcomingWithdrawal.builder()
+                                .accountId(withdrawal.getAccountId())
+                                .accountNumber(withdrawal.getAccountNumber())
+                                .date(nextWithdrawalDate(withdrawal.getWithdrawalDay().getDayOfMonth(), today))
+                                .build());
+                    }
+                }
+            }
+        }
+        withdrawals.sort(Comparator.comparing(PortfolioDto.UpcomingWithdrawal::getDate));
+
+        return PortfolioDto.builder()
+                .customerId(customerId)
+                .totalAccounts(accounts)
+                .totalBalance(balance.toBigDecimal())
+                .remainingFreeTransactions(freeTransactions)
+                .remainingMonthlyMovements(movements)
+                .byType(byType)
+                .upcomingWithdrawals(withdrawals)
+                .build();
+    }
+
+    /**
+     * Próxima fecha, desde hoy incluido, en la que se cumple {@link #isWithdrawalDay}: mismo día
+     * del mes, saltando los meses que no lo tienen.
+     */
+    static LocalDate nextWithdrawalDate(int dayOfMonth, LocalDate today) {
+        YearMonth month = YearMonth.from(today);
+        while (true) {
+            if (dayOfMonth <= month.lengthOfMonth() && !month.atDay(dayOfMonth).isBefore(today)) {
+                return month.atDay(dayOfMonth);
+            }
+            month = month.plusMonths(1);
+        }
+    }
+
+    /**
+     * Resuelve varios IDs con una sola consulta y devuelve un resultado por ID en el orden
+     * de la petición, marcando los que no existen.
+     * @param ids IDs solicitados (se ignoran duplicados y vacíos)
+     * @param query consulta $in de las cuentas
+     * @param mapper conversión de cada cuenta encontrada
+     * @return Mono con el resultado por ID
+     */
+    private <T> Mono<BatchGetResultDto<T>> batchGet(List<String> ids,
+                                                    Function<Collection<String>, Flux<Account>> query,
+                                                    Function<Account, T> mapper) {
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream()
+                    .filter(id -> id != null && !id.isBlank())
+                    .map(String::trim)
+                    .forEach(uniqueIds::add);
+        }
+        if (uniqueIds.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one account id is required"));
+        }
+        if (uniqueIds.size() > batchGetProperties.getMaxIds()) {
+            return Mono.error(new IllegalArgumentException("Too many account ids: " + uniqueIds.size()
+                    + " (maximum " + batchGetProperties.getMaxIds() + ")"));
+        }
+
+        log.debug("Batch get accounts count={}", uniqueIds.size());
+        return query.apply(uniqueIds)
+                .collectMap(Account::getId, mapper)
+                .map(found -> {
+                    Map<String, BatchGetResultDto.Item<T>> results = new LinkedHashMap<>();
+                    uniqueIds.forEach(id -> results.put(id, BatchGetResultDto.Item.of(found.get(id))));
+                    return BatchGetResultDto.<T>builder()
+                            .results(results)
+                            .requested(uniqueIds.size())
+                            .found(found.size())
+                            .build();
+                });
     }
 
     @Override
     public Mono<AccountDto> updateBalance(String id, BigDecimal amount) {
-        log.info("Updating balance for account id: {} with amount: {}", id, amount);
+        log.info("Updating balance accountId={} amount={}", id, amount);
+        // La conversión va dentro del Mono para que un importe inválido sea un error de la señal (400)
+        return Mono.fromCallable(() -> Money.ofAmount(amount))
+                .flatMap(delta -> updateBalance(id, delta))
+                .map(this::mapToDto);
+    }
+
+    private Mono<Account> updateBalance(String id, Money delta) {
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)))
                 .flatMap(account -> {
                     // Verificar si es un nuevo mes para resetear contadores
                     resetMonthlyCountersIfNeeded(account);
 
-                    BigDecimal newBalance = account.getBalance().add(amount);
+                    Money newBalance = account.getBalance().plus(delta);
 
                     // Validar que el balance no sea negativo
-                    if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-                        return Mono.error(new IllegalArgumentException("Insufficient funds"));
+                    if (newBalance.isNegative()) {
+                        return Mono.error(rejectionMetrics.reject(RejectionReason.INSUFFICIENT_FUNDS));
                     }
 
                     // Actualizar balance
                     account.setBalance(newBalance);
 
                     // Para depósitos y retiros, incrementar contadores
-                    if (amount.compareTo(BigDecimal.ZERO) != 0) {
+                    if (delta.signum() != 0) {
                         // Incrementar contador de transacciones mensuales
                         account.setCurrentMonthlyTransactions(account.getCurrentMonthlyTransactions() + 1);
 
@@ -231,21 +395,21 @@ public class AccountServiceImpl implements AccountService {
                         if (account.getType() == AccountType.SAVINGS) {
                             // Verificar si se alcanzó el límite de movimientos
                             if (account.getCurrentMonthlyMovements() >= account.getMaxMonthlyMovements()) {
-                                return Mono.error(new IllegalArgumentException("Monthly movements limit reached"));
+                                return Mono.error(rejectionMetrics.reject(RejectionReason.MONTHLY_MOVEMENTS_LIMIT));
                             }
                             account.setCurrentMonthlyMovements(account.getCurrentMonthlyMovements() + 1);
                         }
 
                         // Verificar si es cuenta a plazo fijo
                         if (account.getType() == AccountType.FIXED_TERM && !isWithdrawalDay(account)) {
-                            return Mono.error(new IllegalArgumentException("Fixed term accounts can only transact on their withdrawal day"));
+                            return Mono.error(rejectionMetrics.reject(RejectionReason.WITHDRAWAL_DAY_ONLY));
                         }
                     }
 
                     account.setUpdatedAt(LocalDateTime.now());
                     return accountRepository.save(account);
                 })
-                .map(this::mapToDto);
+                .doOnNext(account -> publish(account, BalanceEvent.Type.BALANCE_CHANGED, delta));
     }
 
     @Override
@@ -262,12 +426,20 @@ public class AccountServiceImpl implements AccountService {
                     }
 
                     // Si ha superado, cobrar comisión
-                    return account.getTransactionFee();
+                    return Money.toBigDecimal(account.getTransactionFee());
                 });
     }
 
     @Override
     public Mono<AccountDto> incrementTransactionCount(String id, BigDecimal fee) {
+        // Como en updateBalance, una comisión inválida es un error de la señal (400)
+        return Mono.fromCallable(() -> fee == null ? Money.ZERO : Money.ofAmount(fee))
+                .flatMap(transactionFee -> incrementTransactionCount(id, transactionFee))
+                .map(this::mapToDto);
+    }
+
+    private Mono<Account> incrementTransactionCount(String id, Money transactionFee) {
+        boolean charged = transactionFee.isPositive();
         return accountRepository.findById(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException("Account not found with id: " + id)))
                 .flatMap(account -> {
@@ -278,12 +450,12 @@ public class AccountServiceImpl implements AccountService {
                     account.setCurrentMonthlyTransactions(account.getCurrentMonthlyTransactions() + 1);
 
                     // Si hay comisión, deducirla del saldo
-                    if (fee != null && fee.compareTo(BigDecimal.ZERO) > 0) {
-                        BigDecimal newBalance = account.getBalance().subtract(fee);
+                    if (charged) {
+                        Money newBalance = account.getBalance().minus(transactionFee);
 
                         // Validar que el balance no sea negativo
-                        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-                            return Mono.error(new IllegalArgumentException("Insufficient funds for transaction fee"));
+                        if (newBalance.isNegative()) {
+                            return Mono.error(rejectionMetrics.reject(RejectionReason.INSUFFICIENT_FUNDS_FOR_FEE));
                         }
 
                         account.setBalance(newBalance);
@@ -292,7 +464,16 @@ public class AccountServiceImpl implements AccountService {
                     account.setUpdatedAt(LocalDateTime.now());
                     return accountRepository.save(account);
                 })
-                .map(this::mapToDto);
+                .flatMap(account -> charged
+                        ? recordCommission(account, transactionFee).thenReturn(account)
+                        : Mono.just(account))
+                .doOnNext(account -> {
+                    if (charged) {
+                        publish(account, BalanceEvent.Type.BALANCE_CHANGED, Money.ZERO.minus(transactionFee));
+                    } else {
+                        publish(account, BalanceEvent.Type.UPDATED, null);
+                    }
+                });
     }
 
     @Override
@@ -302,118 +483,86 @@ public class AccountServiceImpl implements AccountService {
                 .flatMap(account -> {
                     // Verificar si la cuenta pertenece al cliente
                     if (!account.getCustomerId().equals(customerId)) {
-                        return Mono.error(new IllegalArgumentException("Account does not belong to this customer"));
+                        return Mono.error(rejectionMetrics.reject(RejectionReason.ACCOUNT_NOT_OWNED));
                     }
 
                     // Verificar si hay fondos suficientes
-                    if (account.getBalance().compareTo(amount) < 0) {
-                        return Mono.error(new IllegalArgumentException("Insufficient funds"));
+                    if (account.getBalance().isLessThan(Money.ofAmount(amount))) {
+                        return Mono.error(rejectionMetrics.reject(RejectionReason.INSUFFICIENT_FUNDS));
                     }
 
                     // Verificar si es cuenta a plazo fijo (solo puede operar en día específico)
                     if (account.getType() == AccountType.FIXED_TERM && !isWithdrawalDay(account)) {
-                        return Mono.error(new IllegalArgumentException("Fixed term accounts can only transact on their withdrawal day"));
+                        return Mono.error(rejectionMetrics.reject(RejectionReason.WITHDRAWAL_DAY_ONLY));
                     }
 
                     return Mono.just(true);
                 });
     }
 
-    /**
-     * Valida las reglas de negocio para la creación de cuentas.
-     * @param accountDto DTO con los datos de la cuenta
-     * @return Mono<Boolean> true si es válido, error en caso contrario
-     */
-    private Mono<Boolean> validateAccountRules(AccountDto accountDto) {
-        // Validaciones comunes
-        if (accountDto.getBalance() == null) {
-            return Mono.error(new IllegalArgumentException("Initial balance is required"));
-        }
-
-        // Validar reglas según tipo de cliente y perfil
-        switch (accountDto.getCustomerType()) {
-            case PERSONAL:
-                return validatePersonalAccountRules(accountDto);
-            case BUSINESS:
-                return validateBusinessAccountRules(accountDto);
-            default:
-                return Mono.error(new IllegalArgumentException("Invalid customer type"));
-        }
+    private void publish(Account account, BalanceEvent.Type type, Money amount) {
+        balanceEventPublisher.publish(account.getId(), account.getCustomerId(), type, account.getBalance(), amount);
     }
 
     /**
-     * Valida reglas para cuentas de clientes personales.
+     * Registra la comisión cobrada. El cobro ya está guardado, así que un fallo al registrarla
+     * se deja en el log en lugar de fallar la operación.
      */
-    private Mono<Boolean> validatePersonalAccountRules(AccountDto accountDto) {
-        // Cliente personal puede tener máximo una cuenta de cada tipo
-        return accountRepository.findByCustomerIdAndType(accountDto.getCustomerId(), accountDto.getType())
-                .count()
-                .flatMap(count -> {
-                    if (count > 0) {
-                        return Mono.error(new IllegalArgumentException(
-                                "Personal customers can only have one account of each type"));
-                    }
-
-                    // Para clientes VIP con cuenta de ahorro, verificar que tengan tarjeta de crédito
-                    if (accountDto.getCustomerProfile() == CustomerProfile.VIP
-                            && accountDto.getType() == AccountType.SAVINGS) {
-                        return creditCardService.hasCreditCard(accountDto.getCustomerId())
-                                .flatMap(hasCard -> {
-                                    if (!hasCard) {
-                                        return Mono.error(new IllegalArgumentException(
-                                                "VIP customers must have a credit card to open a savings account"));
-                                    }
-                                    return Mono.just(true);
-                                });
-                    }
-
-                    return Mono.just(true);
+    private Mono<Void> recordCommission(Account account, Money fee) {
+        return commissionEventStore.record(CommissionEvent.builder()
+                        .customerId(account.getCustomerId())
+                        .accountId(account.getId())
+                        .amount(fee)
+                        .source(CommissionEvent.Source.TRANSACTION_FEE)
+                        .timestamp(LocalDateTime.now())
+                        .build())
+                .onErrorResume(e -> {
+                    log.error("Could not record commission accountId={} amount={}", account.getId(), fee, e);
+                    return Mono.empty();
                 });
     }
 
     /**
-     * Valida reglas para cuentas de clientes empresariales.
+     * Valida las reglas de negocio para la creación de cuentas.
+     * @param accountDto DTO con los datos de la cuenta
+     * @return Mono<Boolean> true si es válido, error en caso contrario
      */
-    private Mono<Boolean> validateBusinessAccountRules(AccountDto accountDto) {
-        // Cliente empresarial no puede tener cuentas de ahorro o plazo fijo
-        if (accountDto.getType() == AccountType.SAVINGS || accountDto.getType() == AccountType.FIXED_TERM) {
-            return Mono.error(new InvalidAccountTypeException(
-                    "Business customers cannot have savings or fixed term accounts"));
-        }
-
-        // Para cuentas empresariales, debe tener al menos un titular
-        if (accountDto.getHolders() == null || accountDto.getHolders().isEmpty()) {
-            return Mono.error(new IllegalArgumentException("Business accounts must have at least one holder"));
-        }
-
-        // Para clientes PYME con cuenta corriente, verificar que tengan tarjeta de crédito
-        if (accountDto.getCustomerProfile() == CustomerProfile.PYME
-                && accountDto.getType() == AccountType.CHECKING) {
+    private Mono<Boolean> validateAccountRules(AccountDto accountDto) {
+        // Cliente personal puede tener máximo una cuenta de cada tipo
+        Mono<Long> sameTypeAccounts = accountDto.getCustomerType() == CustomerType.PERSONAL
+                ? accountRepository.findByCustomerIdAndType(accountDto.getCustomerId(), accountDto.getType()).count()
+                : Mono.just(0L);
+
+        return sameTypeAccounts.flatMap(count -> {
+            RuntimeException violation = AccountRules.checkCustomerRules(accountDto, count);
+            if (violation != null) {
+                return Mono.error(violation);
+            }
+
+            // VIP con cuenta de ahorro y PYME con cuenta corriente deben tener tarjeta de crédito
+            if (!AccountRules.requiresCreditCard(accountDto)) {
+                return Mono.just(true);
+            }
             return creditCardService.hasCreditCard(accountDto.getCustomerId())
                     .flatMap(hasCard -> {
-                        if (!hasCard) {
-                            return Mono.error(new IllegalArgumentException(
-                                    "PYME customers must have a credit card to open a checking account"));
-                        }
-                        return Mono.just(true);
+                        RuntimeException cardViolation = AccountRules.checkCreditCard(accountDto, hasCard);
+                        return cardViolation != null ? Mono.error(cardViolation) : Mono.just(true);
                     });
-        }
-
-        return Mono.just(true);
+        });
     }
 
     /**
      * Establece valores por defecto según el tipo de cuenta y perfil del cliente.
      * @param account Cuenta a configurar
      */
-    private void setDefaultValuesBasedOnTypeAndProfile(Account account) {
+    void setDefaultValuesBasedOnTypeAndProfile(Account account) {
         // Configuración común para todas las cuentas
         if (account.getMaxFreeTransactions() == null) {
             account.setMaxFreeTransactions(10); // Por defecto 10 transacciones sin comisión
         }
 
         if (account.getTransactionFee() == null) {
-            account.setTransactionFee(new BigDecimal("2.00")); // Por defecto S/2.00 de comisión
+            account.setTransactionFee(DEFAULT_TRANSACTION_FEE); // Por defecto S/2.00 de comisión
         }
 
         switch (account.getType()) {
@@ -426,7 +575,7 @@ public class AccountServiceImpl implements AccountService {
                 // Para clientes VIP
                 if (account.getCustomerProfile() == CustomerProfile.VIP) {
                     if (account.getMinimumDailyBalance() == null) {
-                        account.setMinimumDailyBalance(new BigDecimal("500.00")); // Mínimo S/500.00 de saldo promedio diario
+                        account.setMinimumDailyBalance(VIP_MINIMUM_DAILY_BALANCE); // Mínimo S/500.00 de saldo promedio diario
                     }
                 }
                 break;
@@ -488,11 +637,21 @@ public class AccountServiceImpl implements AccountService {
     }
 
     /**
-     * Genera un número de cuenta aleatorio.
-     * @return String con el número de cuenta
+     * Convierte una entidad Account al DTO de saldo.
+     * @param account Entidad a convertir (basta con los campos de saldo)
+     * @return BalanceDto
      */
-    private String generateAccountNumber() {
-        return "ACC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private BalanceDto mapToBalanceDto(Account account) {
+        return BalanceDto.builder()
+                .accountId(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .accountType(account.getType().toString())
+                .balance(Money.toBigDecimal(account.getBalance()))
+                .remainingMonthlyMovements(account.getType() == AccountType.SAVINGS ?
+                        account.getMaxMonthlyMovements() - account.getCurrentMonthlyMovements() : null)
+                .remainingFreeTransactions(account.getMaxFreeTransactions() - account.getCurrentMonthlyTransactions())
+                .transactionFee(Money.toBigDecimal(account.getTransactionFee()))
+                .build();
     }
 
     /**
@@ -500,7 +659,7 @@ public class AccountServiceImpl implements AccountService {
      * @param account Entidad a convertir
      * @return AccountDto
      */
-    private AccountDto mapToDto(Account account) {
+    AccountDto mapToDto(Account account) {
         return AccountDto.builder()
                 .id(account.getId())
                 .accountNumber(account.getAccountNumber())
@@ -508,12 +667,12 @@ public class AccountServiceImpl implements AccountService {
                 .customerId(account.getCustomerId())
                 .customerType(account.getCustomerType())
                 .customerProfile(account.getCustomerProfile())
-                .balance(account.getBalance())
-                .initialBalance(account.getInitialBalance())
-                .minimumOpeningAmount(account.getMinimumOpeningAmount())
-                .minimumDailyBalance(account.getMinimumDailyBalance())
+                .balance(Money.toBigDecimal(account.getBalance()))
+                .initialBalance(Money.toBigDecimal(account.getInitialBalance()))
+                .minimumOpeningAmount(Money.toBigDecimal(account.getMinimumOpeningAmount()))
+                .minimumDailyBalance(Money.toBigDecimal(account.getMinimumDailyBalance()))
                 .maxFreeTransactions(account.getMaxFreeTransactions())
-                .transactionFee(account.getTransactionFee())
+                .transactionFee(Money.toBigDecimal(account.getTransactionFee()))
                 .currentMonthlyTransactions(account.getCurrentMonthlyTransactions())
                 .maxMonthlyMovements(account.getMaxMonthlyMovements())
                 .currentMonthlyMovements(account.getCurrentMonthlyMovements())
@@ -528,19 +687,20 @@ public class AccountServiceImpl implements AccountService {
      * Convierte un DTO a entidad Account.
      * @param accountDto DTO a convertir
      * @return Account
+     * @throws IllegalArgumentException si un importe no cabe en un long de céntimos
      */
-    private Account mapToEntity(AccountDto accountDto) {
+    Account mapToEntity(AccountDto accountDto) {
         return Account.builder()
                 .type(accountDto.getType())
                 .customerId(accountDto.getCustomerId())
                 .customerType(accountDto.getCustomerType())
                 .customerProfile(accountDto.getCustomerProfile())
-                .balance(accountDto.getBalance())
-                .initialBalance(accountDto.getBalance()) // Inicialmente igual al balance
-                .minimumOpeningAmount(accountDto.getMinimumOpeningAmount())
-                .minimumDailyBalance(accountDto.getMinimumDailyBalance())
+                .balance(amount("balance", accountDto.getBalance()))
+                .initialBalance(amount("balance", accountDto.getBalance())) // Inicialmente igual al balance
+                .minimumOpeningAmount(amount("minimumOpeningAmount", accountDto.getMinimumOpeningAmount()))
+                .minimumDailyBalance(amount("minimumDailyBalance", accountDto.getMinimumDailyBalance()))
                 .maxFreeTransactions(accountDto.getMaxFreeTransactions())
-                .transactionFee(accountDto.getTransactionFee())
+                .transactionFee(amount("transactionFee", accountDto.getTransactionFee()))
                 .maxMonthlyMovements(accountDto.getMaxMonthlyMovements())
                 .withdrawalDay(accountDto.getWithdrawalDay())
                 .holders(accountDto.getHolders())
@@ -548,4 +708,19 @@ public class AccountServiceImpl implements AccountService {
                 .maintenanceFee(accountDto.getMaintenanceFee())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Importe opcional de un DTO. Como {@link Money#ofAmount(BigDecimal)}, uno que desborda falla
+     * con IllegalArgumentException (400) en vez de ArithmeticException.
+     * @param field nombre del campo, para el mensaje de error
+     * @param amount importe decimal o null
+     * @return Money equivalente o null
+     */
+    private static Money amount(String field, BigDecimal amount) {
+        try {
+            return Money.ofNullable(amount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(field + " is out of range: " + amount.toPlainString(), e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.nttdata.bankapp.msaccountservice.stall;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta bloqueos de los event loops de Netty. Un hilo vigilante envía periódicamente una
+ * tarea vacía a cada event loop y mide cuánto espera en cola: esa espera es la duración de las
+ * tareas que el event loop ejecutaba delante. Si supera el umbral, toma la pila del hilo del
+ * event loop mientras sigue bloqueado y la atribuye a las rutas con peticiones en curso en él
+ * y al operador de Reactor y el código de la aplicación que aparecen en la pila.
+ */
+@Slf4j
+@Component
+public class EventLoopStallDetector implements MeterBinder {
+
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+    private static final String OWN_PACKAGE = EventLoopStallDetector.class.getPackageName();
+
+    private final StallDetectorProperties properties;
+    private final Map<Thread, Set<ServerWebExchange>> inFlight = new ConcurrentHashMap<>();
+    private final Deque<StallSample> samples = new ConcurrentLinkedDeque<>();
+    private final List<Probe> probes = new ArrayList<>();
+    private final LongAdder stalls = new LongAdder();
+    private volatile ScheduledExecutorService watchdog;
+    private volatile MeterRegistry registry;
+    private volatile Timer taskLatency;
+
+    public EventLoopStallDetector(StallDetectorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Arranca la vigilancia cuando el servidor ya ha creado sus event loops.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || watchdog != null) {
+            return;
+        }
+        // Los event loops del servidor; los de WebClient se comparten con ellos (colocated)
+        EventLoopGroup group = HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE);
+        for (EventExecutor loop : group) {
+            probes.add(new Probe(loop));
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eventloop-stall-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getProbeInterval().toNanos();
+        executor.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.NANOSECONDS);
+        watchdog = executor;
+        log.info("Event loop stall detector started loops={} thresholdMs={}",
+                probes.size(), properties.getThreshold().toMillis());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return watchdog != null;
+    }
+
+    void requestStarted(Thread thread, ServerWebExchange exchange) {
+        inFlight.computeIfAbsent(thread, key -> ConcurrentHashMap.newKeySet()).add(exchange);
+    }
+
+    void requestFinished(Thread thread, ServerWebExchange exchange) {
+        Set<ServerWebExchange> exchanges = inFlight.get(thread);
+        if (exchanges != null) {
+            exchanges.remove(exchange);
+        }
+    }
+
+    /**
+     * Bloqueos recientes, del más nuevo al más antiguo.
+     */
+    public List<StallSample> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    public int getLoopCount() {
+        return probes.size();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (Probe probe : probes) {
+            try {
+                probe.tick(now);
+            } catch (RuntimeException e) {
+                log.warn("Event loop stall probe failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private StallSample capture(Thread thread, long waitingNanos) {
+        StackTraceElement[] stack = thread != null ? thread.getStackTrace() : new StackTraceElement[0];
+        List<String> routes = routes(thread);
+        StallSample sample = StallSample.builder()
+                .thread(thread != null ? thread.getName() : "unknown")
+                .detectedAt(Instant.now())
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(waitingNanos))
+                .ongoing(true)
+                .routes(routes)
+                .operator(operator(stack))
+                .applicationFrame(applicationFrame(stack))
+                .stack(Arrays.stream(stack)
+                        .limit(properties.getStackDepth())
+                        .map(StackTraceElement::toString)
+                        .collect(Collectors.toList()))
+                .build();
+        samples.addFirst(sample);
+        while (samples.size() > properties.getMaxSamples()) {
+            samples.pollLast();
+        }
+        stalls.increment();
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            String route = routes.size() == 1 ? routes.get(0) : routes.isEmpty() ? "none" : "multiple";
+            Counter.builder("eventloop.stalls")
+                    .description("Event loop stalls longer than the threshold, by route in flight on the loop")
+                    .tag("route", route)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        log.warn("Event loop stalled thread={} waitingMs={} routes={} operator={} frame={}",
+                sample.getThread(), sample.getDurationMs(), routes, sample.getOperator(), sample.getApplicationFrame());
+        return sample;
+    }
+
+    private List<String> routes(Thread thread) {
+        Set<ServerWebExchange> exchanges = thread != null ? inFlight.get(thread) : null;
+        if (exchanges == null) {
+            return List.of();
+        }
+        return exchanges.stream()
+                .map(exchange -> exchange.getRequest().getMethodValue() + " " + route(exchange))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static String route(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof PathPattern ? ((PathPattern) pattern).getPatternString() : UNMATCHED_ROUTE;
+    }
+
+    private static String operator(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("reactor.core.publisher.")) {
+                String className = frame.getClassName();
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+            }
+        }
+        return null;
+    }
+
+    private static String applicationFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if ((className.startsWith("com.nttdata.") || className.startsWith("com.example."))
+                    && !className.startsWith(OWN_PACKAGE)) {
+                return frame.toString();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        this.taskLatency = Timer.builder("eventloop.task.latency")
+                .description("Time a probe task waited in an event loop queue")
+                .register(registry);
+    }
+
+    /**
+     * Sonda de un event loop. Su estado solo lo modifica el hilo vigilante; la tarea que se
+     * ejecuta en el event loop solo anota su hilo y cuándo se ejecutó.
+     */
+    private final class Probe {
+        private final EventExecutor loop;
+        private volatile Thread thread;
+        private volatile long completedAt;
+        private long submittedAt;
+        private StallSample stall;
+
+        private Probe(EventExecutor loop) {
+            this.loop = loop;
+        }
+
+        private void tick(long now) {
+            if (submittedAt != 0) {
+                long completed = completedAt;
+                if (completed == 0) {
+                    long waiting = now - submittedAt;
+                    if (stall != null) {
+                        stall.setDurationMs(TimeUnit.NANOSECONDS.toMillis(waiting));
+                    } else if (waiting >= properties.getThreshold().toNanos()) {
+                        stall = capture(thread, waiting);
+                    }
+                    return;
+                }
+                finish(completed - submittedAt);
+            }
+            submittedAt = now;
+            completedAt = 0;
+            try {
+                loop.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                submittedAt = 0; // Event loop cerrándose
+            }
+        }
+
+        private void run() {
+            thread = Thread.currentThread();
+            completedAt = System.nanoTime();
+        }
+
+        private void finish(long waitedNanos) {
+            Timer timer = taskLatency;
+            if (timer != null) {
+                timer.record(waitedNanos, TimeUnit.NANOSECONDS);
+            }
+            if (stall != null) {
+                stall.setDurationMs(TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+                stall.setOngoing(false);
+                stall = null;
+            }
+            submittedAt = 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nttdata.bankapp.msaccountservice.stall;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de actuator /actuator/eventloopstalls con los bloqueos recientes y sus pilas.
+ */
+@Component
+@Endpoint(id = "eventloopstalls")
+@RequiredArgsConstructor
+public class EventLoopStallEndpoint {
+
+    private final EventLoopStallDetector detector;
+    private final StallDetectorProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> stalls() {
+        Map<String, Object> stalls = new LinkedHashMap<>();
+        stalls.put("running", detector.isRunning());
+        stalls.put("loops", detector.getLoopCount());
+        stalls.put("thresholdMs", properties.getThreshold().toMillis());
+        stalls.put("total", detector.getStallCount());
+        stalls.put("samples", detector.getSamples());
+        return stalls;
+    }
+}
@@ -0,0 +1,34 @@
+package com.nttdata.bankapp.msaccountservice.stall;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra en qué event loop está cada petición en curso. Una conexión se atiende siempre en
+ * el mismo event loop, y los filtros se ejecutan en él, así que el hilo que llama al filtro es
+ * el que ejecuta la E/S de la petición.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@RequiredArgsConstructor
+public class StallAttributionFilter implements WebFilter {
+
+    private final EventLoopStallDetector detector;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!detector.isRunning()) {
+            return chain.filter(exchange);
+        }
+        Thread thread = Thread.currentThread();
+        detector.requestStarted(thread, exchange);
+        return chain.filter(exchange)
+                .doFinally(signal -> detector.requestFinished(thread, exchange));
+    }
+}
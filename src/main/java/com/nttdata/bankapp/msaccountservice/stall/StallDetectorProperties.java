@@ -0,0 +1,21 @@
+package com.nttdata.bankapp.msaccountservice.stall;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del detector de bloqueos de los event loops de Netty.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stall-detector")
+public class StallDetectorProperties {
+    private boolean enabled = true;
+    private Duration probeInterval = Duration.ofMillis(50); // Cada cuánto se envía una sonda a cada event loop
+    private Duration threshold = Duration.ofMillis(100); // Espera de la sonda a partir de la cual hay bloqueo
+    private int maxSamples = 50; // Bloqueos recientes que conserva el endpoint
+    private int stackDepth = 40; // Frames guardados por muestra
+}
@@ -0,0 +1,26 @@
+package com.nttdata.bankapp.msaccountservice.stall;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Muestra de un bloqueo de event loop: la pila del hilo tomada al superar el umbral y las
+ * rutas con peticiones en curso en ese event loop.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StallSample {
+    private String thread;
+    private Instant detectedAt;
+    private volatile long durationMs; // Se actualiza hasta que el event loop vuelve a atender tareas
+    private volatile boolean ongoing;
+    private List<String> routes; // Peticiones en curso en el event loop; con una sola, la atribución es exacta
+    private String operator; // Operador de Reactor más interno de la pila
+    private String applicationFrame; // Primer frame de código de la aplicación
+    private List<String> stack;
+}
@@ -0,0 +1,44 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operación medida dentro de una traza. Los campos siguen el JSON de Zipkin v2 (tiempos en
+ * microsegundos), así que los ficheros exportados se pueden cargar tal cual en Zipkin.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Span {
+
+    public enum Kind {
+        SERVER, CLIENT
+    }
+
+    private String traceId;
+    private String parentId;
+    private String id;
+    private Kind kind;
+    private String name;
+    private long timestamp;
+    private long duration;
+    private Map<String, String> localEndpoint;
+    private Map<String, String> remoteEndpoint;
+    @Builder.Default
+    private Map<String, String> tags = new LinkedHashMap<>();
+    @JsonIgnore
+    private long startNanos;
+
+    public Span tag(String key, String value) {
+        if (value != null) {
+            tags.put(key, value);
+        }
+        return this;
+    }
+}
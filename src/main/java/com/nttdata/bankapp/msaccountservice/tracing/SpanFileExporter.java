@@ -0,0 +1,78 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import com.nttdata.bankapp.msaccountservice.logging.MeteredAsyncAppender;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Appender de logs/spans.json (un array JSON de spans de Zipkin v2 por línea), que solo se crea
+ * con app.tracing.file-export activo: así, sin exportación, no se abre el fichero ni se arranca
+ * el hilo del appender asíncrono.
+ * La cola no descarta spans por nivel (discardingThreshold 0); si se llena, los spans se pierden
+ * sin bloquear al hilo de la petición y se cuentan en logging.events.dropped{appender=ASYNC_SPANS}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.tracing", name = "file-export", havingValue = "true")
+public class SpanFileExporter {
+
+    private final ch.qos.logback.classic.Logger logger;
+    private final MeteredAsyncAppender appender;
+
+    public SpanFileExporter() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        RollingFileAppender<ILoggingEvent> file = new RollingFileAppender<>();
+        file.setContext(context);
+        file.setName("SPANS_FILE");
+        file.setFile("logs/spans.json");
+
+        TimeBasedRollingPolicy<ILoggingEvent> rolling = new TimeBasedRollingPolicy<>();
+        rolling.setContext(context);
+        rolling.setParent(file);
+        rolling.setFileNamePattern("logs/spans.%d{yyyy-MM-dd}.json");
+        rolling.setMaxHistory(7);
+        rolling.setTotalSizeCap(FileSize.valueOf("1GB"));
+        rolling.start();
+        file.setRollingPolicy(rolling);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        file.setEncoder(encoder);
+        file.start();
+
+        appender = new MeteredAsyncAppender();
+        appender.setContext(context);
+        appender.setName("ASYNC_SPANS");
+        appender.setQueueSize(8192);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.setIncludeCallerData(false);
+        appender.addAppender(file);
+        appender.start();
+
+        logger = context.getLogger(Tracer.SPANS_LOGGER);
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.detachAppender(appender);
+        logger.setLevel(Level.OFF);
+        // Vacía la cola y cierra el fichero
+        appender.stop();
+    }
+}
@@ -0,0 +1,91 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Traza de una petición en curso: el span de servidor y los spans de las llamadas que hace.
+ * Viaja en el contexto de Reactor bajo {@link #CONTEXT_KEY}. Se registran todos los spans y
+ * al terminar la petición se decide si la traza se conserva (muestreo por cola).
+ */
+public final class Trace {
+
+    public static final Class<Trace> CONTEXT_KEY = Trace.class;
+    public static final String EXCHANGE_ATTRIBUTE = Trace.class.getName();
+
+    private final Span root;
+    private final boolean sampled;
+    private final String traceState;
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger spanCount = new AtomicInteger();
+    private volatile String decision;
+
+    Trace(Span root, boolean sampled, String traceState) {
+        this.root = root;
+        this.sampled = sampled;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Obtiene la traza de la petición en curso, si la hay.
+     * @param context contexto de Reactor del suscriptor
+     * @return traza de la petición
+     */
+    public static Optional<Trace> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    public String getTraceId() {
+        return root.getTraceId();
+    }
+
+    public Span getRoot() {
+        return root;
+    }
+
+    /**
+     * Decisión de muestreo de cabecera, la que se propaga a los servicios invocados.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String getTraceState() {
+        return traceState;
+    }
+
+    /**
+     * Motivo por el que se conservó la traza (head, slow o error); null si se descartó o sigue en curso.
+     */
+    public String getDecision() {
+        return decision;
+    }
+
+    void setDecision(String decision) {
+        this.decision = decision;
+    }
+
+    boolean reserveSpan(int max) {
+        return spanCount.incrementAndGet() <= max;
+    }
+
+    void add(Span span) {
+        spans.add(span);
+    }
+
+    /**
+     * Todos los spans terminados, empezando por el de servidor.
+     */
+    public List<Span> getSpans() {
+        List<Span> all = new ArrayList<>(spans.size() + 1);
+        all.add(root);
+        all.addAll(spans);
+        return all;
+    }
+}
@@ -0,0 +1,109 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cabecera traceparent de W3C Trace Context: versión, traceId, id del span padre y flags.
+ * Por ejemplo 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01.
+ */
+public final class TraceParent {
+
+    public static final String HEADER = "traceparent";
+    public static final String STATE_HEADER = "tracestate";
+
+    private static final int LENGTH = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String traceId;
+    private final String parentId;
+    private final boolean sampled;
+
+    private TraceParent(String traceId, String parentId, boolean sampled) {
+        this.traceId = traceId;
+        this.parentId = parentId;
+        this.sampled = sampled;
+    }
+
+    /**
+     * Interpreta una cabecera traceparent.
+     * @param header valor recibido
+     * @return la cabecera, o null si no viene o no es válida (se empieza una traza nueva)
+     */
+    public static TraceParent parse(String header) {
+        if (header == null || header.length() < LENGTH) {
+            return null;
+        }
+        String value = header.trim().toLowerCase();
+        if (value.length() < LENGTH || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+                || value.startsWith("ff") || (value.length() > LENGTH && value.startsWith("00"))
+                || (value.length() > LENGTH && value.charAt(LENGTH) != '-')) {
+            return null;
+        }
+        String version = value.substring(0, 2);
+        String traceId = value.substring(3, 35);
+        String parentId = value.substring(36, 52);
+        String flags = value.substring(53, 55);
+        if (!isHex(version) || !isHex(traceId) || !isHex(parentId) || !isHex(flags)
+                || isZero(traceId) || isZero(parentId)) {
+            return null;
+        }
+        boolean sampled = (Integer.parseInt(flags, 16) & 1) == 1;
+        return new TraceParent(traceId, parentId, sampled);
+    }
+
+    public static String format(String traceId, String spanId, boolean sampled) {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    public static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low = random.nextLong();
+        return hex(high == 0 && low == 0 ? 1 : high) + hex(low);
+    }
+
+    public static String newSpanId() {
+        long id = ThreadLocalRandom.current().nextLong();
+        return hex(id == 0 ? 1 : id);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    private static String hex(long value) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Crea y termina spans y decide qué trazas se conservan. El muestreo de cabecera decide al
+ * inicio (o respeta el flag sampled recibido) y se propaga a los servicios invocados; el de
+ * cola, al terminar la petición, conserva además todas las trazas lentas o con error.
+ * Las trazas conservadas quedan en memoria y, si se activa, en logs/spans.json.
+ */
+@Slf4j
+@Component
+public class Tracer implements MeterBinder {
+
+    public static final String HEAD = "head";
+    public static final String SLOW = "slow";
+    public static final String ERROR = "error";
+    public static final String DROPPED = "dropped";
+
+    /** Logger de las trazas exportadas; {@link SpanFileExporter} le añade el appender. */
+    public static final String SPANS_LOGGER = "TRACE_SPANS";
+
+    private static final Logger SPANS = LoggerFactory.getLogger(SPANS_LOGGER);
+
+    private final TracingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> localEndpoint;
+    private final Deque<Trace> recent = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSize = new AtomicInteger();
+    private final LongAdder head = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder error = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+
+    public Tracer(TracingProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.localEndpoint = Map.of("serviceName", properties.getServiceName());
+    }
+
+    /**
+     * Empieza la traza de una petición recibida.
+     * @param traceParent cabecera traceparent recibida; si no es válida se empieza una traza nueva
+     * @param traceState cabecera tracestate recibida, que se reenvía sin cambios
+     * @return traza con su span de servidor en curso
+     */
+    public Trace startTrace(String traceParent, String traceState) {
+        TraceParent parent = TraceParent.parse(traceParent);
+        boolean sampled = parent != null
+                ? parent.isSampled()
+                : ThreadLocalRandom.current().nextDouble() < properties.getHeadSampleRate();
+        Span root = Span.builder()
+                .traceId(parent != null ? parent.getTraceId() : TraceParent.newTraceId())
+                .parentId(parent != null ? parent.getParentId() : null)
+                .id(TraceParent.newSpanId())
+                .kind(Span.Kind.SERVER)
+                .localEndpoint(localEndpoint)
+                .timestamp(currentTimeMicros())
+                .startNanos(System.nanoTime())
+                .build();
+        return new Trace(root, sampled, parent != null ? traceState : null);
+    }
+
+    /**
+     * Empieza un span hijo del de servidor.
+     * @return el span, o null si la traza ya tiene el máximo de spans
+     */
+    public Span startSpan(Trace trace, String name, Span.Kind kind) {
+        if (!trace.reserveSpan(properties.getMaxSpansPerTrace())) {
+            droppedSpans.increment();
+            return null;
+        }
+        return Span.builder()
+                .traceId(trace.getTraceId())
+                .parentId(trace.getRoot().getId())
+                .id(TraceParent.newSpanId())
+                .kind(kind)
+                .name(name)
+                .localEndpoint(localEndpoint)
+                .timestamp(currentTimeMicros())
+                .startNanos(System.nanoTime())
+                .build();
+    }
+
+    public void finishSpan(Trace trace, Span span) {
+        span.setDuration(elapsedMicros(span));
+        trace.add(span);
+    }
+
+    /**
+     * Termina el span de servidor y decide si la traza se conserva.
+     * @param failed si la petición terminó con error, respuesta 5xx o cancelada
+     */
+    public void finishTrace(Trace trace, String name, boolean failed) {
+        Span root = trace.getRoot();
+        root.setName(name);
+        root.setDuration(elapsedMicros(root));
+
+        String decision;
+        if (trace.isSampled()) {
+            decision = HEAD;
+            head.increment();
+        } else if (root.getDuration() >= properties.getSlowThreshold().toNanos() / 1_000) {
+            decision = SLOW;
+            slow.increment();
+        } else if (failed && properties.isKeepErrors()) {
+            decision = ERROR;
+            error.increment();
+        } else {
+            dropped.increment();
+            return;
+        }
+        trace.setDecision(decision);
+        keep(trace);
+    }
+
+    private void keep(Trace trace) {
+        recent.addFirst(trace);
+        if (recentSize.incrementAndGet() > properties.getBufferSize() && recent.pollLast() != null) {
+            recentSize.decrementAndGet();
+        }
+        if (properties.isFileExport() && SPANS.isInfoEnabled()) {
+            try {
+                SPANS.info(objectMapper.writeValueAsString(trace.getSpans()));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not export trace traceId={}: {}", trace.getTraceId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Trazas conservadas, de la más reciente a la más antigua.
+     */
+    public List<Trace> getRecentTraces() {
+        return new ArrayList<>(recent);
+    }
+
+    private static long currentTimeMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    private static long elapsedMicros(Span span) {
+        return Math.max(1, (System.nanoTime() - span.getStartNanos()) / 1_000);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, HEAD, head);
+        register(registry, SLOW, slow);
+        register(registry, ERROR, error);
+        register(registry, DROPPED, dropped);
+        FunctionCounter.builder("tracing.spans.dropped", droppedSpans, LongAdder::sum)
+                .description("Spans not recorded because the trace reached its span limit")
+                .register(registry);
+    }
+
+    private static void register(MeterRegistry registry, String decision, LongAdder counter) {
+        FunctionCounter.builder("tracing.traces", counter, LongAdder::sum)
+                .description("Finished traces by sampling decision")
+                .tag("decision", decision)
+                .register(registry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Endpoint de actuator /actuator/traces con las trazas conservadas en memoria. Sin parámetros
+ * devuelve el resumen de cada una; /actuator/traces/{traceId} devuelve sus spans en JSON de Zipkin v2.
+ */
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private final Tracer tracer;
+
+    @ReadOperation
+    public List<Map<String, Object>> traces(@Nullable Long minDurationMs) {
+        long minMicros = minDurationMs != null ? minDurationMs * 1_000 : 0;
+        return tracer.getRecentTraces().stream()
+                .filter(trace -> trace.getRoot().getDuration() >= minMicros)
+                .map(TracesEndpoint::summary)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOperation
+    public List<Span> trace(@Selector String traceId) {
+        return tracer.getRecentTraces().stream()
+                .filter(trace -> trace.getTraceId().equals(traceId))
+                .findFirst()
+                .map(Trace::getSpans)
+                .orElse(null);
+    }
+
+    private static Map<String, Object> summary(Trace trace) {
+        List<Span> spans = trace.getSpans();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("traceId", trace.getTraceId());
+        summary.put("name", trace.getRoot().getName());
+        summary.put("decision", trace.getDecision());
+        summary.put("durationMs", trace.getRoot().getDuration() / 1_000.0);
+        summary.put("spans", spans.size());
+        summary.put("calls", spans.stream()
+                .skip(1)
+                .map(span -> span.getName() + " " + span.getDuration() / 1_000.0 + "ms")
+                .collect(Collectors.toList()));
+        return summary;
+    }
+}
@@ -0,0 +1,66 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Filtro de WebClient que abre un span de cliente por llamada y propaga la traza en curso
+ * al servicio invocado con las cabeceras traceparent y tracestate. El span termina al
+ * recibir la respuesta, sin incluir la lectura del cuerpo.
+ */
+@Component
+@RequiredArgsConstructor
+public class TracingExchangeFilter implements ExchangeFilterFunction {
+
+    private final Tracer tracer;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Optional<Trace> current = Trace.from(context);
+            if (current.isEmpty()) {
+                return next.exchange(request);
+            }
+            Trace trace = current.get();
+            Span span = tracer.startSpan(trace, request.method().name(), Span.Kind.CLIENT);
+            String parentId = span != null ? span.getId() : trace.getRoot().getId();
+            ClientRequest outgoing = ClientRequest.from(request)
+                    .headers(headers -> {
+                        headers.set(TraceParent.HEADER, TraceParent.format(trace.getTraceId(), parentId, trace.isSampled()));
+                        if (trace.getTraceState() != null) {
+                            headers.set(TraceParent.STATE_HEADER, trace.getTraceState());
+                        }
+                    })
+                    .build();
+            if (span == null) {
+                return next.exchange(outgoing);
+            }
+            span.setRemoteEndpoint(Map.of("serviceName", String.valueOf(request.url().getHost())));
+            span.tag("http.method", request.method().name())
+                    .tag("http.path", request.url().getPath());
+            return next.exchange(outgoing)
+                    .doOnNext(response -> {
+                        span.tag("http.status_code", Integer.toString(response.rawStatusCode()));
+                        if (response.rawStatusCode() >= 500) {
+                            span.tag("error", Integer.toString(response.rawStatusCode()));
+                        }
+                    })
+                    .doOnError(e -> span.tag("error", e.getClass().getSimpleName()))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            span.tag("cancelled", "true");
+                        }
+                        tracer.finishSpan(trace, span);
+                    });
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Abre el span de servidor de cada petición, continuando la traza de la cabecera traceparent
+ * si viene, y deja la traza en el contexto de Reactor para las llamadas a MongoDB y a otros
+ * servicios. El span se nombra con el patrón de la ruta al terminar la petición.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+@RequiredArgsConstructor
+public class TracingFilter implements WebFilter {
+
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final TracingProperties properties;
+    private final Tracer tracer;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        Trace trace = tracer.startTrace(headers.getFirst(TraceParent.HEADER), headers.getFirst(TraceParent.STATE_HEADER));
+        trace.getRoot()
+                .tag("http.method", exchange.getRequest().getMethodValue())
+                .tag("http.path", exchange.getRequest().getPath().value());
+        exchange.getAttributes().put(Trace.EXCHANGE_ATTRIBUTE, trace);
+
+        return chain.filter(exchange)
+                .doFinally(signal -> finish(exchange, trace, signal))
+                .contextWrite(context -> context.put(Trace.CONTEXT_KEY, trace));
+    }
+
+    private void finish(ServerWebExchange exchange, Trace trace, SignalType signal) {
+        HttpStatus status = exchange.getResponse().getStatusCode();
+        int statusCode = status != null ? status.value() : HttpStatus.OK.value();
+        Span root = trace.getRoot();
+        // Cancelada antes de responder: deadline agotado o cliente desconectado
+        boolean cancelled = signal == SignalType.CANCEL && !exchange.getResponse().isCommitted();
+        boolean failed = signal == SignalType.ON_ERROR || cancelled || statusCode >= 500;
+        if (cancelled) {
+            root.tag("cancelled", "true");
+        } else {
+            root.tag("http.status_code", Integer.toString(statusCode));
+        }
+        if (failed) {
+            root.tag("error", cancelled ? "cancelled" : signal == SignalType.ON_ERROR ? "true" : Integer.toString(statusCode));
+        }
+        tracer.finishTrace(trace, exchange.getRequest().getMethodValue() + " " + route(exchange), failed);
+    }
+
+    private static String route(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof PathPattern ? ((PathPattern) pattern).getPatternString() : UNMATCHED_ROUTE;
+    }
+}
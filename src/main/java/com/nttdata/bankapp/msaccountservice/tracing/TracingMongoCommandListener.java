@@ -0,0 +1,149 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.ReactiveContextProvider;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonValue;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.core.CoreSubscriber;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Abre un span de cliente por cada comando enviado a MongoDB. El driver reactivo entrega a
+ * los eventos de comando el contexto de la operación, obtenido con un ReactiveContextProvider
+ * del suscriptor, y de ahí sale la traza de la petición. Los comandos sin traza (monitorización
+ * del driver, tareas programadas) no se registran.
+ */
+@Component
+@RequiredArgsConstructor
+public class TracingMongoCommandListener implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Map<String, String> REMOTE_ENDPOINT = Map.of("serviceName", "mongodb");
+
+    private final TracingProperties properties;
+    private final Tracer tracer;
+    private final Map<Integer, TracedCommand> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        builder.addCommandListener(this)
+                .contextProvider((ReactiveContextProvider) subscriber -> subscriber instanceof CoreSubscriber
+                        ? TraceRequestContext.of(((CoreSubscriber<?>) subscriber).currentContext()
+                                .getOrDefault(Trace.CONTEXT_KEY, null))
+                        : TraceRequestContext.EMPTY);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Trace trace = trace(event.getRequestContext());
+        if (trace == null) {
+            return;
+        }
+        Span span = tracer.startSpan(trace, event.getCommandName(), Span.Kind.CLIENT);
+        if (span == null) {
+            return;
+        }
+        BsonValue collection = event.getCommand().get(event.getCommandName());
+        span.setRemoteEndpoint(REMOTE_ENDPOINT);
+        span.tag("db.name", event.getDatabaseName())
+                .tag("db.collection", collection != null && collection.isString() ? collection.asString().getValue() : null);
+        inFlight.put(event.getRequestId(), new TracedCommand(trace, span));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        TracedCommand command = inFlight.remove(event.getRequestId());
+        if (command != null) {
+            tracer.finishSpan(command.trace, command.span);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        TracedCommand command = inFlight.remove(event.getRequestId());
+        if (command != null) {
+            command.span.tag("error", event.getThrowable().getClass().getSimpleName());
+            tracer.finishSpan(command.trace, command.span);
+        }
+    }
+
+    private static Trace trace(RequestContext context) {
+        return context instanceof TraceRequestContext ? ((TraceRequestContext) context).trace : null;
+    }
+
+    private static final class TracedCommand {
+        private final Trace trace;
+        private final Span span;
+
+        private TracedCommand(Trace trace, Span span) {
+            this.trace = trace;
+            this.span = span;
+        }
+    }
+
+    /**
+     * Contexto de solo lectura que lleva la traza de la petición hasta los eventos de comando.
+     */
+    private static final class TraceRequestContext implements RequestContext {
+
+        private static final TraceRequestContext EMPTY = new TraceRequestContext(null);
+
+        private final Trace trace;
+
+        private TraceRequestContext(Trace trace) {
+            this.trace = trace;
+        }
+
+        private static TraceRequestContext of(Trace trace) {
+            return trace != null ? new TraceRequestContext(trace) : EMPTY;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key) {
+            return Trace.CONTEXT_KEY.equals(key) ? (T) trace : null;
+        }
+
+        @Override
+        public boolean hasKey(Object key) {
+            return trace != null && Trace.CONTEXT_KEY.equals(key);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return trace == null;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            throw new UnsupportedOperationException("Read-only request context");
+        }
+
+        @Override
+        public void delete(Object key) {
+            throw new UnsupportedOperationException("Read-only request context");
+        }
+
+        @Override
+        public int size() {
+            return trace != null ? 1 : 0;
+        }
+
+        @Override
+        public Stream<Map.Entry<Object, Object>> stream() {
+            return trace != null ? Stream.of(Map.entry(Trace.CONTEXT_KEY, trace)) : Stream.empty();
+        }
+    }
+}
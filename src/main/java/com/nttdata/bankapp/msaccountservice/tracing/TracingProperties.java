@@ -0,0 +1,26 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las trazas distribuidas.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+    private boolean enabled = true;
+    // localEndpoint.serviceName de los spans; ambas aplicaciones comparten spring.application.name
+    private String serviceName = "ms-account";
+    // Fracción de trazas nuevas muestreadas al inicio; la decisión se propaga en traceparent
+    private double headSampleRate = 0.1;
+    private Duration slowThreshold = Duration.ofMillis(500); // Se conservan todas las trazas más lentas
+    private boolean keepErrors = true; // Se conservan todas las trazas con error o respuesta 5xx
+    private int maxSpansPerTrace = 200; // Tope por traza, para importaciones y streaming
+    private int bufferSize = 500; // Trazas conservadas en memoria, en /actuator/traces
+    private boolean fileExport = false; // Escribe las trazas conservadas en logs/spans.json, ver SpanFileExporter
+}
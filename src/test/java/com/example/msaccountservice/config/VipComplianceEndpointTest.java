@@ -0,0 +1,69 @@
+package com.example.msaccountservice.config;
+
+import com.example.msaccountservice.dto.VipComplianceSummaryDTO;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import com.example.msaccountservice.service.VipComplianceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Cierre manual del cumplimiento VIP por actuator: solo días ya terminados en la zona configurada
+class VipComplianceEndpointTest {
+
+    private final List<LocalDate> closed = new ArrayList<>();
+    private final VipComplianceProperties properties = new VipComplianceProperties();
+    private final VipComplianceEndpoint endpoint = new VipComplianceEndpoint(new VipComplianceService() {
+        @Override
+        public Mono<VipComplianceSummaryDTO> closeDay(LocalDate day) {
+            closed.add(day);
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<VipCompliance> getCompliance(String accountId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Flux<Account> getBreaches() {
+            return Flux.empty();
+        }
+    }, properties);
+
+    @Test
+    void closesPastDays() {
+        LocalDate yesterday = today().minusDays(1);
+
+        endpoint.closeDay(yesterday.toString()).block();
+        endpoint.closeDay("2024-03-01").block();
+
+        assertEquals(List.of(yesterday, LocalDate.of(2024, 3, 1)), closed);
+    }
+
+    @Test
+    void rejectsTodayFutureDaysAndInvalidDates() {
+        InvalidEndpointRequestException today = assertThrows(InvalidEndpointRequestException.class,
+                () -> endpoint.closeDay(today().toString()));
+        assertEquals("day must be in the past", today.getReason());
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.closeDay(today().plusDays(1).toString()));
+
+        InvalidEndpointRequestException invalid = assertThrows(InvalidEndpointRequestException.class,
+                () -> endpoint.closeDay("01/03/2024"));
+        assertEquals("day must be an ISO date (yyyy-MM-dd)", invalid.getReason());
+        assertEquals(List.of(), closed);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(ZoneId.of(properties.getZone()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.dto.CheckingAccountDTO;
+import com.example.msaccountservice.dto.FixedTermAccountDTO;
+import com.example.msaccountservice.dto.SavingsAccountDTO;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.enums.CustomerProfile;
+import com.example.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Alta de cuentas: los importes fuera de rango llegan como error del Mono (400), no al ensamblarlo
+class AccountServiceImplTest {
+
+    private static final BigDecimal OUT_OF_RANGE = new BigDecimal("1e30");
+
+    private InMemoryAccountRepository repository;
+    private AccountServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryAccountRepository(Duration.ZERO);
+        service = new AccountServiceImpl(repository, new BalanceEventPublisher(new BalanceEventsProperties()),
+                new InMemoryCommissionEventStore(), new RejectionMetrics(), null);
+    }
+
+    @Test
+    void outOfRangeAmountsFailInsideTheChain() {
+        SavingsAccountDTO savings = new SavingsAccountDTO();
+        savings.setCustomerId("customer-1");
+        savings.setCustomerProfile(CustomerProfile.VIP);
+        savings.setHasRequiredCreditCard(true);
+        savings.setBalance(OUT_OF_RANGE);
+        CheckingAccountDTO checking = new CheckingAccountDTO();
+        checking.setCustomerId("customer-1");
+        checking.setBalance(BigDecimal.TEN);
+        checking.setMaintenanceFee(OUT_OF_RANGE);
+        FixedTermAccountDTO fixedTerm = new FixedTermAccountDTO();
+        fixedTerm.setCustomerId("customer-1");
+        fixedTerm.setBalance(OUT_OF_RANGE);
+
+        // Crear el Mono no lanza: el error se emite al suscribirse
+        Mono<Account> savingsAccount = service.createSavingsAccount(savings);
+        Mono<Account> checkingAccount = service.createCheckingAccount(checking);
+        Mono<Account> fixedTermAccount = service.createFixedTermAccount(fixedTerm);
+
+        assertThrows(IllegalArgumentException.class, savingsAccount::block);
+        assertThrows(IllegalArgumentException.class, checkingAccount::block);
+        assertThrows(IllegalArgumentException.class, fixedTermAccount::block);
+        assertEquals(0L, repository.count().block());
+    }
+
+    @Test
+    void validAmountsAreStoredAsMoney() {
+        CheckingAccountDTO checking = new CheckingAccountDTO();
+        checking.setCustomerId("customer-1");
+        checking.setBalance(new BigDecimal("10.005"));
+        checking.setMaintenanceFee(new BigDecimal("2"));
+
+        Account account = service.createCheckingAccount(checking).block();
+        assertEquals(Money.parse("10.01"), account.getBalance());
+        assertEquals(Money.parse("2"), account.getMaintenanceFee());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.InterestAccrualProperties;
+import com.example.msaccountservice.dto.InterestAccrualSummaryDTO;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Devengo sobre un servidor mongo-java-server en memoria: repetición, reanudación y reinicio del día
+class InterestAccrualServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private MongoServer server;
+    private MongoPartitions partitions;
+    private ReactiveMongoTemplate template;
+    private InterestAccrualProperties properties;
+    private InterestAccrualServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts"), converter);
+        partitions = new MongoPartitions(List.of(new MongoPartition("default", template)),
+                new PartitioningProperties(), List.of(client));
+
+        properties = new InterestAccrualProperties();
+        properties.setPartitions(2);
+        properties.setBatchSize(2);
+        properties.setParallelism(1);
+        service = new InterestAccrualServiceImpl(template, partitions, properties, new InterestAccrualMetrics(),
+                new BatchBalanceEvents(new BalanceEventPublisher(new BalanceEventsProperties())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void accruingTheSameDayTwiceAccruesOnce() {
+        List<ObjectId> ids = insertAccounts(4);
+
+        InterestAccrualSummaryDTO first = service.accrue(DAY).block();
+        assertNotNull(first);
+        assertEquals(4, first.getAccrued());
+        InterestAccrualSummaryDTO second = service.accrue(DAY).block();
+        assertNotNull(second);
+        assertEquals(0, second.getAccrued());
+
+        // 1000 al 3,65 % anual durante un día
+        assertEquals(Map.of(ids.get(0), new BigDecimal("0.10"), ids.get(1), new BigDecimal("0.10"),
+                ids.get(2), new BigDecimal("0.10"), ids.get(3), new BigDecimal("0.10")), accruedInterest());
+    }
+
+    @Test
+    void accrualResumesAfterTheLastCheckpointedAccount() {
+        List<ObjectId> ids = insertAccounts(4);
+        String planId = "interest-accrual:" + DAY;
+        // Plan de un solo rango cuyo checkpoint ya pasó de las dos primeras cuentas
+        template.upsert(Query.query(Criteria.where("_id").is(planId)),
+                new Update().set("boundaries", List.of()), InterestAccrualServiceImpl.CHECKPOINTS).block();
+        template.upsert(Query.query(Criteria.where("_id").is(planId + ":0")), new Update()
+                .set("planId", planId).set("partition", 0).set("done", false).set("lastId", ids.get(1)),
+                InterestAccrualServiceImpl.CHECKPOINTS).block();
+
+        InterestAccrualSummaryDTO summary = service.accrue(DAY).block();
+        assertNotNull(summary);
+        assertEquals(2, summary.getScanned());
+        assertEquals(Map.of(ids.get(2), new BigDecimal("0.10"), ids.get(3), new BigDecimal("0.10")), accruedInterest());
+    }
+
+    @Test
+    void restartingAPartlyCheckpointedRunAccruesEveryAccountOnce() {
+        // Una ejecución del día que solo llegó a ver parte de las cuentas: sus rangos quedan terminados
+        List<ObjectId> ids = new ArrayList<>(insertAccounts(3));
+        InterestAccrualSummaryDTO partial = service.accrue(DAY).block();
+        assertNotNull(partial);
+        assertEquals(3, partial.getAccrued());
+        ids.addAll(insertAccounts(3));
+
+        properties.setRestart(true);
+        InterestAccrualSummaryDTO restarted = service.accrue(DAY).block();
+        assertNotNull(restarted);
+        assertEquals(3, restarted.getAccrued());
+        Map<Object, BigDecimal> accrued = accruedInterest();
+        assertEquals(6, accrued.size());
+        ids.forEach(id -> assertEquals(new BigDecimal("0.10"), accrued.get(id)));
+
+        // Los checkpoints que quedan son los del plan nuevo, todos terminados
+        List<Document> checkpoints = template.find(Query.query(Criteria.where("planId").exists(true)),
+                Document.class, InterestAccrualServiceImpl.CHECKPOINTS).collectList().block();
+        assertNotNull(checkpoints);
+        assertEquals(2, checkpoints.size());
+        checkpoints.forEach(checkpoint -> assertEquals(true, checkpoint.getBoolean("done")));
+    }
+
+    @Test
+    void interestUsesTheClosingBalanceOfEachPendingDay() {
+        Document account = new Document(InterestAccrualServiceImpl.INTEREST_RATE, new Decimal128(new BigDecimal("3.65")))
+                .append("balance", new Decimal128(new BigDecimal("500")))
+                .append(InterestAccrualServiceImpl.LAST_ACCRUAL_DATE, date(DAY.minusDays(3)))
+                .append("dailyBalances", new Document("2024-03-01T10:00:00", new Decimal128(new BigDecimal("1000")))
+                        .append("2024-03-08T09:00:00", new Decimal128(new BigDecimal("2000")))
+                        .append("2024-03-09T18:00:00", "500"));
+
+        // Días 8, 9 y 10: cierres de 2000, 500 y 500 (el del 9 sigue vigente el 10)
+        assertEquals(Money.parse("0.30"), service.interest(account, DAY));
+        // Ya devengado hasta el día
+        account.put(InterestAccrualServiceImpl.LAST_ACCRUAL_DATE, date(DAY));
+        assertNull(service.interest(account, DAY));
+        // Tasa en texto, anterior a la migración, y sin historial: el saldo actual del día
+        Document legacy = new Document(InterestAccrualServiceImpl.INTEREST_RATE, "7.30")
+                .append("balance", new Decimal128(new BigDecimal("500")));
+        assertEquals(Money.parse("0.10"), service.interest(legacy, DAY));
+        assertNull(service.interest(legacy.append(InterestAccrualServiceImpl.INTEREST_RATE, "abc"), DAY));
+    }
+
+    private List<ObjectId> insertAccounts(int count) {
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ObjectId id = new ObjectId();
+            ids.add(id);
+            template.insert(new Document("_id", id)
+                    .append("accountType", "FIXED_TERM")
+                    .append("customerId", "customer-" + i)
+                    .append("balance", new Decimal128(new BigDecimal("1000")))
+                    .append(InterestAccrualServiceImpl.INTEREST_RATE, new Decimal128(new BigDecimal("3.65"))),
+                    InterestAccrualServiceImpl.ACCOUNTS).block();
+        }
+        return ids;
+    }
+
+    private Map<Object, BigDecimal> accruedInterest() {
+        return Flux.from(template.getCollection(InterestAccrualServiceImpl.ACCOUNTS).block().find())
+                .filter(account -> account.get(InterestAccrualServiceImpl.ACCRUED_INTEREST) != null)
+                .collect(Collectors.toMap(account -> account.get("_id"), account ->
+                        ((Decimal128) account.get(InterestAccrualServiceImpl.ACCRUED_INTEREST)).bigDecimalValue()))
+                .block();
+    }
+
+    private static Date date(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.MaintenanceFeeProperties;
+import com.example.msaccountservice.dto.MaintenanceFeeSummaryDTO;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Cobro de mantenimiento sobre mongo-java-server: el bulkWrite condicional no cobra sin saldo ni dos veces el mes
+class MaintenanceFeeServiceImplTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2024, 3);
+
+    private MongoServer server;
+    private MongoPartitions partitions;
+    private ReactiveMongoTemplate template;
+    // Se ejecuta justo antes del siguiente bulkWrite, como otra instancia que cobra entre la lectura y la escritura
+    private final AtomicReference<Mono<?>> beforeBulkWrite = new AtomicReference<>();
+    private MaintenanceFeeServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts")) {
+            @Override
+            public Mono<MongoCollection<Document>> getCollection(String collectionName) {
+                return super.getCollection(collectionName).map(MaintenanceFeeServiceImplTest.this::intercepted);
+            }
+        };
+        partitions = new MongoPartitions(List.of(new MongoPartition("default", template)),
+                new PartitioningProperties(), List.of(client));
+
+        MaintenanceFeeProperties properties = new MaintenanceFeeProperties();
+        properties.setChunkSize(10);
+        properties.setParallelism(1);
+        service = new MaintenanceFeeServiceImpl(template, partitions, properties,
+                new BatchBalanceEvents(new BalanceEventPublisher(new BalanceEventsProperties())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void chargesOnlyAccountsWithFundsAndOncePerPeriod() {
+        insert("funded", "CHECKING", "100", "5");
+        insert("exact", "CHECKING", "5", "5");
+        insert("broke", "CHECKING", "4.99", "5");
+        insert("savings", "SAVINGS", "100", "5");
+
+        MaintenanceFeeSummaryDTO first = service.charge(PERIOD).block();
+        assertNotNull(first);
+        assertEquals(3, first.getCandidates());
+        assertEquals(2, first.getCharged());
+        assertEquals(1, first.getInsufficientFunds());
+        assertEquals(0, first.getAlreadyCharged());
+        assertEquals(new BigDecimal("10.00"), first.getTotalCharged().setScale(2));
+        assertEquals(new BigDecimal("95"), balance("funded"));
+        assertEquals(new BigDecimal("0"), balance("exact"));
+        assertEquals(new BigDecimal("4.99"), balance("broke"));
+        assertEquals(PERIOD.toString(), account("funded").getString(MaintenanceFeeServiceImpl.LAST_PERIOD));
+        assertNull(account("broke").get(MaintenanceFeeServiceImpl.LAST_PERIOD));
+
+        // Repetir el mes solo vuelve a intentar la que no tenía saldo
+        MaintenanceFeeSummaryDTO again = service.charge(PERIOD).block();
+        assertNotNull(again);
+        assertEquals(1, again.getCandidates());
+        assertEquals(0, again.getCharged());
+        assertEquals(1, again.getInsufficientFunds());
+        assertEquals(new BigDecimal("95"), balance("funded"));
+
+        Document runs = Mono.from(template.getCollection(MaintenanceFeeServiceImpl.RUNS).block()
+                .find(Filters.eq("_id", PERIOD.toString())).first()).block();
+        assertNotNull(runs);
+        assertEquals(2, runs.getInteger("runs"));
+    }
+
+    @Test
+    void accountsChargedByAnotherRunBetweenReadAndWriteAreNotChargedAgain() {
+        insert("funded", "CHECKING", "100", "5");
+        insert("raced", "CHECKING", "100", "5");
+        insert("broke", "CHECKING", "1", "5");
+        beforeBulkWrite.set(Mono.defer(() -> template.getCollection(MaintenanceFeeServiceImpl.ACCOUNTS)
+                .flatMap(collection -> Mono.from(collection.updateOne(Filters.eq("_id", "raced"), Updates.combine(
+                        Updates.set("balance", new Decimal128(new BigDecimal("95"))),
+                        Updates.set(MaintenanceFeeServiceImpl.LAST_PERIOD, PERIOD.toString())))))));
+
+        MaintenanceFeeSummaryDTO summary = service.charge(PERIOD).block();
+        assertNotNull(summary);
+        assertEquals(3, summary.getCandidates());
+        assertEquals(1, summary.getCharged());
+        assertEquals(1, summary.getAlreadyCharged());
+        assertEquals(1, summary.getInsufficientFunds());
+        assertEquals(new BigDecimal("95"), balance("funded"));
+        assertEquals(new BigDecimal("95"), balance("raced"));
+        assertEquals(new BigDecimal("1"), balance("broke"));
+    }
+
+    // mongo-java-server no admite actualizaciones con pipeline: el bulkWrite se resuelve aquí con el filtro
+    // condicional de cada actualización, evaluado por el servidor, y el $set del pipeline calculado en Java
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> intercepted(MongoCollection<Document> collection) {
+        return (MongoCollection<Document>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{MongoCollection.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("bulkWrite")) {
+                        return invoke(collection, method, args);
+                    }
+                    Mono<?> before = beforeBulkWrite.getAndSet(null);
+                    return (before != null ? before : Mono.empty())
+                            .then(bulkWrite(collection, (List<? extends WriteModel<Document>>) args[0]));
+                });
+    }
+
+    private static Mono<BulkWriteResult> bulkWrite(MongoCollection<Document> collection,
+                                                   List<? extends WriteModel<Document>> models) {
+        return Flux.fromIterable(models)
+                .cast(UpdateOneModel.class)
+                .concatMap(model -> {
+                    Document set = (Document) ((Document) model.getUpdatePipeline().get(0)).get("$set");
+                    Decimal128 fee = (Decimal128) ((List<?>) ((Document) set.get("balance")).get("$subtract")).get(1);
+                    return Mono.from(collection.find(model.getFilter()).first())
+                            .flatMap(account -> Mono.from(collection.updateOne(Filters.eq("_id", account.get("_id")),
+                                    Updates.combine(
+                                            Updates.set("balance", new Decimal128(((Decimal128) account.get("balance"))
+                                                    .bigDecimalValue().subtract(fee.bigDecimalValue()))),
+                                            Updates.set(MaintenanceFeeServiceImpl.LAST_PERIOD,
+                                                    set.get(MaintenanceFeeServiceImpl.LAST_PERIOD))))))
+                            .map(result -> (int) result.getMatchedCount())
+                            .defaultIfEmpty(0);
+                })
+                .reduce(0, Integer::sum)
+                .map(matched -> BulkWriteResult.acknowledged(0, matched, 0, matched, List.of()));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void insert(String id, String type, String balance, String fee) {
+        template.insert(new Document("_id", id)
+                .append("accountType", type)
+                .append("balance", new Decimal128(new BigDecimal(balance)))
+                .append("maintenanceFee", new Decimal128(new BigDecimal(fee))), MaintenanceFeeServiceImpl.ACCOUNTS)
+                .block();
+    }
+
+    private Document account(String id) {
+        return template.findById(id, Document.class, MaintenanceFeeServiceImpl.ACCOUNTS).block();
+    }
+
+    private BigDecimal balance(String id) {
+        return ((Decimal128) account(id).get("balance")).bigDecimalValue().stripTrailingZeros();
+    }
+}
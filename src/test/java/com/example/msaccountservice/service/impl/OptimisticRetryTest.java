@@ -0,0 +1,205 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.controller.AccountController;
+import com.example.msaccountservice.exception.GlobalExceptionHandler;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.repository.AccountRepository;
+import com.example.msaccountservice.repository.AccountVersionInitializerImpl;
+import com.example.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import com.example.msaccountservice.repository.partitioned.PartitionedAccountRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// saveVersioned + OptimisticRetry sobre mongo-java-server: depósitos concurrentes, cuentas sin version y el 409
+class OptimisticRetryTest {
+
+    private static final int DEPOSITS = 40;
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private AccountRepository repository;
+    private AccountServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts"), converter);
+
+        // Como en la aplicación: AccountVersionInitializerImpl es el fragmento del repositorio de Spring Data
+        repository = new ReactiveMongoRepositoryFactory(template).getRepository(AccountRepository.class,
+                RepositoryFragments.just(new AccountVersionInitializerImpl(template)));
+        service = service(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void concurrentDepositsAreAllApplied() {
+        Account account = repository.save(account("100")).block();
+
+        List<Account> deposited = Flux.range(0, DEPOSITS)
+                .flatMap(i -> service.deposit(account.getId(), BigDecimal.ONE).subscribeOn(Schedulers.parallel()),
+                        DEPOSITS)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(DEPOSITS, deposited.size());
+        Account stored = repository.findById(account.getId()).block();
+        // Ningún depósito se pierde: cada save exitoso partió de la última version
+        assertEquals(Money.parse("140"), stored.getBalance());
+        assertEquals(Long.valueOf(DEPOSITS), stored.getVersion());
+    }
+
+    @Test
+    void unversionedAccountsGetVersionZeroAndTheRetryApplies() {
+        insertUnversioned("legacy", "100");
+        Account read = repository.findById("legacy").block();
+        assertNull(read.getVersion());
+
+        // save intenta insertarla (DuplicateKeyException): se le pone version 0 y se pide volver a leer
+        OptimisticLockingFailureException error = assertThrows(OptimisticLockingFailureException.class,
+                () -> repository.saveVersioned(read).block());
+        assertEquals("Account legacy had no version", error.getMessage());
+        assertEquals(0L, rawVersion("legacy"));
+
+        // Una segunda cuenta sin version pasa por el mismo camino dentro del reintento del servicio
+        insertUnversioned("legacy-2", "100");
+        Account deposited = service.deposit("legacy-2", new BigDecimal("25")).block();
+        assertEquals(Money.parse("125"), deposited.getBalance());
+        assertEquals(1L, deposited.getVersion());
+        assertEquals(Money.parse("125"), repository.findById("legacy-2").block().getBalance());
+    }
+
+    @Test
+    void partitionedRepositoryInitializesTheVersionToo() {
+        MongoPartitions partitions = new MongoPartitions(List.of(new MongoPartition("default", template)),
+                new PartitioningProperties(), List.of(client));
+        PartitionedAccountRepository partitioned = new PartitionedAccountRepository(partitions,
+                new PartitioningProperties());
+        insertUnversioned("legacy", "100");
+
+        Account deposited = service(partitioned).deposit("legacy", new BigDecimal("25")).block();
+
+        assertEquals(Money.parse("125"), deposited.getBalance());
+        assertEquals(1L, rawVersion("legacy"));
+    }
+
+    @Test
+    void exhaustedRetriesAnswer409ConcurrentUpdate() {
+        AtomicInteger attempts = new AtomicInteger();
+        InMemoryAccountRepository conflicting = new InMemoryAccountRepository(Duration.ZERO) {
+            // Otra escritura gana siempre entre la lectura y el save
+            @Override
+            public Mono<Account> saveVersioned(Account account) {
+                attempts.incrementAndGet();
+                return Mono.error(new OptimisticLockingFailureException("Account " + account.getId() + " changed"));
+            }
+        };
+        Account account = conflicting.save(account("100")).block();
+        AccountController controller = new AccountController(service(conflicting),
+                new BalanceEventPublisher(new BalanceEventsProperties()), null);
+        WebTestClient client = WebTestClient.bindToController(controller)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .configureClient()
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+
+        client.post().uri("/api/accounts/{id}/deposit", account.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("amount", 10))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("CONCURRENT_UPDATE")
+                .jsonPath("$.message").isEqualTo("The account was modified concurrently, retry the request");
+
+        // El intento original y los 16 reintentos
+        assertEquals(17, attempts.get());
+        assertEquals(Money.parse("100"), conflicting.findById(account.getId()).block().getBalance());
+    }
+
+    private static AccountServiceImpl service(AccountRepository repository) {
+        return new AccountServiceImpl(repository, new BalanceEventPublisher(new BalanceEventsProperties()),
+                new InMemoryCommissionEventStore(), new RejectionMetrics(), null);
+    }
+
+    private static Account account(String balance) {
+        Account account = new Account();
+        account.setAccountType(AccountType.SAVINGS);
+        account.setCustomerId("customer-1");
+        account.setBalance(Money.parse(balance));
+        return account;
+    }
+
+    // Documento guardado antes de @Version
+    private void insertUnversioned(String id, String balance) {
+        template.insert(new Document("_id", id).append("_class", Account.class.getName())
+                .append("accountType", "SAVINGS").append("customerId", "customer-1")
+                .append("balance", new Decimal128(new BigDecimal(balance))), "accounts").block();
+    }
+
+    private Object rawVersion(String id) {
+        return template.getCollection("accounts")
+                .flatMap(collection -> Mono.from(collection.find(new Document("_id", id)).first()))
+                .map(document -> document.get("version"))
+                .block();
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.config.TransferProperties;
+import com.example.msaccountservice.dto.TransferDTO;
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.Transfer;
+import com.example.msaccountservice.model.TransferOperation;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.model.enums.TransferStatus;
+import com.example.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import com.example.msaccountservice.repository.inmemory.InMemoryTransferRepository;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Transferencias sobre los repositorios en memoria: cargo, abono, devolución y recuperación
+class TransferServiceImplTest {
+
+    private FailingAccountRepository accounts;
+    private InMemoryTransferRepository transfers;
+    private InMemoryCommissionEventStore commissions;
+    private TransferProperties properties;
+    private TransferServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new FailingAccountRepository();
+        // Con latencia, dos recuperaciones a la vez leen la transferencia antes de que una la tome
+        transfers = new InMemoryTransferRepository(Duration.ofMillis(20));
+        commissions = new InMemoryCommissionEventStore();
+        properties = new TransferProperties();
+        service = newService();
+    }
+
+    @Test
+    void transferDebitsSourceWithCommissionAndCreditsDestination() {
+        Account source = accounts.save(account("customer-1", "100", 3, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "20", 0, 3, "1.50")).block();
+
+        Account credited = service.transfer(transfer(source, destination, "30")).block();
+        assertNotNull(credited);
+        assertEquals(Money.parse("50"), credited.getBalance());
+        assertEquals(Money.parse("68.50"), balance(source));
+        assertEquals(4, accounts.findById(source.getId()).block().getTransactionsPerformed());
+
+        Transfer recorded = onlyTransfer();
+        assertEquals(TransferStatus.COMPLETED, recorded.getStatus());
+        assertEquals(Money.parse("1.50"), recorded.getCommission());
+        assertEquals(Set.of(recorded.getId() + ":DEBIT"), operations(source).keySet());
+        assertEquals(Set.of(recorded.getId() + ":CREDIT"), operations(destination).keySet());
+        assertEquals(Map.of(source.getId(), new BigDecimal("1.50")), commissionTotals("customer-1"));
+    }
+
+    @Test
+    void transferWithoutFundsFailsBeforeTheDebit() {
+        Account source = accounts.save(account("customer-1", "10", 0, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "20", 0, 3, "1.50")).block();
+
+        assertThrows(RuntimeException.class, () -> service.transfer(transfer(source, destination, "30")).block());
+        assertEquals(TransferStatus.FAILED, onlyTransfer().getStatus());
+        assertEquals(Money.parse("10"), balance(source));
+        assertEquals(Money.parse("20"), balance(destination));
+    }
+
+    @Test
+    void failedCreditRefundsTheDebitAndItsCommission() {
+        Account source = accounts.save(account("customer-1", "100", 3, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "20", 0, 3, "1.50")).block();
+        accounts.failSaves(destination.getId(), 1);
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service.transfer(transfer(source, destination, "30")).block());
+
+        Transfer recorded = onlyTransfer();
+        assertEquals(TransferStatus.REFUNDED, recorded.getStatus());
+        assertEquals(Money.parse("100"), balance(source));
+        assertEquals(3, accounts.findById(source.getId()).block().getTransactionsPerformed());
+        assertEquals(Money.parse("20"), balance(destination));
+        // El abono queda anulado con una marca a cero: un abono aún en curso ya no se aplicaría
+        assertEquals(Money.ZERO, operations(destination).get(recorded.getId() + ":CREDIT").getAmount());
+        assertEquals(Set.of(recorded.getId() + ":DEBIT", recorded.getId() + ":REFUND"), operations(source).keySet());
+        assertEquals(Map.of(source.getId(), new BigDecimal("0.00")), commissionTotals("customer-1"));
+    }
+
+    @Test
+    void recoveryCompletesADebitedTransferOnceAcrossInstances() {
+        Account source = accounts.save(account("customer-1", "70", 1, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "20", 0, 3, "1.50")).block();
+        Transfer stuck = stuckTransfer(source, destination, TransferStatus.DEBITED);
+        addOperation(source.getId(), stuck.getId() + ":DEBIT", "30");
+
+        List<Long> recovered = Mono.zip(
+                        service.recoverUnfinished().subscribeOn(Schedulers.parallel()),
+                        newService().recoverUnfinished().subscribeOn(Schedulers.parallel()),
+                        (first, second) -> List.of(first, second))
+                .block();
+        assertNotNull(recovered);
+        assertEquals(1L, recovered.get(0) + recovered.get(1));
+        assertEquals(TransferStatus.COMPLETED, transfers.findById(stuck.getId()).block().getStatus());
+        assertEquals(Money.parse("50"), balance(destination));
+        assertEquals(Money.parse("70"), balance(source));
+
+        // Una nueva ejecución ya no encuentra nada pendiente
+        assertEquals(0L, service.recoverUnfinished().block());
+        assertEquals(Money.parse("50"), balance(destination));
+    }
+
+    @Test
+    void recoveryDoesNotCreditTwiceWhenTheCreditAlreadyLanded() {
+        Account source = accounts.save(account("customer-1", "70", 1, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "50", 0, 3, "1.50")).block();
+        Transfer stuck = stuckTransfer(source, destination, TransferStatus.DEBITED);
+        addOperation(source.getId(), stuck.getId() + ":DEBIT", "30");
+        addOperation(destination.getId(), stuck.getId() + ":CREDIT", "30");
+
+        assertEquals(1L, service.recoverUnfinished().block());
+        assertEquals(TransferStatus.COMPLETED, transfers.findById(stuck.getId()).block().getStatus());
+        assertEquals(Money.parse("50"), balance(destination));
+    }
+
+    @Test
+    void recoveryRefundsACompensatingTransferOnce() {
+        Account source = accounts.save(account("customer-1", "70", 1, 3, "1.50")).block();
+        Account destination = accounts.save(account("customer-2", "20", 0, 3, "1.50")).block();
+        Transfer stuck = stuckTransfer(source, destination, TransferStatus.COMPENSATING);
+        addOperation(source.getId(), stuck.getId() + ":DEBIT", "30");
+
+        assertEquals(1L, service.recoverUnfinished().block());
+        assertEquals(TransferStatus.REFUNDED, transfers.findById(stuck.getId()).block().getStatus());
+        assertEquals(Money.parse("100"), balance(source));
+        assertEquals(Money.parse("20"), balance(destination));
+
+        // Repetir la devolución (p. ej. otra instancia con una copia anterior) no vuelve a abonar
+        Transfer again = transfers.findById(stuck.getId()).block();
+        again.setStatus(TransferStatus.COMPENSATING);
+        again.setUpdatedAt(LocalDateTime.now().minusHours(1));
+        transfers.save(again).block();
+        assertEquals(1L, service.recoverUnfinished().block());
+        assertEquals(Money.parse("100"), balance(source));
+    }
+
+    private TransferServiceImpl newService() {
+        return new TransferServiceImpl(accounts, transfers, new BalanceEventPublisher(new BalanceEventsProperties()),
+                commissions, new RejectionMetrics(), properties);
+    }
+
+    private Transfer stuckTransfer(Account source, Account destination, TransferStatus status) {
+        LocalDateTime stale = LocalDateTime.now().minusHours(1);
+        Transfer transfer = new Transfer();
+        transfer.setSourceAccountId(source.getId());
+        transfer.setDestinationAccountId(destination.getId());
+        transfer.setAmount(Money.parse("30"));
+        transfer.setCommission(Money.ZERO);
+        transfer.setStatus(status);
+        transfer.setCreatedAt(stale);
+        transfer.setUpdatedAt(stale);
+        return transfers.insert(transfer).block();
+    }
+
+    // Paso ya aplicado: el saldo de la cuenta lo refleja y la marca lo registra
+    private void addOperation(String accountId, String key, String amount) {
+        Account account = accounts.findById(accountId).block();
+        account.setTransferOperations(new HashMap<>(Map.of(key,
+                new TransferOperation(Money.parse(amount), LocalDateTime.now().minusHours(1)))));
+        accounts.save(account).block();
+    }
+
+    private Transfer onlyTransfer() {
+        List<Transfer> all = transfers.findAll().collectList().block();
+        assertNotNull(all);
+        assertEquals(1, all.size());
+        return all.get(0);
+    }
+
+    private Money balance(Account account) {
+        return accounts.findById(account.getId()).map(Account::getBalance).block();
+    }
+
+    private Map<String, TransferOperation> operations(Account account) {
+        Map<String, TransferOperation> operations = accounts.findById(account.getId())
+                .map(Account::getTransferOperations).block();
+        return operations != null ? operations : Map.of();
+    }
+
+    private Map<String, BigDecimal> commissionTotals(String customerId) {
+        LocalDateTime now = LocalDateTime.now();
+        return commissions.totalsByAccount(customerId, now.minusDays(1), now.plusDays(1)).block();
+    }
+
+    private static TransferDTO transfer(Account source, Account destination, String amount) {
+        TransferDTO dto = new TransferDTO();
+        dto.setSourceAccountId(source.getId());
+        dto.setDestinationAccountId(destination.getId());
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+
+    private static Account account(String customerId, String balance, int transactions, int limit, String commission) {
+        Account account = new Account();
+        account.setAccountType(AccountType.SAVINGS);
+        account.setCustomerId(customerId);
+        account.setBalance(Money.parse(balance));
+        account.setTransactionsPerformed(transactions);
+        account.setMonthlyTransactionLimit(limit);
+        account.setTransactionCommission(Money.parse(commission));
+        return account;
+    }
+
+    // Falla las siguientes escrituras de una cuenta, como una base de datos que no responde
+    private static final class FailingAccountRepository extends InMemoryAccountRepository {
+
+        private final Map<String, AtomicInteger> failures = new HashMap<>();
+
+        private FailingAccountRepository() {
+            super(Duration.ZERO);
+        }
+
+        private void failSaves(String accountId, int times) {
+            failures.put(accountId, new AtomicInteger(times));
+        }
+
+        @Override
+        public <S extends Account> Mono<S> save(S entity) {
+            return Mono.defer(() -> {
+                AtomicInteger remaining = failures.get(entity.getId());
+                if (remaining != null && remaining.getAndDecrement() > 0) {
+                    return Mono.error(new DataAccessResourceFailureException("Unavailable " + entity.getId()));
+                }
+                return super.save(entity);
+            });
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.msaccountservice.service.impl;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.VipCompliance;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Promedio de saldo diario VIP: cambio de mes, movimientos tras medianoche y próximo cambio de resultado
+class VipComplianceCalculatorTest {
+
+    private static final Money MINIMUM = Money.parse("1000");
+
+    @Test
+    void firstMovementOfAMonthClosesThePreviousOne() {
+        Account account = account("1500");
+        VipComplianceCalculator.start(account, LocalDate.of(2024, 1, 10));
+        VipCompliance compliance = account.getVipCompliance();
+
+        // Sin movimientos en febrero, todos sus días con el saldo actual
+        assertTrue(VipComplianceCalculator.evaluate(compliance, account.getBalance(), MINIMUM, LocalDate.of(2024, 2, 5)));
+        assertEquals(Money.parse("1500"), compliance.getAverageDailyBalance());
+
+        move(account, "500", LocalDate.of(2024, 2, 10));
+        assertEquals("2024-01", compliance.getClosedPeriod());
+        assertEquals(22, compliance.getClosedDays());
+        assertEquals(Money.parse("33000"), compliance.getClosedDaySum());
+        assertEquals("2024-02", compliance.getPeriod());
+        assertEquals(9, compliance.getDays());
+
+        // Nueve días a 1500 y uno a 500
+        assertTrue(VipComplianceCalculator.evaluate(compliance, account.getBalance(), MINIMUM, LocalDate.of(2024, 2, 10)));
+        assertEquals(Money.parse("1400"), compliance.getAverageDailyBalance());
+        assertFalse(compliance.getBreached());
+        assertEquals(LocalDate.of(2024, 2, 19), compliance.getNextEvaluation());
+    }
+
+    @Test
+    void monthEndCloseSeesAMovementAfterMidnight() {
+        Account account = account("2000");
+        VipComplianceCalculator.start(account, LocalDate.of(2024, 1, 1));
+        VipCompliance compliance = account.getVipCompliance();
+        // Movimiento a las 00:05 del día 1, antes de que corra el cierre del 31
+        move(account, "100", LocalDate.of(2024, 2, 1));
+
+        assertTrue(VipComplianceCalculator.evaluate(compliance, account.getBalance(), MINIMUM, LocalDate.of(2024, 1, 31)));
+        assertEquals(Money.parse("2000"), compliance.getAverageDailyBalance());
+        assertFalse(compliance.getBreached());
+        assertEquals(LocalDate.of(2024, 1, 31), compliance.getEvaluatedThrough());
+        // El mes nuevo empieza con el saldo actual: cambia en el primer cierre
+        assertEquals(LocalDate.of(2024, 2, 1), compliance.getNextEvaluation());
+
+        assertTrue(VipComplianceCalculator.evaluate(compliance, account.getBalance(), MINIMUM, LocalDate.of(2024, 2, 1)));
+        assertTrue(compliance.getBreached());
+        assertEquals(LocalDate.of(2024, 2, 1), compliance.getBreachedSince());
+    }
+
+    @Test
+    void laterMovementsDeferTheClose() {
+        Account account = account("2000");
+        VipComplianceCalculator.start(account, LocalDate.of(2024, 1, 1));
+        move(account, "100", LocalDate.of(2024, 2, 2));
+
+        assertFalse(VipComplianceCalculator.evaluate(account.getVipCompliance(), account.getBalance(), MINIMUM,
+                LocalDate.of(2024, 1, 31)));
+    }
+
+    @Test
+    void nextFlipFindsTheFirstCloseThatChangesTheResult() {
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        // Por encima del mínimo con saldo menor: 10000 + 7·500 < 800·17
+        assertEquals(LocalDate.of(2024, 3, 17), VipComplianceCalculator.nextFlip(10000, 10, 500, 800, day, false));
+        // Incumpliendo con saldo mayor: 5000 + 10·1500 >= 1000·20
+        assertEquals(LocalDate.of(2024, 3, 20), VipComplianceCalculator.nextFlip(5000, 10, 1500, 1000, day, true));
+        // Pasado fin de mes: el mes siguiente empieza con el saldo actual
+        assertEquals(LocalDate.of(2024, 4, 1),
+                VipComplianceCalculator.nextFlip(5000, 10, 1500, 1000, LocalDate.of(2024, 3, 25), true));
+        // Cumpliendo con saldo suficiente no cambia nunca
+        assertNull(VipComplianceCalculator.nextFlip(10000, 10, 1000, 800, day, false));
+    }
+
+    @Test
+    void overflowingSumsFailInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> VipComplianceCalculator.nextFlip(
+                Long.MAX_VALUE, 10, 0, Long.MAX_VALUE / 2, LocalDate.of(2024, 3, 10), false));
+        Account account = account("1");
+        VipComplianceCalculator.start(account, LocalDate.of(2024, 1, 1));
+        assertThrows(ArithmeticException.class, () -> VipComplianceCalculator.evaluate(account.getVipCompliance(),
+                Money.ofMinor(Long.MAX_VALUE), MINIMUM, LocalDate.of(2024, 1, 5)));
+    }
+
+    private static Account account(String balance) {
+        Account account = new Account();
+        account.setBalance(Money.parse(balance));
+        account.setMinimumDailyBalance(MINIMUM);
+        return account;
+    }
+
+    private static void move(Account account, String balance, LocalDate day) {
+        VipComplianceCalculator.onBalanceChange(account, account.getBalance(), day);
+        account.setBalance(Money.parse(balance));
+    }
+}
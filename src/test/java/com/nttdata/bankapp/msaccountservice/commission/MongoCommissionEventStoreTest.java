@@ -0,0 +1,119 @@
+package com.nttdata.bankapp.msaccountservice.commission;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Reporte de comisiones sobre mongo-java-server: $sum de Decimal128 por cuenta en el rango [from, to)
+class MongoCommissionEventStoreTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 4, 1, 0, 0);
+    // Mongo guarda las fechas en milisegundos
+    private static final long MILLISECOND = 1_000_000;
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private MongoCommissionEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts"), converter);
+        store = new MongoCommissionEventStore(template);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void noEventsInTheRangeGiveAnEmptyReport() {
+        assertEquals(Map.of(), store.totalsByAccount("customer-1", FROM, TO).block());
+
+        record("customer-1", "a1", "2.50", FROM.minusNanos(MILLISECOND));
+        record("customer-1", "a1", "2.50", TO.plusDays(3));
+        record("customer-2", "b1", "2.50", FROM.plusDays(1));
+
+        assertEquals(Map.of(), store.totalsByAccount("customer-1", FROM, TO).block());
+    }
+
+    @Test
+    void theRangeIncludesFromAndExcludesTo() {
+        record("customer-1", "a1", "1.00", FROM);
+        record("customer-1", "a1", "2.00", TO.minusNanos(MILLISECOND));
+        record("customer-1", "a1", "4.00", TO);
+
+        assertEquals(Map.of("a1", new BigDecimal("3.00")), store.totalsByAccount("customer-1", FROM, TO).block());
+        // El mes siguiente empieza justo donde terminó este
+        assertEquals(Map.of("a1", new BigDecimal("4.00")),
+                store.totalsByAccount("customer-1", TO, TO.plusMonths(1)).block());
+    }
+
+    @Test
+    void totalsAreExactDecimalSumsPerAccount() {
+        // En double 0.1 + 0.2 no da 0.3: la suma tiene que hacerse sobre Decimal128
+        record("customer-1", "a1", "0.10", FROM.plusDays(1));
+        record("customer-1", "a1", "0.20", FROM.plusDays(2));
+        record("customer-1", "a2", "1.00", FROM.plusDays(1));
+        record("customer-1", "a2", "1.00", FROM.plusDays(5));
+        // Devolución de la comisión de una transferencia revertida
+        record("customer-1", "a2", "-0.50", FROM.plusDays(6));
+        record("customer-1", "a3", "12345678901234.99", FROM.plusDays(7));
+        record("customer-2", "a1", "100.00", FROM.plusDays(1));
+
+        Map<String, BigDecimal> totals = store.totalsByAccount("customer-1", FROM, TO).block();
+
+        assertEquals(Map.of("a1", new BigDecimal("0.30"), "a2", new BigDecimal("1.50"),
+                "a3", new BigDecimal("12345678901234.99")), totals);
+        Document stored = template.getCollection(MongoCommissionEventStore.COMMISSION_EVENTS)
+                .flatMap(collection -> Mono.from(collection.find().first()))
+                .block();
+        assertEquals(Decimal128.class, stored.get("amount").getClass());
+    }
+
+    private void record(String customerId, String accountId, String amount, LocalDateTime timestamp) {
+        store.record(CommissionEvent.builder()
+                .customerId(customerId)
+                .accountId(accountId)
+                .amount(Money.parse(amount))
+                .source(CommissionEvent.Source.WITHDRAWAL)
+                .timestamp(timestamp)
+                .build()).block();
+    }
+}
@@ -0,0 +1,185 @@
+package com.nttdata.bankapp.msaccountservice.deadline;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Deadline de la petición: 504 del filtro, cabecera propagada y operaciones de MongoDB
+class DeadlineTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+    private final DeadlineMetrics metrics = new DeadlineMetrics();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MongoServer server;
+    private MongoClient client;
+    private DeadlineMongoTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        metrics.bindTo(registry);
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        template = new DeadlineMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "deadline"), converter,
+                metrics);
+        template.insert(new Document("_id", "counter").append("value", 1L), "counters").block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void filterAnswers504WhenTheChainOutlivesTheDeadline() {
+        DeadlineFilter filter = new DeadlineFilter(properties, metrics);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/accounts/1")
+                .header(properties.getHeader(), Long.toString(System.currentTimeMillis() + 50)));
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+
+        filter.filter(exchange, chained -> Mono.deferContextual(context -> {
+            seen.set(Deadline.from(context).orElse(null));
+            return Mono.delay(Duration.ofSeconds(5)).then();
+        })).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        assertEquals(Long.parseLong(exchange.getRequest().getHeaders().getFirst(properties.getHeader())),
+                seen.get().getEpochMillis());
+        assertEquals(1.0, exceeded(DeadlineMetrics.REQUEST));
+    }
+
+    @Test
+    void filterAnswers504WithoutCallingTheChainForAnExpiredDeadline() {
+        DeadlineFilter filter = new DeadlineFilter(properties, metrics);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/accounts/1")
+                .header(properties.getHeader(), Long.toString(System.currentTimeMillis() - 1)));
+        AtomicBoolean called = new AtomicBoolean();
+
+        filter.filter(exchange, chained -> Mono.fromRunnable(() -> called.set(true))).block();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+        assertFalse(called.get());
+    }
+
+    @Test
+    void clientCallsCarryTheRequestDeadline() {
+        DeadlineExchangeFilter filter = new DeadlineExchangeFilter(properties, metrics);
+        AtomicReference<ClientRequest> sent = new AtomicReference<>();
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://customers/1")).build();
+        Deadline deadline = Deadline.after(Duration.ofSeconds(3));
+
+        filter.filter(request, outgoing -> {
+            sent.set(outgoing);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }).contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline)).block();
+        assertEquals(deadline.toString(), sent.get().headers().getFirst(properties.getHeader()));
+
+        // Sin deadline no se añade la cabecera
+        filter.filter(request, outgoing -> {
+            sent.set(outgoing);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }).block();
+        assertNull(sent.get().headers().getFirst(properties.getHeader()));
+
+        // Agotado, la llamada no se hace
+        sent.set(null);
+        assertThrows(DeadlineExceededException.class, () -> filter.filter(request, outgoing -> {
+            sent.set(outgoing);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }).contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.ofEpochMillis(1))).block());
+        assertNull(sent.get());
+        assertEquals(1.0, exceeded(DeadlineMetrics.HTTP_CLIENT));
+    }
+
+    @Test
+    void mongoOperationsRunWithinTheDeadline() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        Query counter = Query.query(Criteria.where("_id").is("counter"));
+
+        assertEquals(1L, within(template.updateFirst(counter, new Update().inc("value", 1L), "counters"), deadline)
+                .getModifiedCount());
+        assertEquals(3L, within(template.findAndModify(counter, new Update().inc("value", 1L),
+                FindAndModifyOptions.options().returnNew(true), Document.class, "counters"), deadline).get("value"));
+        List<Document> aggregated = within(template.aggregate(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is("counter"))), "counters", Document.class).collectList(),
+                deadline);
+        assertEquals(1, aggregated.size());
+        assertEquals(0.0, exceeded(DeadlineMetrics.MONGO));
+    }
+
+    @Test
+    void mongoOperationsAreNotSentOnceTheDeadlineExpired() {
+        Deadline expired = Deadline.ofEpochMillis(System.currentTimeMillis() - 1);
+        Query counter = Query.query(Criteria.where("_id").is("counter"));
+
+        assertThrows(DeadlineExceededException.class, () -> within(
+                template.updateFirst(counter, new Update().inc("value", 1L), "counters"), expired));
+        assertThrows(DeadlineExceededException.class, () -> within(template.findAndModify(counter,
+                new Update().inc("value", 1L), Document.class, "counters"), expired));
+        assertThrows(DeadlineExceededException.class, () -> within(template.aggregate(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is("counter"))), "counters", Document.class).collectList(),
+                expired));
+        assertThrows(DeadlineExceededException.class, () -> within(template.execute("counters",
+                collection -> collection.deleteMany(new Document())).then(), expired));
+
+        assertEquals(4.0, exceeded(DeadlineMetrics.MONGO));
+        assertEquals(1L, template.findById("counter", Document.class, "counters").block().get("value"));
+    }
+
+    @Test
+    void slowCollectionCallbacksStopAtTheDeadline() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+
+        assertThrows(DeadlineExceededException.class, () -> within(template.execute("counters",
+                collection -> Mono.delay(Duration.ofSeconds(5))).then(), deadline));
+        assertEquals(1.0, exceeded(DeadlineMetrics.MONGO));
+    }
+
+    private static <T> T within(Mono<T> operation, Deadline deadline) {
+        return operation.contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private double exceeded(String stage) {
+        return registry.get("deadline.exceeded").tag("stage", stage).functionCounter().count();
+    }
+}
@@ -0,0 +1,126 @@
+package com.nttdata.bankapp.msaccountservice.events;
+
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Tópicos por cuenta: entrega, liberación, máximo de suscripciones y desconexión de consumidores lentos
+class BalanceEventPublisherTest {
+
+    private BalanceEventsProperties properties;
+    private BalanceEventPublisher publisher;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BalanceEventsProperties();
+        publisher = new BalanceEventPublisher(properties);
+        registry = new SimpleMeterRegistry();
+        publisher.bindTo(registry);
+    }
+
+    @Test
+    void subscribersReceiveTheirAccountsAndReleaseTheTopicsOnCancel() {
+        List<BalanceEvent> received = new CopyOnWriteArrayList<>();
+        Disposable first = publisher.subscribe(List.of("acc-1", "acc-2")).subscribe(received::add);
+        Disposable second = publisher.subscribe(List.of("acc-1")).subscribe();
+        assertTrue(publisher.isObserved("acc-1"));
+        assertEquals(2.0, gauge("balance.events.topics"));
+
+        publisher.publish("acc-1", "customer-1", BalanceEvent.Type.BALANCE_CHANGED, Money.parse("80"), Money.parse("-20"));
+        publisher.publish("acc-3", "customer-1", BalanceEvent.Type.BALANCE_CHANGED, Money.parse("10"), Money.parse("10"));
+        assertEquals(1, received.size());
+        assertEquals(new BigDecimal("80.00"), received.get(0).getBalance());
+        assertEquals(1.0, counter("balance.events.published"));
+
+        // acc-1 sigue observada por la segunda suscripción
+        first.dispose();
+        assertTrue(publisher.isObserved("acc-1"));
+        assertFalse(publisher.isObserved("acc-2"));
+        second.dispose();
+        assertFalse(publisher.isObserved("acc-1"));
+        assertEquals(0.0, gauge("balance.events.topics"));
+        assertEquals(0.0, gauge("balance.events.subscribers"));
+    }
+
+    @Test
+    void subscriptionsOverTheLimitAreRejected() {
+        properties.setMaxSubscribers(1);
+        Disposable open = publisher.subscribe(List.of("acc-1")).subscribe();
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        publisher.subscribe(List.of("acc-2")).subscribe(event -> { }, error::set);
+        assertInstanceOf(SubscriberLimitExceededException.class, error.get());
+        assertFalse(publisher.isObserved("acc-2"));
+        assertEquals(1.0, counter("balance.events.rejected"));
+
+        // Al cerrar la abierta queda sitio
+        open.dispose();
+        error.set(null);
+        publisher.subscribe(List.of("acc-2")).subscribe(event -> { }, error::set);
+        assertNull(error.get());
+        assertTrue(publisher.isObserved("acc-2"));
+    }
+
+    @Test
+    void slowConsumersAreDisconnectedOnceTheirBufferFills() {
+        properties.setBufferSize(2);
+        AtomicBoolean completed = new AtomicBoolean();
+        List<BalanceEvent> received = new CopyOnWriteArrayList<>();
+        // Consumidor detenido: nunca pide eventos
+        publisher.subscribe(List.of("acc-1")).subscribe(new BaseSubscriber<BalanceEvent>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+
+            @Override
+            protected void hookOnNext(BalanceEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                completed.set(true);
+            }
+        });
+        List<BalanceEvent> fast = new CopyOnWriteArrayList<>();
+        Disposable other = publisher.subscribe(List.of("acc-1")).subscribe(fast::add);
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publish("acc-1", "customer-1", BalanceEvent.Type.BALANCE_CHANGED, Money.parse("10"), null);
+        }
+
+        assertTrue(completed.get());
+        assertTrue(received.isEmpty());
+        assertEquals(1.0, counter("balance.events.slow.consumers"));
+        // El suscriptor que sí consume no se ve afectado
+        assertEquals(5, fast.size());
+        assertEquals(1.0, gauge("balance.events.subscribers"));
+        other.dispose();
+        assertFalse(publisher.isObserved("acc-1"));
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double counter(String name) {
+        return registry.get(name).functionCounter().count();
+    }
+}
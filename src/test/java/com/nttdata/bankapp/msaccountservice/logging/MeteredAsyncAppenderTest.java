@@ -0,0 +1,113 @@
+package com.nttdata.bankapp.msaccountservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Eventos descartados por umbral y por cola llena con el hilo del appender detenido
+class MeteredAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("test");
+    private final CountDownLatch taken = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private MeteredAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        // Retiene el primer evento hasta release: mientras, la cola solo se llena
+        AppenderBase<ILoggingEvent> blocking = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                written.add(event.getMessage());
+                taken.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.setContext(context);
+        blocking.start();
+
+        appender = new MeteredAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(4);
+        appender.setNeverBlock(true);
+        appender.addAppender(blocking);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void countsThresholdAndFullQueueDrops() throws InterruptedException {
+        appender.setDiscardingThreshold(2);
+        appender.start();
+        holdWorker();
+
+        // Libres 4, 3 y 2: entran
+        append(Level.INFO, "a");
+        append(Level.INFO, "b");
+        append(Level.INFO, "c");
+        // Libre 1, por debajo del umbral: INFO se descarta, WARN entra
+        append(Level.INFO, "dropped");
+        append(Level.WARN, "d");
+        assertEquals(1, appender.getDroppedEvents());
+        // Cola llena: el WARN se pierde sin bloquear, el INFO cae por umbral
+        append(Level.WARN, "lost");
+        append(Level.INFO, "dropped");
+        assertEquals(0, appender.getRemainingCapacity());
+        assertEquals(3, appender.getDroppedEvents());
+
+        release.countDown();
+        appender.stop();
+        assertEquals(List.of("first", "a", "b", "c", "d"), written);
+    }
+
+    @Test
+    void withoutThresholdOnlyTheFullQueueDrops() throws InterruptedException {
+        // Como la cola de spans: ningún evento se descarta por nivel
+        appender.setDiscardingThreshold(0);
+        appender.start();
+        holdWorker();
+
+        for (int i = 0; i < 6; i++) {
+            append(Level.INFO, "span-" + i);
+        }
+        assertEquals(2, appender.getDroppedEvents());
+
+        release.countDown();
+        appender.stop();
+        assertEquals(List.of("first", "span-0", "span-1", "span-2", "span-3"), written);
+    }
+
+    private void holdWorker() throws InterruptedException {
+        append(Level.INFO, "first");
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        assertEquals(4, appender.getRemainingCapacity());
+    }
+
+    private void append(Level level, String message) {
+        appender.doAppend(new LoggingEvent(Logger.class.getName(), logger, level, message, null, null));
+    }
+}
@@ -0,0 +1,157 @@
+package com.nttdata.bankapp.msaccountservice.migration;
+
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Migración a Decimal128 sobre mongo-java-server: conversión, repetición sin efectos y reanudación
+class Decimal128MigrationTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private Decimal128MigrationProperties properties;
+    private Decimal128Migration migration;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts"));
+        properties = new Decimal128MigrationProperties();
+        properties.setBatchSize(2);
+        migration = new Decimal128Migration(template, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void convertsStringAmounts() {
+        insert(new Document("_id", "a")
+                .append("balance", "100.50")
+                .append("transactionFee", " 2 ")
+                .append("interestRate", new Decimal128(new BigDecimal("0.05"))));
+        insert(new Document("_id", "b").append("balance", "oops").append("maintenanceFee", "5"));
+        insert(new Document("_id", "c").append("balance", new Decimal128(BigDecimal.ONE)));
+
+        Decimal128Migration.Summary summary = migration.migrate().block();
+        assertNotNull(summary);
+        assertEquals(2, summary.getScanned());
+        assertEquals(2, summary.getMigrated());
+        // "oops" sigue siendo String: la pasada final lo vuelve a leer, pero no lo cuenta otra vez
+        assertEquals(1, summary.getRescanned());
+        assertEquals(1, summary.getInvalid());
+        assertEquals("b", summary.getLastId());
+
+        Document a = account("a");
+        assertEquals(decimal("100.50"), a.get("balance"));
+        assertEquals(decimal("2"), a.get("transactionFee"));
+        assertEquals(decimal("0.05"), a.get("interestRate"));
+        // Lo que no es un número se deja tal cual y se cuenta como inválido
+        assertEquals("oops", account("b").get("balance"));
+        assertEquals(decimal("5"), account("b").get("maintenanceFee"));
+        assertEquals("b", checkpoint().get("lastId"));
+    }
+
+    // mongo-java-server no admite $type dentro de $expr, que usa el filtro de dailyBalances: se prueba la actualización
+    @Test
+    void dailyBalancesAreConvertedOnlyWhileUnchanged() {
+        Document balances = new Document("2024-03-01", "10").append("2024-03-02", "n/a")
+                .append("2024-03-03", decimal("7"));
+        Decimal128Migration.Summary summary = new Decimal128Migration.Summary();
+
+        UpdateOneModel<Document> update = Decimal128Migration.toUpdate(new Document("_id", "a")
+                .append(Decimal128Migration.DAILY_BALANCES, balances), summary);
+
+        assertNotNull(update);
+        assertEquals(new Document("_id", "a").append(Decimal128Migration.DAILY_BALANCES, balances), update.getFilter());
+        Document set = ((Document) update.getUpdate()).get("$set", Document.class);
+        assertEquals(new Document("2024-03-01", decimal("10")).append("2024-03-02", "n/a")
+                .append("2024-03-03", decimal("7")), set.get(Decimal128Migration.DAILY_BALANCES));
+        assertEquals(1, summary.getInvalid());
+        assertNull(Decimal128Migration.toUpdate(new Document("_id", "b")
+                .append(Decimal128Migration.DAILY_BALANCES, new Document("2024-03-01", decimal("1"))), summary));
+    }
+
+    @Test
+    void runningAgainChangesNothing() {
+        insert(new Document("_id", "a").append("balance", "1"));
+        insert(new Document("_id", "b").append("balance", "2"));
+        insert(new Document("_id", "c").append("balance", "3"));
+        migration.migrate().block();
+
+        Decimal128Migration.Summary again = migration.migrate().block();
+        assertNotNull(again);
+        assertEquals(0, again.getScanned());
+        assertEquals(0, again.getRescanned());
+        assertEquals(0, again.getMigrated());
+        assertEquals(decimal("3"), account("c").get("balance"));
+        assertEquals(3L, checkpoint().getLong("scanned"));
+
+        // restart recorre desde el principio, pero ya no hay importes String
+        properties.setRestart(true);
+        Decimal128Migration.Summary restarted = migration.migrate().block();
+        assertNotNull(restarted);
+        assertEquals(0, restarted.getMigrated());
+    }
+
+    @Test
+    void resumesAfterTheCheckpointAndRescansWhatOldInstancesRewrote() {
+        insert(new Document("_id", "a").append("balance", "1"));
+        insert(new Document("_id", "b").append("balance", "2"));
+        insert(new Document("_id", "c").append("balance", "3"));
+        insert(new Document("_id", "d").append("balance", "4"));
+        // Una ejecución anterior se interrumpió tras "b"; una instancia antigua volvió a escribir String en "a"
+        template.insert(new Document("_id", Decimal128Migration.MIGRATION_ID).append("lastId", "b").append("scanned", 2L),
+                Decimal128Migration.CHECKPOINTS).block();
+
+        Decimal128Migration.Summary summary = migration.migrate().block();
+        assertNotNull(summary);
+        // El recorrido sigue desde el checkpoint; la pasada final recoge "a" y "b"
+        assertEquals(2, summary.getScanned());
+        assertEquals(2, summary.getRescanned());
+        assertEquals(4, summary.getMigrated());
+        for (String id : new String[]{"a", "b", "c", "d"}) {
+            assertEquals(Decimal128.class, account(id).get("balance").getClass(), id);
+        }
+        assertEquals("d", checkpoint().get("lastId"));
+        assertEquals(4L, checkpoint().getLong("scanned"));
+    }
+
+    private void insert(Document account) {
+        template.insert(account, Decimal128Migration.ACCOUNTS).block();
+    }
+
+    private Document account(String id) {
+        return template.findById(id, Document.class, Decimal128Migration.ACCOUNTS).block();
+    }
+
+    private Document checkpoint() {
+        return template.findById(Decimal128Migration.MIGRATION_ID, Document.class, Decimal128Migration.CHECKPOINTS).block();
+    }
+
+    private static Decimal128 decimal(String value) {
+        return new Decimal128(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,69 @@
+package com.nttdata.bankapp.msaccountservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void ofRoundsHalfUpToCents() {
+        assertEquals(1235, Money.of(new BigDecimal("12.345")).getMinorUnits());
+        assertEquals(1234, Money.of(new BigDecimal("12.3449")).getMinorUnits());
+        assertEquals(-1235, Money.of(new BigDecimal("-12.345")).getMinorUnits());
+        assertEquals(new BigDecimal("7.10"), Money.parse(" 7.1 ").toBigDecimal());
+    }
+
+    @Test
+    void ofFailsWhenCentsDoNotFitInLong() {
+        BigDecimal tooLarge = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(Money.SCALE).add(BigDecimal.ONE);
+        assertThrows(ArithmeticException.class, () -> Money.of(tooLarge));
+    }
+
+    @Test
+    void ofAmountRejectsMissingAndOutOfRangeAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofAmount(null));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofAmount(new BigDecimal("1E+20")));
+        assertEquals(Money.ofMinor(5000), Money.ofAmount(new BigDecimal("50")));
+    }
+
+    @Test
+    void arithmeticFailsOnOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertEquals(Money.ofMinor(-300), Money.ofMinor(100).minus(Money.ofMinor(400)));
+    }
+
+    @Test
+    void dividedByRoundsHalfUpAwayFromZero() {
+        assertEquals(Money.ofMinor(334), Money.ofMinor(1001).dividedBy(3)); // 333.67
+        assertEquals(Money.ofMinor(3), Money.ofMinor(5).dividedBy(2)); // 2.5
+        assertEquals(Money.ofMinor(-3), Money.ofMinor(-5).dividedBy(2));
+        assertEquals(Money.ofMinor(-3), Money.ofMinor(5).dividedBy(-2));
+        assertEquals(Money.ofMinor(2), Money.ofMinor(7).dividedBy(3)); // 2.33
+    }
+
+    @Test
+    void averageMatchesBigDecimalHalfUp() {
+        long[][] cases = {{1001, 3}, {5, 2}, {-5, 2}, {10, 4}, {-10, 4}, {0, 7}, {Long.MAX_VALUE, 2}, {-7, 3}};
+        for (long[] c : cases) {
+            BigDecimal expected = BigDecimal.valueOf(c[0])
+                    .divide(BigDecimal.valueOf(c[1]), 0, RoundingMode.HALF_UP);
+            assertEquals(expected.longValueExact(), Money.average(c[0], c[1]).getMinorUnits(),
+                    c[0] + "/" + c[1]);
+        }
+    }
+
+    @Test
+    void toStringAndEqualityUseCents() {
+        assertEquals("0.50", Money.ofMinor(50).toString());
+        assertEquals(Money.ZERO, Money.ofMinor(0));
+        assertEquals(Money.parse("1.5"), Money.parse("1.50"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void ownerDoesNotDependOnPartitionOrder() {
+        PartitionRing ring = new PartitionRing(List.of("p0", "p1", "p2", "p3"), 256);
+        PartitionRing reordered = new PartitionRing(List.of("p3", "p1", "p0", "p2"), 256);
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(ring.ownerOf("customer-" + i), reordered.ownerOf("customer-" + i));
+        }
+        assertEquals(ring.ownership(), new PartitionRing(List.of("p3", "p1", "p0", "p2"), 256).ownership());
+    }
+
+    @Test
+    void addingAPartitionOnlyMovesKeysToIt() {
+        PartitionRing before = new PartitionRing(List.of("p0", "p1", "p2"), 256);
+        PartitionRing after = new PartitionRing(List.of("p0", "p1", "p2", "p3"), 256);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = after.ownerOf("customer-" + i);
+            if (!owner.equals(before.ownerOf("customer-" + i))) {
+                assertEquals("p3", owner);
+                moved++;
+            }
+        }
+        // La nueva partición recibe en torno a 1/4 de las claves, no un reparto completo
+        assertTrue(moved > KEYS * 0.20 && moved < KEYS * 0.30, "moved " + moved);
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+        List<String> names = List.of("p0", "p1", "p2", "p3");
+        PartitionRing ring = new PartitionRing(names, 256);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf("customer-" + i), 1, Integer::sum);
+        }
+        for (String name : names) {
+            double share = counts.getOrDefault(name, 0) / (double) KEYS;
+            assertTrue(Math.abs(share - 0.25) < 0.025, name + " owns " + share);
+            assertTrue(Math.abs(ring.ownership().get(name) - 0.25) < 0.025, name + " ownership " + ring.ownership());
+        }
+        assertEquals(1.0, ring.ownership().values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+    }
+
+    @Test
+    void singlePartitionOwnsEverything() {
+        PartitionRing ring = new PartitionRing(List.of("p0"), 1);
+        assertEquals("p0", ring.ownerOf("customer-1"));
+        assertEquals(Map.of("p0", 1.0), ring.ownership());
+        assertThrows(IllegalArgumentException.class, () -> new PartitionRing(List.of(), 256));
+    }
+}
@@ -0,0 +1,379 @@
+package com.nttdata.bankapp.msaccountservice.partitioning;
+
+import com.example.msaccountservice.model.Account;
+import com.example.msaccountservice.model.enums.AccountType;
+import com.example.msaccountservice.repository.partitioned.PartitionedAccountRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.config.AccountExportProperties;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.model.AccountTypeSummary;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.service.AccountExportService;
+import com.nttdata.bankapp.msaccountservice.service.impl.AccountExportServiceImpl;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dos particiones sobre servidores mongo-java-server en memoria: rebalanceo, lecturas y escrituras durante la migración
+class PartitionedRepositoryTest {
+
+    private final List<MongoServer> servers = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private PartitioningProperties properties;
+    private MongoPartitions partitions;
+    private PartitionedAccountRepository repository;
+    private PartitionRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        List<MongoPartition> list = new ArrayList<>();
+        for (String name : List.of("p1", "p2")) {
+            MongoServer server = new MongoServer(new MemoryBackend());
+            servers.add(server);
+            MongoClient client = MongoClients.create("mongodb://" + hostAndPort(server));
+            clients.add(client);
+            list.add(new MongoPartition(name, new ReactiveMongoTemplate(
+                    new SimpleReactiveMongoDatabaseFactory(client, "accounts_" + name), converter)));
+        }
+        properties = new PartitioningProperties();
+        properties.setRebalanceBatchSize(3);
+        partitions = new MongoPartitions(list, properties, clients);
+        repository = new PartitionedAccountRepository(partitions, properties);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("accounts", repository));
+        rebalancer = new PartitionRebalancer(partitions, properties, repositories(beans));
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.close();
+        servers.forEach(MongoServer::shutdownNow);
+    }
+
+    @Test
+    void rebalanceMovesOnlyMisplacedAccountDocuments() {
+        MongoPartition p1 = partitions.get("p1");
+        MongoPartition p2 = partitions.get("p2");
+        List<String> movedCustomers = customersOwnedBy("p2", 5);
+        List<String> stayingCustomers = customersOwnedBy("p1", 2);
+
+        // Cuentas de clientes de p2 que quedaron en p1, una de ellas sin _class (anterior a Spring Data)
+        for (String customerId : movedCustomers) {
+            p1.getTemplate().insert(account(customerId)).block();
+        }
+        insertRaw(p1, new Document("_id", "legacy").append("accountType", "SAVINGS")
+                .append("customerId", movedCustomers.get(0)));
+        stayingCustomers.forEach(customerId -> p1.getTemplate().insert(account(customerId)).block());
+        // Cuenta de /accounts (com.nttdata) en la misma colección: no se reparte y no debe moverse
+        insertRaw(p1, new Document("_id", "ntt").append("_class", "com.nttdata.bankapp.msaccountservice.model.Account")
+                .append("type", "SAVINGS").append("customerId", movedCustomers.get(1)));
+
+        RebalanceSummary dryRun = rebalancer.rebalance(true).block();
+        assertNotNull(dryRun);
+        assertEquals(6, moved(dryRun));
+        assertEquals(9, count(p1));
+
+        RebalanceSummary summary = rebalancer.rebalance(false).block();
+        assertNotNull(summary);
+        assertEquals(6, moved(summary));
+        assertEquals(Set.of("ntt"), ids(p1, "com.nttdata.bankapp.msaccountservice.model.Account"));
+        assertEquals(3, count(p1));
+        assertEquals(6, count(p2));
+        assertTrue(ids(p2, null).contains("legacy"));
+
+        // Repetible: la segunda ejecución no encuentra nada que mover
+        assertEquals(0, moved(rebalancer.rebalance(false).block()));
+    }
+
+    @Test
+    void migratingReadsReturnTheCurrentCopyOnce() {
+        MongoPartition p1 = partitions.get("p1");
+        MongoPartition p2 = partitions.get("p2");
+        String customerId = customersOwnedBy("p2", 1).get(0);
+
+        Account stale = account(customerId);
+        stale.setBalance(Money.parse("10"));
+        p1.getTemplate().insert(stale).block();
+        Account current = account(customerId);
+        current.setId(stale.getId());
+        current.setBalance(Money.parse("25"));
+        p2.getTemplate().insert(current).block();
+        Account notMoved = account(customerId);
+        p1.getTemplate().insert(notMoved).block();
+
+        properties.setMigrating(true);
+        Map<String, Money> found = repository.findByCustomerId(customerId)
+                .collectMap(Account::getId, Account::getBalance).block();
+        assertEquals(Map.of(stale.getId(), Money.parse("25"), notMoved.getId(), notMoved.getBalance()), found);
+        assertEquals(Money.parse("25"), repository.findById(stale.getId()).map(Account::getBalance).block());
+        assertEquals(notMoved.getId(), repository.findById(notMoved.getId()).map(Account::getId).block());
+
+        rebalancer.rebalance(false).block();
+        properties.setMigrating(false);
+        assertEquals(0, count(p1));
+        assertEquals(2, repository.findByCustomerId(customerId).count().block());
+        assertEquals(Money.parse("25"), repository.findById(stale.getId()).map(Account::getBalance).block());
+    }
+
+    @Test
+    void idsForgottenByAFullLocationCacheAreStillFound() {
+        properties.setLocationCacheSize(2);
+        PartitionedAccountRepository small = new PartitionedAccountRepository(partitions, properties);
+        List<String> customers = new ArrayList<>(customersOwnedBy("p1", 4));
+        customers.addAll(customersOwnedBy("p2", 4));
+        List<String> saved = Flux.fromIterable(customers)
+                .concatMap(customerId -> small.save(account(customerId)))
+                .map(Account::getId)
+                .collectList().block();
+        assertNotNull(saved);
+
+        // Lecturas concurrentes sobre una caché de dos ids
+        Set<String> found = Flux.fromIterable(saved).repeat(3)
+                .flatMap(small::findById, 8)
+                .map(Account::getId)
+                .collect(Collectors.toSet()).block();
+        assertEquals(Set.copyOf(saved), found);
+    }
+
+    @Test
+    void migratingVersionedSaveCopiesTheAccountToItsNewPartition() {
+        MongoPartition p1 = partitions.get("p1");
+        MongoPartition p2 = partitions.get("p2");
+        String customerId = customersOwnedBy("p2", 1).get(0);
+        Account stored = account(customerId);
+        p1.getTemplate().insert(stored).block();
+
+        properties.setMigrating(true);
+        Account read = repository.findById(stored.getId()).block();
+        assertNotNull(read);
+        assertEquals(0L, read.getVersion());
+        read.setBalance(Money.parse("150"));
+        Account saved = repository.saveVersioned(read).block();
+        assertNotNull(saved);
+        assertEquals(1L, saved.getVersion());
+        assertEquals(1, count(p2));
+        assertEquals(Money.parse("150"), repository.findById(stored.getId()).map(Account::getBalance).block());
+        assertEquals(List.of(Money.parse("150")), repository.findByCustomerId(customerId)
+                .map(Account::getBalance).collectList().block());
+
+        // Una escritura concurrente que leyó la copia anterior falla su comprobación de version
+        Account concurrent = p1.getTemplate().findById(stored.getId(), Account.class).block();
+        assertNotNull(concurrent);
+        concurrent.setBalance(Money.parse("90"));
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.saveVersioned(concurrent).block());
+
+        // El rebalanceo conserva la copia de la partición nueva y borra la anterior
+        RebalanceSummary summary = rebalancer.rebalance(false).block();
+        assertNotNull(summary);
+        assertEquals(1, summary.getMoves().stream().mapToLong(RebalanceSummary.Move::getAlreadyPresent).sum());
+        properties.setMigrating(false);
+        assertEquals(0, count(p1));
+        assertEquals(Money.parse("150"), repository.findById(stored.getId()).map(Account::getBalance).block());
+    }
+
+    @Test
+    void newAccountIdsPointToTheirPartition() {
+        String customerId = customersOwnedBy("p2", 1).get(0);
+        Account account = account(customerId);
+        account.setId(null);
+        Account saved = repository.save(account).block();
+        assertNotNull(saved);
+        assertEquals(List.of(partitions.get("p2")), partitions.likelyFor(saved.getId()));
+        assertEquals(1, count(partitions.get("p2")));
+
+        // Otra instancia (sin la partición recordada) la encuentra consultando solo p2
+        PartitionedAccountRepository other = new PartitionedAccountRepository(partitions, properties);
+        servers.get(0).shutdownNow();
+        assertEquals(saved.getId(), other.findById(saved.getId()).map(Account::getId).block());
+        assertEquals(saved.getId(), other.findByIdAndCustomerId(saved.getId(), customerId).map(Account::getId).block());
+    }
+
+    @Test
+    void accountsOfTheAccountsApiAreRoutedByCustomer() {
+        com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository accounts =
+                new com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository(
+                        partitions, properties);
+        String p1Customer = customersOwnedBy("p1", 1).get(0);
+        String p2Customer = customersOwnedBy("p2", 1).get(0);
+        // La importación inserta cada lote de una vez: se reparte entre las particiones
+        List<String> imported = accounts.insert(List.of(
+                        nttAccount(p1Customer, "ACC-1", com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS, "10"),
+                        nttAccount(p2Customer, "ACC-2", com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS, "20")))
+                .map(com.nttdata.bankapp.msaccountservice.model.Account::getId)
+                .collectList().block();
+        assertNotNull(imported);
+        assertEquals(2, accounts.findAllById(imported).count().block());
+        accounts.save(nttAccount(p2Customer, "ACC-3", com.nttdata.bankapp.msaccountservice.model.AccountType.CHECKING, "30"))
+                .block();
+
+        assertEquals(1, count(partitions.get("p1")));
+        assertEquals(2, count(partitions.get("p2")));
+        assertEquals(Set.of("ACC-1", "ACC-2", "ACC-3"), accounts.findByCustomerIdIn(List.of(p1Customer, p2Customer))
+                .map(com.nttdata.bankapp.msaccountservice.model.Account::getAccountNumber)
+                .collect(Collectors.toSet()).block());
+        assertEquals(p2Customer, accounts.findByAccountNumber("ACC-3")
+                .map(com.nttdata.bankapp.msaccountservice.model.Account::getCustomerId).block());
+        assertEquals(Map.of(com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS, Money.parse("20"),
+                        com.nttdata.bankapp.msaccountservice.model.AccountType.CHECKING, Money.parse("30")),
+                accounts.summarizeByCustomerId(p2Customer, LocalDate.now().withDayOfMonth(1))
+                        .collectMap(AccountTypeSummary::getType, AccountTypeSummary::getBalance).block());
+    }
+
+    @Test
+    void rebalanceMovesTheAccountsOfBothApis() {
+        MongoPartition p1 = partitions.get("p1");
+        MongoPartition p2 = partitions.get("p2");
+        com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository nttAccounts =
+                new com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository(
+                        partitions, properties);
+        PartitionRebalancer both = new PartitionRebalancer(partitions, properties, repositories(
+                new StaticListableBeanFactory(Map.of("accounts", repository, "nttAccounts", nttAccounts))));
+        String customerId = customersOwnedBy("p2", 1).get(0);
+        p1.getTemplate().insert(account(customerId)).block();
+        p1.getTemplate().insert(nttAccount(customerId, "ACC-1", com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS,
+                "10")).block();
+        insertRaw(p1, new Document("_id", "legacy-ntt").append("type", "SAVINGS").append("customerId", customerId));
+
+        RebalanceSummary summary = both.rebalance(false).block();
+        assertNotNull(summary);
+        assertEquals(3, moved(summary));
+        assertEquals(0, count(p1));
+        assertEquals(3, count(p2));
+        assertEquals(customerId, nttAccounts.findByAccountNumber("ACC-1")
+                .map(com.nttdata.bankapp.msaccountservice.model.Account::getCustomerId).block());
+    }
+
+    @Test
+    void exportReadsEveryPartitionOnceWhileMigrating() {
+        MongoPartition p1 = partitions.get("p1");
+        MongoPartition p2 = partitions.get("p2");
+        String p1Customer = customersOwnedBy("p1", 1).get(0);
+        String p2Customer = customersOwnedBy("p2", 1).get(0);
+        com.nttdata.bankapp.msaccountservice.model.Account stale =
+                nttAccount(p2Customer, "ACC-2", com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS, "10");
+        stale.setId(new ObjectId().toHexString());
+        p1.getTemplate().insert(stale).block();
+        stale.setBalance(Money.parse("25"));
+        p2.getTemplate().insert(stale).block();
+        p1.getTemplate().insert(nttAccount(p1Customer, "ACC-1", com.nttdata.bankapp.msaccountservice.model.AccountType.SAVINGS,
+                "10")).block();
+        p1.getTemplate().insert(nttAccount(p2Customer, "ACC-3", com.nttdata.bankapp.msaccountservice.model.AccountType.CHECKING,
+                "30")).block();
+
+        properties.setMigrating(true);
+        AccountExportServiceImpl export = new AccountExportServiceImpl(partitions, new AccountExportProperties());
+        String ndjson = export.export(AccountExportService.Format.NDJSON, List.of("accountNumber", "balance"), null,
+                        false, new DefaultDataBufferFactory())
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .collect(Collectors.joining())
+                .block();
+        assertNotNull(ndjson);
+        List<String> lines = List.of(ndjson.split("\n"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("ACC-2") && line.contains("25")));
+        assertTrue(lines.stream().noneMatch(line -> line.contains("customerId")));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ObjectProvider<PartitionedMongoRepository<?>> repositories(StaticListableBeanFactory beans) {
+        return (ObjectProvider) beans.getBeanProvider(PartitionedMongoRepository.class);
+    }
+
+    private List<String> customersOwnedBy(String partition, int count) {
+        List<String> customers = new ArrayList<>();
+        for (int i = 0; customers.size() < count; i++) {
+            if (partitions.forKey("customer-" + i).getName().equals(partition)) {
+                customers.add("customer-" + i);
+            }
+        }
+        return customers;
+    }
+
+    private static Account account(String customerId) {
+        Account account = new Account();
+        account.setId(new ObjectId().toHexString());
+        account.setAccountType(AccountType.SAVINGS);
+        account.setCustomerId(customerId);
+        account.setBalance(Money.parse("100"));
+        return account;
+    }
+
+    private static com.nttdata.bankapp.msaccountservice.model.Account nttAccount(
+            String customerId, String accountNumber, com.nttdata.bankapp.msaccountservice.model.AccountType type,
+            String balance) {
+        return com.nttdata.bankapp.msaccountservice.model.Account.builder()
+                .customerId(customerId)
+                .accountNumber(accountNumber)
+                .type(type)
+                .balance(Money.parse(balance))
+                .build();
+    }
+
+    private static void insertRaw(MongoPartition partition, Document document) {
+        partition.getTemplate().getCollection("accounts")
+                .flatMap(collection -> Mono.from(collection.insertOne(document)))
+                .block();
+    }
+
+    private static long count(MongoPartition partition) {
+        return partition.getTemplate().getCollection("accounts")
+                .flatMap(collection -> Mono.from(collection.countDocuments()))
+                .block();
+    }
+
+    private static Set<String> ids(MongoPartition partition, String className) {
+        return partition.getTemplate().getCollection("accounts")
+                .flatMapMany(collection -> Flux.from(className != null
+                        ? collection.find(new Document("_class", className)) : collection.find()))
+                .map(document -> document.get("_id").toString())
+                .collect(Collectors.toSet())
+                .block();
+    }
+
+    private static long moved(RebalanceSummary summary) {
+        return summary.getMoves().stream().mapToLong(RebalanceSummary.Move::getDocuments).sum();
+    }
+
+    private static String hostAndPort(MongoServer server) {
+        InetSocketAddress address = server.bind();
+        return address.getHostString() + ":" + address.getPort();
+    }
+}
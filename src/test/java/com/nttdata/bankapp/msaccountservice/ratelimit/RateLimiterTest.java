@@ -0,0 +1,158 @@
+package com.nttdata.bankapp.msaccountservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Admisión por perfil, respuesta 429 del filtro y limpieza de buckets inactivos
+class RateLimiterTest {
+
+    // Cuentas de prueba: acc-vip es de un cliente VIP, el resto de clientes REGULAR
+    private static final Map<String, RateLimitSubject> OWNERS = Map.of(
+            "acc-1", new RateLimitSubject("customer-1", CustomerProfile.REGULAR),
+            "acc-2", new RateLimitSubject("customer-1", CustomerProfile.REGULAR),
+            "acc-3", new RateLimitSubject("customer-2", CustomerProfile.REGULAR),
+            "acc-vip", new RateLimitSubject("customer-3", CustomerProfile.VIP));
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        // Sin reposición apreciable durante la prueba: solo cuenta la capacidad
+        properties.setProfiles(Map.of(
+                CustomerProfile.REGULAR, new RateLimitProperties.Limit(2, 0.001),
+                CustomerProfile.VIP, new RateLimitProperties.Limit(5, 0.001)));
+        properties.setEvictionInterval(Duration.ofHours(1));
+        rateLimiter = newRateLimiter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.stop();
+    }
+
+    @Test
+    void eachProfileGetsItsOwnCapacityPerCustomer() {
+        assertEquals(2, admitted("acc-1", 10));
+        // Otra cuenta del mismo cliente comparte su bucket
+        assertEquals(0, admitted("acc-2", 1));
+        assertEquals(2, admitted("acc-3", 10));
+        assertEquals(5, admitted("acc-vip", 10));
+
+        // Los titulares se recuerdan: una consulta por cuenta
+        assertEquals(4, lookups.get());
+        assertEquals(17.0, registry.get("ratelimit.rejected").tag("profile", "REGULAR").functionCounter().count());
+        assertEquals(5.0, registry.get("ratelimit.rejected").tag("profile", "VIP").functionCounter().count());
+    }
+
+    @Test
+    void filterAnswers429WithRetryAfterOnceTheBucketIsEmpty() {
+        RateLimitFilter filter = new RateLimitFilter(properties, rateLimiter, new ObjectMapper());
+        AtomicInteger reached = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = balanceUpdate("acc-1");
+            filter.filter(exchange, admitted -> Mono.fromRunnable(reached::incrementAndGet)).block();
+            assertNull(exchange.getResponse().getStatusCode());
+        }
+        MockServerWebExchange rejected = balanceUpdate("acc-1");
+        filter.filter(rejected, admitted -> Mono.fromRunnable(reached::incrementAndGet)).block();
+
+        assertEquals(2, reached.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        // Un token cada 1000 s
+        long retryAfter = Long.parseLong(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter > 990 && retryAfter <= 1000, "Retry-After " + retryAfter);
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, RateLimiter.retryAfterSeconds(1));
+        assertEquals(1, RateLimiter.retryAfterSeconds(1_000_000_000L));
+        assertEquals(2, RateLimiter.retryAfterSeconds(1_000_000_001L));
+    }
+
+    @Test
+    void idleFullBucketsAreEvictedAndRecreatedFull() throws InterruptedException {
+        properties.setProfiles(Map.of(CustomerProfile.REGULAR, new RateLimitProperties.Limit(2, 1000)));
+        properties.setIdleTimeout(Duration.ofMillis(20));
+        rateLimiter.stop();
+        rateLimiter = newRateLimiter();
+
+        admitted("acc-1", 1);
+        admitted("acc-3", 1);
+        assertEquals(2.0, buckets());
+        Thread.sleep(50);
+        admitted("acc-3", 1);
+        rateLimiter.evictIdle();
+
+        // Solo queda el usado después del tiempo de inactividad
+        assertEquals(1.0, buckets());
+        assertEquals(2, admitted("acc-1", 2));
+    }
+
+    @Test
+    void bucketsOverTheLimitDropTheLeastRecentlyUsed() {
+        properties.setMaxBuckets(10);
+        for (int i = 0; i < 11; i++) {
+            assertEquals(0L, rateLimiter.acquire(null, "id", null, "10.0.0." + i).block());
+        }
+        // Al pasar de 10 se queda en 9: se descartan los dos más antiguos
+        assertEquals(9.0, buckets());
+        assertEquals(2.0, registry.get("ratelimit.buckets.evicted").functionCounter().count());
+    }
+
+    private RateLimiter newRateLimiter() {
+        RateLimitSubjectResolver resolver = (field, value) -> Mono.fromSupplier(() -> {
+            lookups.incrementAndGet();
+            return OWNERS.get(value);
+        });
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("resolver", resolver);
+        RateLimiter limiter = new RateLimiter(properties, beans.getBeanProvider(RateLimitSubjectResolver.class));
+        registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        return limiter;
+    }
+
+    private int admitted(String accountId, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (rateLimiter.acquire(null, "id", accountId, "10.0.0.1").block() == 0L) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+
+    private double buckets() {
+        return registry.get("ratelimit.buckets").gauge().value();
+    }
+
+    private static MockServerWebExchange balanceUpdate(String accountId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.put("/accounts/{id}/balance", accountId)
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+    }
+}
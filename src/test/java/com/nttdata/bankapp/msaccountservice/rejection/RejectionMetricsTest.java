@@ -0,0 +1,93 @@
+package com.nttdata.bankapp.msaccountservice.rejection;
+
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.exception.ErrorResponse;
+import com.nttdata.bankapp.msaccountservice.exception.GlobalExceptionHandler;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bankapp.msaccountservice.service.impl.AccountServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Rechazos de negocio: una excepción sin pila por motivo y un contador por motivo
+class RejectionMetricsTest {
+
+    private RejectionMetrics metrics;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new RejectionMetrics();
+        registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+    }
+
+    @Test
+    void eachReasonHasOneStacklessExceptionAndItsOwnCounter() {
+        BusinessRejectionException first = metrics.reject(RejectionReason.INSUFFICIENT_FUNDS);
+        BusinessRejectionException second = metrics.reject(RejectionReason.INSUFFICIENT_FUNDS);
+        metrics.record(RejectionReason.INSUFFICIENT_FUNDS);
+        metrics.reject(RejectionReason.ACCOUNT_NOT_OWNED);
+
+        assertSame(first, second);
+        assertEquals(RejectionReason.INSUFFICIENT_FUNDS, first.getReason());
+        assertEquals("Insufficient funds", first.getMessage());
+        assertEquals(0, first.getStackTrace().length);
+        // Las suprimidas se descartan: la instancia compartida no acumula nada
+        first.addSuppressed(new IllegalStateException());
+        assertEquals(0, first.getSuppressed().length);
+
+        assertEquals(3.0, rejections(RejectionReason.INSUFFICIENT_FUNDS));
+        assertEquals(1.0, rejections(RejectionReason.ACCOUNT_NOT_OWNED));
+        assertEquals(0.0, rejections(RejectionReason.MONTHLY_MOVEMENTS_LIMIT));
+    }
+
+    @Test
+    void rejectedBalanceUpdatesAreCountedAndAnswered400() {
+        InMemoryAccountRepository repository = new InMemoryAccountRepository(Duration.ZERO);
+        AccountServiceImpl service = new AccountServiceImpl(repository, null, null, null, new BatchGetProperties(),
+                new BalanceEventPublisher(new BalanceEventsProperties()), new InMemoryCommissionEventStore(), metrics);
+        Account account = repository.save(Account.builder()
+                .type(AccountType.SAVINGS)
+                .customerId("customer-1")
+                .balance(Money.parse("100"))
+                .currentMonthlyTransactions(0)
+                .maxFreeTransactions(5)
+                .maxMonthlyMovements(1)
+                .build()).block();
+
+        BusinessRejectionException funds = assertThrows(BusinessRejectionException.class,
+                () -> service.updateBalance(account.getId(), new BigDecimal("-200")).block());
+        service.updateBalance(account.getId(), BigDecimal.TEN).block();
+        BusinessRejectionException limit = assertThrows(BusinessRejectionException.class,
+                () -> service.updateBalance(account.getId(), BigDecimal.TEN).block());
+
+        assertEquals(RejectionReason.MONTHLY_MOVEMENTS_LIMIT, limit.getReason());
+        assertEquals(Money.parse("110"), repository.findById(account.getId()).block().getBalance());
+        assertEquals(1.0, rejections(RejectionReason.INSUFFICIENT_FUNDS));
+        assertEquals(1.0, rejections(RejectionReason.MONTHLY_MOVEMENTS_LIMIT));
+
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleBusinessRejectionException(funds);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Insufficient funds", response.getBody().getMessage());
+    }
+
+    private double rejections(RejectionReason reason) {
+        return registry.get("business.rejections").tag("reason", reason.name()).functionCounter().count();
+    }
+}
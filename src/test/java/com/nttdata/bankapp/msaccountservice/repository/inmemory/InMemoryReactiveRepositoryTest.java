@@ -0,0 +1,188 @@
+package com.nttdata.bankapp.msaccountservice.repository.inmemory;
+
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Motor del repositorio en memoria: copias, índices secundarios, Example/Sort y latencia simulada
+class InMemoryReactiveRepositoryTest {
+
+    private final InMemoryAccountRepository repository = new InMemoryAccountRepository(Duration.ZERO);
+
+    @Test
+    void saveReplacesWholeCopiesAndInsertRejectsExistingIds() {
+        Account account = account("acc-1", "customer-1", AccountType.SAVINGS, "100");
+        repository.save(account).block();
+        assertNotNull(account.getId());
+
+        // Lo leído es una copia: cambiarla no toca el almacén hasta guardar
+        Account read = repository.findById(account.getId()).block();
+        read.setBalance(Money.parse("999"));
+        assertEquals(Money.parse("100"), repository.findById(account.getId()).block().getBalance());
+
+        // save sustituye el documento entero, como un replace de MongoDB
+        Account replacement = account("acc-1b", null, AccountType.CHECKING, "5");
+        replacement.setId(account.getId());
+        repository.save(replacement).block();
+        Account stored = repository.findById(account.getId()).block();
+        assertEquals(AccountType.CHECKING, stored.getType());
+        assertNull(stored.getCustomerId());
+        assertEquals(1L, repository.count().block());
+        assertTrue(repository.findByCustomerId("customer-1").collectList().block().isEmpty());
+
+        Account duplicate = account("acc-2", "customer-2", AccountType.SAVINGS, "1");
+        duplicate.setId(account.getId());
+        assertThrows(DuplicateKeyException.class, () -> repository.insert(duplicate).block());
+        assertEquals("acc-1b", repository.findById(account.getId()).block().getAccountNumber());
+
+        repository.deleteById(account.getId()).block();
+        assertFalse(repository.existsById(account.getId()).block());
+        assertNull(repository.findByAccountNumber("acc-1b").block());
+    }
+
+    @Test
+    void uniqueIndexRejectsDuplicatesWithoutTouchingTheOtherIndexes() {
+        Account first = repository.save(account("acc-1", "customer-1", AccountType.SAVINGS, "10")).block();
+        Account second = repository.save(account("acc-2", "customer-2", AccountType.SAVINGS, "20")).block();
+
+        Account clash = account("acc-1", "customer-3", AccountType.SAVINGS, "30");
+        assertThrows(DuplicateKeyException.class, () -> repository.save(clash).block());
+        // El índice único se comprueba antes de modificar el no único
+        assertTrue(repository.findByCustomerId("customer-3").collectList().block().isEmpty());
+
+        // Cambiar a un número ocupado falla y la cuenta conserva el suyo
+        second.setAccountNumber("acc-1");
+        second.setCustomerId("customer-9");
+        assertThrows(DuplicateKeyException.class, () -> repository.save(second).block());
+        assertEquals("acc-2", repository.findById(second.getId()).block().getAccountNumber());
+        assertEquals(1, repository.findByCustomerId("customer-2").collectList().block().size());
+
+        // Guardar la misma cuenta sin cambiar el número no choca consigo misma; liberarlo lo deja libre
+        first.setBalance(Money.parse("11"));
+        repository.save(first).block();
+        first.setAccountNumber("acc-3");
+        repository.save(first).block();
+        assertNull(repository.findByAccountNumber("acc-1").block());
+        repository.save(account("acc-1", "customer-4", AccountType.SAVINGS, "1")).block();
+        assertEquals("customer-4", repository.findByAccountNumber("acc-1").block().getCustomerId());
+    }
+
+    @Test
+    void examplesAndSortsFollowTheMongoSemantics() {
+        repository.save(account("ACC-1", "customer-1", AccountType.SAVINGS, "30")).block();
+        repository.save(account("ACC-2", "customer-1", AccountType.CHECKING, "10")).block();
+        repository.save(account("acc-3", "customer-2", AccountType.SAVINGS, "20")).block();
+        repository.save(account("acc-4", null, AccountType.SAVINGS, "20.00")).block();
+
+        Account probe = new Account();
+        probe.setType(AccountType.SAVINGS);
+        probe.setCustomerId("customer-1");
+        assertEquals(List.of("ACC-1"), numbers(repository.findAll(Example.of(probe)).collectList().block()));
+        assertEquals(4L, repository.count(Example.of(probe, ExampleMatcher.matchingAny())).block());
+
+        // Los importes se comparan por valor, con cualquier escala
+        Account byBalance = new Account();
+        byBalance.setBalance(Money.parse("20"));
+        assertEquals(2L, repository.count(Example.of(byBalance)).block());
+
+        // Empate en importe: decide el segundo criterio
+        ExampleMatcher prefix = ExampleMatcher.matching()
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING).withIgnoreCase();
+        Account byNumber = new Account();
+        byNumber.setAccountNumber("acc-");
+        assertEquals(List.of("ACC-1", "acc-3", "acc-4", "ACC-2"), numbers(repository.findAll(Example.of(byNumber, prefix),
+                Sort.by(Sort.Order.desc("balance"), Sort.Order.asc("accountNumber"))).collectList().block()));
+
+        Account withoutCustomer = new Account();
+        withoutCustomer.setType(AccountType.SAVINGS);
+        ExampleMatcher includeNulls = ExampleMatcher.matching().withIncludeNullValues()
+                .withIgnorePaths("id", "accountNumber", "balance", "holders", "signatories", "maxFreeTransactions",
+                        "currentMonthlyTransactions", "maxMonthlyMovements", "currentMonthlyMovements");
+        assertEquals(List.of("acc-4"), numbers(repository.findAll(Example.of(withoutCustomer, includeNulls))
+                .collectList().block()));
+
+        // Los null van primero en orden ascendente
+        assertEquals("acc-4", repository.findAll(Sort.by("customerId")).blockFirst().getAccountNumber());
+        assertTrue(repository.exists(Example.of(probe)).block());
+        assertThrows(IncorrectResultSizeDataAccessException.class,
+                () -> repository.findOne(Example.of(byBalance)).block());
+    }
+
+    @Test
+    void fluentQueriesSortPageAndCount() {
+        for (int i = 1; i <= 5; i++) {
+            repository.save(account("acc-" + i, "customer-1", AccountType.SAVINGS, String.valueOf(i))).block();
+        }
+        Account probe = new Account();
+        probe.setCustomerId("customer-1");
+
+        Page<Account> page = repository.findBy(Example.of(probe),
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "balance")).page(PageRequest.of(1, 2))).block();
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of("acc-3", "acc-2"), numbers(page.getContent()));
+        assertEquals("acc-5", repository.findBy(Example.of(probe),
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "balance")).first()).block().getAccountNumber());
+        assertEquals(5L, repository.findBy(Example.of(probe), query -> query.count()).block());
+        assertThrows(UnsupportedOperationException.class,
+                () -> repository.findBy(Example.of(probe), query -> query.as(String.class).all()));
+    }
+
+    @Test
+    void latencyDelaysEveryOperation() {
+        InMemoryAccountRepository slow = new InMemoryAccountRepository(Duration.ofMillis(50));
+        Account account = account("acc-1", "customer-1", AccountType.SAVINGS, "1");
+
+        StepVerifier.withVirtualTime(() -> slow.save(account))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(49))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.withVirtualTime(() -> slow.findByCustomerId("customer-1"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(49))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+        // La latencia empieza al suscribirse, no al crear la operación
+        StepVerifier.withVirtualTime(() -> slow.findAll(Example.of(account)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(49))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private static Account account(String number, String customerId, AccountType type, String balance) {
+        return Account.builder()
+                .accountNumber(number)
+                .customerId(customerId)
+                .type(type)
+                .balance(Money.parse(balance))
+                .build();
+    }
+
+    private static List<String> numbers(List<Account> accounts) {
+        return accounts.stream().map(Account::getAccountNumber).collect(Collectors.toList());
+    }
+}
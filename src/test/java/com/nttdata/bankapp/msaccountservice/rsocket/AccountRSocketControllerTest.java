@@ -0,0 +1,274 @@
+package com.nttdata.bankapp.msaccountservice.rsocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineMetrics;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineProperties;
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.dto.AccountOperationDto;
+import com.nttdata.bankapp.msaccountservice.dto.AccountOperationResultDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.ratelimit.AccountRateLimitSubjectResolver;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitProperties;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimitSubjectResolver;
+import com.nttdata.bankapp.msaccountservice.ratelimit.RateLimiter;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.service.impl.AccountServiceImpl;
+import com.nttdata.bankapp.msaccountservice.tracing.Trace;
+import com.nttdata.bankapp.msaccountservice.tracing.Tracer;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingProperties;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.exceptions.ApplicationErrorException;
+import io.rsocket.exceptions.RejectedSetupException;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rutas accounts.* sobre TCP con las cuentas en mongo-java-server: token del SETUP, errores con
+// código de estado, canal de operaciones, límite de peticiones y continuación del traceparent
+class AccountRSocketControllerTest {
+
+    private static final String TOKEN = "secret";
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private MongoServer mongoServer;
+    private MongoClient client;
+    private AccountRepository repository;
+    private RateLimiter rateLimiter;
+    private Tracer tracer;
+    private RSocketStrategies strategies;
+    private CloseableChannel server;
+    private final List<RSocketRequester> requesters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        repository = new ReactiveMongoRepositoryFactory(new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(client, "accounts"), converter)).getRepository(AccountRepository.class);
+        AccountServiceImpl accountService = new AccountServiceImpl(repository, null, null, null, new BatchGetProperties(),
+                new BalanceEventPublisher(new BalanceEventsProperties()), new InMemoryCommissionEventStore(),
+                new RejectionMetrics());
+
+        // Dos operaciones limitadas por cliente, sin reposición apreciable durante la prueba
+        RateLimitProperties rateLimits = new RateLimitProperties();
+        rateLimits.setProfiles(Map.of(CustomerProfile.REGULAR, new RateLimitProperties.Limit(2, 0.001)));
+        rateLimits.setEvictionInterval(Duration.ofHours(1));
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("resolver", new AccountRateLimitSubjectResolver(repository));
+        rateLimiter = new RateLimiter(rateLimits, beans.getBeanProvider(RateLimitSubjectResolver.class));
+
+        TracingProperties tracing = new TracingProperties();
+        tracer = new Tracer(tracing, new ObjectMapper());
+        AccountRSocketProperties properties = new AccountRSocketProperties();
+        properties.setToken(TOKEN);
+
+        RSocketStrategies.Builder builder = RSocketStrategies.builder()
+                .encoder(new Jackson2JsonEncoder())
+                .decoder(new Jackson2JsonDecoder());
+        new RSocketMetadataConfig().accountMetadataExtractors().customize(builder);
+        strategies = builder.build();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(
+                new AccountRSocketController(accountService, new DeadlineProperties(), new DeadlineMetrics(), rateLimiter,
+                        tracing, tracer),
+                new RSocketConnectionAuthenticator(properties)));
+        handler.afterPropertiesSet();
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requesters.forEach(RSocketRequester::dispose);
+        server.dispose();
+        rateLimiter.stop();
+        client.close();
+        mongoServer.shutdownNow();
+    }
+
+    @Test
+    void connectionsWithoutTheTokenAreRejected() {
+        Account account = save("customer-1", "100");
+        for (String token : new String[]{null, "", "wrong"}) {
+            RSocketRequester requester = requester(token);
+            assertThrows(RejectedSetupException.class, () -> requester.route("accounts.transaction-fee")
+                    .data(operation(null, account.getId())).retrieveMono(BigDecimal.class).block());
+        }
+        assertEquals(BigDecimal.ZERO, requester(TOKEN).route("accounts.transaction-fee")
+                .data(operation(null, account.getId())).retrieveMono(BigDecimal.class).block());
+    }
+
+    @Test
+    void requestResponseRoutesReportErrorsWithTheirStatus() {
+        Account account = save("customer-1", "100");
+        RSocketRequester requester = requester(TOKEN);
+
+        AccountOperationDto transfer = operation(null, account.getId());
+        transfer.setCustomerId("customer-1");
+        transfer.setAmount(new BigDecimal("100"));
+        assertTrue(requester.route("accounts.validate-transfer").data(transfer).retrieveMono(Boolean.class).block());
+        transfer.setAmount(new BigDecimal("100.01"));
+        assertEquals("400 Insufficient funds", assertThrows(ApplicationErrorException.class,
+                () -> requester.route("accounts.validate-transfer").data(transfer).retrieveMono(Boolean.class).block())
+                .getMessage());
+
+        AccountOperationDto deposit = operation(null, account.getId());
+        deposit.setAmount(new BigDecimal("25.50"));
+        AccountDto updated = requester.route("accounts.balance")
+                .metadata("00-" + TRACE_ID + "-b7ad6b7169203331-01", RSocketMetadataConfig.TRACEPARENT_MIME_TYPE)
+                .data(deposit).retrieveMono(AccountDto.class).block();
+        assertNotNull(updated);
+        assertEquals(new BigDecimal("125.50"), updated.getBalance());
+        assertEquals(Money.parse("125.50"), repository.findById(account.getId()).block().getBalance());
+
+        assertEquals("404 Account not found with id: missing", assertThrows(ApplicationErrorException.class,
+                () -> requester.route("accounts.balance").data(balance("missing", "1"))
+                        .retrieveMono(AccountDto.class).block()).getMessage());
+
+        // La petición con traceparent continúa la traza recibida
+        Trace trace = tracer.getRecentTraces().stream()
+                .filter(recent -> recent.getTraceId().equals(TRACE_ID))
+                .findFirst().orElseThrow();
+        assertEquals("RSOCKET accounts.balance", trace.getRoot().getName());
+        assertEquals("200", trace.getRoot().getTags().get("rpc.status_code"));
+        assertNull(trace.getRoot().getTags().get("error"));
+    }
+
+    @Test
+    void anEmptyChannelCompletesWithoutResults() {
+        assertEquals(List.of(), requester(TOKEN).route("accounts.operations")
+                .data(Flux.empty(), AccountOperationDto.class)
+                .retrieveFlux(AccountOperationResultDto.class)
+                .collectList().block());
+    }
+
+    @Test
+    void channelRunsOperationsOfSeveralAccountsInOrderAndReportsFailuresInline() {
+        Account first = save("customer-1", "100");
+        Account second = save("customer-2", "50");
+        AccountOperationDto validate = operation(AccountOperationDto.Type.VALIDATE_TRANSFER, first.getId());
+        validate.setCustomerId("customer-1");
+        validate.setAmount(new BigDecimal("30"));
+
+        List<AccountOperationDto> operations = List.of(
+                validate,
+                operation(AccountOperationDto.Type.TRANSACTION_FEE, second.getId()),
+                balance(first.getId(), "-30"),
+                balance(second.getId(), "30"),
+                balance("missing", "1"),
+                operation(null, first.getId()),
+                operation(AccountOperationDto.Type.INCREMENT_TRANSACTION_COUNT, first.getId()),
+                // Tercera operación limitada de customer-1: supera la capacidad de su bucket
+                balance(first.getId(), "1"),
+                balance(second.getId(), "1"));
+        for (int i = 0; i < operations.size(); i++) {
+            operations.get(i).setOperationId("op-" + i);
+        }
+
+        List<AccountOperationResultDto> results = requester(TOKEN).route("accounts.operations")
+                .data(Flux.fromIterable(operations), AccountOperationDto.class)
+                .retrieveFlux(AccountOperationResultDto.class)
+                .collectList().block();
+        assertNotNull(results);
+        assertEquals(operations.stream().map(AccountOperationDto::getOperationId).collect(Collectors.toList()),
+                results.stream().map(AccountOperationResultDto::getOperationId).collect(Collectors.toList()));
+        assertEquals(List.of(200, 200, 200, 200, 404, 400, 200, 429, 200),
+                results.stream().map(AccountOperationResultDto::getStatus).collect(Collectors.toList()));
+        assertTrue(results.get(0).getValid());
+        assertEquals(new BigDecimal("70.00"), results.get(2).getAccount().getBalance());
+        assertEquals("Operation type is required", results.get(5).getError());
+        // El retiro también contó como transacción
+        assertEquals(2, results.get(6).getAccount().getCurrentMonthlyTransactions());
+
+        // La operación rechazada por el límite no llegó a la cuenta
+        assertEquals(Money.parse("70"), repository.findById(first.getId()).block().getBalance());
+        assertEquals(Money.parse("81"), repository.findById(second.getId()).block().getBalance());
+    }
+
+    private RSocketRequester requester(String token) {
+        RSocketRequester.Builder builder = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .dataMimeType(MediaType.APPLICATION_JSON);
+        if (token != null) {
+            builder.setupMetadata(token, RSocketMetadataConfig.AUTH_TOKEN_MIME_TYPE);
+        }
+        RSocketRequester requester = builder.tcp("localhost", server.address().getPort());
+        requesters.add(requester);
+        return requester;
+    }
+
+    private Account save(String customerId, String balance) {
+        return repository.save(Account.builder()
+                .type(AccountType.CHECKING)
+                .customerId(customerId)
+                .balance(Money.parse(balance))
+                .maxFreeTransactions(5)
+                .currentMonthlyTransactions(0)
+                .transactionFee(Money.parse("1"))
+                .build()).block();
+    }
+
+    private static AccountOperationDto operation(AccountOperationDto.Type type, String accountId) {
+        return AccountOperationDto.builder().type(type).accountId(accountId).build();
+    }
+
+    private static AccountOperationDto balance(String accountId, String amount) {
+        AccountOperationDto operation = operation(AccountOperationDto.Type.UPDATE_BALANCE, accountId);
+        operation.setAmount(new BigDecimal(amount));
+        return operation;
+    }
+}
@@ -0,0 +1,149 @@
+package com.nttdata.bankapp.msaccountservice.sequence;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Asignador hi/lo sobre InMemorySequenceBlockSource: unicidad entre instancias, reserva compartida y errores
+class AccountNumberAllocatorTest {
+
+    private final InMemorySequenceBlockSource source = new InMemorySequenceBlockSource();
+    private final AtomicInteger leases = new AtomicInteger();
+
+    @Test
+    void allocatorsSharingTheSequenceNeverRepeatANumber() {
+        // Dos instancias con bloques pequeños: se reparten la secuencia a tramos alternos
+        AccountNumberAllocator first = allocator(counting(source), 3, 11);
+        AccountNumberAllocator second = allocator(counting(source), 3, 11);
+
+        List<String> numbers = IntStream.range(0, 10)
+                .mapToObj(i -> List.of(first.nextAccountNumber().block(), second.nextAccountNumber().block()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        assertEquals(20, Set.copyOf(numbers).size());
+        assertEquals("ACC-000000000018", numbers.get(0));
+        // Cada instancia reserva ceil(10 / 3) bloques
+        assertEquals(8, leases.get());
+    }
+
+    @Test
+    void callersOnAnExhaustedBlockShareOneLease() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        SequenceBlockSource slow = (sequence, blockSize) -> source.leaseBlock(sequence, blockSize)
+                .delaySubscription(gate.asMono());
+        AccountNumberAllocator allocator = allocator(counting(slow), 10, 11);
+
+        List<String> numbers = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            allocator.nextAccountNumber().subscribe(numbers::add);
+        }
+        // Todas esperan a la misma reserva
+        assertEquals(1, leases.get());
+        assertTrue(numbers.isEmpty());
+
+        gate.tryEmitEmpty();
+        assertEquals(5, Set.copyOf(numbers).size());
+        allocator.nextAccountNumber().block();
+        assertEquals(1, leases.get());
+    }
+
+    @Test
+    void aFailedLeaseIsRetriedByTheNextCaller() {
+        AtomicInteger calls = new AtomicInteger();
+        SequenceBlockSource flaky = (sequence, blockSize) -> calls.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("mongo down"))
+                : source.leaseBlock(sequence, blockSize);
+        AccountNumberAllocator allocator = allocator(flaky, 10, 11);
+
+        assertThrows(IllegalStateException.class, () -> allocator.nextAccountNumber().block());
+        String number = allocator.nextAccountNumber().block();
+
+        assertEquals(2, calls.get());
+        // El bloque fallido no consumió valores de la secuencia
+        assertEquals(allocator.format(1), number);
+    }
+
+    @Test
+    void exhaustingTheDigitsFails() {
+        // Dos dígitos: el máximo es 99 y el segundo bloque de 50 termina en 100
+        AccountNumberAllocator allocator = allocator(source, 50, 2);
+        for (int i = 1; i <= 50; i++) {
+            assertEquals(allocator.format(i), allocator.nextAccountNumber().block());
+        }
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> allocator.nextAccountNumber().block());
+        assertEquals("Account number sequence exhausted: 100", error.getMessage());
+        // Sigue agotada en las llamadas siguientes
+        assertThrows(IllegalStateException.class, () -> allocator.nextAccountNumber().block());
+    }
+
+    @Test
+    void numbersCarryAValidLuhnCheckDigit() {
+        assertEquals(3, AccountNumberAllocator.luhnCheckDigit("7992739871"));
+        assertEquals(0, AccountNumberAllocator.luhnCheckDigit("0"));
+        assertEquals(8, AccountNumberAllocator.luhnCheckDigit("00000000001"));
+
+        AccountNumberAllocator allocator = allocator(source, 10, 11);
+        for (int i = 0; i < 100; i++) {
+            String number = allocator.nextAccountNumber().block();
+            assertTrue(number.startsWith("ACC-"));
+            assertEquals(16, number.length());
+            assertTrue(passesLuhn(number.substring(4)), number);
+        }
+        // Un dígito cambiado deja de cuadrar
+        assertFalse(passesLuhn("000000000019"));
+    }
+
+    @Test
+    void concurrentCallersGetUniqueNumbers() {
+        List<AccountNumberAllocator> allocators = List.of(allocator(source, 7, 11), allocator(source, 7, 11));
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        Long allocated = Flux.range(0, 8)
+                .flatMap(worker -> Flux.range(0, 1000)
+                        .concatMap(i -> allocators.get(worker % 2).nextAccountNumber())
+                        .doOnNext(numbers::add)
+                        .subscribeOn(Schedulers.parallel()))
+                .count()
+                .block();
+
+        assertEquals(8000L, allocated);
+        assertEquals(8000, numbers.size());
+    }
+
+    private SequenceBlockSource counting(SequenceBlockSource delegate) {
+        return (sequence, blockSize) -> Mono.defer(() -> {
+            leases.incrementAndGet();
+            return delegate.leaseBlock(sequence, blockSize);
+        });
+    }
+
+    private static AccountNumberAllocator allocator(SequenceBlockSource source, int blockSize, int digits) {
+        AccountNumberProperties properties = new AccountNumberProperties();
+        properties.setBlockSize(blockSize);
+        properties.setDigits(digits);
+        return new AccountNumberAllocator(source, properties);
+    }
+
+    private static boolean passesLuhn(String digits) {
+        String payload = digits.substring(0, digits.length() - 1);
+        return AccountNumberAllocator.luhnCheckDigit(payload) == digits.charAt(digits.length() - 1) - '0';
+    }
+}
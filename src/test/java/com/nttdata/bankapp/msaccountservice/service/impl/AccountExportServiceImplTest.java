@@ -0,0 +1,162 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.config.AccountExportProperties;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.service.AccountExportService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Exportación sobre mongo-java-server: colección vacía, bloques de chunkSize, los dos modelos de cuenta y gzip
+class AccountExportServiceImplTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private MongoPartitions partitions;
+    private AccountExportServiceImpl export;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, "accounts"));
+        partitions = new MongoPartitions(List.of(new MongoPartition("default", template)), new PartitioningProperties(),
+                List.of(client));
+        AccountExportProperties properties = new AccountExportProperties();
+        properties.setChunkSize(2);
+        export = new AccountExportServiceImpl(partitions, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void emptyCollectionWritesNothingButTheCsvHeader() throws IOException {
+        assertEquals(List.of(), chunks(AccountExportService.Format.NDJSON, List.of(), null, false));
+        assertEquals(List.of("id,accountNumber,type,accountType,customerId,customerType,customerProfile,"
+                + "balance,createdAt,updatedAt\n"), chunks(AccountExportService.Format.CSV, List.of(), null, false));
+        // Sigue siendo un gzip válido
+        assertEquals("", gunzip(AccountExportService.Format.NDJSON, List.of(), null));
+    }
+
+    @Test
+    void documentsAreWrittenInChunksOfChunkSize() {
+        for (int i = 1; i <= 5; i++) {
+            insert(new Document("_id", "a" + i).append("accountNumber", "ACC-" + i).append("type", "SAVINGS"));
+        }
+
+        List<String> chunks = chunks(AccountExportService.Format.NDJSON, List.of("accountNumber"), null, false);
+        assertEquals(List.of(
+                "{\"id\": \"a1\", \"accountNumber\": \"ACC-1\"}\n{\"id\": \"a2\", \"accountNumber\": \"ACC-2\"}\n",
+                "{\"id\": \"a3\", \"accountNumber\": \"ACC-3\"}\n{\"id\": \"a4\", \"accountNumber\": \"ACC-4\"}\n",
+                "{\"id\": \"a5\", \"accountNumber\": \"ACC-5\"}\n"), chunks);
+
+        // Un número exacto de bloques no deja un bloque vacío al final
+        template.remove(new Query(), AccountExportServiceImpl.ACCOUNTS).block();
+        for (int i = 1; i <= 4; i++) {
+            insert(new Document("_id", "b" + i).append("type", "SAVINGS"));
+        }
+        assertEquals(2, chunks(AccountExportService.Format.NDJSON, List.of(), null, false).size());
+    }
+
+    @Test
+    void exportsTheAccountsOfBothApis() throws IOException {
+        // /accounts (com.nttdata) y /api/accounts (com.example) comparten la colección
+        insert(new Document("_id", "n1").append("_class", "com.nttdata.bankapp.msaccountservice.model.Account")
+                .append("accountNumber", "ACC-1").append("type", "SAVINGS").append("customerId", "c1")
+                .append("balance", new Decimal128(new BigDecimal("100.50"))).append("holders", List.of("Ana", "Luis"))
+                .append("updatedAt", date(SINCE.plusDays(1))));
+        insert(new Document("_id", "e1").append("_class", "com.example.msaccountservice.model.Account")
+                .append("accountNumber", "ACC-2").append("accountType", "CHECKING").append("customerId", "Pérez, Ana")
+                .append("balance", new Decimal128(new BigDecimal("7"))).append("updatedAt", date(SINCE)));
+        insert(new Document("_id", "n2").append("accountNumber", "ACC-3").append("type", "CHECKING")
+                .append("updatedAt", date(SINCE.minusDays(1))));
+
+        String csv = String.join("", chunks(AccountExportService.Format.CSV,
+                List.of("id", "accountNumber", "type", "accountType", "customerId", "balance", "holders"), null, false));
+        assertEquals("id,accountNumber,type,accountType,customerId,balance,holders\n"
+                + "n1,ACC-1,SAVINGS,,c1,100.50,Ana;Luis\n"
+                + "e1,ACC-2,,CHECKING,\"Pérez, Ana\",7,\n"
+                + "n2,ACC-3,CHECKING,,,,\n", csv);
+
+        // updatedSince es estricto: la cuenta modificada justo en SINCE no sale
+        String ndjson = String.join("", chunks(AccountExportService.Format.NDJSON, List.of(), SINCE, false));
+        assertEquals("{\"id\": \"n1\", \"accountNumber\": \"ACC-1\", \"type\": \"SAVINGS\", \"customerId\": \"c1\", "
+                + "\"balance\": 100.50, \"holders\": [\"Ana\", \"Luis\"], \"updatedAt\": \""
+                + date(SINCE.plusDays(1)).toInstant() + "\"}\n", ndjson);
+
+        // La salida comprimida es la misma
+        assertEquals(String.join("", chunks(AccountExportService.Format.NDJSON, List.of(), null, false)),
+                gunzip(AccountExportService.Format.NDJSON, List.of(), null));
+    }
+
+    private List<String> chunks(AccountExportService.Format format, List<String> fields, LocalDateTime updatedSince,
+                                boolean gzip) {
+        return export.export(format, fields, updatedSince, gzip, new DefaultDataBufferFactory())
+                .map(buffer -> {
+                    String chunk = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return chunk;
+                })
+                .collectList()
+                .block();
+    }
+
+    private String gunzip(AccountExportService.Format format, List<String> fields, LocalDateTime updatedSince)
+            throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        for (DataBuffer buffer : export.export(format, fields, updatedSince, true, new DefaultDataBufferFactory())
+                .collectList().block()) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            compressed.write(bytes);
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void insert(Document account) {
+        template.insert(account, AccountExportServiceImpl.ACCOUNTS).block();
+    }
+
+    // Spring Data convierte LocalDateTime a Date con la zona del sistema
+    private static Date date(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,328 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.client.CustomerService;
+import com.nttdata.bankapp.msaccountservice.client.CustomerService.CustomerDetails;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.AccountImportProperties;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.deadline.DeadlineExchangeFilter;
+import com.nttdata.bankapp.msaccountservice.dto.ImportResultDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.CustomerProfile;
+import com.nttdata.bankapp.msaccountservice.model.CustomerType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository;
+import com.nttdata.bankapp.msaccountservice.sequence.AccountNumberAllocator;
+import com.nttdata.bankapp.msaccountservice.sequence.AccountNumberProperties;
+import com.nttdata.bankapp.msaccountservice.sequence.InMemorySequenceBlockSource;
+import com.nttdata.bankapp.msaccountservice.service.AccountImportService;
+import com.nttdata.bankapp.msaccountservice.tracing.TracingExchangeFilter;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validation;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Importación de cuentas: separación de líneas CSV y, sobre dos particiones mongo-java-server,
+// reanudación idempotente, duplicados y la inserción una a una tras un choque de índice único
+class AccountImportServiceImplTest {
+
+    private final List<MongoServer> servers = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private final Map<String, CustomerDetails> customers = new HashMap<>();
+    private AccountNumberProperties numberProperties;
+    private MongoPartitions partitions;
+    private PartitionedAccountRepository repository;
+    private CustomerService customerService;
+    private AccountServiceImpl accountService;
+    private AccountImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        List<MongoPartition> list = new ArrayList<>();
+        for (String name : List.of("p1", "p2")) {
+            MongoServer server = new MongoServer(new MemoryBackend());
+            servers.add(server);
+            InetSocketAddress address = server.bind();
+            MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+            clients.add(client);
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(
+                    new SimpleReactiveMongoDatabaseFactory(client, "accounts_" + name), converter);
+            template.indexOps(Account.class).ensureIndex(new Index("accountNumber", Sort.Direction.ASC).unique()).block();
+            list.add(new MongoPartition(name, template));
+        }
+        PartitioningProperties partitioning = new PartitioningProperties();
+        partitions = new MongoPartitions(list, partitioning, clients);
+        repository = new PartitionedAccountRepository(partitions, partitioning);
+
+        numberProperties = new AccountNumberProperties();
+        customerService = new CustomerService("http://localhost",
+                new DeadlineExchangeFilter(null, null), new TracingExchangeFilter(null)) {
+            @Override
+            public Mono<CustomerDetails> getCustomerDetails(String customerId) {
+                return Mono.justOrEmpty(customers.get(customerId));
+            }
+        };
+        accountService = new AccountServiceImpl(repository, null, null, null, new BatchGetProperties(),
+                new BalanceEventPublisher(new BalanceEventsProperties()), new InMemoryCommissionEventStore(),
+                new RejectionMetrics());
+        importService = importService(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitions.close();
+        servers.forEach(MongoServer::shutdownNow);
+    }
+
+    @Test
+    void splitsOnCommasAndTrimsUnquotedValues() {
+        assertEquals(List.of("SAVINGS", "customer-1", "100.50"),
+                AccountImportServiceImpl.splitCsv("SAVINGS, customer-1 ,100.50"));
+        assertEquals(List.of("single"), AccountImportServiceImpl.splitCsv("single"));
+        // Fin de línea Windows
+        assertEquals(List.of("a", "b"), AccountImportServiceImpl.splitCsv("a,b\r"));
+    }
+
+    @Test
+    void keepsEmptyColumns() {
+        assertEquals(List.of(""), AccountImportServiceImpl.splitCsv(""));
+        assertEquals(List.of("", "b", "", ""), AccountImportServiceImpl.splitCsv(",b,,"));
+    }
+
+    @Test
+    void quotedValuesMayContainCommasAndEscapedQuotes() {
+        assertEquals(List.of("CHECKING", "Pérez, Ana;García, Luis", "10"),
+                AccountImportServiceImpl.splitCsv("CHECKING,\"Pérez, Ana;García, Luis\",10"));
+        assertEquals(List.of("say \"hi\"", "x"), AccountImportServiceImpl.splitCsv("\"say \"\"hi\"\"\",x"));
+        assertEquals(List.of("", "b"), AccountImportServiceImpl.splitCsv("\"\",b"));
+        // Comillas en medio de un valor: se quitan y el resto se une
+        assertEquals(List.of("ab,c", "d"), AccountImportServiceImpl.splitCsv("a\"b,c\",d"));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEndOfTheLine() {
+        // La coma entre comillas no separa: faltará una columna y la línea se rechaza
+        assertEquals(List.of("a", "b,c"), AccountImportServiceImpl.splitCsv("a,\"b,c"));
+    }
+
+    @Test
+    void resumingWithTheSameImportIdNeverCreatesAnAccountTwice() {
+        List<String> owners = customersOwnedBy("p1", 2);
+        String other = customersOwnedBy("p2", 1).get(0);
+        List<String> lines = List.of(savings(owners.get(0)), savings(other), savings(owners.get(1)));
+
+        List<ImportResultDto> first = run(lines, "import-1", 0);
+        assertEquals(List.of(ImportResultDto.Status.CREATED, ImportResultDto.Status.CREATED,
+                ImportResultDto.Status.CHECKPOINT, ImportResultDto.Status.CREATED,
+                ImportResultDto.Status.CHECKPOINT, ImportResultDto.Status.COMPLETED), statuses(first));
+        assertEquals(List.of(2L, 3L), checkpoints(first));
+        Map<Long, String> created = accountNumbers(first);
+
+        // El cliente perdió el checkpoint y repite desde el principio: nada se crea otra vez
+        List<ImportResultDto> again = run(lines, "import-1", 0);
+        assertEquals(Set.of(ImportResultDto.Status.ALREADY_IMPORTED), lineStatuses(again));
+        assertEquals(created, accountNumbers(again));
+        assertEquals(3L, last(again).getImported());
+        assertEquals(3L, repository.count().block());
+
+        // Reanudar tras la línea 2 con una línea nueva al final
+        List<String> extended = new ArrayList<>(lines);
+        extended.add(checking(other));
+        List<ImportResultDto> resumed = run(extended, "import-1", 2);
+        assertEquals(List.of(ImportResultDto.Status.ALREADY_IMPORTED, ImportResultDto.Status.CREATED,
+                ImportResultDto.Status.CHECKPOINT, ImportResultDto.Status.COMPLETED), statuses(resumed));
+        assertEquals(List.of(3L, 4L), resumed.stream().map(ImportResultDto::getLine).limit(2).collect(Collectors.toList()));
+        assertEquals(created.get(3L), resumed.get(0).getAccountNumber());
+        assertEquals(4L, last(resumed).getLastCommittedLine());
+        assertEquals(4L, repository.count().block());
+    }
+
+    @Test
+    void duplicatesAndInvalidLinesAreRejectedWithoutStoppingTheBatch() {
+        String customer = customersOwnedBy("p1", 1).get(0);
+        String unknown = "customer-unknown";
+        List<ImportResultDto> results = run(List.of(
+                savings(customer),
+                savings(customer),
+                "{not json",
+                savings(unknown),
+                "{\"customerId\":\"" + customer + "\",\"balance\":10}",
+                checking(customer)), "import-1", 0);
+
+        Map<Long, ImportResultDto> byLine = byLine(results);
+        assertEquals(ImportResultDto.Status.CREATED, byLine.get(1L).getStatus());
+        // Segundo SAVINGS del mismo cliente personal dentro del mismo lote
+        assertEquals("Personal customers can only have one account of each type", byLine.get(2L).getError());
+        assertEquals(ImportResultDto.Status.REJECTED, byLine.get(3L).getStatus());
+        assertEquals("Customer not found with id: " + unknown, byLine.get(4L).getError());
+        assertEquals("type: Account type is required", byLine.get(5L).getError());
+        assertEquals(ImportResultDto.Status.CREATED, byLine.get(6L).getStatus());
+        assertEquals(2L, last(results).getImported());
+        assertEquals(4L, last(results).getRejected());
+
+        // Otra importación con el mismo fichero: las cuentas ya existen para el cliente
+        List<ImportResultDto> other = run(List.of(savings(customer)), "import-2", 0);
+        assertEquals("Personal customers can only have one account of each type", other.get(0).getError());
+        assertEquals(2L, repository.count().block());
+    }
+
+    @Test
+    void aUniqueIndexClashFallsBackToOneInsertPerAccount() {
+        List<String> p1 = customersOwnedBy("p1", 3);
+        List<String> p2 = customersOwnedBy("p2", 2);
+        // Una cuenta ajena en p1 ya tiene el número que recibirá la línea 2
+        AccountNumberAllocator twin = new AccountNumberAllocator(new InMemorySequenceBlockSource(), numberProperties);
+        twin.nextAccountNumber().block();
+        repository.insert(Account.builder().customerId(p1.get(2)).accountNumber(twin.nextAccountNumber().block())
+                .balance(Money.parse("1")).build()).block();
+        importService = importService(4);
+
+        List<ImportResultDto> results = run(List.of(savings(p1.get(0)), savings(p1.get(1)), savings(p2.get(0)),
+                savings(p2.get(1))), "import-1", 0);
+
+        Map<Long, ImportResultDto> byLine = byLine(results);
+        assertEquals(ImportResultDto.Status.CREATED, byLine.get(1L).getStatus());
+        assertEquals("Duplicate key: account already exists", byLine.get(2L).getError());
+        // Las cuentas de la otra partición se insertan aunque la de p1 fallara antes
+        assertEquals(ImportResultDto.Status.CREATED, byLine.get(3L).getStatus());
+        assertEquals(ImportResultDto.Status.CREATED, byLine.get(4L).getStatus());
+        assertEquals(4L, repository.count().block());
+        assertEquals(Set.of(byLine.get(1L).getAccountId(), byLine.get(3L).getAccountId(), byLine.get(4L).getAccountId()),
+                repository.findAllById(List.of(AccountImportServiceImpl.accountId("import-1", 1),
+                                AccountImportServiceImpl.accountId("import-1", 2),
+                                AccountImportServiceImpl.accountId("import-1", 3),
+                                AccountImportServiceImpl.accountId("import-1", 4)))
+                        .map(Account::getId).collect(Collectors.toSet()).block());
+
+        // Al repetir, la línea rechazada sigue rechazada y las demás constan como importadas
+        List<ImportResultDto> again = run(List.of(savings(p1.get(0)), savings(p1.get(1)), savings(p2.get(0)),
+                savings(p2.get(1))), "import-1", 0);
+        assertEquals(List.of(ImportResultDto.Status.ALREADY_IMPORTED, ImportResultDto.Status.CREATED,
+                        ImportResultDto.Status.ALREADY_IMPORTED, ImportResultDto.Status.ALREADY_IMPORTED),
+                again.stream().filter(result -> result.getLine() != null).map(ImportResultDto::getStatus)
+                        .collect(Collectors.toList()));
+    }
+
+    // Perfil REGULAR: ninguna línea necesita consultar ms-credit-card
+    private AccountImportServiceImpl importService(int batchSize) {
+        AccountImportProperties properties = new AccountImportProperties();
+        properties.setBatchSize(batchSize);
+        return new AccountImportServiceImpl(repository, customerService, null, accountService,
+                new AccountNumberAllocator(new InMemorySequenceBlockSource(), numberProperties), properties,
+                Jackson2ObjectMapperBuilder.json().build(), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private List<ImportResultDto> run(List<String> lines, String importId, long afterLine) {
+        String body = String.join("\n", lines) + "\n";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // Dos fragmentos cortados a mitad de línea, como llegan por la red
+        int half = bytes.length / 2;
+        DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+        Flux<DataBuffer> buffers = Flux.just(Arrays.copyOfRange(bytes, 0, half),
+                        Arrays.copyOfRange(bytes, half, bytes.length))
+                .map(factory::wrap);
+        return importService.importAccounts(buffers, AccountImportService.Format.NDJSON, importId, afterLine)
+                .collectList().block();
+    }
+
+    private String savings(String customerId) {
+        return account("SAVINGS", customerId);
+    }
+
+    private String checking(String customerId) {
+        return account("CHECKING", customerId);
+    }
+
+    private String account(String type, String customerId) {
+        if (!customerId.endsWith("unknown")) {
+            CustomerDetails details = new CustomerDetails();
+            details.setId(customerId);
+            details.setType(CustomerType.PERSONAL);
+            details.setProfile(CustomerProfile.REGULAR);
+            customers.put(customerId, details);
+        }
+        return "{\"type\":\"" + type + "\",\"customerId\":\"" + customerId + "\",\"balance\":100}";
+    }
+
+    private List<String> customersOwnedBy(String partition, int count) {
+        List<String> owned = new ArrayList<>();
+        for (int i = 0; owned.size() < count; i++) {
+            if (partitions.forKey("customer-" + i).getName().equals(partition)) {
+                owned.add("customer-" + i);
+            }
+        }
+        return owned;
+    }
+
+    private static List<ImportResultDto.Status> statuses(List<ImportResultDto> results) {
+        return results.stream().map(ImportResultDto::getStatus).collect(Collectors.toList());
+    }
+
+    private static Set<ImportResultDto.Status> lineStatuses(List<ImportResultDto> results) {
+        return results.stream().filter(result -> result.getLine() != null)
+                .map(ImportResultDto::getStatus).collect(Collectors.toSet());
+    }
+
+    private static List<Long> checkpoints(List<ImportResultDto> results) {
+        return results.stream().filter(result -> result.getStatus() == ImportResultDto.Status.CHECKPOINT)
+                .map(ImportResultDto::getLastCommittedLine).collect(Collectors.toList());
+    }
+
+    private static Map<Long, String> accountNumbers(List<ImportResultDto> results) {
+        return results.stream().filter(result -> result.getAccountNumber() != null)
+                .collect(Collectors.toMap(ImportResultDto::getLine, ImportResultDto::getAccountNumber));
+    }
+
+    private static Map<Long, ImportResultDto> byLine(List<ImportResultDto> results) {
+        return results.stream().filter(result -> result.getLine() != null)
+                .collect(Collectors.toMap(ImportResultDto::getLine, result -> result));
+    }
+
+    private static ImportResultDto last(List<ImportResultDto> results) {
+        return results.get(results.size() - 1);
+    }
+}
@@ -0,0 +1,268 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
+import com.nttdata.bankapp.msaccountservice.config.DecimalConverters;
+import com.nttdata.bankapp.msaccountservice.dto.BalanceDto;
+import com.nttdata.bankapp.msaccountservice.dto.BatchGetResultDto;
+import com.nttdata.bankapp.msaccountservice.dto.PortfolioDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartition;
+import com.nttdata.bankapp.msaccountservice.partitioning.MongoPartitions;
+import com.nttdata.bankapp.msaccountservice.partitioning.PartitioningProperties;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.repository.AccountRepository;
+import com.nttdata.bankapp.msaccountservice.repository.partitioned.PartitionedAccountRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// AccountServiceImpl con el repositorio de Spring Data sobre mongo-java-server: batch-get (@Query) y cartera (@Aggregation)
+class AccountServiceImplMongoTest {
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private AccountRepository repository;
+    private BatchGetProperties batchGetProperties;
+    private AccountServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+
+        MongoCustomConversions conversions = new MongoCustomConversions(DecimalConverters.converters());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        template = new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(client, "accounts"), converter);
+
+        repository = new ReactiveMongoRepositoryFactory(template).getRepository(AccountRepository.class);
+        batchGetProperties = new BatchGetProperties();
+        service = new AccountServiceImpl(repository, null, null, null, batchGetProperties,
+                new BalanceEventPublisher(new BalanceEventsProperties()), new InMemoryCommissionEventStore(),
+                new RejectionMetrics());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void batchGetRequiresAtLeastOneId() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.getBalances(List.of()).block());
+        assertEquals("At least one account id is required", error.getMessage());
+        // Vacíos y null no cuentan como IDs
+        assertThrows(IllegalArgumentException.class, () -> service.getBalances(Arrays.asList(null, " ")).block());
+        assertThrows(IllegalArgumentException.class, () -> service.findByIds(null).block());
+    }
+
+    @Test
+    void batchGetAcceptsUpToMaxIdsUniqueIds() {
+        batchGetProperties.setMaxIds(3);
+        // Cinco entradas, tres IDs distintos: justo en el límite
+        BatchGetResultDto<BalanceDto> atLimit = service.getBalances(List.of("a", " a ", "b", "c", "a")).block();
+        assertEquals(3, atLimit.getRequested());
+        assertEquals(0, atLimit.getFound());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.getBalances(List.of("a", "b", "c", "d")).block());
+        assertEquals("Too many account ids: 4 (maximum 3)", error.getMessage());
+    }
+
+    @Test
+    void batchGetKeepsTheRequestOrderAndMarksMissingIds() {
+        Account savings = repository.save(account(AccountType.SAVINGS, "100.50")).block();
+        Account checking = repository.save(account(AccountType.CHECKING, "20")).block();
+        List<String> ids = List.of(checking.getId(), "missing", savings.getId());
+
+        BatchGetResultDto<BalanceDto> balances = service.getBalances(ids).block();
+        assertEquals(ids, new ArrayList<>(balances.getResults().keySet()));
+        assertEquals(3, balances.getRequested());
+        assertEquals(2, balances.getFound());
+        assertFalse(balances.getResults().get("missing").isFound());
+        assertNull(balances.getResults().get("missing").getValue());
+
+        BalanceDto savingsBalance = balances.getResults().get(savings.getId()).getValue();
+        assertEquals(new BigDecimal("100.50"), savingsBalance.getBalance());
+        assertEquals(3, savingsBalance.getRemainingMonthlyMovements());
+        assertEquals(4, savingsBalance.getRemainingFreeTransactions());
+        assertEquals(new BigDecimal("1.50"), savingsBalance.getTransactionFee());
+        // Solo las de ahorro tienen límite de movimientos
+        assertNull(balances.getResults().get(checking.getId()).getValue().getRemainingMonthlyMovements());
+
+        // findByIds devuelve la cuenta completa; findBalancesByIdIn solo los campos del saldo
+        assertEquals("customer-1", service.findByIds(ids).block().getResults().get(savings.getId()).getValue()
+                .getCustomerId());
+        assertNull(repository.findBalancesByIdIn(List.of(savings.getId())).blockFirst().getCustomerId());
+    }
+
+    @Test
+    void batchGetResolvesManyIdsWithOneQuery() {
+        List<String> ids = IntStream.range(0, batchGetProperties.getMaxIds())
+                .mapToObj(i -> repository.save(account(AccountType.CHECKING, String.valueOf(i))).block().getId())
+                .collect(Collectors.toList());
+
+        BatchGetResultDto<BalanceDto> balances = service.getBalances(ids).block();
+        assertEquals(batchGetProperties.getMaxIds(), balances.getFound());
+        assertTrue(balances.getResults().values().stream().allMatch(BatchGetResultDto.Item::isFound));
+        assertEquals(new BigDecimal("99.00"), balances.getResults().get(ids.get(99)).getValue().getBalance());
+    }
+
+    @Test
+    void portfolioOfACustomerWithoutAccountsIsEmpty() {
+        repository.save(account(AccountType.SAVINGS, "10")).block();
+
+        // La agregación de Spring Data y el cálculo en Java dan la misma cartera vacía
+        for (AccountServiceImpl portfolios : List.of(service, summarizingService())) {
+            PortfolioDto portfolio = portfolios.getPortfolio("customer-2").block();
+            assertEquals("customer-2", portfolio.getCustomerId());
+            assertEquals(0, portfolio.getTotalAccounts());
+            assertEquals(new BigDecimal("0.00"), portfolio.getTotalBalance());
+            assertEquals(0, portfolio.getRemainingFreeTransactions());
+            assertTrue(portfolio.getByType().isEmpty());
+            assertTrue(portfolio.getUpcomingWithdrawals().isEmpty());
+        }
+    }
+
+    @Test
+    void portfolioCountersOnlyCountFromTheFirstDayOfTheMonth() {
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        // Reseteada justo el día 1: los contadores son del mes en curso
+        Account current = account(AccountType.SAVINGS, "10");
+        current.setLastTransactionCountResetDate(firstOfMonth);
+        repository.save(current).block();
+        // Reseteada el mes anterior: cuentan como 0, igual que al operar con la cuenta
+        Account stale = account(AccountType.CHECKING, "20");
+        stale.setLastTransactionCountResetDate(firstOfMonth.minusDays(1));
+        repository.save(stale).block();
+        // Contador por encima del máximo: lo restante no baja de 0
+        Account exhausted = account(AccountType.CHECKING, "30");
+        exhausted.setLastTransactionCountResetDate(firstOfMonth);
+        exhausted.setCurrentMonthlyTransactions(9);
+        repository.save(exhausted).block();
+
+        PortfolioDto portfolio = summarizingService().getPortfolio("customer-1").block();
+        PortfolioDto.TypeTotals savings = portfolio.getByType().get(AccountType.SAVINGS);
+        assertEquals(4, savings.getRemainingFreeTransactions());
+        assertEquals(3, savings.getRemainingMonthlyMovements());
+        PortfolioDto.TypeTotals checking = portfolio.getByType().get(AccountType.CHECKING);
+        assertEquals(5, checking.getRemainingFreeTransactions());
+        assertEquals(0, checking.getRemainingMonthlyMovements());
+        assertEquals(9, portfolio.getRemainingFreeTransactions());
+    }
+
+    @Test
+    void portfolioAddsUpEveryAccountTypeOfTheCustomer() {
+        LocalDate today = LocalDate.now();
+        repository.save(account(AccountType.SAVINGS, "100.25")).block();
+        repository.save(account(AccountType.CHECKING, "10")).block();
+        repository.save(account(AccountType.CHECKING, "0.75")).block();
+        Account late = fixedTerm("1000", LocalDate.of(2024, 1, 31));
+        Account early = fixedTerm("500", LocalDate.of(2024, 1, 1));
+        repository.save(late).block();
+        repository.save(early).block();
+        // Documento antiguo con el saldo como String
+        template.insert(new Document("_id", "legacy").append("type", "CHECKING").append("customerId", "customer-1")
+                .append("balance", "4.5"), "accounts").block();
+        Account other = account(AccountType.SAVINGS, "999");
+        other.setCustomerId("customer-2");
+        repository.save(other).block();
+
+        PortfolioDto portfolio = summarizingService().getPortfolio("customer-1").block();
+        assertEquals(6, portfolio.getTotalAccounts());
+        assertEquals(new BigDecimal("1615.50"), portfolio.getTotalBalance());
+        assertEquals(Map.of(AccountType.SAVINGS, 1, AccountType.CHECKING, 3, AccountType.FIXED_TERM, 2),
+                portfolio.getByType().entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getAccounts())));
+        assertEquals(new BigDecimal("15.25"), portfolio.getByType().get(AccountType.CHECKING).getBalance());
+        assertEquals(new BigDecimal("1500.00"), portfolio.getByType().get(AccountType.FIXED_TERM).getBalance());
+
+        // Solo las de plazo fijo, ordenadas por la próxima fecha de retiro
+        assertEquals(List.of(
+                        new PortfolioDto.UpcomingWithdrawal(early.getId(), "FT-500",
+                                AccountServiceImpl.nextWithdrawalDate(1, today)),
+                        new PortfolioDto.UpcomingWithdrawal(late.getId(), "FT-1000",
+                                AccountServiceImpl.nextWithdrawalDate(31, today)))
+                        .stream().sorted(Comparator.comparing(PortfolioDto.UpcomingWithdrawal::getDate))
+                        .collect(Collectors.toList()),
+                portfolio.getUpcomingWithdrawals());
+    }
+
+    /**
+     * mongo-java-server no admite $toDecimal, que usa la agregación de summarizeByCustomerId con
+     * cuentas: la cartera se calcula con AccountSummaries, como en el perfil partitioned, sobre los
+     * mismos documentos.
+     */
+    private AccountServiceImpl summarizingService() {
+        PartitioningProperties properties = new PartitioningProperties();
+        MongoPartitions partitions = new MongoPartitions(List.of(new MongoPartition("default", template)), properties,
+                List.of());
+        return new AccountServiceImpl(new PartitionedAccountRepository(partitions, properties), null, null, null,
+                batchGetProperties, new BalanceEventPublisher(new BalanceEventsProperties()),
+                new InMemoryCommissionEventStore(), new RejectionMetrics());
+    }
+
+    private static Account fixedTerm(String balance, LocalDate withdrawalDay) {
+        Account account = account(AccountType.FIXED_TERM, balance);
+        account.setAccountNumber("FT-" + balance);
+        account.setWithdrawalDay(withdrawalDay);
+        return account;
+    }
+
+    private static Account account(AccountType type, String balance) {
+        return Account.builder()
+                .type(type)
+                .customerId("customer-1")
+                .balance(Money.parse(balance))
+                .maxFreeTransactions(5)
+                .currentMonthlyTransactions(1)
+                .transactionFee(Money.parse("1.5"))
+                .maxMonthlyMovements(type == AccountType.SAVINGS ? 5 : null)
+                .currentMonthlyMovements(2)
+                .lastTransactionCountResetDate(LocalDate.now().withDayOfMonth(1))
+                .build();
+    }
+}
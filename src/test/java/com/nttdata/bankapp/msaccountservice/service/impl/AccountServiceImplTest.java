@@ -0,0 +1,86 @@
+package com.nttdata.bankapp.msaccountservice.service.impl;
+
+import com.nttdata.bankapp.msaccountservice.commission.InMemoryCommissionEventStore;
+import com.nttdata.bankapp.msaccountservice.config.BatchGetProperties;
+import com.nttdata.bankapp.msaccountservice.dto.AccountDto;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventPublisher;
+import com.nttdata.bankapp.msaccountservice.events.BalanceEventsProperties;
+import com.nttdata.bankapp.msaccountservice.model.Account;
+import com.nttdata.bankapp.msaccountservice.model.AccountType;
+import com.nttdata.bankapp.msaccountservice.model.Money;
+import com.nttdata.bankapp.msaccountservice.rejection.RejectionMetrics;
+import com.nttdata.bankapp.msaccountservice.repository.inmemory.InMemoryAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Importes que no caben en céntimos: error de la señal con IllegalArgumentException (400)
+class AccountServiceImplTest {
+
+    // Un céntimo más que Long.MAX_VALUE céntimos
+    private static final BigDecimal OVERFLOW =
+            BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(Money.SCALE).add(new BigDecimal("0.01"));
+
+    private InMemoryAccountRepository repository;
+    private AccountServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryAccountRepository(Duration.ZERO);
+        service = new AccountServiceImpl(repository, null, null, null, new BatchGetProperties(),
+                new BalanceEventPublisher(new BalanceEventsProperties()), new InMemoryCommissionEventStore(),
+                new RejectionMetrics());
+    }
+
+    @Test
+    void overflowingFeeFailsTheSignalWithoutTouchingTheAccount() {
+        Account account = repository.save(account("100")).block();
+
+        Mono<AccountDto> charged = service.incrementTransactionCount(account.getId(), OVERFLOW);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, charged::block);
+        assertTrue(error.getMessage().contains("out of range"));
+        assertEquals(0, repository.findById(account.getId()).block().getCurrentMonthlyTransactions());
+
+        // Sin comisión solo se cuenta la transacción
+        AccountDto counted = service.incrementTransactionCount(account.getId(), null).block();
+        assertEquals(1, counted.getCurrentMonthlyTransactions());
+        assertEquals(new BigDecimal("100.00"), counted.getBalance());
+    }
+
+    @Test
+    void overflowingUpdateAmountIsRejectedWithTheFieldName() {
+        Account account = repository.save(account("100")).block();
+        AccountDto update = AccountDto.builder().minimumDailyBalance(OVERFLOW).build();
+
+        Mono<AccountDto> updated = service.update(account.getId(), update);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, updated::block);
+        assertTrue(error.getMessage().startsWith("minimumDailyBalance is out of range"));
+    }
+
+    @Test
+    void overflowingBalanceIsRejectedWhenMappingANewAccount() {
+        AccountDto accountDto = AccountDto.builder().type(AccountType.SAVINGS).customerId("customer-1")
+                .balance(OVERFLOW).build();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.mapToEntity(accountDto));
+        assertTrue(error.getMessage().startsWith("balance is out of range"));
+    }
+
+    private static Account account(String balance) {
+        return Account.builder()
+                .type(AccountType.CHECKING)
+                .customerId("customer-1")
+                .balance(Money.parse(balance))
+                .currentMonthlyTransactions(0)
+                .maxFreeTransactions(5)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.nttdata.bankapp.msaccountservice.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Cabecera traceparent y decisión de muestreo de cabecera y de cola
+class TracingTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    private TracingProperties properties;
+    private Tracer tracer;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TracingProperties();
+        properties.setHeadSampleRate(0);
+        properties.setSlowThreshold(Duration.ofMillis(50));
+        tracer = new Tracer(properties, new ObjectMapper());
+        registry = new SimpleMeterRegistry();
+        tracer.bindTo(registry);
+    }
+
+    @Test
+    void parsesValidTraceParents() {
+        TraceParent sampled = TraceParent.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertNotNull(sampled);
+        assertEquals(TRACE_ID, sampled.getTraceId());
+        assertEquals(PARENT_ID, sampled.getParentId());
+        assertTrue(sampled.isSampled());
+
+        assertFalse(TraceParent.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-00").isSampled());
+        // Solo cuenta el bit sampled de los flags
+        assertTrue(TraceParent.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-03").isSampled());
+        assertFalse(TraceParent.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-02").isSampled());
+        // Versiones futuras pueden añadir campos tras un guion
+        assertNotNull(TraceParent.parse("01-" + TRACE_ID + "-" + PARENT_ID + "-01-extra"));
+        assertNotNull(TraceParent.parse(" 00-" + TRACE_ID + "-" + PARENT_ID + "-01 "));
+    }
+
+    @Test
+    void rejectsInvalidTraceParents() {
+        List<String> invalid = List.of(
+                "",
+                "00-" + TRACE_ID + "-" + PARENT_ID,
+                "ff-" + TRACE_ID + "-" + PARENT_ID + "-01",
+                "00-00000000000000000000000000000000-" + PARENT_ID + "-01",
+                "00-" + TRACE_ID + "-0000000000000000-01",
+                "00-" + TRACE_ID.replace('b', 'g') + "-" + PARENT_ID + "-01",
+                "00_" + TRACE_ID + "-" + PARENT_ID + "-01",
+                "00-" + TRACE_ID + "-" + PARENT_ID + "-0z",
+                // La versión 00 tiene longitud fija
+                "00-" + TRACE_ID + "-" + PARENT_ID + "-01-extra",
+                "01-" + TRACE_ID + "-" + PARENT_ID + "-01extra");
+        invalid.forEach(header -> assertNull(TraceParent.parse(header), header));
+        assertNull(TraceParent.parse(null));
+    }
+
+    @Test
+    void generatedIdsFormatAValidTraceParent() {
+        String traceId = TraceParent.newTraceId();
+        String spanId = TraceParent.newSpanId();
+        assertEquals(32, traceId.length());
+        assertEquals(16, spanId.length());
+
+        TraceParent parsed = TraceParent.parse(TraceParent.format(traceId, spanId, true));
+        assertNotNull(parsed);
+        assertEquals(traceId, parsed.getTraceId());
+        assertEquals(spanId, parsed.getParentId());
+        assertTrue(parsed.isSampled());
+        assertFalse(TraceParent.parse(TraceParent.format(traceId, spanId, false)).isSampled());
+    }
+
+    @Test
+    void incomingSampledFlagDecidesTheHeadSample() {
+        Trace trace = tracer.startTrace("00-" + TRACE_ID + "-" + PARENT_ID + "-01", "vendor=value");
+        assertEquals(TRACE_ID, trace.getTraceId());
+        assertEquals(PARENT_ID, trace.getRoot().getParentId());
+        assertEquals("vendor=value", trace.getTraceState());
+        tracer.finishTrace(trace, "GET /accounts/{id}", false);
+        assertEquals(Tracer.HEAD, trace.getDecision());
+
+        // Una cabecera inválida empieza una traza nueva y no reenvía tracestate
+        Trace fresh = tracer.startTrace("garbage", "vendor=value");
+        assertNotEquals(TRACE_ID, fresh.getTraceId());
+        assertNull(fresh.getRoot().getParentId());
+        assertNull(fresh.getTraceState());
+        assertFalse(fresh.isSampled());
+
+        properties.setHeadSampleRate(1);
+        assertTrue(tracer.startTrace(null, null).isSampled());
+    }
+
+    @Test
+    void tailSamplingKeepsSlowAndFailedTraces() throws InterruptedException {
+        Trace fast = tracer.startTrace(null, null);
+        tracer.finishTrace(fast, "fast", false);
+        Trace failed = tracer.startTrace(null, null);
+        tracer.finishTrace(failed, "failed", true);
+        Trace slow = tracer.startTrace(null, null);
+        Thread.sleep(60);
+        tracer.finishTrace(slow, "slow", false);
+        properties.setKeepErrors(false);
+        Trace ignoredError = tracer.startTrace(null, null);
+        tracer.finishTrace(ignoredError, "ignored", true);
+
+        assertNull(fast.getDecision());
+        assertEquals(Tracer.ERROR, failed.getDecision());
+        assertEquals(Tracer.SLOW, slow.getDecision());
+        assertNull(ignoredError.getDecision());
+        assertEquals(List.of("slow", "failed"), names(tracer.getRecentTraces()));
+        assertEquals(2.0, traces(Tracer.DROPPED));
+        assertEquals(1.0, traces(Tracer.SLOW));
+        assertEquals(1.0, traces(Tracer.ERROR));
+        assertEquals(0.0, traces(Tracer.HEAD));
+    }
+
+    @Test
+    void bufferKeepsTheMostRecentTracesAndSpansAreCapped() {
+        properties.setBufferSize(2);
+        properties.setMaxSpansPerTrace(2);
+        Trace trace = null;
+        for (int i = 0; i < 3; i++) {
+            trace = tracer.startTrace(null, null);
+            tracer.finishTrace(trace, "trace-" + i, true);
+        }
+        assertEquals(List.of("trace-2", "trace-1"), names(tracer.getRecentTraces()));
+
+        for (int i = 0; i < 3; i++) {
+            Span span = tracer.startSpan(trace, "mongo", Span.Kind.CLIENT);
+            if (span != null) {
+                tracer.finishSpan(trace, span);
+            }
+        }
+        assertEquals(3, trace.getSpans().size());
+        assertEquals(1.0, registry.get("tracing.spans.dropped").functionCounter().count());
+    }
+
+    private double traces(String decision) {
+        return registry.get("tracing.traces").tag("decision", decision).functionCounter().count();
+    }
+
+    private static List<String> names(List<Trace> traces) {
+        return traces.stream().map(trace -> trace.getRoot().getName()).collect(Collectors.toList());
+    }
+}